@@ -0,0 +1,455 @@
+package com.smartsupply.config;
+
+import com.smartsupply.entity.MovementType;
+import com.smartsupply.entity.OrderStatus;
+import com.smartsupply.entity.WarehouseType;
+import com.smartsupply.service.InventoryValuationService;
+import com.smartsupply.service.MovementArchiveService;
+import com.smartsupply.service.MovementJournalService;
+import com.smartsupply.service.SearchSuggestService;
+import com.smartsupply.service.SupplierCatalogService;
+import com.smartsupply.service.WarehouseCapacityService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Load Test Data Generator - Large synthetic dataset for performance work.
+ *
+ * Scale is set under loadtest.* (see application-loadtest.yml). Everything derives from
+ * loadtest.seed and loadtest.anchor-date, so two runs with the same settings produce the same
+ * rows, ids included. Item and product popularity follow a Zipf distribution over a shuffled
+ * rank, so a few SKUs carry most of the movements, as in real warehouses.
+ *
+ * Rows go in through JDBC batches (reWriteBatchedInserts turns them into multi-row INSERTs),
+ * bypassing JPA entirely.
+ *
+ * Activated by the 'loadtest' profile - it TRUNCATES all business tables first, and deletes the
+ * movement archive segments and the movement journal, which would otherwise be replayed onto the
+ * new rows (same ids every run):
+ * Run with: mvn spring-boot:run -Dspring-boot.run.profiles=loadtest
+ */
+@Component
+@Profile("loadtest")
+@Order(1)
+@RequiredArgsConstructor
+@Slf4j
+public class LoadTestDataGenerator implements CommandLineRunner {
+
+    private static final String[] CATEGORIES = {
+            "Electronics", "Food", "Beverages", "Household", "Office", "Tools", "Clothing", "Health"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WarehouseCapacityService warehouseCapacityService;
+    private final InventoryValuationService inventoryValuationService;
+    private final SupplierCatalogService supplierCatalogService;
+    private final SearchSuggestService searchSuggestService;
+    private final MovementArchiveService movementArchiveService;
+    private final MovementJournalService movementJournalService;
+
+    @Value("${loadtest.seed:42}")
+    private long seed;
+
+    @Value("${loadtest.anchor-date:2025-01-01}")
+    private String anchor;
+
+    @Value("${loadtest.days:365}")
+    private int days;
+
+    @Value("${loadtest.warehouses:20}")
+    private int warehouseCount;
+
+    @Value("${loadtest.suppliers:500}")
+    private int supplierCount;
+
+    @Value("${loadtest.products:50000}")
+    private int productCount;
+
+    @Value("${loadtest.offers-per-product:3}")
+    private int offersPerProduct;
+
+    @Value("${loadtest.warehouses-per-product:3}")
+    private int warehousesPerProduct;
+
+    @Value("${loadtest.purchase-orders:100000}")
+    private int purchaseOrderCount;
+
+    @Value("${loadtest.movements:10000000}")
+    private long movementCount;
+
+    @Value("${loadtest.zipf-exponent:1.07}")
+    private double zipfExponent;
+
+    @Value("${loadtest.batch-size:5000}")
+    private int batchSize;
+
+    // Fixed end of the generated history, so "now" never leaks into the data
+    private LocalDate anchorDate;
+
+    @Override
+    public void run(String... args) {
+        anchorDate = LocalDate.parse(anchor);
+        long started = System.currentTimeMillis();
+        log.info("Generating load test data (seed {}, {} products, {} movements)...", seed, productCount, movementCount);
+
+        truncate();
+        String[] warehouseIds = generateWarehouses();
+        String[] supplierIds = generateSuppliers();
+        BigDecimal[] prices = new BigDecimal[productCount];
+        String[] productIds = generateProducts(prices);
+        generateSupplierCatalog(supplierIds, productIds, prices);
+        Items items = generateInventoryItems(productIds, warehouseIds);
+        generatePurchaseOrders(supplierIds, productIds, prices);
+        generateMovements(items);
+        warehouseCapacityService.recalculate();
+        inventoryValuationService.backfill();
+        supplierCatalogService.rebuild();
+        searchSuggestService.rebuild();
+
+        log.info("Load test data complete in {} s", (System.currentTimeMillis() - started) / 1000);
+    }
+
+    private void truncate() {
+        log.warn("Truncating all business tables for the load test dataset");
+        jdbcTemplate.execute("TRUNCATE TABLE outbox_events, demand_forecasts, supplier_performance, supplier_products, " +
+                "inventory_movements, " +
+                "inventory_items, purchase_order_items, purchase_orders, products, suppliers, warehouses CASCADE");
+        // Runners finish before ApplicationReadyEvent, so the journal has not been replayed yet
+        movementJournalService.discard();
+        movementArchiveService.deleteAll();
+    }
+
+    // ==================== WAREHOUSES / SUPPLIERS / PRODUCTS ====================
+
+    private String[] generateWarehouses() {
+        SplittableRandom random = random(1);
+        String[] ids = new String[warehouseCount];
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < warehouseCount; i++) {
+            ids[i] = id(1, i);
+            WarehouseType type = i % 10 == 9 ? WarehouseType.VIRTUAL : WarehouseType.PHYSICAL;
+            rows.add(new Object[]{ids[i], "Warehouse " + (i + 1), "Site " + (i + 1), type.name(),
+                    1_000_000 + random.nextInt(4_000_000)});
+        }
+        insert("INSERT INTO warehouses (id, name, location, type, capacity) VALUES (?, ?, ?, ?, ?)", rows);
+        log.info("   - {} warehouses", warehouseCount);
+        return ids;
+    }
+
+    private String[] generateSuppliers() {
+        String[] ids = new String[supplierCount];
+        Timestamp createdAt = Timestamp.valueOf(anchorDate.minusDays(days).atStartOfDay());
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < supplierCount; i++) {
+            ids[i] = id(2, i);
+            rows.add(new Object[]{ids[i], "Supplier " + (i + 1), "supplier" + (i + 1) + "@loadtest.local",
+                    "+359 2 " + (1_000_000 + i), "Address " + (i + 1), "Contact " + (i + 1), createdAt});
+        }
+        insert("INSERT INTO suppliers (id, name, email, phone, address, contact_person, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+        log.info("   - {} suppliers", supplierCount);
+        return ids;
+    }
+
+    private String[] generateProducts(BigDecimal[] prices) {
+        SplittableRandom random = random(3);
+        String[] ids = new String[productCount];
+        Timestamp createdAt = Timestamp.valueOf(anchorDate.minusDays(days).atStartOfDay());
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        for (int i = 0; i < productCount; i++) {
+            ids[i] = id(3, i);
+            prices[i] = BigDecimal.valueOf(50 + random.nextInt(50_000), 2);
+            rows.add(new Object[]{ids[i], String.format("LT-%07d", i), "Load test product " + (i + 1),
+                    CATEGORIES[random.nextInt(CATEGORIES.length)], prices[i], random.nextInt(200), createdAt, createdAt});
+            if (rows.size() == batchSize) {
+                insertProducts(rows);
+            }
+        }
+        insertProducts(rows);
+        log.info("   - {} products", productCount);
+        return ids;
+    }
+
+    private void insertProducts(List<Object[]> rows) {
+        insert("INSERT INTO products (id, sku, name, category, price, safety_stock, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * Each product is offered by up to offers-per-product distinct suppliers, priced around
+     * list price with lead times of 2-30 days; cheaper offers tend to be slower.
+     */
+    private void generateSupplierCatalog(String[] supplierIds, String[] productIds, BigDecimal[] prices) {
+        SplittableRandom random = random(9);
+        int perProduct = Math.min(offersPerProduct, supplierIds.length);
+        Timestamp createdAt = Timestamp.valueOf(anchorDate.minusDays(days).atStartOfDay());
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        long n = 0;
+        for (int p = 0; p < productIds.length; p++) {
+            int offers = 1 + random.nextInt(perProduct);
+            int start = random.nextInt(supplierIds.length);
+            int stride = 1 + random.nextInt(Math.max(1, supplierIds.length / perProduct));
+            for (int k = 0; k < offers; k++) {
+                int discount = random.nextInt(25);
+                BigDecimal unitPrice = prices[p].multiply(BigDecimal.valueOf(110 - discount))
+                        .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+                int leadTime = 2 + discount / 2 + random.nextInt(17);
+                int moq = 10 * (1 + random.nextInt(10));
+                rows.add(new Object[]{id(9, n++), supplierIds[(start + k * stride) % supplierIds.length], productIds[p],
+                        unitPrice, leadTime, moq, createdAt, createdAt});
+                if (rows.size() == batchSize) {
+                    insertCatalog(rows);
+                }
+            }
+        }
+        insertCatalog(rows);
+        log.info("   - {} supplier catalog offers", n);
+    }
+
+    private void insertCatalog(List<Object[]> rows) {
+        insert("INSERT INTO supplier_products (id, supplier_id, product_id, unit_price, lead_time_days, min_order_quantity, " +
+                "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    // ==================== INVENTORY ITEMS ====================
+
+    private record Items(String[] ids, int[] product, int[] quantity) {
+    }
+
+    private Items generateInventoryItems(String[] productIds, String[] warehouseIds) {
+        SplittableRandom random = random(4);
+        int perProduct = Math.min(warehousesPerProduct, warehouseIds.length);
+        int count = productIds.length * perProduct;
+        String[] ids = new String[count];
+        int[] product = new int[count];
+        int[] quantity = new int[count];
+
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        int n = 0;
+        for (int p = 0; p < productIds.length; p++) {
+            // perProduct consecutive warehouses from a random start: distinct, no rejection sampling
+            int start = random.nextInt(warehouseIds.length);
+            for (int k = 0; k < perProduct; k++) {
+                ids[n] = id(4, n);
+                product[n] = p;
+                quantity[n] = 100 + random.nextInt(900);
+                rows.add(new Object[]{ids[n], productIds[p], warehouseIds[(start + k) % warehouseIds.length], quantity[n], 0});
+                n++;
+                if (rows.size() == batchSize) {
+                    insertItems(rows);
+                }
+            }
+        }
+        insertItems(rows);
+        log.info("   - {} inventory items", count);
+        return new Items(ids, product, quantity);
+    }
+
+    private void insertItems(List<Object[]> rows) {
+        insert("INSERT INTO inventory_items (id, product_id, warehouse_id, quantity, reserved) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
+    // ==================== PURCHASE ORDERS ====================
+
+    private void generatePurchaseOrders(String[] supplierIds, String[] productIds, BigDecimal[] prices) {
+        SplittableRandom random = random(5);
+        Zipf productPopularity = new Zipf(productIds.length, zipfExponent, random(6));
+        LocalDateTime windowStart = anchorDate.minusDays(days).atStartOfDay();
+        long windowMinutes = (long) days * 1440;
+
+        List<Object[]> orders = new ArrayList<>(batchSize);
+        List<Object[]> lines = new ArrayList<>(batchSize);
+        long lineId = 0;
+        for (int i = 0; i < purchaseOrderCount; i++) {
+            String orderId = id(5, i);
+            LocalDateTime createdAt = windowStart.plusMinutes(random.nextLong(windowMinutes));
+            int roll = random.nextInt(100);
+            OrderStatus status = roll < 60 ? OrderStatus.RECEIVED
+                    : roll < 80 ? OrderStatus.SENT
+                    : roll < 90 ? OrderStatus.DRAFT
+                    : OrderStatus.CANCELLED;
+
+            BigDecimal total = BigDecimal.ZERO;
+            int lineCount = 1 + random.nextInt(5);
+            for (int l = 0; l < lineCount; l++) {
+                int p = productPopularity.sample();
+                int ordered = 10 * (1 + random.nextInt(50));
+                int received = status == OrderStatus.RECEIVED ? ordered
+                        : status == OrderStatus.SENT ? random.nextInt(ordered / 2 + 1)
+                        : 0;
+                // Supplier prices land around list price, mostly a bit below
+                BigDecimal unitPrice = prices[p].multiply(BigDecimal.valueOf(85 + random.nextInt(25)))
+                        .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+                total = total.add(unitPrice.multiply(BigDecimal.valueOf(ordered)));
+                lines.add(new Object[]{id(6, lineId++), orderId, productIds[p], ordered, received, unitPrice});
+            }
+
+            orders.add(new Object[]{orderId, String.format("LT-PO-%08d", i + 1), supplierIds[random.nextInt(supplierIds.length)],
+                    status.name(), total, Date.valueOf(createdAt.toLocalDate().plusDays(7 + random.nextInt(15))),
+                    Timestamp.valueOf(createdAt)});
+
+            if (orders.size() >= batchSize) {
+                insertOrders(orders, lines);
+            }
+        }
+        insertOrders(orders, lines);
+        log.info("   - {} purchase orders, {} lines", purchaseOrderCount, lineId);
+    }
+
+    private void insertOrders(List<Object[]> orders, List<Object[]> lines) {
+        insert("INSERT INTO purchase_orders (id, order_number, supplier_id, status, total_amount, expected_date, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", orders);
+        insert("INSERT INTO purchase_order_items (id, purchase_order_id, product_id, quantity_ordered, quantity_received, unit_price) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", lines);
+    }
+
+    // ==================== MOVEMENTS ====================
+
+    /**
+     * Movements are generated in time order so quantity_before/after chain correctly per item;
+     * final item quantities are written back at the end.
+     */
+    private void generateMovements(Items items) {
+        SplittableRandom random = random(7);
+        Zipf itemPopularity = new Zipf(items.ids().length, zipfExponent, random(8));
+        int[] quantity = Arrays.copyOf(items.quantity(), items.quantity().length);
+        LocalDateTime windowStart = anchorDate.minusDays(days).atStartOfDay();
+        double secondsPerMovement = (double) days * 86_400 / Math.max(1, movementCount);
+
+        long started = System.currentTimeMillis();
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        for (long i = 0; i < movementCount; i++) {
+            int item = itemPopularity.sample();
+            int before = quantity[item];
+            int roll = random.nextInt(100);
+            MovementType type;
+            int amount;
+            if (roll < 70 && before > 0) {
+                type = MovementType.OUT;
+                amount = Math.min(before, 1 + random.nextInt(20));
+            } else if (roll < 97) {
+                type = MovementType.IN;
+                amount = 50 + random.nextInt(450);
+            } else {
+                type = MovementType.ADJUSTMENT;
+                amount = Math.max(-before, random.nextInt(11) - 5);
+            }
+            int after = type == MovementType.OUT ? before - amount : before + amount;
+            quantity[item] = after;
+
+            LocalDateTime createdAt = windowStart.plusNanos((long) (i * secondsPerMovement * 1_000_000_000L));
+            rows.add(new Object[]{id(7, i), items.ids()[item], type.name(), amount, before, after,
+                    "Load test", "LOAD_TEST", Timestamp.valueOf(createdAt)});
+
+            if (rows.size() == batchSize) {
+                insertMovements(rows);
+                if ((i + 1) % 1_000_000 == 0) {
+                    long elapsed = Math.max(1, System.currentTimeMillis() - started);
+                    log.info("   ... {} movements ({} rows/s)", i + 1, (i + 1) * 1000 / elapsed);
+                }
+            }
+        }
+        insertMovements(rows);
+
+        List<Object[]> updates = new ArrayList<>(batchSize);
+        for (int i = 0; i < quantity.length; i++) {
+            updates.add(new Object[]{quantity[i], Timestamp.valueOf(anchorDate.atStartOfDay()), items.ids()[i]});
+            if (updates.size() == batchSize) {
+                insert("UPDATE inventory_items SET quantity = ?, last_updated = ? WHERE id = ?", updates);
+            }
+        }
+        insert("UPDATE inventory_items SET quantity = ?, last_updated = ? WHERE id = ?", updates);
+        log.info("   - {} inventory movements", movementCount);
+    }
+
+    private void insertMovements(List<Object[]> rows) {
+        insert("INSERT INTO inventory_movements (id, inventory_item_id, movement_type, quantity, quantity_before, " +
+                "quantity_after, reason, reference_type, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * Runs the batch and clears it for reuse.
+     */
+    private void insert(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+
+    /**
+     * Independent, reproducible random stream per generation step.
+     */
+    private SplittableRandom random(int stream) {
+        return new SplittableRandom(seed * 1_000_003L + stream);
+    }
+
+    /**
+     * Deterministic UUID: seed and table in the high bits, row index in the low bits.
+     */
+    private String id(int table, long index) {
+        return new UUID(seed << 8 | table, index).toString();
+    }
+
+    /**
+     * Zipf sampler over n ranks via an inverted CDF. Ranks are mapped to indexes through a
+     * seeded shuffle, so the popular entries are spread over the id space.
+     */
+    private static final class Zipf {
+        private final double[] cdf;
+        private final int[] indexByRank;
+        private final SplittableRandom random;
+
+        Zipf(int n, double exponent, SplittableRandom random) {
+            this.random = random;
+            this.cdf = new double[n];
+            double sum = 0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1.0 / Math.pow(rank + 1, exponent);
+                cdf[rank] = sum;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cdf[rank] /= sum;
+            }
+
+            indexByRank = new int[n];
+            for (int i = 0; i < n; i++) {
+                indexByRank[i] = i;
+            }
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = indexByRank[i];
+                indexByRank[i] = indexByRank[j];
+                indexByRank[j] = tmp;
+            }
+        }
+
+        int sample() {
+            int rank = Arrays.binarySearch(cdf, random.nextDouble());
+            if (rank < 0) {
+                rank = -rank - 1;
+            }
+            return indexByRank[Math.min(rank, indexByRank.length - 1)];
+        }
+    }
+}
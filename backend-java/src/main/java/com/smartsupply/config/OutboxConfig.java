@@ -0,0 +1,22 @@
+package com.smartsupply.config;
+
+import com.smartsupply.event.OutboxPublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Default outbox publisher: logs events until a real transport bean is defined.
+ */
+@Configuration
+@Slf4j
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(OutboxPublisher.class)
+    public OutboxPublisher loggingOutboxPublisher() {
+        return batch -> batch.forEach(event -> log.debug("Outbox {} {} {}: {}",
+                event.getId(), event.getEventType(), event.getAggregateId(), event.getPayload()));
+    }
+}
@@ -0,0 +1,72 @@
+package com.smartsupply.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Read replica routing - only active when spring.datasource.replica.url is set.
+ *
+ * The primary pool is built from the regular spring.datasource settings; the replica reuses
+ * the primary credentials unless its own are given. Without a replica URL, Spring Boot's
+ * single auto-configured pool is used as before.
+ *
+ * Open-in-view keeps one Hibernate session per request, and by default the session holds on
+ * to its connection until the request ends: the first read-only call would pin the request to
+ * the replica and a later write would fail there. With a replica, sessions hand their
+ * connection back after each transaction, so every transaction is routed on its own.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties properties,
+            @Value("${spring.datasource.replica.url}") String replicaUrl,
+            @Value("${spring.datasource.replica.username:${spring.datasource.username}}") String replicaUsername,
+            @Value("${spring.datasource.replica.password:${spring.datasource.password}}") String replicaPassword,
+            @Value("${spring.datasource.replica.maximum-pool-size:10}") int replicaPoolSize,
+            @Value("${spring.datasource.replica.sticky-ms:5000}") long stickyMillis) {
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(replicaUrl);
+        replica.setUsername(replicaUsername);
+        replica.setPassword(replicaPassword);
+        replica.setDriverClassName(properties.getDriverClassName());
+        replica.setMaximumPoolSize(replicaPoolSize);
+        replica.setReadOnly(true);
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(stickyMillis);
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.PRIMARY, primary,
+                ReplicaRoutingDataSource.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        return routing;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandling() {
+        return properties -> properties.put("hibernate.connection.handling_mode",
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,139 @@
+package com.smartsupply.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * ReplicaRoutingDataSource - Sends read-only transactions to the replica, everything else to the primary.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: the read-only flag is only known once the
+ * transaction has started, so the physical connection has to be fetched at the first statement.
+ *
+ * Read-your-writes: when a write transaction commits, its user is pinned to the primary for
+ * the sticky window, so a GET right after a POST never sees replica lag.
+ *
+ * A service method that reads and then writes must be @Transactional itself: otherwise each
+ * repository read runs in its own read-only transaction on the replica and the write is based
+ * on lagging rows.
+ *
+ * Reads inside onPrimary() also go to the primary, for results shared by every user (cached
+ * responses) that must not depend on who happened to build them.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private static final String WRITE_MARKER = ReplicaRoutingDataSource.class.getName() + ".WRITE";
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private final long stickyMillis;
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+    private final LongAdder primaryRoutes = new LongAdder();
+    private final LongAdder replicaRoutes = new LongAdder();
+    private final LongAdder stickyRoutes = new LongAdder();
+
+    public ReplicaRoutingDataSource(long stickyMillis) {
+        this.stickyMillis = stickyMillis;
+    }
+
+    /**
+     * Run the reads on the primary. Only affects connections fetched inside the call.
+     */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        boolean outer = PRIMARY_READS.get() != null;
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            if (!outer) {
+                PRIMARY_READS.remove();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (!readOnly) {
+            rememberWrite();
+            primaryRoutes.increment();
+            return PRIMARY;
+        }
+        if (PRIMARY_READS.get() != null) {
+            primaryRoutes.increment();
+            return PRIMARY;
+        }
+
+        String user = currentUser();
+        Long lastWrite = user != null ? lastWriteByUser.get(user) : null;
+        if (lastWrite != null) {
+            if (System.currentTimeMillis() - lastWrite < stickyMillis) {
+                stickyRoutes.increment();
+                return PRIMARY;
+            }
+            lastWriteByUser.remove(user, lastWrite);
+        }
+        replicaRoutes.increment();
+        return REPLICA;
+    }
+
+    /**
+     * Shut down both pools with the context (inferred destroy method).
+     */
+    public void close() throws Exception {
+        for (DataSource target : getResolvedDataSources().values()) {
+            if (target instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("primaryRoutes", primaryRoutes.sum());
+        stats.put("replicaRoutes", replicaRoutes.sum());
+        stats.put("stickyRoutes", stickyRoutes.sum());
+        stats.put("stickyUsers", lastWriteByUser.size());
+        stats.put("stickyMillis", stickyMillis);
+        return stats;
+    }
+
+    /**
+     * Pin the user to the primary once this transaction commits (registered once per transaction).
+     */
+    private void rememberWrite() {
+        String user = currentUser();
+        if (user == null || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(WRITE_MARKER)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(WRITE_MARKER, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWriteByUser.put(user, System.currentTimeMillis());
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(WRITE_MARKER);
+            }
+        });
+    }
+
+    private String currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.isAuthenticated() ? auth.getName() : null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.smartsupply.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (nightly forecasts, etc.).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
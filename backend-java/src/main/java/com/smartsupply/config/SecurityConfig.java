@@ -2,6 +2,9 @@ package com.smartsupply.config;
 
 import com.smartsupply.repository.UserRepository;
 import com.smartsupply.security.JwtAuthFilter;
+import com.smartsupply.security.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -39,11 +42,17 @@ public class SecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
     private final UserRepository userRepository;
+    private final RateLimitFilter rateLimitFilter;
+
+    @Value("${auth.bcrypt.strength:10}")
+    private int bcryptStrength;
 
     // @Lazy breaks the circular dependency between JwtAuthFilter <-> SecurityConfig
-    public SecurityConfig(@Lazy JwtAuthFilter jwtAuthFilter, UserRepository userRepository) {
+    public SecurityConfig(@Lazy JwtAuthFilter jwtAuthFilter, UserRepository userRepository,
+                          RateLimitFilter rateLimitFilter) {
         this.jwtAuthFilter = jwtAuthFilter;
         this.userRepository = userRepository;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     /**
@@ -84,6 +93,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         // Public endpoints (no auth required)
                         .requestMatchers("/auth/register", "/auth/login").permitAll()
+                        // Async re-dispatches of streaming responses (SSE) were authorized on the original request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/products/**").authenticated()
                         .requestMatchers("/warehouses/**").authenticated()
                         .requestMatchers("/inventory/**").authenticated()
@@ -91,6 +102,8 @@ public class SecurityConfig {
                         .requestMatchers("/purchase-orders/**").authenticated()
                         .requestMatchers("/inventory-movements/**").authenticated()
                         .requestMatchers("/statistics/**").authenticated()
+                        .requestMatchers("/replenishment/**").authenticated()
+                        .requestMatchers("/forecasts/**").authenticated()
                         
                         // All other endpoints require authentication
                         .anyRequest().authenticated()
@@ -105,7 +118,10 @@ public class SecurityConfig {
                 .authenticationProvider(authenticationProvider())
                 
                 // Add JWT filter before Spring's authentication filter
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+
+                // Rate limit once the user is known (keys buckets by user, falls back to client address)
+                .addFilterAfter(rateLimitFilter, JwtAuthFilter.class);
 
         return http.build();
     }
@@ -136,9 +152,12 @@ public class SecurityConfig {
      * 
      * NestJS uses Argon2, Spring typically uses BCrypt.
      * Both are secure - BCrypt is just more common in Java world.
+     *
+     * The cost is stored in each hash, so changing auth.bcrypt.strength only affects new hashes.
+     * Hashing runs on PasswordHashingService's pool, not on request threads.
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 }
@@ -4,6 +4,7 @@ import com.smartsupply.dto.AuthResponse;
 import com.smartsupply.dto.LoginRequest;
 import com.smartsupply.dto.RegisterRequest;
 import com.smartsupply.entity.User;
+import com.smartsupply.security.AuthenticatedUser;
 import com.smartsupply.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -11,6 +12,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * AuthController - REST endpoints for authentication.
  * 
@@ -36,16 +39,18 @@ public class AuthController {
      * @Valid triggers Jakarta Validation (like class-validator in NestJS)
      */
     @PostMapping("/register")
-    public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
-        return ResponseEntity.ok(authService.register(request));
+    public CompletableFuture<ResponseEntity<AuthResponse>> register(@Valid @RequestBody RegisterRequest request) {
+        return authService.register(request).thenApply(ResponseEntity::ok);
     }
 
     /**
      * Login and get JWT token.
+     *
+     * Returns a future: the Tomcat thread is released while the password is checked.
      */
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
-        return ResponseEntity.ok(authService.login(request));
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@Valid @RequestBody LoginRequest request) {
+        return authService.login(request).thenApply(ResponseEntity::ok);
     }
 
     /**
@@ -53,11 +58,13 @@ public class AuthController {
      * 
      * @AuthenticationPrincipal is like NestJS @Request() req.user
      * It injects the authenticated user from Spring Security context.
+     * The principal only carries the JWT claims, so names are read from the database here.
      * 
      * This endpoint is protected by SecurityConfig (requires valid JWT).
      */
     @GetMapping("/profile")
-    public ResponseEntity<AuthResponse.UserDto> getProfile(@AuthenticationPrincipal User user) {
+    public ResponseEntity<AuthResponse.UserDto> getProfile(@AuthenticationPrincipal AuthenticatedUser principal) {
+        User user = authService.getUser(principal.id());
         return ResponseEntity.ok(
                 AuthResponse.UserDto.builder()
                         .id(user.getId())
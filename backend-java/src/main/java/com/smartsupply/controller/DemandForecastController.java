@@ -0,0 +1,38 @@
+package com.smartsupply.controller;
+
+import com.smartsupply.dto.DemandForecastResponse;
+import com.smartsupply.service.DemandForecastService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/forecasts")
+@RequiredArgsConstructor
+public class DemandForecastController {
+
+    private final DemandForecastService forecastService;
+
+    @GetMapping("/product/{productId}")
+    public ResponseEntity<List<DemandForecastResponse>> getByProduct(@PathVariable String productId) {
+        return ResponseEntity.ok(forecastService.getForecastsByProduct(productId));
+    }
+
+    @GetMapping("/warehouse/{warehouseId}")
+    public ResponseEntity<List<DemandForecastResponse>> getByWarehouse(@PathVariable String warehouseId) {
+        return ResponseEntity.ok(forecastService.getForecastsByWarehouse(warehouseId));
+    }
+
+    @GetMapping("/inventory-item/{inventoryItemId}")
+    public ResponseEntity<DemandForecastResponse> getByInventoryItem(@PathVariable String inventoryItemId) {
+        return ResponseEntity.ok(forecastService.getForecastForInventoryItem(inventoryItemId));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, Integer>> refresh() {
+        return ResponseEntity.ok(Map.of("updated", forecastService.refreshForecasts()));
+    }
+}
@@ -1,8 +1,16 @@
 package com.smartsupply.controller;
 
 import com.smartsupply.dto.CreateInventoryItemRequest;
+import com.smartsupply.dto.FieldSet;
 import com.smartsupply.dto.InventoryItemResponse;
+import com.smartsupply.dto.InventoryValuationResponse;
+import com.smartsupply.dto.StocktakeRequest;
+import com.smartsupply.dto.StocktakeResponse;
+import com.smartsupply.service.DataVersionService;
+import com.smartsupply.service.DataVersionService.Aggregate;
 import com.smartsupply.service.InventoryItemService;
+import com.smartsupply.service.InventoryValuationService;
+import com.smartsupply.service.StocktakeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -11,8 +19,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/inventory")
@@ -20,20 +30,29 @@ import java.util.List;
 public class InventoryItemController {
 
     private final InventoryItemService inventoryItemService;
+    private final DataVersionService dataVersionService;
+    private final InventoryValuationService inventoryValuationService;
+    private final StocktakeService stocktakeService;
 
+    /**
+     * ?fields=MINIMAL|SUMMARY|FULL picks the response shape; narrower shapes run narrower queries.
+     */
     @GetMapping
-    public ResponseEntity<Page<InventoryItemResponse>> getAllInventory(
+    public ResponseEntity<Page<?>> getAllInventory(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(required = false) String search) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<InventoryItemResponse> items;
-        if (search != null && !search.isBlank()) {
-            items = inventoryItemService.searchInventoryItems(search, pageable);
-        } else {
-            items = inventoryItemService.getAllInventoryItems(pageable);
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "FULL") FieldSet fields,
+            WebRequest request) {
+        // Names of products and warehouses count too - unless the shape has none and nothing is searched
+        String etag = fields == FieldSet.MINIMAL && (search == null || search.isBlank())
+                ? dataVersionService.etag(Aggregate.INVENTORY)
+                : dataVersionService.etag(Aggregate.INVENTORY, Aggregate.PRODUCTS, Aggregate.WAREHOUSES);
+        if (dataVersionService.checkNotModified(request, "inventory", etag)) {
+            return null;
         }
-        return ResponseEntity.ok(items);
+        Pageable pageable = PageRequest.of(page, size);
+        return ResponseEntity.ok().eTag(etag).body(inventoryItemService.getInventoryItems(search, fields, pageable));
     }
 
     @GetMapping("/{id}")
@@ -58,6 +77,22 @@ public class InventoryItemController {
         return ResponseEntity.ok(inventoryItemService.getLowStockItems());
     }
 
+    /**
+     * Stock value at weighted-average cost by warehouse and category, from in-memory totals.
+     */
+    @GetMapping("/valuation")
+    public ResponseEntity<InventoryValuationResponse> getValuation() {
+        return ResponseEntity.ok(inventoryValuationService.getValuation());
+    }
+
+    /**
+     * Recompute every item's cost basis from its movement history (after upgrades or imports).
+     */
+    @PostMapping("/valuation/backfill")
+    public ResponseEntity<Map<String, Object>> backfillValuation() {
+        return ResponseEntity.ok(inventoryValuationService.backfill());
+    }
+
     @PostMapping
     public ResponseEntity<InventoryItemResponse> createOrUpdateInventory(
             @Valid @RequestBody CreateInventoryItemRequest request) {
@@ -65,6 +100,15 @@ public class InventoryItemController {
                 .body(inventoryItemService.createOrUpdateInventory(request));
     }
 
+    /**
+     * Apply a warehouse count sheet in one transaction and return the variance report
+     * (or only the report, with dryRun).
+     */
+    @PostMapping("/stocktake")
+    public ResponseEntity<StocktakeResponse> applyStocktake(@Valid @RequestBody StocktakeRequest request) {
+        return ResponseEntity.ok(stocktakeService.applyStocktake(request));
+    }
+
     @PostMapping("/{id}/adjust")
     public ResponseEntity<InventoryItemResponse> adjustQuantity(
             @PathVariable String id,
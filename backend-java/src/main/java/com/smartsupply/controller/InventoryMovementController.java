@@ -1,9 +1,18 @@
 package com.smartsupply.controller;
 
 import com.smartsupply.dto.CreateInventoryMovementRequest;
+import com.smartsupply.dto.FieldSet;
 import com.smartsupply.dto.InventoryMovementResponse;
+import com.smartsupply.dto.MovementAggregateResponse;
 import com.smartsupply.entity.MovementType;
+import com.smartsupply.service.CatalogJsonCache;
+import com.smartsupply.service.DataVersionService;
+import com.smartsupply.service.DataVersionService.Aggregate;
 import com.smartsupply.service.InventoryMovementService;
+import com.smartsupply.service.MovementArchiveService;
+import com.smartsupply.service.MovementJournalService;
+import com.smartsupply.service.MovementColumnStore;
+import com.smartsupply.service.MovementSummaryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -12,11 +21,17 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/inventory-movements")
@@ -24,13 +39,24 @@ import java.util.List;
 public class InventoryMovementController {
 
     private final InventoryMovementService movementService;
+    private final MovementSummaryService movementSummaryService;
+    private final DataVersionService dataVersionService;
+    private final CatalogJsonCache catalogJsonCache;
+    private final MovementArchiveService movementArchiveService;
+    private final MovementJournalService movementJournalService;
 
+    /**
+     * ?fields=MINIMAL|SUMMARY|FULL picks the response shape; narrower shapes run narrower queries.
+     * Pages through movements still in the table; when some are archived, X-Archived-Through gives
+     * the creation time up to which older ones must be read from the other history endpoints.
+     */
     @GetMapping
-    public ResponseEntity<Page<InventoryMovementResponse>> getAllMovements(
+    public ResponseEntity<Page<?>> getAllMovements(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int size) {
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "FULL") FieldSet fields) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return ResponseEntity.ok(movementService.getAllMovements(pageable));
+        return archivedThrough().body(movementService.getMovements(fields, pageable));
     }
 
     @GetMapping("/{id}")
@@ -69,10 +95,75 @@ public class InventoryMovementController {
         return ResponseEntity.ok(movementService.getMovementsByDateRange(from, to));
     }
 
+    /**
+     * Over movements still in the table, like the paged list (see X-Archived-Through).
+     */
+    @GetMapping("/analytics")
+    public ResponseEntity<MovementAggregateResponse> getAnalytics(
+            @RequestParam(defaultValue = "TYPE") MovementColumnStore.Dimension groupBy,
+            @RequestParam(required = false) MovementType type,
+            @RequestParam(required = false) String warehouseId,
+            @RequestParam(required = false) String productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return archivedThrough().body(movementService.aggregateMovements(groupBy, type, warehouseId, productId, from, to));
+    }
+
+    /**
+     * Movement totals per day/week/month as aligned series, e.g.
+     * ?bucket=DAY&warehouseId=W for units in/out per day in one warehouse (unitsIn/unitsOut),
+     * or &groupBy=TYPE for a series per movement type. Cached per parameter set until the next movement.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<byte[]> getSummary(
+            @RequestParam(defaultValue = "DAY") MovementSummaryService.Bucket bucket,
+            @RequestParam(required = false) Set<MovementSummaryService.Dimension> groupBy,
+            @RequestParam(required = false) MovementType type,
+            @RequestParam(required = false) String warehouseId,
+            @RequestParam(required = false) String productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            WebRequest request) {
+
+        String etag = dataVersionService.etag(Aggregate.MOVEMENTS);
+        if (dataVersionService.checkNotModified(request, "inventory-movements", etag)) {
+            return null;
+        }
+
+        Set<MovementSummaryService.Dimension> dimensions = groupBy != null && !groupBy.isEmpty()
+                ? EnumSet.copyOf(groupBy) : EnumSet.noneOf(MovementSummaryService.Dimension.class);
+        String key = movementSummaryService.cacheKey(bucket, dimensions, from, to, type, productId, warehouseId);
+
+        byte[] json = catalogJsonCache.get(Aggregate.MOVEMENTS, key, () ->
+                movementSummaryService.summarize(bucket, dimensions, from, to, type, productId, warehouseId));
+
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(json);
+    }
+
+    /**
+     * Move movements older than the retention window to the archive now, instead of waiting for the nightly run.
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<Map<String, Object>> archiveMovements() {
+        return ResponseEntity.ok(movementArchiveService.archive());
+    }
+
+    /**
+     * With journal.enabled the response is sent once the movement is durable in the local journal;
+     * it shows up in the movement lists a moment later.
+     */
     @PostMapping
-    public ResponseEntity<InventoryMovementResponse> recordMovement(
+    public CompletableFuture<ResponseEntity<InventoryMovementResponse>> recordMovement(
             @Valid @RequestBody CreateInventoryMovementRequest request) {
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(movementService.recordMovement(request));
+        CompletableFuture<InventoryMovementResponse> movement = movementJournalService.isEnabled()
+                ? movementJournalService.submit(request)
+                : CompletableFuture.completedFuture(movementService.recordMovement(request));
+        return movement.thenApply(body -> ResponseEntity.status(HttpStatus.CREATED).body(body));
+    }
+
+    private ResponseEntity.BodyBuilder archivedThrough() {
+        LocalDateTime archivedThrough = movementArchiveService.archivedThrough();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        return archivedThrough != null ? response.header("X-Archived-Through", archivedThrough.toString()) : response;
     }
 }
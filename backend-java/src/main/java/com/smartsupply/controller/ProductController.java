@@ -2,16 +2,23 @@ package com.smartsupply.controller;
 
 import com.smartsupply.dto.CreateProductRequest;
 import com.smartsupply.dto.ProductResponse;
+import com.smartsupply.service.CatalogJsonCache;
+import com.smartsupply.service.DataVersionService;
+import com.smartsupply.service.DataVersionService.Aggregate;
+import com.smartsupply.service.ProductClassificationService;
 import com.smartsupply.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Map;
 
 /**
  * ProductController - REST API for Product operations.
@@ -19,11 +26,12 @@ import org.springframework.web.bind.annotation.*;
  * Similar to NestJS ProductController.
  * 
  * Endpoints:
- * - GET    /products       - List all (paginated)
+ * - GET    /products       - List all (paginated, honours If-None-Match, filter by ABC/XYZ class)
  * - GET    /products/{id}  - Get one
  * - POST   /products       - Create
  * - PUT    /products/{id}  - Update
  * - DELETE /products/{id}  - Delete
+ * - POST   /products/classify - Recompute ABC/XYZ classes
  */
 @RestController
 @RequestMapping("/products")
@@ -31,27 +39,44 @@ import org.springframework.web.bind.annotation.*;
 public class ProductController {
 
     private final ProductService productService;
+    private final DataVersionService dataVersionService;
+    private final CatalogJsonCache catalogJsonCache;
+    private final ProductClassificationService productClassificationService;
 
     /**
      * GET /products
-     * List all products with pagination and optional search.
+     * List all products with pagination, optional search and ABC/XYZ class filter.
+     * Answers 304 when If-None-Match still matches the product version;
+     * otherwise serves the cached JSON for this page/search.
      */
     @GetMapping
-    public ResponseEntity<Page<ProductResponse>> getAllProducts(
+    public ResponseEntity<byte[]> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String abcClass,
+            @RequestParam(required = false) String xyzClass,
+            WebRequest request) {
+
+        String etag = dataVersionService.etag(Aggregate.PRODUCTS);
+        if (dataVersionService.checkNotModified(request, "products", etag)) {
+            return null;
+        }
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("name"));
+        // Cached by the trimmed term, so the query must see the same term
+        String term = search != null && !search.isBlank() ? search.trim() : null;
+        boolean filtering = abcClass != null || xyzClass != null;
+        String key = "products:" + page + ":" + size + (term != null ? ":" + term.toLowerCase() : "")
+                + (filtering ? ":" + abcClass + ":" + xyzClass : "");
 
-        Page<ProductResponse> products;
-        if (search != null && !search.isBlank()) {
-            products = productService.searchProducts(search, pageable);
-        } else {
-            products = productService.getAllProducts(pageable);
-        }
+        byte[] json = catalogJsonCache.get(Aggregate.PRODUCTS, key, () -> filtering
+                ? productService.getProductsByClass(upper(abcClass), upper(xyzClass), term, pageable)
+                : term != null
+                ? productService.searchProducts(term, pageable)
+                : productService.getAllProducts(pageable));
 
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(json);
     }
 
     /**
@@ -96,4 +121,17 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * POST /products/classify
+     * Run the ABC/XYZ classification now instead of waiting for the weekly job.
+     */
+    @PostMapping("/classify")
+    public ResponseEntity<Map<String, Object>> classifyProducts() {
+        return ResponseEntity.ok(productClassificationService.classify());
+    }
+
+    private String upper(String value) {
+        return value != null ? value.trim().toUpperCase() : null;
+    }
 }
@@ -1,5 +1,8 @@
 package com.smartsupply.controller;
 
+import com.smartsupply.dto.BulkCreatePurchaseOrdersRequest;
+import com.smartsupply.dto.BulkStatusUpdateRequest;
+import com.smartsupply.dto.BulkStatusUpdateResponse;
 import com.smartsupply.dto.CreatePurchaseOrderRequest;
 import com.smartsupply.dto.PurchaseOrderResponse;
 import com.smartsupply.dto.ReceiveItemsRequest;
@@ -62,6 +65,26 @@ public class PurchaseOrderController {
                 .body(purchaseOrderService.createPurchaseOrder(request, userId));
     }
 
+    /**
+     * Create many orders in one transaction (products resolved in one query, inserts batched).
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<List<PurchaseOrderResponse>> createPurchaseOrders(
+            @Valid @RequestBody BulkCreatePurchaseOrdersRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(purchaseOrderService.createPurchaseOrders(request.getOrders()));
+    }
+
+    /**
+     * Move many orders to one status, e.g. send every approved DRAFT at once.
+     * Orders that may not make the transition are listed under rejected.
+     */
+    @PostMapping("/bulk/status")
+    public ResponseEntity<BulkStatusUpdateResponse> updateStatuses(
+            @Valid @RequestBody BulkStatusUpdateRequest request) {
+        return ResponseEntity.ok(purchaseOrderService.updateStatuses(request.getIds(), request.getStatus()));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<PurchaseOrderResponse> updatePurchaseOrder(
             @PathVariable String id,
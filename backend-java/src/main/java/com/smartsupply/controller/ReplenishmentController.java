@@ -0,0 +1,30 @@
+package com.smartsupply.controller;
+
+import com.smartsupply.dto.PurchaseOrderResponse;
+import com.smartsupply.dto.ReplenishmentPlanResponse;
+import com.smartsupply.service.ReplenishmentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/replenishment")
+@RequiredArgsConstructor
+public class ReplenishmentController {
+
+    private final ReplenishmentService replenishmentService;
+
+    @GetMapping("/plan")
+    public ResponseEntity<ReplenishmentPlanResponse> getPlan() {
+        return ResponseEntity.ok(replenishmentService.buildPlan());
+    }
+
+    @PostMapping("/draft-orders")
+    public ResponseEntity<List<PurchaseOrderResponse>> createDraftOrders() {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(replenishmentService.createDraftOrders());
+    }
+}
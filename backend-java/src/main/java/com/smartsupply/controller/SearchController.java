@@ -0,0 +1,30 @@
+package com.smartsupply.controller;
+
+import com.smartsupply.dto.SearchSuggestion;
+import com.smartsupply.service.SearchSuggestService;
+import com.smartsupply.service.SearchSuggestService.Kind;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final SearchSuggestService searchSuggestService;
+
+    // Typeahead from the in-memory index, e.g. /search/suggest?q=hex bo&types=SKU,PRODUCT
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SearchSuggestion>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) List<Kind> types) {
+        return ResponseEntity.ok(searchSuggestService.suggest(q, limit, types));
+    }
+}
@@ -1,12 +1,27 @@
 package com.smartsupply.controller;
 
+import com.smartsupply.config.ReplicaRoutingDataSource;
 import com.smartsupply.dto.DashboardStatsDTO;
+import com.smartsupply.security.RateLimitFilter;
+import com.smartsupply.service.AiRetrievalService;
+import com.smartsupply.service.DashboardPushService;
+import com.smartsupply.service.DataVersionService;
+import com.smartsupply.service.MovementArchiveService;
+import com.smartsupply.service.MovementJournalService;
+import com.smartsupply.service.PasswordHashingService;
+import com.smartsupply.service.SearchSuggestService;
 import com.smartsupply.service.StatisticsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
 
 @RestController
 @RequestMapping("/statistics")
@@ -14,9 +29,96 @@ import org.springframework.web.bind.annotation.RestController;
 public class StatisticsController {
 
     private final StatisticsService statisticsService;
+    private final DataVersionService dataVersionService;
+    private final DashboardPushService dashboardPushService;
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource;
+    private final RateLimitFilter rateLimitFilter;
+    private final PasswordHashingService passwordHashingService;
+    private final MovementArchiveService movementArchiveService;
+    private final MovementJournalService movementJournalService;
+    private final SearchSuggestService searchSuggestService;
+    private final AiRetrievalService aiRetrievalService;
 
     @GetMapping("/dashboard")
-    public ResponseEntity<DashboardStatsDTO> getDashboardStats() {
-        return ResponseEntity.ok(statisticsService.getDashboardStats());
+    public ResponseEntity<DashboardStatsDTO> getDashboardStats(WebRequest request) {
+        String etag = dataVersionService.etag(StatisticsService.DASHBOARD_SOURCES);
+        if (dataVersionService.checkNotModified(request, "dashboard", etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(statisticsService.getDashboardStats());
+    }
+
+    /**
+     * Live dashboard as server-sent events: a snapshot on connect, then coalesced deltas.
+     * Clients must send the Authorization header, so use a fetch-based SSE reader rather than EventSource.
+     */
+    @GetMapping(value = "/dashboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDashboard() {
+        return dashboardPushService.subscribe();
+    }
+
+    /**
+     * Conditional GET hit rates per resource and the current data versions.
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(dataVersionService.getStats());
+    }
+
+    /**
+     * Primary/replica routing counts; replica routing is off unless spring.datasource.replica.url is set.
+     */
+    @GetMapping("/datasource")
+    public ResponseEntity<Map<String, Object>> getDataSourceStats() {
+        ReplicaRoutingDataSource routing = replicaRoutingDataSource.getIfAvailable();
+        return ResponseEntity.ok(routing != null ? routing.getStats() : Map.of("replica", "disabled"));
+    }
+
+    /**
+     * Token bucket and bulkhead counters per rule.
+     */
+    @GetMapping("/rate-limits")
+    public ResponseEntity<Map<String, Object>> getRateLimitStats() {
+        return ResponseEntity.ok(rateLimitFilter.getStats());
+    }
+
+    /**
+     * BCrypt pool load: running, queued and rejected hashes.
+     */
+    @GetMapping("/password-hashing")
+    public ResponseEntity<Map<String, Object>> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHashingService.getStats());
+    }
+
+    /**
+     * Archived movement segments: size on disk, time span and the last archive run.
+     */
+    @GetMapping("/movement-archive")
+    public ResponseEntity<Map<String, Object>> getMovementArchiveStats() {
+        return ResponseEntity.ok(movementArchiveService.getStats());
+    }
+
+    /**
+     * Movement journal: group commits, movements waiting for the database, apply failures.
+     */
+    @GetMapping("/movement-journal")
+    public ResponseEntity<Map<String, Object>> getMovementJournalStats() {
+        return ResponseEntity.ok(movementJournalService.getStats());
+    }
+
+    /**
+     * Typeahead index: labels and keys per kind, memory used, writes not yet folded in.
+     */
+    @GetMapping("/search-suggest")
+    public ResponseEntity<Map<String, Object>> getSearchSuggestStats() {
+        return ResponseEntity.ok(searchSuggestService.getStats());
+    }
+
+    /**
+     * AI chat retrieval index: lines, terms and age per source.
+     */
+    @GetMapping("/ai-retrieval")
+    public ResponseEntity<Map<String, Object>> getAiRetrievalStats() {
+        return ResponseEntity.ok(aiRetrievalService.getStats());
     }
 }
@@ -1,13 +1,23 @@
 package com.smartsupply.controller;
 
+import com.smartsupply.dto.BestSourceRequest;
+import com.smartsupply.dto.BestSourceResponse;
 import com.smartsupply.dto.CreateSupplierRequest;
+import com.smartsupply.dto.SupplierPerformanceResponse;
+import com.smartsupply.dto.SupplierProductRequest;
+import com.smartsupply.dto.SupplierProductResponse;
 import com.smartsupply.dto.SupplierResponse;
+import com.smartsupply.service.DataVersionService;
+import com.smartsupply.service.DataVersionService.Aggregate;
+import com.smartsupply.service.SupplierCatalogService;
+import com.smartsupply.service.SupplierPerformanceService;
 import com.smartsupply.service.SupplierService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,10 +27,17 @@ import java.util.List;
 public class SupplierController {
 
     private final SupplierService supplierService;
+    private final DataVersionService dataVersionService;
+    private final SupplierPerformanceService supplierPerformanceService;
+    private final SupplierCatalogService supplierCatalogService;
 
     @GetMapping
-    public ResponseEntity<List<SupplierResponse>> getAllSuppliers() {
-        return ResponseEntity.ok(supplierService.getAllSuppliers());
+    public ResponseEntity<List<SupplierResponse>> getAllSuppliers(WebRequest request) {
+        String etag = dataVersionService.etag(Aggregate.SUPPLIERS);
+        if (dataVersionService.checkNotModified(request, "suppliers", etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(supplierService.getAllSuppliers());
     }
 
     @GetMapping("/{id}")
@@ -28,6 +45,46 @@ public class SupplierController {
         return ResponseEntity.ok(supplierService.getSupplierById(id));
     }
 
+    // Scorecards maintained incrementally by PO receipts
+    @GetMapping("/performance")
+    public ResponseEntity<List<SupplierPerformanceResponse>> getAllPerformance() {
+        return ResponseEntity.ok(supplierPerformanceService.getAllPerformance());
+    }
+
+    @GetMapping("/{id}/performance")
+    public ResponseEntity<SupplierPerformanceResponse> getPerformance(@PathVariable String id) {
+        return ResponseEntity.ok(supplierPerformanceService.getPerformance(id));
+    }
+
+    /**
+     * Cheapest or fastest supplier for each SKU / product ID, from the in-memory catalog index.
+     */
+    @PostMapping("/catalog/best-sources")
+    public ResponseEntity<BestSourceResponse> getBestSources(@Valid @RequestBody BestSourceRequest request) {
+        return ResponseEntity.ok(supplierCatalogService.bestSources(request));
+    }
+
+    @GetMapping("/{id}/catalog")
+    public ResponseEntity<List<SupplierProductResponse>> getCatalog(@PathVariable String id) {
+        return ResponseEntity.ok(supplierCatalogService.getCatalog(id));
+    }
+
+    /**
+     * Add a product to the supplier's catalog, or update its price, lead time and MOQ.
+     */
+    @PutMapping("/{id}/catalog")
+    public ResponseEntity<SupplierProductResponse> upsertCatalogEntry(
+            @PathVariable String id,
+            @Valid @RequestBody SupplierProductRequest request) {
+        return ResponseEntity.ok(supplierCatalogService.upsert(id, request));
+    }
+
+    @DeleteMapping("/{id}/catalog/{productId}")
+    public ResponseEntity<Void> deleteCatalogEntry(@PathVariable String id, @PathVariable String productId) {
+        supplierCatalogService.delete(id, productId);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/search")
     public ResponseEntity<List<SupplierResponse>> searchSuppliers(@RequestParam String query) {
         return ResponseEntity.ok(supplierService.searchSuppliers(query));
@@ -2,12 +2,19 @@ package com.smartsupply.controller;
 
 import com.smartsupply.dto.CreateWarehouseRequest;
 import com.smartsupply.dto.WarehouseResponse;
+import com.smartsupply.dto.WarehouseUtilizationResponse;
+import com.smartsupply.service.CatalogJsonCache;
+import com.smartsupply.service.DataVersionService;
+import com.smartsupply.service.DataVersionService.Aggregate;
+import com.smartsupply.service.WarehouseCapacityService;
 import com.smartsupply.service.WarehouseService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,17 +24,31 @@ import java.util.List;
 public class WarehouseController {
 
     private final WarehouseService warehouseService;
+    private final DataVersionService dataVersionService;
+    private final CatalogJsonCache catalogJsonCache;
+    private final WarehouseCapacityService warehouseCapacityService;
 
     @GetMapping
-    public ResponseEntity<List<WarehouseResponse>> getAllWarehouses(
-            @RequestParam(required = false) String search) {
-        List<WarehouseResponse> warehouses;
-        if (search != null && !search.isBlank()) {
-            warehouses = warehouseService.searchWarehouses(search);
-        } else {
-            warehouses = warehouseService.getAllWarehouses();
+    public ResponseEntity<byte[]> getAllWarehouses(
+            @RequestParam(required = false) String search,
+            WebRequest request) {
+        String etag = dataVersionService.etag(Aggregate.WAREHOUSES);
+        if (dataVersionService.checkNotModified(request, "warehouses", etag)) {
+            return null;
         }
-        return ResponseEntity.ok(warehouses);
+        // Cached by the trimmed term, so the query must see the same term
+        String term = search != null && !search.isBlank() ? search.trim() : null;
+        String key = term != null ? "warehouses:" + term.toLowerCase() : "warehouses";
+        byte[] json = catalogJsonCache.get(Aggregate.WAREHOUSES, key, () -> term != null
+                ? warehouseService.searchWarehouses(term)
+                : warehouseService.getAllWarehouses());
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(json);
+    }
+
+    // Served from the used_units counters, no SUM over inventory_items
+    @GetMapping("/utilization")
+    public ResponseEntity<List<WarehouseUtilizationResponse>> getUtilization() {
+        return ResponseEntity.ok(warehouseCapacityService.getUtilization());
     }
 
     @GetMapping("/{id}")
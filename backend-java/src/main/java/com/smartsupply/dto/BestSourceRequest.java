@@ -0,0 +1,29 @@
+package com.smartsupply.dto;
+
+import com.smartsupply.service.SupplierCatalogService;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Products to source, by SKU and/or product ID.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BestSourceRequest {
+
+    @Size(max = 20000, message = "At most 20000 SKUs per request")
+    private List<String> skus;
+
+    @Size(max = 20000, message = "At most 20000 product IDs per request")
+    private List<String> productIds;
+
+    @Builder.Default
+    private SupplierCatalogService.Strategy strategy = SupplierCatalogService.Strategy.CHEAPEST;
+}
@@ -0,0 +1,38 @@
+package com.smartsupply.dto;
+
+import com.smartsupply.service.SupplierCatalogService;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Best supplier per requested product, plus the SKUs / IDs nobody offers.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BestSourceResponse {
+    private SupplierCatalogService.Strategy strategy;
+    private List<Source> sources;
+    private List<String> unsourced;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Source {
+        private String productId;
+        private String sku;
+        private String supplierId;
+        private String supplierName;
+        private BigDecimal unitPrice;
+        private Integer leadTimeDays;
+        private Integer minOrderQuantity;
+        private Integer offers;          // Suppliers offering the product
+    }
+}
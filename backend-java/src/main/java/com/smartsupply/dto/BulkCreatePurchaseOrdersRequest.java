@@ -0,0 +1,26 @@
+package com.smartsupply.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Several purchase orders created in one transaction (POST /purchase-orders/bulk).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCreatePurchaseOrdersRequest {
+
+    @NotEmpty(message = "At least one order is required")
+    @Size(max = 1000, message = "At most 1000 orders per request")
+    @Valid
+    private List<CreatePurchaseOrderRequest> orders;
+}
@@ -0,0 +1,29 @@
+package com.smartsupply.dto;
+
+import com.smartsupply.entity.OrderStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Move many purchase orders to one status (POST /purchase-orders/bulk/status).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateRequest {
+
+    @NotEmpty(message = "At least one order ID is required")
+    @Size(max = 5000, message = "At most 5000 orders per request")
+    private List<String> ids;
+
+    @NotNull(message = "Status is required")
+    private OrderStatus status;
+}
@@ -0,0 +1,34 @@
+package com.smartsupply.dto;
+
+import com.smartsupply.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk status change: orders moved, and the ones left alone with the reason.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateResponse {
+    private OrderStatus status;
+    private int updated;
+    private int unchanged;           // Already in the target status
+    private List<Rejected> rejected;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rejected {
+        private String id;
+        private String orderNumber;
+        private OrderStatus currentStatus;   // Null when the order does not exist
+        private String reason;
+    }
+}
@@ -3,6 +3,7 @@ package com.smartsupply.dto;
 import com.smartsupply.entity.MovementType;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -29,4 +30,9 @@ public class CreateInventoryMovementRequest {
     
     private String referenceType;
     private String referenceId;
+
+    // Optional, becomes the movement id: a retry with the same id returns the first movement
+    @Pattern(regexp = "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}",
+            message = "Request ID must be a UUID")
+    private String requestId;
 }
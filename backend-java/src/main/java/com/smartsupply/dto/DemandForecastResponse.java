@@ -0,0 +1,29 @@
+package com.smartsupply.dto;
+
+import com.smartsupply.entity.ForecastMethod;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandForecastResponse {
+    private String inventoryItemId;
+    private String productId;
+    private String productSku;
+    private String productName;
+    private String warehouseId;
+    private String warehouseName;
+    private ForecastMethod method;
+    private Double dailyForecast;
+    private Double forecastNext30Days;
+    private Integer observations;
+    private LocalDate lastObservedDate;
+    private LocalDateTime updatedAt;
+}
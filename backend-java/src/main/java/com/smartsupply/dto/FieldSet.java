@@ -0,0 +1,11 @@
+package com.smartsupply.dto;
+
+/**
+ * Response shape for list endpoints, chosen with ?fields=.
+ * Each shape is loaded by its own projection query, so narrower shapes join and serialize less.
+ */
+public enum FieldSet {
+    MINIMAL,    // Ids and quantities only - no joins
+    SUMMARY,    // Plus SKU, product and warehouse names - scalar joins, no entities
+    FULL        // Everything, from the entities (default)
+}
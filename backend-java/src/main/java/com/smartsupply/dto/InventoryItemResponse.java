@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -21,5 +22,7 @@ public class InventoryItemResponse {
     private Integer quantity;
     private Integer reserved;
     private Integer available;
+    private BigDecimal stockValue;   // At weighted-average cost
+    private BigDecimal averageCost;
     private LocalDateTime lastUpdated;
 }
@@ -0,0 +1,25 @@
+package com.smartsupply.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// ?fields=MINIMAL and SUMMARY rows; names MINIMAL does not load are left out of the JSON
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryItemSummaryResponse {
+    private String id;
+    private String productId;
+    private String productSku;
+    private String productName;
+    private String warehouseId;
+    private String warehouseName;
+    private Integer quantity;
+    private Integer reserved;
+    private Integer available;
+}
@@ -0,0 +1,31 @@
+package com.smartsupply.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.smartsupply.entity.MovementType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// ?fields=MINIMAL and SUMMARY rows; fields MINIMAL does not load are left out of the JSON
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryMovementSummaryResponse {
+    private String id;
+    private String inventoryItemId;
+    private String productSku;
+    private String productName;
+    private String warehouseName;
+    private MovementType movementType;
+    private Integer quantity;
+    private Integer quantityBefore;
+    private Integer quantityAfter;
+    private String referenceType;
+    private String referenceId;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,32 @@
+package com.smartsupply.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Inventory value at weighted-average cost, by warehouse and by product category.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryValuationResponse {
+    private BigDecimal totalValue;
+    private List<Line> byWarehouse;
+    private List<Line> byCategory;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private String id;
+        private String name;
+        private BigDecimal value;
+    }
+}
@@ -0,0 +1,33 @@
+package com.smartsupply.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of a group-by over the in-memory movement store.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovementAggregateResponse {
+    private String groupBy;
+    private Integer rowsScanned;
+    private Long rowsMatched;
+    private Long elapsedMicros;
+    private List<Group> groups;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Group {
+        private String key;
+        private Long quantity;
+        private Long movements;
+    }
+}
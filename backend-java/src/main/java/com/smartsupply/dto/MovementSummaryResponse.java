@@ -0,0 +1,44 @@
+package com.smartsupply.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Time-bucketed movement totals. Each series holds one value per entry in periods
+ * (zero where nothing moved); type/productId/warehouseId are set only when grouped by.
+ *
+ * quantity adds up movement quantities regardless of direction, so it is only meaningful per
+ * type; unitsIn and unitsOut are the units added to and taken out of stock.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovementSummaryResponse {
+    private String bucket;
+    private List<String> groupBy;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<LocalDate> periods;
+    private List<Series> series;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Series {
+        private String type;
+        private String productId;
+        private String warehouseId;
+        private long[] quantity;
+        private long[] movements;
+        private long[] unitsIn;
+        private long[] unitsOut;
+    }
+}
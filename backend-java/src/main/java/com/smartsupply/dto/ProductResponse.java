@@ -23,6 +23,10 @@ public class ProductResponse {
     private String category;
     private BigDecimal price;
     private Integer safetyStock;
+    private String abcClass;
+    private String xyzClass;
+    private Integer cycleCountIntervalDays;
+    private LocalDateTime classifiedAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
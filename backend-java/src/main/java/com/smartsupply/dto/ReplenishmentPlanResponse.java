@@ -0,0 +1,24 @@
+package com.smartsupply.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Result of a replenishment planning run.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplenishmentPlanResponse {
+    private LocalDateTime generatedAt;
+    private Integer lookbackDays;
+    private Long itemsEvaluated;
+    private Long durationMs;
+    private List<ReplenishmentSuggestion> suggestions;
+}
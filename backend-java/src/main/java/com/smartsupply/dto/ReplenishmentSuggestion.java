@@ -0,0 +1,33 @@
+package com.smartsupply.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One reorder suggestion for a product in a warehouse.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplenishmentSuggestion {
+    private String inventoryItemId;
+    private String productId;
+    private String productSku;
+    private String productName;
+    private String warehouseId;
+    private String warehouseName;
+    private String supplierId;
+    private String supplierName;
+    private BigDecimal unitPrice;      // Supplier catalog price, when the product is listed
+    private Integer leadTimeDays;
+    private Integer quantity;
+    private Integer available;
+    private Double dailyVelocity;
+    private Integer reorderPoint;
+    private Integer orderQuantity;
+}
@@ -0,0 +1,18 @@
+package com.smartsupply.dto;
+
+import com.smartsupply.service.SearchSuggestService.Kind;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchSuggestion {
+    private Kind type;
+    private String id;       // Product, warehouse or supplier ID
+    private String label;    // The SKU or name that matched
+    private String detail;   // Product name for SKU matches, SKU for product name matches
+}
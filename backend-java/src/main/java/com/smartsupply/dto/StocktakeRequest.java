@@ -0,0 +1,52 @@
+package com.smartsupply.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A count sheet for one warehouse. A SKU may appear on several lines (one per bin); the
+ * counts are added up.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StocktakeRequest {
+
+    @NotBlank(message = "Warehouse ID is required")
+    private String warehouseId;
+
+    @NotEmpty(message = "At least one count line is required")
+    @Valid
+    private List<CountLine> lines;
+
+    private String reason;
+
+    // Full count: items of the warehouse missing from the sheet are counted as zero
+    private boolean zeroUncounted;
+
+    // Only report the variances, change nothing
+    private boolean dryRun;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CountLine {
+        @NotBlank(message = "SKU is required")
+        private String sku;
+
+        @NotNull(message = "Counted quantity is required")
+        @PositiveOrZero(message = "Counted quantity must be positive or zero")
+        private Integer countedQuantity;
+    }
+}
@@ -0,0 +1,46 @@
+package com.smartsupply.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Variance report of a stocktake. Adjustment movements carry stocktakeId as their reference.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StocktakeResponse {
+    private String stocktakeId;
+    private String warehouseId;
+    private String warehouseName;
+    private LocalDateTime countedAt;
+    private boolean dryRun;
+    private Integer itemsCounted;
+    private Integer itemsAdjusted;
+    private Long unitsOver;
+    private Long unitsShort;
+    private BigDecimal valueVariance;   // At weighted-average cost
+    private List<String> unknownSkus;
+    private List<Variance> variances;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Variance {
+        private String inventoryItemId;
+        private String sku;
+        private String productName;
+        private Integer expected;
+        private Integer counted;
+        private Integer variance;
+        private BigDecimal valueVariance;
+    }
+}
@@ -0,0 +1,26 @@
+package com.smartsupply.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SupplierPerformanceResponse {
+    private String supplierId;
+    private String supplierName;
+    private long receipts;
+    private Double avgLeadTimeDays;
+    private Double leadTimeStdDevDays;
+    private Double avgDelayDays;
+    private Double onTimeRate;       // share of dated receipts on or before expectedDate
+    private Double fillRate;         // units received / units ordered
+    private Double avgPriceVariance; // relative to product list price
+    private Double priceVarianceStdDev;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,38 @@
+package com.smartsupply.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Add or update one product in a supplier's catalog.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SupplierProductRequest {
+
+    @NotBlank(message = "Product ID is required")
+    private String productId;
+
+    private String supplierSku;
+
+    @NotNull(message = "Unit price is required")
+    @Positive(message = "Unit price must be positive")
+    private BigDecimal unitPrice;
+
+    @NotNull(message = "Lead time is required")
+    @PositiveOrZero(message = "Lead time cannot be negative")
+    private Integer leadTimeDays;
+
+    @Positive(message = "Minimum order quantity must be positive")
+    private Integer minOrderQuantity;
+}
@@ -0,0 +1,26 @@
+package com.smartsupply.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SupplierProductResponse {
+    private String id;
+    private String supplierId;
+    private String productId;
+    private String productSku;
+    private String productName;
+    private String supplierSku;
+    private BigDecimal unitPrice;
+    private Integer leadTimeDays;
+    private Integer minOrderQuantity;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,19 @@
+package com.smartsupply.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarehouseUtilizationResponse {
+    private String warehouseId;
+    private String warehouseName;
+    private Integer capacity;
+    private int usedUnits;
+    private Integer freeUnits;
+    private Double utilization;  // usedUnits / capacity, null when capacity is unset
+}
@@ -0,0 +1,39 @@
+package com.smartsupply.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.EventType;
+import org.hibernate.id.uuid.UuidGenerator;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Random UUID id, unless one was set before saving - e.g. a client-supplied request id that makes
+ * retries idempotent. Saving an entity with an id set inserts it when no row has that id yet.
+ */
+@IdGeneratorType(AssignableUuid.Generator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface AssignableUuid {
+
+    class Generator extends UuidGenerator {
+
+        public Generator() {
+            super(String.class);
+        }
+
+        @Override
+        public boolean allowAssignedIdentifiers() {
+            return true;
+        }
+
+        @Override
+        public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                               EventType eventType) {
+            return currentValue != null ? currentValue : super.generate(session, owner, currentValue, eventType);
+        }
+    }
+}
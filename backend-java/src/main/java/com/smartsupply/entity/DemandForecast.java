@@ -0,0 +1,74 @@
+package com.smartsupply.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DemandForecast entity - Smoothed daily OUT demand for one inventory item.
+ *
+ * Keeps the running smoothing state so the nightly job only folds in the days
+ * since lastObservedDate instead of re-reading the whole history.
+ */
+@Entity
+@Table(name = "demand_forecasts")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandForecast {
+
+    @Id
+    @UuidGenerator
+    private String id;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "inventory_item_id", nullable = false, unique = true)
+    private InventoryItem inventoryItem;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private ForecastMethod method = ForecastMethod.SES;
+
+    @Column(name = "daily_forecast", nullable = false)
+    @Builder.Default
+    private Double dailyForecast = 0.0;
+
+    // Simple exponential smoothing level
+    @Column(name = "ses_level", nullable = false)
+    @Builder.Default
+    private Double sesLevel = 0.0;
+
+    // Croston: smoothed non-zero demand size and inter-demand interval
+    @Column(name = "croston_size", nullable = false)
+    @Builder.Default
+    private Double crostonSize = 0.0;
+
+    @Column(name = "croston_interval", nullable = false)
+    @Builder.Default
+    private Double crostonInterval = 0.0;
+
+    @Column(name = "periods_since_demand", nullable = false)
+    @Builder.Default
+    private Integer periodsSinceDemand = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer observations = 0;
+
+    @Column(name = "demand_observations", nullable = false)
+    @Builder.Default
+    private Integer demandObservations = 0;
+
+    @Column(name = "last_observed_date")
+    private LocalDate lastObservedDate;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,9 @@
+package com.smartsupply.entity;
+
+/**
+ * Forecasting method picked for a demand series.
+ */
+public enum ForecastMethod {
+    SES,      // Simple exponential smoothing (regular demand)
+    CROSTON   // Croston / Syntetos-Boylan (intermittent demand)
+}
@@ -5,6 +5,7 @@ import lombok.*;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.UuidGenerator;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -42,6 +43,11 @@ public class InventoryItem {
     @Builder.Default
     private Integer reserved = 0;
 
+    // Cost basis of the stock on hand (weighted average); maintained by InventoryValuationService
+    @Column(name = "stock_value", nullable = false, precision = 19, scale = 4)
+    @Builder.Default
+    private BigDecimal stockValue = BigDecimal.ZERO;
+
     @UpdateTimestamp
     @Column(name = "last_updated")
     private LocalDateTime lastUpdated;
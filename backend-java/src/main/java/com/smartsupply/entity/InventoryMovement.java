@@ -3,7 +3,6 @@ package com.smartsupply.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.UuidGenerator;
 
 import java.time.LocalDateTime;
 
@@ -20,7 +19,7 @@ import java.time.LocalDateTime;
 public class InventoryMovement {
 
     @Id
-    @UuidGenerator
+    @AssignableUuid
     private String id;
 
     @ManyToOne(fetch = FetchType.LAZY)
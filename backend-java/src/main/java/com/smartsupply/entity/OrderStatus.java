@@ -7,5 +7,16 @@ public enum OrderStatus {
     DRAFT,      // Order created but not sent
     SENT,       // Order sent to supplier
     RECEIVED,   // All items received
-    CANCELLED   // Order cancelled
+    CANCELLED;  // Order cancelled
+
+    /**
+     * Allowed manual status changes. RECEIVED is reached by receiving items, never set directly.
+     */
+    public boolean canTransitionTo(OrderStatus next) {
+        return switch (this) {
+            case DRAFT -> next == SENT || next == CANCELLED;
+            case SENT -> next == CANCELLED;
+            case RECEIVED, CANCELLED -> false;
+        };
+    }
 }
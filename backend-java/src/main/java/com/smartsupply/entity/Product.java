@@ -40,6 +40,16 @@ public class Product {
     @Column(name = "safety_stock")
     private Integer safetyStock;
 
+    // ABC (consumption value) and XYZ (demand variability), set by ProductClassificationService
+    @Column(name = "abc_class", length = 1)
+    private String abcClass;
+
+    @Column(name = "xyz_class", length = 1)
+    private String xyzClass;
+
+    @Column(name = "classified_at")
+    private LocalDateTime classifiedAt;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,48 @@
+package com.smartsupply.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * RunningStat - Welford's online mean/variance, stored as three columns.
+ *
+ * Column names are set per use with @AttributeOverrides.
+ */
+@Embeddable
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RunningStat {
+
+    @Column(nullable = false)
+    @Builder.Default
+    private long count = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private double mean = 0.0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private double m2 = 0.0;
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    public Double meanOrNull() {
+        return count > 0 ? mean : null;
+    }
+
+    public Double stdDevOrNull() {
+        return count > 1 ? Math.sqrt(m2 / (count - 1)) : null;
+    }
+}
@@ -0,0 +1,87 @@
+package com.smartsupply.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDateTime;
+
+/**
+ * SupplierPerformance entity - Running delivery statistics for one supplier.
+ *
+ * Updated on every receipt, so the scorecard is read from this row instead of
+ * scanning purchase orders.
+ */
+@Entity
+@Table(name = "supplier_performance")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SupplierPerformance {
+
+    @Id
+    @UuidGenerator
+    private String id;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "supplier_id", nullable = false, unique = true)
+    private Supplier supplier;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private long receipts = 0;
+
+    // Receipts of orders with an expected date, and how many of those arrived by that date
+    @Column(name = "dated_receipts", nullable = false)
+    @Builder.Default
+    private long datedReceipts = 0;
+
+    @Column(name = "on_time_receipts", nullable = false)
+    @Builder.Default
+    private long onTimeReceipts = 0;
+
+    // Units ordered on every order that has had a receipt, and units received so far
+    @Column(name = "units_ordered", nullable = false)
+    @Builder.Default
+    private long unitsOrdered = 0;
+
+    @Column(name = "units_received", nullable = false)
+    @Builder.Default
+    private long unitsReceived = 0;
+
+    // Days from order creation to receipt
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "count", column = @Column(name = "lead_time_count", nullable = false)),
+            @AttributeOverride(name = "mean", column = @Column(name = "lead_time_mean", nullable = false)),
+            @AttributeOverride(name = "m2", column = @Column(name = "lead_time_m2", nullable = false))
+    })
+    @Builder.Default
+    private RunningStat leadTimeDays = new RunningStat();
+
+    // Days between expected date and receipt (negative = early)
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "count", column = @Column(name = "delay_count", nullable = false)),
+            @AttributeOverride(name = "mean", column = @Column(name = "delay_mean", nullable = false)),
+            @AttributeOverride(name = "m2", column = @Column(name = "delay_m2", nullable = false))
+    })
+    @Builder.Default
+    private RunningStat delayDays = new RunningStat();
+
+    // Per received line: (unit price - product list price) / list price
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "count", column = @Column(name = "price_variance_count", nullable = false)),
+            @AttributeOverride(name = "mean", column = @Column(name = "price_variance_mean", nullable = false)),
+            @AttributeOverride(name = "m2", column = @Column(name = "price_variance_m2", nullable = false))
+    })
+    @Builder.Default
+    private RunningStat priceVariance = new RunningStat();
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
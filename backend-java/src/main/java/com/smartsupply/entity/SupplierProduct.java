@@ -0,0 +1,56 @@
+package com.smartsupply.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * SupplierProduct entity - A supplier's offer for one product: price, lead time and MOQ.
+ */
+@Entity
+@Table(name = "supplier_products",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"supplier_id", "product_id"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SupplierProduct {
+
+    @Id
+    @UuidGenerator
+    private String id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "supplier_id", nullable = false)
+    private Supplier supplier;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(name = "supplier_sku")
+    private String supplierSku;
+
+    @Column(name = "unit_price", nullable = false, precision = 12, scale = 2)
+    private BigDecimal unitPrice;
+
+    @Column(name = "lead_time_days", nullable = false)
+    private Integer leadTimeDays;
+
+    @Column(name = "min_order_quantity", nullable = false)
+    @Builder.Default
+    private Integer minOrderQuantity = 1;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
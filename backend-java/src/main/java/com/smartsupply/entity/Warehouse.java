@@ -35,6 +35,12 @@ public class Warehouse {
     @Builder.Default
     private Integer capacity = 10000;
 
+    // Sum of inventory quantities; only changed through WarehouseRepository's atomic updates
+    @Column(name = "used_units", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "integer not null default 0")
+    @Builder.Default
+    private Integer usedUnits = 0;
+
     @OneToMany(mappedBy = "warehouse", cascade = CascadeType.ALL)
     @Builder.Default
     private List<InventoryItem> inventoryItems = new ArrayList<>();
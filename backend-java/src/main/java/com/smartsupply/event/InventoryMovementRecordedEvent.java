@@ -0,0 +1,37 @@
+package com.smartsupply.event;
+
+import com.smartsupply.entity.InventoryMovement;
+import com.smartsupply.entity.MovementType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published whenever an InventoryMovement row is written.
+ *
+ * Carries only ids and numbers so listeners never need to touch lazy associations
+ * (they may run after the persistence context is closed).
+ */
+public record InventoryMovementRecordedEvent(
+        String movementId,
+        String inventoryItemId,
+        String productId,
+        String warehouseId,
+        MovementType movementType,
+        int quantity,
+        int quantityBefore,
+        int quantityAfter,
+        LocalDateTime createdAt) {
+
+    public static InventoryMovementRecordedEvent of(InventoryMovement movement) {
+        return new InventoryMovementRecordedEvent(
+                movement.getId(),
+                movement.getInventoryItem().getId(),
+                movement.getInventoryItem().getProduct().getId(),
+                movement.getInventoryItem().getWarehouse().getId(),
+                movement.getMovementType(),
+                movement.getQuantity(),
+                movement.getQuantityBefore() != null ? movement.getQuantityBefore() : 0,
+                movement.getQuantityAfter() != null ? movement.getQuantityAfter() : 0,
+                movement.getCreatedAt() != null ? movement.getCreatedAt() : LocalDateTime.now());
+    }
+}
@@ -0,0 +1,16 @@
+package com.smartsupply.event;
+
+import com.smartsupply.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Delivers a batch of outbox events to the outside world (message broker, webhook, ...).
+ *
+ * The batch is in id order. Returning normally acknowledges the whole batch; throwing leaves
+ * it in the outbox to be delivered again, so consumers must tolerate duplicates (dedupe on id).
+ */
+public interface OutboxPublisher {
+
+    void publish(List<OutboxEvent> batch) throws Exception;
+}
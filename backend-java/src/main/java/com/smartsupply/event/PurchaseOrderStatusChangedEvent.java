@@ -0,0 +1,17 @@
+package com.smartsupply.event;
+
+import com.smartsupply.entity.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a purchase order moves to a different status.
+ */
+public record PurchaseOrderStatusChangedEvent(
+        String purchaseOrderId,
+        String orderNumber,
+        String supplierId,
+        OrderStatus previousStatus,
+        OrderStatus status,
+        LocalDateTime changedAt) {
+}
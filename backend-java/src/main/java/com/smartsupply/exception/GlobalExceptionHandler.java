@@ -9,6 +9,8 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Global Exception Handler - Handles errors across all controllers.
@@ -51,14 +53,41 @@ public class GlobalExceptionHandler {
     }
 
     /**
-     * Handle user already exists.
+     * Handle a full worker pool (e.g. BCrypt during a login storm).
+     * Returns 503 Service Unavailable; the client should retry shortly.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, Object>> handleRejectedExecution(RejectedExecutionException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("statusCode", 503);
+        response.put("message", "Server busy, please retry");
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(response);
+    }
+
+    /**
+     * Handle a request that waited too long for its background write (the movement journal).
+     * Returns 503 without Retry-After: the write may still complete, so check before retrying, or
+     * retry with the same requestId, which returns the movement instead of recording it twice.
+     */
+    @ExceptionHandler(TimeoutException.class)
+    public ResponseEntity<Map<String, Object>> handleTimeout(TimeoutException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("statusCode", 503);
+        response.put("message", "Request timed out; it may still complete. Retry with the same requestId");
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
+    /**
+     * Handle user already exists / warehouse capacity exceeded.
      * Returns 409 Conflict.
      */
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, Object>> handleRuntimeException(RuntimeException ex) {
         Map<String, Object> response = new HashMap<>();
         
-        if (ex.getMessage().contains("already exists")) {
+        if (ex.getMessage().contains("already exists") || ex.getMessage().contains("capacity exceeded")) {
             response.put("statusCode", 409);
             response.put("message", ex.getMessage());
             return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
@@ -0,0 +1,37 @@
+package com.smartsupply.repository;
+
+import com.smartsupply.entity.DemandForecast;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DemandForecastRepository extends JpaRepository<DemandForecast, String> {
+
+    List<DemandForecast> findByInventoryItemIdIn(Collection<String> inventoryItemIds);
+
+    @Query("SELECT f FROM DemandForecast f JOIN FETCH f.inventoryItem i JOIN FETCH i.product JOIN FETCH i.warehouse " +
+           "WHERE i.product.id = :productId")
+    List<DemandForecast> findByProductId(String productId);
+
+    @Query("SELECT f FROM DemandForecast f JOIN FETCH f.inventoryItem i JOIN FETCH i.product JOIN FETCH i.warehouse " +
+           "WHERE i.warehouse.id = :warehouseId")
+    List<DemandForecast> findByWarehouseId(String warehouseId);
+
+    @Query("SELECT f FROM DemandForecast f JOIN FETCH f.inventoryItem i JOIN FETCH i.product JOIN FETCH i.warehouse " +
+           "WHERE i.id = :inventoryItemId")
+    Optional<DemandForecast> findByInventoryItemId(String inventoryItemId);
+
+    @Modifying
+    @Query("DELETE FROM DemandForecast f WHERE f.inventoryItem.id = :inventoryItemId")
+    void deleteByInventoryItemId(String inventoryItemId);
+
+    @Modifying
+    @Query("DELETE FROM DemandForecast f WHERE f.inventoryItem.product.id = :productId")
+    void deleteByProductId(String productId);
+}
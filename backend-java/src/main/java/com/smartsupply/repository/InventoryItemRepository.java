@@ -1,13 +1,16 @@
 package com.smartsupply.repository;
 
 import com.smartsupply.entity.InventoryItem;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,9 +40,78 @@ public interface InventoryItemRepository extends JpaRepository<InventoryItem, St
            "LOWER(i.warehouse.name) LIKE LOWER(CONCAT('%', :search, '%'))")
     Page<InventoryItem> searchByProductOrWarehouse(@Param("search") String search, Pageable pageable);
 
+    // fields=MINIMAL rows, read from inventory_items alone: id, productId, warehouseId, quantity, reserved
+    @Query(value = "SELECT i.id, i.product.id, i.warehouse.id, i.quantity, i.reserved FROM InventoryItem i",
+           countQuery = "SELECT COUNT(i) FROM InventoryItem i")
+    Page<Object[]> findMinimalRows(Pageable pageable);
+
+    @Query(value = "SELECT i.id, p.id, w.id, i.quantity, i.reserved " +
+                   "FROM InventoryItem i JOIN i.product p JOIN i.warehouse w WHERE " +
+                   "LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                   "LOWER(p.sku) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                   "LOWER(w.name) LIKE LOWER(CONCAT('%', :search, '%'))",
+           countQuery = "SELECT COUNT(i) FROM InventoryItem i JOIN i.product p JOIN i.warehouse w WHERE " +
+                   "LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                   "LOWER(p.sku) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                   "LOWER(w.name) LIKE LOWER(CONCAT('%', :search, '%'))")
+    Page<Object[]> searchMinimalRows(@Param("search") String search, Pageable pageable);
+
+    // fields=SUMMARY rows: id, productId, sku, productName, warehouseId, warehouseName, quantity, reserved
+    @Query(value = "SELECT i.id, p.id, p.sku, p.name, w.id, w.name, i.quantity, i.reserved " +
+                   "FROM InventoryItem i JOIN i.product p JOIN i.warehouse w",
+           countQuery = "SELECT COUNT(i) FROM InventoryItem i")
+    Page<Object[]> findSummaryRows(Pageable pageable);
+
+    @Query(value = "SELECT i.id, p.id, p.sku, p.name, w.id, w.name, i.quantity, i.reserved " +
+                   "FROM InventoryItem i JOIN i.product p JOIN i.warehouse w WHERE " +
+                   "LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                   "LOWER(p.sku) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                   "LOWER(w.name) LIKE LOWER(CONCAT('%', :search, '%'))",
+           countQuery = "SELECT COUNT(i) FROM InventoryItem i JOIN i.product p JOIN i.warehouse w WHERE " +
+                   "LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                   "LOWER(p.sku) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                   "LOWER(w.name) LIKE LOWER(CONCAT('%', :search, '%'))")
+    Page<Object[]> searchSummaryRows(@Param("search") String search, Pageable pageable);
+
     @Query("SELECT i.product.name, SUM(i.quantity) as total FROM InventoryItem i GROUP BY i.product.name ORDER BY total DESC")
     List<Object[]> findMostStockedProducts(Pageable pageable);
 
     @Query("SELECT i.product.name, SUM(i.quantity) as total FROM InventoryItem i GROUP BY i.product.name ORDER BY total ASC")
     List<Object[]> findLeastStockedProducts(Pageable pageable);
+
+    // Keyset-paged planning rows: id, productId, sku, name, safetyStock, warehouseId, warehouseName, quantity, reserved
+    @Query("SELECT i.id, i.product.id, i.product.sku, i.product.name, i.product.safetyStock, " +
+           "i.warehouse.id, i.warehouse.name, i.quantity, i.reserved " +
+           "FROM InventoryItem i WHERE i.id > :afterId ORDER BY i.id")
+    List<Object[]> findPlanningRowsAfter(@Param("afterId") String afterId, Pageable pageable);
+
+    // Stock check for a journaled movement: productId, sku, productName, warehouseId, warehouseName,
+    // quantity, warehouse capacity, warehouse usedUnits
+    @Query("SELECT p.id, p.sku, p.name, w.id, w.name, i.quantity, w.capacity, w.usedUnits " +
+           "FROM InventoryItem i JOIN i.product p JOIN i.warehouse w WHERE i.id = :id")
+    List<Object[]> findStockCheckRows(@Param("id") String id);
+
+    // List price per item for valuation replay: itemId, price
+    @Query("SELECT i.id, i.product.price FROM InventoryItem i")
+    List<Object[]> findListPriceRows();
+
+    // Stock value per warehouse and category: warehouseId, category, value
+    @Query("SELECT i.warehouse.id, i.product.category, SUM(i.stockValue) FROM InventoryItem i " +
+           "GROUP BY i.warehouse.id, i.product.category")
+    List<Object[]> sumStockValueByWarehouseAndCategory();
+
+    // Whole warehouse locked for a stocktake; products come in through batch fetching
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM InventoryItem i WHERE i.warehouse.id = :warehouseId ORDER BY i.id")
+    List<InventoryItem> findByWarehouseIdForUpdate(String warehouseId);
+
+    // A product's rows locked before it is deleted, so no movement changes them in between
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM InventoryItem i WHERE i.product.id = :productId ORDER BY i.id")
+    List<InventoryItem> findByProductIdForUpdate(String productId);
+
+    // Row locks in id order, so concurrent chunks never wait on each other in a cycle
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM InventoryItem i WHERE i.id IN :ids ORDER BY i.id")
+    List<InventoryItem> findAllByIdForUpdate(Collection<String> ids);
 }
@@ -7,9 +7,11 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -37,4 +39,89 @@ public interface InventoryMovementRepository extends JpaRepository<InventoryMove
     @Query("DELETE FROM InventoryMovement m WHERE m.inventoryItem.product.id = :productId")
     @Modifying
     void deleteByProductId(String productId);
+
+    // Journaled movements that already reached the table
+    @Query("SELECT m.id FROM InventoryMovement m WHERE m.id IN :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+
+    // Rows copied to the movement archive
+    @Query("DELETE FROM InventoryMovement m WHERE m.id IN :ids")
+    @Modifying
+    int deleteByIdIn(@Param("ids") Collection<String> ids);
+
+    // fields=MINIMAL rows, read from inventory_movements alone: id, itemId, type, quantity, createdAt
+    @Query(value = "SELECT m.id, m.inventoryItem.id, m.movementType, m.quantity, m.createdAt FROM InventoryMovement m",
+           countQuery = "SELECT COUNT(m) FROM InventoryMovement m")
+    Page<Object[]> findMinimalRows(Pageable pageable);
+
+    // fields=SUMMARY rows, without the user join: id, itemId, sku, productName, warehouseName, type,
+    // quantity, quantityBefore, quantityAfter, referenceType, referenceId, createdAt
+    @Query(value = "SELECT m.id, i.id, p.sku, p.name, w.name, m.movementType, m.quantity, m.quantityBefore, " +
+                   "m.quantityAfter, m.referenceType, m.referenceId, m.createdAt " +
+                   "FROM InventoryMovement m JOIN m.inventoryItem i JOIN i.product p JOIN i.warehouse w",
+           countQuery = "SELECT COUNT(m) FROM InventoryMovement m")
+    Page<Object[]> findSummaryRows(Pageable pageable);
+
+    // Total quantity per inventory item for one movement type since a point in time
+    @Query("SELECT m.inventoryItem.id, SUM(m.quantity) FROM InventoryMovement m " +
+           "WHERE m.movementType = :type AND m.createdAt >= :since AND m.inventoryItem.id IN :itemIds " +
+           "GROUP BY m.inventoryItem.id")
+    List<Object[]> sumQuantityByItemSince(MovementType type, LocalDateTime since, Collection<String> itemIds);
+
+    // Daily OUT totals per inventory item: itemId, day, quantity
+    @Query(value = "SELECT m.inventory_item_id, CAST(m.created_at AS date), SUM(m.quantity) " +
+                   "FROM inventory_movements m " +
+                   "WHERE m.movement_type = 'OUT' AND m.created_at >= :from AND m.created_at < :to " +
+                   "AND m.inventory_item_id IN (:itemIds) " +
+                   "GROUP BY m.inventory_item_id, CAST(m.created_at AS date)", nativeQuery = true)
+    List<Object[]> sumDailyOutByItem(LocalDateTime from, LocalDateTime to, Collection<String> itemIds);
+
+    // Keyset-paged flat rows for in-memory analytics: id, itemId, productId, warehouseId, type, quantity, createdAt
+    @Query("SELECT m.id, m.inventoryItem.id, m.inventoryItem.product.id, m.inventoryItem.warehouse.id, " +
+           "m.movementType, m.quantity, m.createdAt " +
+           "FROM InventoryMovement m WHERE m.id > :afterId AND m.createdAt < :before ORDER BY m.id")
+    List<Object[]> findAnalyticsRowsAfter(@Param("afterId") String afterId, @Param("before") LocalDateTime before, Pageable pageable);
+
+    // Time-bucketed totals: period, type, productId, warehouseId, quantity, movements, unitsIn, unitsOut.
+    // Dimensions not grouped by come back as null; null filters match everything.
+    @Query(value = "SELECT CAST(date_trunc(:bucket, m.created_at) AS date) AS period, " +
+                   "CASE WHEN :byType THEN m.movement_type END AS movement_type, " +
+                   "CASE WHEN :byProduct THEN i.product_id END AS product_id, " +
+                   "CASE WHEN :byWarehouse THEN i.warehouse_id END AS warehouse_id, " +
+                   "SUM(m.quantity), COUNT(*), " +
+                   "SUM(GREATEST(CASE WHEN m.movement_type = 'OUT' THEN -m.quantity ELSE m.quantity END, 0)), " +
+                   "SUM(GREATEST(CASE WHEN m.movement_type = 'OUT' THEN m.quantity ELSE -m.quantity END, 0)) " +
+                   "FROM inventory_movements m JOIN inventory_items i ON i.id = m.inventory_item_id " +
+                   "WHERE m.created_at >= :from AND m.created_at < :to " +
+                   "AND (CAST(:type AS varchar) IS NULL OR m.movement_type = CAST(:type AS varchar)) " +
+                   "AND (CAST(:productId AS varchar) IS NULL OR i.product_id = CAST(:productId AS varchar)) " +
+                   "AND (CAST(:warehouseId AS varchar) IS NULL OR i.warehouse_id = CAST(:warehouseId AS varchar)) " +
+                   "GROUP BY 1, 2, 3, 4 ORDER BY 2, 3, 4, 1", nativeQuery = true)
+    List<Object[]> summarize(@Param("bucket") String bucket,
+                             @Param("byType") boolean byType,
+                             @Param("byProduct") boolean byProduct,
+                             @Param("byWarehouse") boolean byWarehouse,
+                             @Param("from") LocalDateTime from,
+                             @Param("to") LocalDateTime to,
+                             @Param("type") String type,
+                             @Param("productId") String productId,
+                             @Param("warehouseId") String warehouseId);
+
+    // Replay rows for cost valuation: itemId, quantityBefore, quantityAfter, PO unit price (receipts only)
+    @Query(value = "SELECT m.inventory_item_id, m.quantity_before, m.quantity_after, " +
+                   "(SELECT MAX(poi.unit_price) FROM purchase_order_items poi " +
+                   " WHERE m.reference_type = 'PURCHASE_ORDER' AND poi.purchase_order_id = m.reference_id " +
+                   " AND poi.product_id = i.product_id) " +
+                   "FROM inventory_movements m JOIN inventory_items i ON i.id = m.inventory_item_id " +
+                   "WHERE m.inventory_item_id IN (:itemIds) " +
+                   "ORDER BY m.inventory_item_id, m.created_at, m.id", nativeQuery = true)
+    List<Object[]> findValuationRows(@Param("itemIds") Collection<String> itemIds);
+
+    // AI retrieval rows, newest first: [createdAt, type, quantity, productName, sku, warehouseName,
+    // reason, referenceType, referenceId]
+    @Query("SELECT m.createdAt, m.movementType, m.quantity, p.name, p.sku, w.name, m.reason, " +
+           "m.referenceType, m.referenceId " +
+           "FROM InventoryMovement m JOIN m.inventoryItem i JOIN i.product p JOIN i.warehouse w " +
+           "WHERE m.createdAt >= :since ORDER BY m.createdAt DESC")
+    List<Object[]> findRetrievalRows(@Param("since") LocalDateTime since, Pageable pageable);
 }
@@ -4,8 +4,12 @@ import com.smartsupply.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -21,8 +25,26 @@ public interface ProductRepository extends JpaRepository<Product, String> {
 
     boolean existsBySku(String sku);
 
+    List<Product> findBySkuIn(Collection<String> skus);
+
     Page<Product> findByNameContainingIgnoreCase(String name, Pageable pageable);
 
     Page<Product> findBySkuContainingIgnoreCaseOrNameContainingIgnoreCase(
             String sku, String name, Pageable pageable);
+
+    // ABC/XYZ filter with optional search; null parameters match everything
+    @Query("SELECT p FROM Product p WHERE (:abcClass IS NULL OR p.abcClass = :abcClass) " +
+           "AND (:xyzClass IS NULL OR p.xyzClass = :xyzClass) " +
+           "AND (:search IS NULL OR UPPER(p.sku) LIKE UPPER(CONCAT('%', :search, '%')) " +
+           "OR UPPER(p.name) LIKE UPPER(CONCAT('%', :search, '%')))")
+    Page<Product> findByClass(@Param("abcClass") String abcClass, @Param("xyzClass") String xyzClass,
+                              @Param("search") String search, Pageable pageable);
+
+    // Typeahead index rows: [id, sku, name]
+    @Query("SELECT p.id, p.sku, p.name FROM Product p")
+    List<Object[]> findSuggestRows();
+
+    // AI retrieval rows: [id, sku, name, category, price, safetyStock, abcClass, xyzClass]
+    @Query("SELECT p.id, p.sku, p.name, p.category, p.price, p.safetyStock, p.abcClass, p.xyzClass FROM Product p")
+    List<Object[]> findRetrievalRows();
 }
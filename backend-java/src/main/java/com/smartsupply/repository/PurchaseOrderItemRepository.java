@@ -2,8 +2,10 @@ package com.smartsupply.repository;
 
 import com.smartsupply.entity.PurchaseOrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +14,10 @@ public interface PurchaseOrderItemRepository extends JpaRepository<PurchaseOrder
     List<PurchaseOrderItem> findByPurchaseOrderId(String purchaseOrderId);
     
     List<PurchaseOrderItem> findByProductId(String productId);
+
+    // productId, supplierId, last order date - used to pick the usual supplier of a product
+    @Query("SELECT i.product.id, i.purchaseOrder.supplier.id, MAX(i.purchaseOrder.createdAt) " +
+           "FROM PurchaseOrderItem i WHERE i.product.id IN :productIds " +
+           "GROUP BY i.product.id, i.purchaseOrder.supplier.id")
+    List<Object[]> findSupplierHistoryForProducts(Collection<String> productIds);
 }
@@ -5,10 +5,13 @@ import com.smartsupply.entity.PurchaseOrder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,6 +34,24 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, St
            "LOWER(p.supplier.name) LIKE LOWER(CONCAT('%', :search, '%'))")
     Page<PurchaseOrder> searchByOrderNumberOrSupplier(@Param("search") String search, Pageable pageable);
 
+    // Status rows for validating bulk transitions without loading orders: id, orderNumber, supplierId, status
+    @Query("SELECT p.id, p.orderNumber, p.supplier.id, p.status FROM PurchaseOrder p WHERE p.id IN :ids")
+    List<Object[]> findStatusRows(Collection<String> ids);
+
+    // Guarded on the current status, so a concurrent change shows up as a lower count
+    @Modifying
+    @Query("UPDATE PurchaseOrder p SET p.status = :to WHERE p.id IN :ids AND p.status = :from")
+    int updateStatus(Collection<String> ids, OrderStatus from, OrderStatus to);
+
     @Query("SELECT p.supplier.name, SUM(p.totalAmount) as total FROM PurchaseOrder p GROUP BY p.supplier.name ORDER BY total DESC")
     List<Object[]> findTopSuppliersByTotalAmount(Pageable pageable);
+
+    // AI retrieval rows, one per order line (one with null line fields for an empty order), newest
+    // orders first: [id, orderNumber, supplierName, status, totalAmount, expectedDate, createdAt,
+    // productName, quantityOrdered, quantityReceived]
+    @Query("SELECT p.id, p.orderNumber, s.name, p.status, p.totalAmount, p.expectedDate, p.createdAt, " +
+           "pr.name, i.quantityOrdered, i.quantityReceived " +
+           "FROM PurchaseOrder p JOIN p.supplier s LEFT JOIN p.items i LEFT JOIN i.product pr " +
+           "WHERE p.createdAt >= :since ORDER BY p.createdAt DESC, p.id")
+    List<Object[]> findRetrievalRows(@Param("since") LocalDateTime since, Pageable pageable);
 }
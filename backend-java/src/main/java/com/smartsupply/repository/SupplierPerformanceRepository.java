@@ -0,0 +1,42 @@
+package com.smartsupply.repository;
+
+import com.smartsupply.entity.SupplierPerformance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SupplierPerformanceRepository extends JpaRepository<SupplierPerformance, String> {
+
+    // Empty scorecard for a supplier's first receipt; a no-op when one exists or is being inserted
+    @Modifying
+    @Query(value = "INSERT INTO supplier_performance (id, supplier_id, receipts, dated_receipts, on_time_receipts, " +
+                   "units_ordered, units_received, lead_time_count, lead_time_mean, lead_time_m2, delay_count, " +
+                   "delay_mean, delay_m2, price_variance_count, price_variance_mean, price_variance_m2) " +
+                   "VALUES (:id, :supplierId, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0) " +
+                   "ON CONFLICT (supplier_id) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("id") String id, @Param("supplierId") String supplierId);
+
+    // Row lock so concurrent receipts for one supplier fold in one after the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM SupplierPerformance p WHERE p.supplier.id = :supplierId")
+    Optional<SupplierPerformance> findBySupplierIdForUpdate(String supplierId);
+
+    @Query("SELECT p FROM SupplierPerformance p JOIN FETCH p.supplier WHERE p.supplier.id = :supplierId")
+    Optional<SupplierPerformance> findBySupplierId(String supplierId);
+
+    @Query("SELECT p FROM SupplierPerformance p JOIN FETCH p.supplier ORDER BY p.supplier.name")
+    List<SupplierPerformance> findAllWithSupplier();
+
+    @Modifying
+    @Query("DELETE FROM SupplierPerformance p WHERE p.supplier.id = :supplierId")
+    void deleteBySupplierId(String supplierId);
+}
@@ -0,0 +1,34 @@
+package com.smartsupply.repository;
+
+import com.smartsupply.entity.SupplierProduct;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SupplierProductRepository extends JpaRepository<SupplierProduct, String> {
+
+    Optional<SupplierProduct> findBySupplierIdAndProductId(String supplierId, String productId);
+
+    @Query("SELECT sp FROM SupplierProduct sp JOIN FETCH sp.product WHERE sp.supplier.id = :supplierId " +
+           "ORDER BY sp.product.sku")
+    List<SupplierProduct> findBySupplierIdWithProduct(String supplierId);
+
+    // Flat rows for the in-memory sourcing index:
+    // productId, sku, supplierId, supplierName, unitPrice, leadTimeDays, minOrderQuantity
+    @Query("SELECT p.id, p.sku, s.id, s.name, sp.unitPrice, sp.leadTimeDays, sp.minOrderQuantity " +
+           "FROM SupplierProduct sp JOIN sp.product p JOIN sp.supplier s")
+    List<Object[]> findIndexRows();
+
+    @Modifying
+    @Query("DELETE FROM SupplierProduct sp WHERE sp.supplier.id = :supplierId")
+    void deleteBySupplierId(String supplierId);
+
+    @Modifying
+    @Query("DELETE FROM SupplierProduct sp WHERE sp.product.id = :productId")
+    void deleteByProductId(String productId);
+}
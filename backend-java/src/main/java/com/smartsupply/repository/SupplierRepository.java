@@ -17,4 +17,12 @@ public interface SupplierRepository extends JpaRepository<Supplier, String> {
     
     @Query("SELECT s FROM Supplier s WHERE LOWER(s.name) LIKE LOWER(CONCAT('%', :query, '%'))")
     List<Supplier> searchByName(String query);
+
+    // Typeahead index rows: [id, name]
+    @Query("SELECT s.id, s.name FROM Supplier s")
+    List<Object[]> findNameRows();
+
+    // AI retrieval rows: [name, contactPerson, email, phone, address]
+    @Query("SELECT s.name, s.contactPerson, s.email, s.phone, s.address FROM Supplier s")
+    List<Object[]> findRetrievalRows();
 }
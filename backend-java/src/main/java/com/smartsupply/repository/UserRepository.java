@@ -5,7 +5,6 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
-import java.util.UUID;
 
 /**
  * UserRepository - Data access layer for User entity.
@@ -21,7 +20,7 @@ import java.util.UUID;
  * No implementation needed - Spring does it for you!
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, UUID> {
+public interface UserRepository extends JpaRepository<User, String> {
     
     /**
      * Find user by email.
@@ -3,6 +3,9 @@ package com.smartsupply.repository;
 import com.smartsupply.entity.Warehouse;
 import com.smartsupply.entity.WarehouseType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,4 +19,32 @@ public interface WarehouseRepository extends JpaRepository<Warehouse, String> {
     
     // Search by name or location (case-insensitive)
     List<Warehouse> findByNameContainingIgnoreCaseOrLocationContainingIgnoreCase(String name, String location);
+
+    // Capacity check and increment in one statement; returns 0 when the units don't fit
+    @Modifying
+    @Query("UPDATE Warehouse w SET w.usedUnits = w.usedUnits + :units " +
+           "WHERE w.id = :id AND (w.capacity IS NULL OR w.usedUnits + :units <= w.capacity)")
+    int addUsedUnitsWithinCapacity(@Param("id") String id, @Param("units") int units);
+
+    @Modifying
+    @Query("UPDATE Warehouse w SET w.usedUnits = w.usedUnits + :units WHERE w.id = :id")
+    int addUsedUnits(@Param("id") String id, @Param("units") int units);
+
+    @Modifying
+    @Query(value = "UPDATE warehouses w SET used_units = " +
+                   "COALESCE((SELECT SUM(i.quantity) FROM inventory_items i WHERE i.warehouse_id = w.id), 0)",
+           nativeQuery = true)
+    int recalculateUsedUnits();
+
+    // [id, name, capacity, usedUnits]
+    @Query("SELECT w.id, w.name, w.capacity, w.usedUnits FROM Warehouse w ORDER BY w.name")
+    List<Object[]> findUtilizationRows();
+
+    // Typeahead index rows: [id, name]
+    @Query("SELECT w.id, w.name FROM Warehouse w")
+    List<Object[]> findNameRows();
+
+    // AI retrieval rows: [name, location, type, capacity, usedUnits]
+    @Query("SELECT w.name, w.location, w.type, w.capacity, w.usedUnits FROM Warehouse w")
+    List<Object[]> findRetrievalRows();
 }
@@ -0,0 +1,29 @@
+package com.smartsupply.security;
+
+import com.smartsupply.entity.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Authenticated User - Stateless principal built from the JWT claims on each request.
+ *
+ * Holds what authorization needs (id, email, role) without loading the User entity.
+ * Code that needs the row itself looks it up by id (or takes a reference to it).
+ */
+public record AuthenticatedUser(String id, String email, Role role) implements Principal {
+
+    /**
+     * Email, so rate limit buckets and replica routing keep keying users as before.
+     */
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+}
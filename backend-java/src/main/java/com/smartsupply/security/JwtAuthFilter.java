@@ -1,6 +1,8 @@
 package com.smartsupply.security;
 
+import com.smartsupply.entity.User;
 import com.smartsupply.service.JwtService;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,7 +11,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -24,9 +25,11 @@ import java.io.IOException;
  * 
  * How it works:
  * 1. Extract token from Authorization header
- * 2. Validate token
- * 3. Load user from database
+ * 2. Validate token (signature, expiration)
+ * 3. Build an AuthenticatedUser from its claims - no database lookup
  * 4. Set authentication in SecurityContext
+ *
+ * Tokens issued before the uid/role claims existed still load the user once per request.
  * 
  * This filter runs BEFORE every request to protected endpoints.
  */
@@ -47,7 +50,6 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         // Get Authorization header
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
 
         // Check if header exists and starts with "Bearer "
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -58,26 +60,29 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         // Extract token (remove "Bearer " prefix)
         jwt = authHeader.substring(7);
         
-        // Extract email from token
-        userEmail = jwtService.extractUsername(jwt);
-
-        // If we have email and user is not already authenticated
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            // Load user from database
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            AuthenticatedUser principal;
+            try {
+                principal = jwtService.extractPrincipal(jwt);
+                if (principal == null) {
+                    principal = loadLegacyPrincipal(jwt);
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                // Bad signature, expired or malformed: continue unauthenticated
+                principal = null;
+            }
 
-            // Validate token
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (principal != null) {
                 // Create authentication token
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
+                        principal,
                         null,
-                        userDetails.getAuthorities()
+                        principal.getAuthorities()
                 );
                 authToken.setDetails(
                         new WebAuthenticationDetailsSource().buildDetails(request)
                 );
-                
+
                 // Set in security context - now request.user is available
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
@@ -85,4 +90,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private AuthenticatedUser loadLegacyPrincipal(String jwt) {
+        User user = (User) userDetailsService.loadUserByUsername(jwtService.extractUsername(jwt));
+        if (!jwtService.isTokenValid(jwt, user)) {
+            return null;
+        }
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole());
+    }
 }
@@ -0,0 +1,183 @@
+package com.smartsupply.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate Limit Filter - Per-user token buckets plus bulkheads for expensive endpoints.
+ *
+ * Runs right after JwtAuthFilter, so requests are keyed by the authenticated user
+ * (anonymous requests such as login by client address). Each request costs tokens according
+ * to the first matching rule; AI and reporting rules also have to get a permit from their
+ * bulkhead, which caps how many of them hold Tomcat threads and DB connections at once.
+ *
+ * Rejections are answered with 429 immediately - nothing waits for tokens or permits.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private record Rule(String name, String method, String pathPrefix, int cost, String bulkhead) {
+    }
+
+    // First match wins
+    private static final List<Rule> RULES = List.of(
+            new Rule("ai-chat", "POST", "/api/ai/", 20, "ai"),
+            new Rule("movements-date-range", "GET", "/inventory-movements/date-range", 5, "reporting"),
+            new Rule("movements-analytics", "GET", "/inventory-movements/analytics", 2, "reporting"),
+            new Rule("movements-summary", "GET", "/inventory-movements/summary", 2, "reporting"),
+            new Rule("movements-archive", "POST", "/inventory-movements/archive", 20, "reporting"),
+            new Rule("replenishment", null, "/replenishment/", 10, "reporting"),
+            new Rule("forecast-refresh", "POST", "/forecasts/refresh", 20, "reporting"),
+            new Rule("valuation-backfill", "POST", "/inventory/valuation/backfill", 20, "reporting"),
+            new Rule("product-classify", "POST", "/products/classify", 20, "reporting"),
+            new Rule("stocktake", "POST", "/inventory/stocktake", 20, "reporting"),
+            new Rule("purchase-orders-bulk", "POST", "/purchase-orders/bulk", 10, null),
+            new Rule("login", "POST", "/auth/", 5, null),
+            new Rule("default", null, "/", 1, null)
+    );
+
+    private final boolean enabled;
+    private final int capacity;
+    private final int refillPerSecond;
+    private final Map<String, Semaphore> bulkheads;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> allowed = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> rateLimited = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> bulkheadRejected = new ConcurrentHashMap<>();
+
+    public RateLimitFilter(
+            @Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.capacity:120}") int capacity,
+            @Value("${rate-limit.refill-per-second:2}") int refillPerSecond,
+            @Value("${rate-limit.bulkhead.ai:4}") int aiPermits,
+            @Value("${rate-limit.bulkhead.reporting:8}") int reportingPermits) {
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.bulkheads = Map.of(
+                "ai", new Semaphore(aiPermits),
+                "reporting", new Semaphore(reportingPermits));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        if (!enabled || "OPTIONS".equals(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Rule rule = match(request);
+        TokenBucket bucket = buckets.computeIfAbsent(clientKey(request), k -> new TokenBucket(capacity, refillPerSecond));
+        long waitMs = bucket.tryConsume(Math.min(rule.cost(), capacity));
+        if (waitMs > 0) {
+            count(rateLimited, rule);
+            reject(response, "Rate limit exceeded", waitMs);
+            return;
+        }
+
+        Semaphore bulkhead = rule.bulkhead() != null ? bulkheads.get(rule.bulkhead()) : null;
+        if (bulkhead != null && !bulkhead.tryAcquire()) {
+            count(bulkheadRejected, rule);
+            reject(response, "Too many concurrent " + rule.bulkhead() + " requests", 1000);
+            return;
+        }
+
+        count(allowed, rule);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> rules = new LinkedHashMap<>();
+        for (Rule rule : RULES) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("cost", rule.cost());
+            stats.put("allowed", sum(allowed, rule));
+            stats.put("rateLimited", sum(rateLimited, rule));
+            stats.put("bulkheadRejected", sum(bulkheadRejected, rule));
+            rules.put(rule.name(), stats);
+        }
+
+        Map<String, Object> bulkheadStats = new LinkedHashMap<>();
+        bulkheads.forEach((name, semaphore) -> bulkheadStats.put(name, Map.of("availablePermits", semaphore.availablePermits())));
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("enabled", enabled);
+        response.put("capacity", capacity);
+        response.put("refillPerSecond", refillPerSecond);
+        response.put("activeBuckets", buckets.size());
+        response.put("rules", rules);
+        response.put("bulkheads", bulkheadStats);
+        return response;
+    }
+
+    /**
+     * Drop buckets that have refilled completely; they are recreated full on the next request.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        buckets.entrySet().removeIf(entry -> entry.getValue().isIdle());
+    }
+
+    private Rule match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Rule rule : RULES) {
+            if ((rule.method() == null || rule.method().equals(request.getMethod())) && path.startsWith(rule.pathPrefix())) {
+                return rule;
+            }
+        }
+        return RULES.get(RULES.size() - 1);
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && auth.getName() != null) {
+            return "user:" + auth.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, String message, long retryAfterMs) throws IOException {
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, (retryAfterMs + 999) / 1000)));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"statusCode\":429,\"message\":\"" + message + "\"}");
+    }
+
+    private void count(Map<String, LongAdder> counters, Rule rule) {
+        counters.computeIfAbsent(rule.name(), k -> new LongAdder()).increment();
+    }
+
+    private long sum(Map<String, LongAdder> counters, Rule rule) {
+        LongAdder adder = counters.get(rule.name());
+        return adder != null ? adder.sum() : 0;
+    }
+}
@@ -0,0 +1,69 @@
+package com.smartsupply.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. The whole state lives in one AtomicLong:
+ * - high 40 bits: time of the last refill, in ms since ORIGIN
+ * - low 24 bits:  tokens, in thousandths of a token
+ *
+ * Refilling and taking tokens is a single CAS, so concurrent requests of one user never block.
+ */
+final class TokenBucket {
+
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long ORIGIN = System.currentTimeMillis();
+    static final int MILLI = 1000;
+
+    private final long capacityMilli;
+    private final long refillMilliPerMs;  // tokens per second == thousandths of a token per ms
+    private final AtomicLong state;
+
+    TokenBucket(int capacity, int refillPerSecond) {
+        if ((long) capacity * MILLI > TOKEN_MASK) {
+            throw new IllegalArgumentException("Token bucket capacity too large: " + capacity);
+        }
+        this.capacityMilli = (long) capacity * MILLI;
+        this.refillMilliPerMs = refillPerSecond;
+        this.state = new AtomicLong(pack(now(), capacityMilli));
+    }
+
+    /**
+     * Take cost tokens if available.
+     *
+     * @return 0 when taken, otherwise the milliseconds until enough tokens have refilled
+     */
+    long tryConsume(int cost) {
+        long costMilli = (long) cost * MILLI;
+        while (true) {
+            long current = state.get();
+            long last = current >>> TOKEN_BITS;
+            long now = Math.max(now(), last);
+            long tokens = Math.min(capacityMilli, (current & TOKEN_MASK) + (now - last) * refillMilliPerMs);
+            if (tokens < costMilli) {
+                return refillMilliPerMs > 0 ? Math.max(1, (costMilli - tokens + refillMilliPerMs - 1) / refillMilliPerMs) : Long.MAX_VALUE;
+            }
+            if (state.compareAndSet(current, pack(now, tokens - costMilli))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * True when the bucket would be full by now, i.e. it holds no information worth keeping.
+     */
+    boolean isIdle() {
+        long current = state.get();
+        long elapsed = now() - (current >>> TOKEN_BITS);
+        return (current & TOKEN_MASK) + elapsed * refillMilliPerMs >= capacityMilli;
+    }
+
+    private static long pack(long time, long tokensMilli) {
+        return (time << TOKEN_BITS) | tokensMilli;
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() - ORIGIN;
+    }
+}
@@ -0,0 +1,319 @@
+package com.smartsupply.service;
+
+import com.smartsupply.repository.InventoryItemRepository;
+import com.smartsupply.repository.InventoryMovementRepository;
+import com.smartsupply.repository.ProductRepository;
+import com.smartsupply.repository.PurchaseOrderRepository;
+import com.smartsupply.repository.SupplierRepository;
+import com.smartsupply.repository.WarehouseRepository;
+import com.smartsupply.service.DataVersionService.Aggregate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AiRetrievalService - Picks the records an AI chat prompt carries.
+ *
+ * Products, stock lines, warehouses, suppliers, recent purchase orders and recent movements are
+ * each rendered as one line of text and indexed in memory (Bm25Index). A question gets the top-K
+ * lines by BM25 score, with all sources scored as one collection.
+ *
+ * A source is re-indexed when an aggregate it is built from has changed (checked every
+ * ai.retrieval.refresh-ms), or once it is older than ai.retrieval.max-age-ms, since writes on
+ * other instances do not bump this one's versions.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AiRetrievalService {
+
+    public enum Source {
+        PRODUCTS("PRODUCTS", Aggregate.PRODUCTS),
+        INVENTORY("STOCK BY WAREHOUSE", Aggregate.INVENTORY, Aggregate.PRODUCTS, Aggregate.WAREHOUSES),
+        WAREHOUSES("WAREHOUSES", Aggregate.WAREHOUSES, Aggregate.INVENTORY),
+        SUPPLIERS("SUPPLIERS", Aggregate.SUPPLIERS),
+        PURCHASE_ORDERS("PURCHASE ORDERS", Aggregate.PURCHASE_ORDERS, Aggregate.SUPPLIERS, Aggregate.PRODUCTS),
+        MOVEMENTS("INVENTORY MOVEMENTS", Aggregate.MOVEMENTS, Aggregate.PRODUCTS, Aggregate.WAREHOUSES);
+
+        private final String heading;
+        private final Aggregate[] dependencies;
+
+        Source(String heading, Aggregate... dependencies) {
+            this.heading = heading;
+            this.dependencies = dependencies;
+        }
+
+        public String getHeading() {
+            return heading;
+        }
+    }
+
+    public record Hit(Source source, String text, double score) {
+    }
+
+    private record Built(Bm25Index index, String etag, long builtAt, long buildMs) {
+    }
+
+    // Question words that say nothing about which rows are wanted
+    private static final Set<String> STOP_WORDS = Set.copyOf(Bm25Index.terms(
+            "a an and any are at be by can do does for from give have how i in is it list many me much " +
+            "my of on or our show tell the there this to us we what when where which who why with you"));
+
+    private static final int INVENTORY_PAGE = 5000;
+
+    private final ProductRepository productRepository;
+    private final InventoryItemRepository inventoryItemRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final SupplierRepository supplierRepository;
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final DataVersionService dataVersionService;
+
+    @Value("${ai.retrieval.max-age-ms:600000}")
+    private long maxAgeMs;
+
+    @Value("${ai.retrieval.order-days:365}")
+    private int orderDays;
+
+    @Value("${ai.retrieval.max-order-lines:50000}")
+    private int maxOrderLines;
+
+    @Value("${ai.retrieval.movement-days:90}")
+    private int movementDays;
+
+    @Value("${ai.retrieval.max-movements:20000}")
+    private int maxMovements;
+
+    private final Map<Source, Built> built = new ConcurrentHashMap<>();
+
+    /**
+     * Up to limit indexed lines most relevant to the question, best first. Empty when none of
+     * the question's words occur in the data.
+     */
+    public List<Hit> retrieve(String question, int limit) {
+        List<String> terms = Bm25Index.terms(question).stream()
+                .filter(term -> !STOP_WORDS.contains(term))
+                .distinct()
+                .toList();
+        Map<Source, Bm25Index> indexes = new EnumMap<>(Source.class);
+        built.forEach((source, entry) -> indexes.put(source, entry.index()));
+        if (terms.isEmpty() || indexes.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // IDF over all sources together, so a term rare in one source but common overall counts less
+        long documents = indexes.values().stream().mapToLong(Bm25Index::size).sum();
+        double[] idf = new double[terms.size()];
+        for (int t = 0; t < terms.size(); t++) {
+            long df = 0;
+            for (Bm25Index index : indexes.values()) {
+                df += index.documentFrequency(terms.get(t));
+            }
+            idf[t] = Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+        }
+
+        PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.comparingDouble(Hit::score));
+        for (Map.Entry<Source, Bm25Index> entry : indexes.entrySet()) {
+            Bm25Index index = entry.getValue();
+            double[] scores = new double[index.size()];
+            List<Integer> touched = new ArrayList<>();
+            for (int t = 0; t < terms.size(); t++) {
+                index.score(terms.get(t), idf[t], scores, touched);
+            }
+            for (int doc : touched) {
+                if (best.size() < limit) {
+                    best.add(new Hit(entry.getKey(), index.text(doc), scores[doc]));
+                } else if (scores[doc] > best.peek().score()) {
+                    best.poll();
+                    best.add(new Hit(entry.getKey(), index.text(doc), scores[doc]));
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed());
+        return hits;
+    }
+
+    /**
+     * Re-index every source whose aggregates changed since it was built, or that is too old.
+     */
+    @Scheduled(fixedDelayString = "${ai.retrieval.refresh-ms:30000}")
+    public synchronized void refresh() {
+        for (Source source : Source.values()) {
+            // Read before the rows, so a write made while they load triggers the next refresh
+            String etag = dataVersionService.etag(source.dependencies);
+            Built current = built.get(source);
+            if (current != null && current.etag().equals(etag)
+                    && System.currentTimeMillis() - current.builtAt() < maxAgeMs) {
+                continue;
+            }
+            long started = System.currentTimeMillis();
+            try {
+                Bm25Index index = Bm25Index.build(documents(source));
+                long buildMs = System.currentTimeMillis() - started;
+                built.put(source, new Built(index, etag, started, buildMs));
+                log.debug("AI retrieval: indexed {} {} lines ({} terms) in {} ms",
+                        index.size(), source, index.terms(), buildMs);
+            } catch (RuntimeException e) {
+                log.warn("AI retrieval: indexing {} failed, keeping the previous index", source, e);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshOnStartup() {
+        Thread.ofPlatform().daemon().name("ai-retrieval-indexer").start(this::refresh);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long now = System.currentTimeMillis();
+        for (Source source : Source.values()) {
+            Built entry = built.get(source);
+            Map<String, Object> perSource = new LinkedHashMap<>();
+            if (entry != null) {
+                perSource.put("documents", entry.index().size());
+                perSource.put("terms", entry.index().terms());
+                perSource.put("approxBytes", entry.index().bytes());
+                perSource.put("buildMs", entry.buildMs());
+                perSource.put("ageSeconds", (now - entry.builtAt()) / 1000);
+            }
+            stats.put(source.name().toLowerCase(), perSource);
+        }
+        return stats;
+    }
+
+    private List<String> documents(Source source) {
+        return switch (source) {
+            case PRODUCTS -> productDocuments();
+            case INVENTORY -> inventoryDocuments();
+            case WAREHOUSES -> warehouseDocuments();
+            case SUPPLIERS -> supplierDocuments();
+            case PURCHASE_ORDERS -> orderDocuments();
+            case MOVEMENTS -> movementDocuments();
+        };
+    }
+
+    private List<String> productDocuments() {
+        List<String> documents = new ArrayList<>();
+        // [id, sku, name, category, price, safetyStock, abcClass, xyzClass]
+        for (Object[] row : productRepository.findRetrievalRows()) {
+            String classes = row[6] != null || row[7] != null
+                    ? String.format(", ABC/XYZ class %s%s", text(row[6], ""), text(row[7], ""))
+                    : "";
+            documents.add(String.format("- Product %s (SKU: %s, Category: %s, Price: %.2f EUR, Safety Stock: %d%s)",
+                    row[2], row[1], text(row[3], "-"), (BigDecimal) row[4], number(row[5]), classes));
+        }
+        return documents;
+    }
+
+    private List<String> inventoryDocuments() {
+        List<String> documents = new ArrayList<>();
+        String afterId = "";
+        while (true) {
+            // [id, productId, sku, name, safetyStock, warehouseId, warehouseName, quantity, reserved]
+            List<Object[]> rows = inventoryItemRepository.findPlanningRowsAfter(afterId, PageRequest.of(0, INVENTORY_PAGE));
+            for (Object[] row : rows) {
+                int quantity = number(row[7]);
+                int safetyStock = number(row[4]);
+                documents.add(String.format("- Product: %s (SKU: %s), Warehouse: %s, Quantity: %d, Reserved: %d%s",
+                        row[3], row[2], row[6], quantity, number(row[8]),
+                        quantity <= safetyStock ? " [LOW STOCK WARNING]" : ""));
+            }
+            if (rows.size() < INVENTORY_PAGE) {
+                return documents;
+            }
+            afterId = (String) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    private List<String> warehouseDocuments() {
+        List<String> documents = new ArrayList<>();
+        // [name, location, type, capacity, usedUnits]
+        for (Object[] row : warehouseRepository.findRetrievalRows()) {
+            documents.add(String.format("- Warehouse %s (%s, %s): %d units stored, Capacity: %s",
+                    row[0], text(row[1], "-"), row[2], number(row[4]), text(row[3], "unlimited")));
+        }
+        return documents;
+    }
+
+    private List<String> supplierDocuments() {
+        List<String> documents = new ArrayList<>();
+        // [name, contactPerson, email, phone, address]
+        for (Object[] row : supplierRepository.findRetrievalRows()) {
+            documents.add(String.format("- Supplier %s (Contact: %s, Email: %s, Phone: %s, Address: %s)",
+                    row[0], text(row[1], "-"), text(row[2], "-"), text(row[3], "-"), text(row[4], "-")));
+        }
+        return documents;
+    }
+
+    private List<String> orderDocuments() {
+        LocalDateTime since = LocalDateTime.now().minusDays(orderDays);
+        List<Object[]> rows = purchaseOrderRepository.findRetrievalRows(since, PageRequest.of(0, maxOrderLines));
+        // The last order may be cut off by the page; leave it out rather than list part of it
+        String cutOff = rows.size() == maxOrderLines ? (String) rows.get(rows.size() - 1)[0] : null;
+
+        // [id, orderNumber, supplierName, status, totalAmount, expectedDate, createdAt,
+        //  productName, quantityOrdered, quantityReceived], one order's lines together
+        Map<String, Object[]> headers = new LinkedHashMap<>();
+        Map<String, List<String>> lines = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            String id = (String) row[0];
+            if (id.equals(cutOff)) {
+                break;
+            }
+            headers.putIfAbsent(id, row);
+            List<String> items = lines.computeIfAbsent(id, k -> new ArrayList<>());
+            if (row[7] != null) {
+                items.add(String.format("%dx %s (%d received)", number(row[8]), row[7], number(row[9])));
+            }
+        }
+
+        List<String> documents = new ArrayList<>(headers.size());
+        headers.forEach((id, row) -> documents.add(String.format(
+                "- Order #%s: Supplier: %s, Status: %s, Total: %.2f EUR, Created: %s, Expected: %s, Items: [%s]",
+                row[1], row[2], row[3], (BigDecimal) row[4], ((LocalDateTime) row[6]).toLocalDate(),
+                text(row[5], "-"), String.join(", ", lines.get(id)))));
+        return documents;
+    }
+
+    private List<String> movementDocuments() {
+        LocalDateTime since = LocalDateTime.now().minusDays(movementDays);
+        List<String> documents = new ArrayList<>();
+        // [createdAt, type, quantity, productName, sku, warehouseName, reason, referenceType, referenceId]
+        for (Object[] row : inventoryMovementRepository.findRetrievalRows(since, PageRequest.of(0, maxMovements))) {
+            String reference = row[7] != null ? ", Reference: " + row[7] + (row[8] != null ? " " + row[8] : "") : "";
+            documents.add(String.format("- %s: %s %d units of %s (SKU: %s) at %s (Reason: %s%s)",
+                    ((LocalDateTime) row[0]).truncatedTo(ChronoUnit.MINUTES), row[1], number(row[2]),
+                    row[3], row[4], row[5], text(row[6], "-"), reference));
+        }
+        return documents;
+    }
+
+    private static int number(Object value) {
+        return value != null ? ((Number) value).intValue() : 0;
+    }
+
+    private static String text(Object value, String fallback) {
+        return value != null ? value.toString() : fallback;
+    }
+}
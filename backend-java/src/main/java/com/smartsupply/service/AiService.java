@@ -1,7 +1,7 @@
 package com.smartsupply.service;
 
-import com.smartsupply.entity.*;
-import com.smartsupply.repository.*;
+import com.smartsupply.dto.DashboardStatsDTO;
+import com.smartsupply.dto.WarehouseUtilizationResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,40 +13,44 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import org.springframework.transaction.annotation.Transactional;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AiService {
 
-    private final ProductRepository productRepository;
-    private final InventoryItemRepository inventoryRepository;
-    private final SupplierRepository supplierRepository;
-    private final WarehouseRepository warehouseRepository;
-    private final PurchaseOrderRepository purchaseOrderRepository;
-    private final InventoryMovementRepository inventoryMovementRepository;
+    private final StatisticsService statisticsService;
+    private final WarehouseCapacityService warehouseCapacityService;
+    private final InventoryValuationService inventoryValuationService;
+    private final AiRetrievalService aiRetrievalService;
 
     @Value("${gemini.api-key}") // Fix: Ensure this matches application.yml key, often camelCase or kebab-case
     private String geminiApiKey;
 
+    @Value("${ai.retrieval.top-k:40}")
+    private int topK;
+
+    @Value("${ai.retrieval.max-context-chars:12000}")
+    private int maxContextChars;
+
     private final RestTemplate restTemplate = new RestTemplate();
     private static final String GEMINI_API_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash-lite:generateContent?key=";
 
-    @Transactional(readOnly = true)
     public String generateResponse(String userMessage) {
         try {
             // 1. Aggregate Context (Wrap in try-catch to handle DB errors)
-            String context = buildContext();
+            String context = buildContext(userMessage);
 
             // 2. Build Prompt
             String systemPrompt = "You are SmartSupply Assistant, an AI expert in supply chain management. " +
                     "Use the provided database context to answer the user's question. " +
-                    "You SHOULD aggregate, summarize, and count data when asked (e.g., 'total inventory', 'how many products'). " +
+                    "The SUMMARY has the totals and counts; the RECORDS are only the rows most relevant to the question, " +
+                    "not the full data, so take totals and counts from the SUMMARY. " +
                     "If the answer is not in the data, say you don't know. " +
                     "Be concise but informative. Format money as EUR (€). " +
                     "\n\nDATA CONTEXT:\n" + context;
@@ -61,119 +65,57 @@ public class AiService {
         }
     }
 
-    private String buildContext() {
+    /**
+     * Summary figures plus the indexed records that best match the question, at most
+     * ai.retrieval.max-context-chars in all.
+     */
+    private String buildContext(String question) {
         StringBuilder sb = new StringBuilder();
 
-        // Products
-        List<Product> products = productRepository.findAll();
-        sb.append("PRODUCTS (Total: ").append(products.size()).append("):\n");
-        for (Product p : products) {
-            sb.append(String.format("- %s (SKU: %s, Price: %.2f, Category: %s, Safety Stock: %d)\n",
-                    p.getName(), p.getSku(), p.getPrice(), p.getCategory(), (p.getSafetyStock() != null ? p.getSafetyStock() : 0)));
-        }
-        sb.append("\n");
-
-        // Warehouses
-        List<Warehouse> warehouseList = warehouseRepository.findAll();
-        sb.append("WAREHOUSES (Total: ").append(warehouseList.size()).append("):\n");
-        for (Warehouse w : warehouseList) {
-            sb.append(String.format("- %s (%s)\n", w.getName(), w.getLocation()));
-        }
-        sb.append("\n");
-
-        // Inventory
-        List<InventoryItem> inventory = inventoryRepository.findAll();
-        int totalQuantity = inventory.stream().mapToInt(InventoryItem::getQuantity).sum();
-        double totalValue = inventory.stream()
-            .mapToDouble(i -> i.getQuantity() * i.getProduct().getPrice().doubleValue())
-            .sum();
-        
-        // Calculate Most Stocked Product
-        Map<String, Integer> productStockMap = inventory.stream()
-            .collect(Collectors.groupingBy(
-                i -> i.getProduct().getName(), 
-                Collectors.summingInt(InventoryItem::getQuantity)
-            ));
-            
-        Map.Entry<String, Integer> mostStocked = productStockMap.entrySet().stream()
-            .max(Map.Entry.comparingByValue())
-            .orElse(null);
-
-        sb.append(String.format("INVENTORY SUMMARY: Total Items: %d, Total Value: %.2f EUR\n", totalQuantity, totalValue));
-        if (mostStocked != null) {
-            sb.append(String.format("MOST STOCKED PRODUCT: %s (Total Quantity: %d)\n", mostStocked.getKey(), mostStocked.getValue()));
-        }
-        
-        sb.append("INVENTORY DETAILS (By Warehouse):\n");
-        // Sort items by quantity descending to help AI see top items first
-        List<InventoryItem> sortedInventory = inventory.stream()
-                .sorted((a, b) -> b.getQuantity().compareTo(a.getQuantity()))
-                .collect(Collectors.toList());
-
-        for (InventoryItem i : sortedInventory) {
-             int safetyStock = i.getProduct().getSafetyStock() != null ? i.getProduct().getSafetyStock() : 0;
-             boolean isLowStock = i.getQuantity() <= safetyStock;
-             
-             sb.append(String.format("- Product: %s, Warehouse: %s, Quantity: %d%s\n",
-                     i.getProduct().getName(), 
-                     i.getWarehouse().getName(), 
-                     i.getQuantity(),
-                     (isLowStock ? " [LOW STOCK WARNING]" : "")));
-        }
-        sb.append("\n");
-
-        // Suppliers
-        List<Supplier> suppliers = supplierRepository.findAll();
-        sb.append("SUPPLIERS (Total: ").append(suppliers.size()).append("):\n");
-        
-        // Calculate Best Supplier (by PO Volume)
-        List<PurchaseOrder> allOrders = purchaseOrderRepository.findAll();
-        Map<String, Double> supplierVolume = allOrders.stream()
-             .filter(po -> po.getStatus() != OrderStatus.CANCELLED)
-             .collect(Collectors.groupingBy(
-                 po -> po.getSupplier().getName(),
-                 Collectors.summingDouble(po -> po.getTotalAmount().doubleValue())
-             ));
-
-        Map.Entry<String, Double> bestSupplier = supplierVolume.entrySet().stream()
-             .max(Map.Entry.comparingByValue())
-             .orElse(null);
-
-        if (bestSupplier != null) {
-             sb.append(String.format("BEST SUPPLIER (High Volume): %s (Total PO Value: %.2f EUR)\n", bestSupplier.getKey(), bestSupplier.getValue()));
+        // Totals and counts, so aggregate questions do not need every row
+        DashboardStatsDTO stats = statisticsService.getDashboardStats();
+        int totalQuantity = warehouseCapacityService.getUtilization().stream()
+                .mapToInt(WarehouseUtilizationResponse::getUsedUnits)
+                .sum();
+        // Cost basis (weighted average), not list price
+        double totalValue = inventoryValuationService.getTotalValue().doubleValue();
+
+        sb.append("SUMMARY:\n");
+        sb.append(String.format("- Products: %d, Warehouses: %d, Suppliers: %d, Purchase Orders: %d\n",
+                stats.getTotalProducts(), stats.getTotalWarehouses(), stats.getTotalSuppliers(), stats.getTotalOrders()));
+        sb.append(String.format("- Inventory: Total Items: %d, Total Value: %.2f EUR\n", totalQuantity, totalValue));
+        sb.append(String.format("- Most Stocked Product: %s (Total Quantity: %d)\n",
+                stats.getMostStockedProduct(), stats.getMostStockedQuantity()));
+        sb.append(String.format("- Least Stocked Product: %s (Total Quantity: %d)\n",
+                stats.getLeastStockedProduct(), stats.getLeastStockedQuantity()));
+        sb.append(String.format("- Best Supplier (High Volume): %s (Total PO Value: %.2f EUR)\n",
+                stats.getBestSupplierName(), stats.getBestSupplierTotalAmount()));
+        sb.append("- Lowest Stock Products: ").append(String.join(", ", stats.getLowStockProducts())).append("\n\n");
+
+        List<AiRetrievalService.Hit> hits = aiRetrievalService.retrieve(question, topK);
+        // Spend the budget in score order, then group what fits by source for display
+        String recordsHeading = "RECORDS (%d most relevant to the question):\n";
+        int budget = maxContextChars - sb.length() - String.format(recordsHeading, hits.size()).length();
+        Map<AiRetrievalService.Source, List<String>> bySource = new EnumMap<>(AiRetrievalService.Source.class);
+        int records = 0;
+        for (AiRetrievalService.Hit hit : hits) {
+            int cost = hit.text().length() + 1
+                    + (bySource.containsKey(hit.source()) ? 0 : hit.source().getHeading().length() + 2);
+            if (cost > budget) {
+                break;
+            }
+            budget -= cost;
+            bySource.computeIfAbsent(hit.source(), k -> new ArrayList<>()).add(hit.text());
+            records++;
         }
 
-        for (Supplier s : suppliers) {
-            sb.append(String.format("- %s (Contact: %s, Email: %s)\n",
-                    s.getName(), s.getContactPerson(), s.getEmail()));
-        }
-        sb.append("\n");
-
-        // Recent POs
-        // Reuse allOrders list but limit for display if needed, here just showing last 10 effectively in real app logic
-        sb.append("RECENT PURCHASE ORDERS (Total: ").append(allOrders.size()).append("):\n");
-        for (PurchaseOrder po : allOrders) {
-             String itemsSummary = po.getItems().stream()
-                 .map(item -> String.format("%dx %s", item.getQuantityOrdered(), item.getProduct().getName()))
-                 .collect(Collectors.joining(", "));
-             
-             sb.append(String.format("- Order #%s: Supplier: %s, Status: %s, Total: %.2f, Items: [%s]\n",
-                     po.getId(), po.getSupplier().getName(), po.getStatus(), po.getTotalAmount(), itemsSummary));
-        }
-        sb.append("\n");
-
-        // Recent Inventory Movements (History)
-        List<InventoryMovement> movements = inventoryMovementRepository.findAll(); // Limit in real app
-        sb.append("RECENT INVENTORY MOVEMENTS (History):\n");
-        for (InventoryMovement m : movements) {
-            sb.append(String.format("- %s: %s %d units of %s at %s (Reason: %s, User: %s)\n",
-                    m.getCreatedAt(), m.getMovementType(), m.getQuantity(), 
-                    m.getInventoryItem().getProduct().getName(),
-                    m.getInventoryItem().getWarehouse().getName(),
-                    m.getReason(),
-                    (m.getPerformedBy() != null ? m.getPerformedBy().getEmail() : "System")));
+        sb.append(String.format(recordsHeading, records));
+        for (Map.Entry<AiRetrievalService.Source, List<String>> entry : bySource.entrySet()) {
+            sb.append(entry.getKey().getHeading()).append(":\n");
+            entry.getValue().forEach(line -> sb.append(line).append('\n'));
         }
 
+        log.debug("AI context: {} chars, {} of {} records", sb.length(), records, hits.size());
         return sb.toString();
     }
 
@@ -0,0 +1,31 @@
+package com.smartsupply.service;
+
+import com.smartsupply.entity.MovementType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One inventory movement as stored in an archive segment, denormalized as it was when archived.
+ *
+ * @param unitCost PO unit price for receipts against a purchase order (for valuation replay), else null
+ */
+public record ArchivedMovement(
+        String id,
+        String inventoryItemId,
+        String productId,
+        String warehouseId,
+        String productSku,
+        String productName,
+        String warehouseName,
+        MovementType movementType,
+        int quantity,
+        Integer quantityBefore,
+        Integer quantityAfter,
+        String reason,
+        String referenceType,
+        String referenceId,
+        String performedByName,
+        BigDecimal unitCost,
+        LocalDateTime createdAt) {
+}
@@ -6,9 +6,12 @@ import com.smartsupply.dto.RegisterRequest;
 import com.smartsupply.entity.User;
 import com.smartsupply.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * AuthService - Handles authentication business logic.
  * 
@@ -20,15 +23,21 @@ import org.springframework.stereotype.Service;
  * 
  * - NestJS: argon2.verify(hash, password)
  * - Java:   passwordEncoder.matches(password, hash)
+ *
+ * Both run on PasswordHashingService's bounded pool, so login and register return futures
+ * and the request thread is released while BCrypt works. What follows the hash (saving the
+ * user, signing the JWT) continues on a virtual thread, so the BCrypt threads only hash.
  */
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
 
+    private final ExecutorService continuations = Executors.newVirtualThreadPerTaskExecutor();
+
     /**
      * Register a new user.
      * 
@@ -39,7 +48,7 @@ public class AuthService {
      * 4. Save user
      * 5. Return auth response with JWT
      */
-    public AuthResponse register(RegisterRequest request) {
+    public CompletableFuture<AuthResponse> register(RegisterRequest request) {
         // Check if user already exists
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new RuntimeException("User with this email already exists");
@@ -48,22 +57,24 @@ public class AuthService {
         // Determine role from invite code (secure role assignment)
         var role = getRoleFromInviteCode(request.getInviteCode());
 
-        // Build user entity with hashed password
-        User user = User.builder()
-                .email(request.getEmail())
-                .passwordHash(passwordEncoder.encode(request.getPassword()))
-                .firstName(request.getFirstName())
-                .lastName(request.getLastName())
-                .role(role)
-                .build();
+        return passwordHashingService.encode(request.getPassword()).thenApplyAsync(passwordHash -> {
+            // Build user entity with hashed password
+            User user = User.builder()
+                    .email(request.getEmail())
+                    .passwordHash(passwordHash)
+                    .firstName(request.getFirstName())
+                    .lastName(request.getLastName())
+                    .role(role)
+                    .build();
 
-        // Save to database
-        user = userRepository.save(user);
+            // Save to database
+            user = userRepository.save(user);
 
-        // Generate JWT token
-        String jwtToken = jwtService.generateToken(user);
+            // Generate JWT token
+            String jwtToken = jwtService.generateToken(user);
 
-        return buildAuthResponse(user, jwtToken);
+            return buildAuthResponse(user, jwtToken);
+        }, continuations);
     }
 
     /**
@@ -88,20 +99,30 @@ public class AuthService {
      * 
      * This is like NestJS: authService.validateUser() + authService.login()
      */
-    public AuthResponse login(LoginRequest request) {
+    public CompletableFuture<AuthResponse> login(LoginRequest request) {
         // Find user by email
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("Invalid credentials"));
 
         // Verify password (like NestJS argon2.verify)
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            throw new RuntimeException("Invalid credentials");
-        }
+        return passwordHashingService.matches(request.getPassword(), user.getPassword()).thenApplyAsync(matches -> {
+            if (!matches) {
+                throw new RuntimeException("Invalid credentials");
+            }
 
-        // Generate JWT token
-        String jwtToken = jwtService.generateToken(user);
+            // Generate JWT token
+            String jwtToken = jwtService.generateToken(user);
 
-        return buildAuthResponse(user, jwtToken);
+            return buildAuthResponse(user, jwtToken);
+        }, continuations);
+    }
+
+    /**
+     * Load the current user's row for the profile (the JWT only carries id, email and role).
+     */
+    public User getUser(String id) {
+        return userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
     /**
@@ -0,0 +1,153 @@
+package com.smartsupply.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bm25Index - Immutable inverted index over short text documents, scored with Okapi BM25.
+ *
+ * Terms are lowercase letter/digit runs with a plural 's' dropped, so "Bolts" matches "bolt"
+ * and "SKU-000123" is the two terms "sku" and "000123". Each term's postings are one int array of
+ * (document, term frequency) pairs.
+ *
+ * IDF comes from the caller so several indexes can be scored as one collection.
+ */
+final class Bm25Index {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final String[] texts;
+    private final int[] lengths;
+    private final double averageLength;
+    private final Map<String, int[]> postings;
+
+    private Bm25Index(String[] texts, int[] lengths, Map<String, int[]> postings) {
+        this.texts = texts;
+        this.lengths = lengths;
+        this.averageLength = Math.max(1, Arrays.stream(lengths).average().orElse(1));
+        this.postings = postings;
+    }
+
+    static Bm25Index build(List<String> documents) {
+        String[] texts = documents.toArray(String[]::new);
+        int[] lengths = new int[texts.length];
+        Map<String, int[]> growing = new HashMap<>();
+        Map<String, Integer> sizes = new HashMap<>();
+        Map<String, Integer> frequencies = new HashMap<>();
+
+        for (int doc = 0; doc < texts.length; doc++) {
+            frequencies.clear();
+            List<String> terms = terms(texts[doc]);
+            lengths[doc] = terms.size();
+            for (String term : terms) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                String term = entry.getKey();
+                int size = sizes.getOrDefault(term, 0);
+                int[] list = growing.get(term);
+                if (list == null) {
+                    list = new int[4];
+                } else if (size + 2 > list.length) {
+                    list = Arrays.copyOf(list, list.length * 2);
+                }
+                list[size] = doc;
+                list[size + 1] = entry.getValue();
+                growing.put(term, list);
+                sizes.put(term, size + 2);
+            }
+        }
+
+        Map<String, int[]> postings = new HashMap<>(growing.size() * 2);
+        growing.forEach((term, list) -> postings.put(term, Arrays.copyOf(list, sizes.get(term))));
+        return new Bm25Index(texts, lengths, postings);
+    }
+
+    /**
+     * Terms of a document or a query, in order, with repeats.
+     */
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                terms.add(stem(lower.substring(start, i)));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    int size() {
+        return texts.length;
+    }
+
+    int terms() {
+        return postings.size();
+    }
+
+    String text(int doc) {
+        return texts[doc];
+    }
+
+    /**
+     * Documents containing the term.
+     */
+    int documentFrequency(String term) {
+        int[] list = postings.get(term);
+        return list != null ? list.length / 2 : 0;
+    }
+
+    /**
+     * Add the term's BM25 contribution to scores[doc] for every document containing it; each
+     * document scored for the first time is appended to touched.
+     */
+    void score(String term, double idf, double[] scores, List<Integer> touched) {
+        int[] list = postings.get(term);
+        if (list == null) {
+            return;
+        }
+        for (int i = 0; i < list.length; i += 2) {
+            int doc = list[i];
+            int tf = list[i + 1];
+            double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+            if (scores[doc] == 0) {
+                touched.add(doc);
+            }
+            scores[doc] += idf * tf * (K1 + 1) / (tf + norm);
+        }
+    }
+
+    /**
+     * Approximate heap used by the texts and postings.
+     */
+    long bytes() {
+        long bytes = lengths.length * 4L;
+        for (String text : texts) {
+            bytes += 40 + text.length();
+        }
+        for (Map.Entry<String, int[]> entry : postings.entrySet()) {
+            bytes += 80 + entry.getKey().length() + entry.getValue().length * 4L;
+        }
+        return bytes;
+    }
+
+    private static String stem(String term) {
+        if (term.length() > 3 && term.endsWith("s") && !term.endsWith("ss")) {
+            return term.substring(0, term.length() - 1);
+        }
+        return term;
+    }
+}
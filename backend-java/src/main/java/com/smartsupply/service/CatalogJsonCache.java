@@ -0,0 +1,68 @@
+package com.smartsupply.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartsupply.config.ReplicaRoutingDataSource;
+import com.smartsupply.service.DataVersionService.Aggregate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * CatalogJsonCache - Serialized JSON bodies of catalog responses (products, warehouses)
+ * and movement summaries.
+ *
+ * Entries are keyed by resource plus page/filter and stamped with the aggregate version they
+ * were built from. A write bumps the version, so the next read rebuilds the entry; until then
+ * every call hands out the same byte[] without mapping or serializing anything.
+ *
+ * Loaders read from the primary: an entry is shared by every user, so it must not carry
+ * replica lag past the write that bumped the version.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogJsonCache {
+
+    private final ObjectMapper objectMapper;
+    private final DataVersionService dataVersionService;
+
+    @Value("${catalog-cache.max-entries:512}")
+    private int maxEntries;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Entry(long version, byte[] json) {
+    }
+
+    /**
+     * JSON bytes for the key, built from the loader when missing or stale.
+     */
+    public byte[] get(Aggregate aggregate, String key, Supplier<?> loader) {
+        // Read the version before loading: a write racing the load leaves the entry stale, never wrong
+        long version = dataVersionService.version(aggregate);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version() == version) {
+            return entry.json();
+        }
+
+        byte[] json = serialize(ReplicaRoutingDataSource.onPrimary(loader));
+        if (entries.size() >= maxEntries) {
+            // Search keys are unbounded; start over rather than track recency
+            entries.clear();
+        }
+        entries.put(key, new Entry(version, json));
+        return json;
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize catalog response", e);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.smartsupply.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DashboardPushService - Server-sent dashboard updates instead of per-browser polling.
+ *
+ * A fixed-rate tick (250 ms by default) compares the dashboard's data versions with the ones
+ * last pushed. Any number of writes inside one window therefore cost a single
+ * StatisticsService run; the changed fields are serialized once and the same event is written
+ * to every subscriber.
+ *
+ * The tick only queues events. Each subscriber's queue is written by a sender thread, one event
+ * at a time, so a slow client never holds up the tick or the other subscribers. A subscriber is
+ * dropped when its queue overflows (dashboard-push.queue-capacity) or a single write takes longer
+ * than dashboard-push.send-timeout-ms.
+ *
+ * Events:
+ * - snapshot - full DashboardStatsDTO, sent on subscribe
+ * - delta    - only the fields that changed since the previous push
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardPushService {
+
+    private static final int HEARTBEAT_TICKS = 60;
+
+    private final StatisticsService statisticsService;
+    private final DataVersionService dataVersionService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${dashboard-push.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${dashboard-push.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${dashboard-push.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    private final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // Virtual threads: a write stuck on a dead connection holds its thread until the container
+    // gives up, also after the subscriber is dropped, so the count is not bounded by subscribers
+    private final ExecutorService sender = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("dashboard-push-", 1).factory());
+
+    // Only touched under this monitor: by the tick and by subscribe
+    private String pushedEtag;
+    private ObjectNode pushedState;
+    private String pushedJson;
+    private int ticksSinceSend;
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        // Under the tick's monitor so no delta can slip in between the snapshot and registration
+        synchronized (this) {
+            ObjectNode delta = refreshIfChanged();
+            if (delta != null && !delta.isEmpty()) {
+                broadcastDelta(delta);
+            }
+            subscribers.add(subscriber);
+            subscriber.offer(SseEmitter.event().name("snapshot")
+                    .data(pushedJson, MediaType.APPLICATION_JSON).build());
+        }
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Scheduled(fixedRateString = "${dashboard-push.coalesce-ms:250}")
+    public synchronized void tick() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.stuck(now)) {
+                drop(subscriber, "send timed out");
+            }
+        }
+
+        ObjectNode delta = refreshIfChanged();
+        if (delta != null && !delta.isEmpty()) {
+            broadcastDelta(delta);
+        } else if (++ticksSinceSend >= HEARTBEAT_TICKS) {
+            // Comment line keeps proxies from closing idle streams and flushes out dead clients
+            broadcast(SseEmitter.event().comment("keepalive").build());
+            ticksSinceSend = 0;
+        }
+    }
+
+    /**
+     * Recompute the dashboard if any source aggregate moved since the last push.
+     * Returns the changed top-level fields, or null when nothing was recomputed.
+     */
+    private ObjectNode refreshIfChanged() {
+        String etag = dataVersionService.etag(StatisticsService.DASHBOARD_SOURCES);
+        if (etag.equals(pushedEtag)) {
+            return null;
+        }
+
+        ObjectNode state = objectMapper.valueToTree(statisticsService.getDashboardStats());
+        ObjectNode delta = objectMapper.createObjectNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = state.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (pushedState == null || !field.getValue().equals(pushedState.get(field.getKey()))) {
+                delta.set(field.getKey(), field.getValue());
+            }
+        }
+
+        pushedEtag = etag;
+        pushedState = state;
+        pushedJson = state.toString();
+        return delta;
+    }
+
+    private void broadcastDelta(ObjectNode delta) {
+        broadcast(SseEmitter.event().name("delta").data(delta.toString(), MediaType.APPLICATION_JSON).build());
+        ticksSinceSend = 0;
+    }
+
+    private void broadcast(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    private void drop(Subscriber subscriber, String reason) {
+        if (subscribers.remove(subscriber)) {
+            log.debug("Dropping dashboard subscriber: {}", reason);
+            // complete() waits for a write in progress, so never on the tick's thread
+            sender.execute(subscriber.emitter::complete);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    /**
+     * One stream: events wait in a bounded queue and at most one sender thread writes them.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue =
+                new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile long sendingSince;   // nanoTime the current write started, 0 between writes
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (!queue.offer(event)) {
+                drop(this, "falling behind");
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        boolean stuck(long now) {
+            long since = sendingSince;
+            return since != 0 && now - since > TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        }
+
+        private void drain() {
+            try {
+                do {
+                    Set<ResponseBodyEmitter.DataWithMediaType> event;
+                    while ((event = queue.poll()) != null) {
+                        sendingSince = System.nanoTime();
+                        emitter.send(event);
+                        sendingSince = 0;
+                    }
+                    draining.set(false);
+                    // An offer may have found draining still set just before it was cleared
+                } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                // Stays marked as draining: nothing more is written to this emitter
+                sendingSince = 0;
+                subscribers.remove(this);
+                log.debug("Dropping dashboard subscriber: {}", e.getMessage());
+            }
+        }
+    }
+}
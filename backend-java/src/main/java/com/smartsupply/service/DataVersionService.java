@@ -0,0 +1,146 @@
+package com.smartsupply.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DataVersionService - Per-aggregate version counters used as strong ETags.
+ *
+ * Services bump the counters of whatever they write; read endpoints build their ETag from
+ * the counters they depend on and answer If-None-Match with 304 before touching the database.
+ *
+ * Bumps happen after the surrounding transaction commits, so a client can never pair a new
+ * ETag with data from before the write. The boot timestamp is part of every ETag, so
+ * counters restarting at zero never collide with ETags handed out by a previous run.
+ *
+ * The counters only see writes made through this instance. Every counter is bumped after
+ * data-version.max-age-ms anyway, so ETags and cached responses pick up writes made elsewhere
+ * (other instances, the other backend) within that time.
+ */
+@Service
+public class DataVersionService {
+
+    public enum Aggregate {
+        PRODUCTS,
+        WAREHOUSES,
+        SUPPLIERS,
+        INVENTORY,
+        PURCHASE_ORDERS,
+        MOVEMENTS
+    }
+
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+    private final Map<Aggregate, AtomicLong> versions = new EnumMap<>(Aggregate.class);
+    private final Map<String, LongAdder> hits = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> misses = new ConcurrentHashMap<>();
+
+    public DataVersionService() {
+        for (Aggregate aggregate : Aggregate.values()) {
+            versions.put(aggregate, new AtomicLong());
+        }
+    }
+
+    /**
+     * Mark aggregates as changed. Inside a transaction this takes effect on commit.
+     */
+    public void bump(Aggregate... aggregates) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(aggregates);
+                }
+            });
+        } else {
+            increment(aggregates);
+        }
+    }
+
+    /**
+     * Expire every ETag and cached response built from the counters.
+     */
+    @Scheduled(initialDelayString = "${data-version.max-age-ms:600000}",
+            fixedDelayString = "${data-version.max-age-ms:600000}")
+    public void expire() {
+        increment(Aggregate.values());
+    }
+
+    public long version(Aggregate aggregate) {
+        return versions.get(aggregate).get();
+    }
+
+    /**
+     * Strong ETag over the given aggregates, e.g. "18c1f2a3b4c-7.3".
+     */
+    public String etag(Aggregate... aggregates) {
+        StringBuilder sb = new StringBuilder("\"").append(epoch).append('-');
+        for (int i = 0; i < aggregates.length; i++) {
+            if (i > 0) {
+                sb.append('.');
+            }
+            sb.append(versions.get(aggregates[i]).get());
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Check If-None-Match against the ETag and count the outcome for the resource.
+     * When this returns true the response is already a 304 and the controller should return null.
+     */
+    public boolean checkNotModified(WebRequest request, String resource, String etag) {
+        boolean notModified = request.checkNotModified(etag);
+        (notModified ? hits : misses).computeIfAbsent(resource, k -> new LongAdder()).increment();
+        return notModified;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> resources = new LinkedHashMap<>();
+        for (String resource : allResources()) {
+            long hitCount = sum(hits, resource);
+            long missCount = sum(misses, resource);
+            long total = hitCount + missCount;
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("hits", hitCount);
+            stats.put("misses", missCount);
+            stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+            resources.put(resource, stats);
+        }
+
+        Map<String, Long> currentVersions = new LinkedHashMap<>();
+        versions.forEach((aggregate, version) -> currentVersions.put(aggregate.name(), version.get()));
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("resources", resources);
+        response.put("versions", currentVersions);
+        return response;
+    }
+
+    private void increment(Aggregate... aggregates) {
+        for (Aggregate aggregate : aggregates) {
+            versions.get(aggregate).incrementAndGet();
+        }
+    }
+
+    private Set<String> allResources() {
+        Set<String> names = new TreeSet<>(hits.keySet());
+        names.addAll(misses.keySet());
+        return names;
+    }
+
+    private long sum(Map<String, LongAdder> counters, String resource) {
+        LongAdder adder = counters.get(resource);
+        return adder != null ? adder.sum() : 0;
+    }
+}
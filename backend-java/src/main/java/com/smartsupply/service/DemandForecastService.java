@@ -0,0 +1,232 @@
+package com.smartsupply.service;
+
+import com.smartsupply.dto.DemandForecastResponse;
+import com.smartsupply.entity.DemandForecast;
+import com.smartsupply.entity.ForecastMethod;
+import com.smartsupply.repository.DemandForecastRepository;
+import com.smartsupply.repository.InventoryItemRepository;
+import com.smartsupply.repository.InventoryMovementRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * DemandForecastService - Per product/warehouse daily demand forecasts.
+ *
+ * Source series are daily OUT totals from inventory_movements, held as int[] per item.
+ * Regular series use simple exponential smoothing; intermittent ones (average demand
+ * interval above 1.32) use Croston with the Syntetos-Boylan correction.
+ *
+ * The smoothing state is stored, so the nightly run only folds in the days since the
+ * previous run. Items are processed in chunks, each chunk in parallel across cores.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DemandForecastService {
+
+    private static final double INTERMITTENT_ADI = 1.32;
+
+    private final DemandForecastRepository forecastRepository;
+    private final InventoryItemRepository inventoryItemRepository;
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${forecast.history-days:180}")
+    private int historyDays;
+
+    @Value("${forecast.alpha:0.2}")
+    private double alpha;
+
+    @Value("${forecast.chunk-size:2000}")
+    private int chunkSize;
+
+    @Transactional(readOnly = true)
+    public List<DemandForecastResponse> getForecastsByProduct(String productId) {
+        return forecastRepository.findByProductId(productId).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<DemandForecastResponse> getForecastsByWarehouse(String warehouseId) {
+        return forecastRepository.findByWarehouseId(warehouseId).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public DemandForecastResponse getForecastForInventoryItem(String inventoryItemId) {
+        DemandForecast forecast = forecastRepository.findByInventoryItemId(inventoryItemId)
+                .orElseThrow(() -> new RuntimeException("Forecast not found"));
+        return toResponse(forecast);
+    }
+
+    @Scheduled(cron = "${forecast.cron:0 30 2 * * *}")
+    public void nightlyRefresh() {
+        long started = System.currentTimeMillis();
+        int updated = refreshForecasts();
+        log.info("Demand forecasts refreshed: {} items in {} ms", updated, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Fold every day up to yesterday into the stored forecasts.
+     * Each chunk commits on its own so a large catalog never sits in one persistence context.
+     */
+    public int refreshForecasts() {
+        LocalDate today = LocalDate.now();
+        int updated = 0;
+        String afterId = "";
+
+        while (true) {
+            List<Object[]> rows = inventoryItemRepository.findPlanningRowsAfter(afterId, PageRequest.of(0, chunkSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            afterId = (String) rows.get(rows.size() - 1)[0];
+
+            List<String> itemIds = rows.stream().map(row -> (String) row[0]).toList();
+            Integer count = transactionTemplate.execute(status -> refreshChunk(itemIds, today));
+            updated += count != null ? count : 0;
+
+            if (rows.size() < chunkSize) {
+                break;
+            }
+        }
+        return updated;
+    }
+
+    private int refreshChunk(List<String> itemIds, LocalDate today) {
+        LocalDate defaultStart = today.minusDays(historyDays);
+
+        Map<String, DemandForecast> forecasts = new HashMap<>();
+        for (DemandForecast forecast : forecastRepository.findByInventoryItemIdIn(itemIds)) {
+            forecasts.put(forecast.getInventoryItem().getId(), forecast);
+        }
+        for (String itemId : itemIds) {
+            forecasts.computeIfAbsent(itemId, id -> DemandForecast.builder()
+                    .inventoryItem(inventoryItemRepository.getReferenceById(id))
+                    .build());
+        }
+
+        // One query covers the earliest day any item in this chunk still needs
+        LocalDate windowStart = today;
+        for (DemandForecast forecast : forecasts.values()) {
+            LocalDate next = nextDay(forecast, defaultStart);
+            if (next.isBefore(windowStart)) {
+                windowStart = next;
+            }
+        }
+        int days = (int) ChronoUnit.DAYS.between(windowStart, today);
+        if (days <= 0) {
+            return 0;
+        }
+
+        LocalDate start = windowStart;
+        Map<String, int[]> series = new HashMap<>();
+        for (Object[] row : inventoryMovementRepository.sumDailyOutByItem(start.atStartOfDay(), today.atStartOfDay(), itemIds)) {
+            int offset = (int) ChronoUnit.DAYS.between(start, toLocalDate(row[1]));
+            series.computeIfAbsent((String) row[0], k -> new int[days])[offset] += ((Number) row[2]).intValue();
+        }
+
+        int[] noDemand = new int[days];
+        List<DemandForecast> changed = forecasts.entrySet().parallelStream()
+                .filter(entry -> fold(entry.getValue(), series.getOrDefault(entry.getKey(), noDemand), start, defaultStart))
+                .map(Map.Entry::getValue)
+                .toList();
+
+        forecastRepository.saveAll(changed);
+        return changed.size();
+    }
+
+    /**
+     * Advance the smoothing state over series[i] for every day after lastObservedDate.
+     * series[0] is windowStart; the last element is yesterday.
+     */
+    private boolean fold(DemandForecast forecast, int[] series, LocalDate windowStart, LocalDate defaultStart) {
+        int from = (int) ChronoUnit.DAYS.between(windowStart, nextDay(forecast, defaultStart));
+        if (from >= series.length) {
+            return false;
+        }
+
+        double ses = forecast.getSesLevel();
+        double size = forecast.getCrostonSize();
+        double interval = forecast.getCrostonInterval();
+        int sinceDemand = forecast.getPeriodsSinceDemand();
+        int observations = forecast.getObservations();
+        int demandObservations = forecast.getDemandObservations();
+
+        for (int i = from; i < series.length; i++) {
+            int demand = series[i];
+            ses = observations == 0 ? demand : alpha * demand + (1 - alpha) * ses;
+            sinceDemand++;
+            if (demand > 0) {
+                if (demandObservations == 0) {
+                    size = demand;
+                    interval = sinceDemand;
+                } else {
+                    size = alpha * demand + (1 - alpha) * size;
+                    interval = alpha * sinceDemand + (1 - alpha) * interval;
+                }
+                demandObservations++;
+                sinceDemand = 0;
+            }
+            observations++;
+        }
+
+        boolean intermittent = demandObservations == 0
+                || (double) observations / demandObservations > INTERMITTENT_ADI;
+        double croston = demandObservations == 0 ? 0.0 : (1 - alpha / 2) * size / interval;
+
+        forecast.setSesLevel(ses);
+        forecast.setCrostonSize(size);
+        forecast.setCrostonInterval(interval);
+        forecast.setPeriodsSinceDemand(sinceDemand);
+        forecast.setObservations(observations);
+        forecast.setDemandObservations(demandObservations);
+        forecast.setMethod(intermittent ? ForecastMethod.CROSTON : ForecastMethod.SES);
+        forecast.setDailyForecast(intermittent ? croston : ses);
+        forecast.setLastObservedDate(windowStart.plusDays(series.length - 1));
+        return true;
+    }
+
+    private LocalDate nextDay(DemandForecast forecast, LocalDate defaultStart) {
+        return forecast.getLastObservedDate() != null ? forecast.getLastObservedDate().plusDays(1) : defaultStart;
+    }
+
+    private LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate date) {
+            return date;
+        }
+        return ((java.sql.Date) value).toLocalDate();
+    }
+
+    private DemandForecastResponse toResponse(DemandForecast forecast) {
+        return DemandForecastResponse.builder()
+                .inventoryItemId(forecast.getInventoryItem().getId())
+                .productId(forecast.getInventoryItem().getProduct().getId())
+                .productSku(forecast.getInventoryItem().getProduct().getSku())
+                .productName(forecast.getInventoryItem().getProduct().getName())
+                .warehouseId(forecast.getInventoryItem().getWarehouse().getId())
+                .warehouseName(forecast.getInventoryItem().getWarehouse().getName())
+                .method(forecast.getMethod())
+                .dailyForecast(forecast.getDailyForecast())
+                .forecastNext30Days(forecast.getDailyForecast() * 30)
+                .observations(forecast.getObservations())
+                .lastObservedDate(forecast.getLastObservedDate())
+                .updatedAt(forecast.getUpdatedAt())
+                .build();
+    }
+}
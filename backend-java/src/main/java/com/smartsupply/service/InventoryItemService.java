@@ -1,21 +1,30 @@
 package com.smartsupply.service;
 
 import com.smartsupply.dto.CreateInventoryItemRequest;
+import com.smartsupply.dto.FieldSet;
 import com.smartsupply.dto.InventoryItemResponse;
+import com.smartsupply.dto.InventoryItemSummaryResponse;
 import com.smartsupply.entity.InventoryItem;
 import com.smartsupply.entity.InventoryMovement;
 import com.smartsupply.entity.MovementType;
 import com.smartsupply.entity.Product;
 import com.smartsupply.entity.Warehouse;
+import com.smartsupply.event.InventoryMovementRecordedEvent;
+import com.smartsupply.repository.DemandForecastRepository;
 import com.smartsupply.repository.InventoryItemRepository;
 import com.smartsupply.repository.InventoryMovementRepository;
 import com.smartsupply.repository.ProductRepository;
 import com.smartsupply.repository.WarehouseRepository;
+import com.smartsupply.service.DataVersionService.Aggregate;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -27,6 +36,11 @@ public class InventoryItemService {
     private final InventoryMovementRepository inventoryMovementRepository;
     private final ProductRepository productRepository;
     private final WarehouseRepository warehouseRepository;
+    private final DemandForecastRepository demandForecastRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DataVersionService dataVersionService;
+    private final WarehouseCapacityService warehouseCapacityService;
+    private final InventoryValuationService inventoryValuationService;
 
     public Page<InventoryItemResponse> getAllInventoryItems(Pageable pageable) {
         return inventoryItemRepository.findAll(pageable)
@@ -38,6 +52,23 @@ public class InventoryItemService {
                 .map(this::toResponse);
     }
 
+    /**
+     * Paged list in the requested shape; MINIMAL and SUMMARY come from projection queries
+     * as InventoryItemSummaryResponse, FULL as InventoryItemResponse.
+     */
+    public Page<?> getInventoryItems(String search, FieldSet fields, Pageable pageable) {
+        boolean searching = search != null && !search.isBlank();
+        return switch (fields) {
+            case MINIMAL -> (searching
+                    ? inventoryItemRepository.searchMinimalRows(search, pageable)
+                    : inventoryItemRepository.findMinimalRows(pageable)).map(this::fromMinimalRow);
+            case SUMMARY -> (searching
+                    ? inventoryItemRepository.searchSummaryRows(search, pageable)
+                    : inventoryItemRepository.findSummaryRows(pageable)).map(this::fromSummaryRow);
+            case FULL -> searching ? searchInventoryItems(search, pageable) : getAllInventoryItems(pageable);
+        };
+    }
+
     public List<InventoryItemResponse> getInventoryByWarehouse(String warehouseId) {
         return inventoryItemRepository.findByWarehouseId(warehouseId).stream()
                 .map(this::toResponse)
@@ -56,6 +87,7 @@ public class InventoryItemService {
         return toResponse(item);
     }
 
+    @Transactional
     public InventoryItemResponse createOrUpdateInventory(CreateInventoryItemRequest request) {
         Product product = productRepository.findById(request.getProductId())
                 .orElseThrow(() -> new RuntimeException("Product not found"));
@@ -72,13 +104,18 @@ public class InventoryItemService {
                         .reserved(0)
                         .build());
 
+        int oldQuantity = item.getQuantity();
         item.setQuantity(request.getQuantity() != null ? request.getQuantity() : item.getQuantity());
         item.setReserved(request.getReserved() != null ? request.getReserved() : item.getReserved());
+        inventoryValuationService.apply(item, oldQuantity, item.getQuantity(), null);
 
         item = inventoryItemRepository.save(item);
+        warehouseCapacityService.add(warehouse.getId(), item.getQuantity() - oldQuantity);
+        dataVersionService.bump(Aggregate.INVENTORY);
         return toResponse(item);
     }
 
+    @Transactional
     public InventoryItemResponse adjustQuantity(String id, int newQuantity, String reason) {
         InventoryItem item = inventoryItemRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Inventory item not found"));
@@ -100,10 +137,14 @@ public class InventoryItemService {
                 .reason(reason)
                 .referenceType("MANUAL_ADJUSTMENT")
                 .build();
-        inventoryMovementRepository.save(movement);
+        movement = inventoryMovementRepository.save(movement);
+        eventPublisher.publishEvent(InventoryMovementRecordedEvent.of(movement));
         
+        inventoryValuationService.apply(item, oldQuantity, newQuantity, null);
         item.setQuantity(newQuantity);
         item = inventoryItemRepository.save(item);
+        warehouseCapacityService.add(item.getWarehouse().getId(), adjustment);
+        dataVersionService.bump(Aggregate.INVENTORY, Aggregate.MOVEMENTS);
         return toResponse(item);
     }
 
@@ -113,11 +154,46 @@ public class InventoryItemService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional
     public void deleteInventoryItem(String id) {
-        if (!inventoryItemRepository.existsById(id)) {
-            throw new RuntimeException("Inventory item not found");
-        }
+        InventoryItem item = inventoryItemRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Inventory item not found"));
+        demandForecastRepository.deleteByInventoryItemId(id);
+        warehouseCapacityService.add(item.getWarehouse().getId(), -item.getQuantity());
+        inventoryValuationService.remove(item);
         inventoryItemRepository.deleteById(id);
+        dataVersionService.bump(Aggregate.INVENTORY);
+    }
+
+    // id, productId, warehouseId, quantity, reserved
+    private InventoryItemSummaryResponse fromMinimalRow(Object[] row) {
+        int quantity = (Integer) row[3];
+        int reserved = (Integer) row[4];
+        return InventoryItemSummaryResponse.builder()
+                .id((String) row[0])
+                .productId((String) row[1])
+                .warehouseId((String) row[2])
+                .quantity(quantity)
+                .reserved(reserved)
+                .available(quantity - reserved)
+                .build();
+    }
+
+    // id, productId, sku, productName, warehouseId, warehouseName, quantity, reserved
+    private InventoryItemSummaryResponse fromSummaryRow(Object[] row) {
+        int quantity = (Integer) row[6];
+        int reserved = (Integer) row[7];
+        return InventoryItemSummaryResponse.builder()
+                .id((String) row[0])
+                .productId((String) row[1])
+                .productSku((String) row[2])
+                .productName((String) row[3])
+                .warehouseId((String) row[4])
+                .warehouseName((String) row[5])
+                .quantity(quantity)
+                .reserved(reserved)
+                .available(quantity - reserved)
+                .build();
     }
 
     private InventoryItemResponse toResponse(InventoryItem item) {
@@ -131,6 +207,10 @@ public class InventoryItemService {
                 .quantity(item.getQuantity())
                 .reserved(item.getReserved())
                 .available(item.getAvailable())
+                .stockValue(item.getStockValue())
+                .averageCost(item.getQuantity() > 0 && item.getStockValue() != null
+                        ? item.getStockValue().divide(BigDecimal.valueOf(item.getQuantity()), 4, RoundingMode.HALF_UP)
+                        : null)
                 .lastUpdated(item.getLastUpdated())
                 .build();
     }
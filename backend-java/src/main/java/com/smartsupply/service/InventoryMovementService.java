@@ -1,21 +1,31 @@
 package com.smartsupply.service;
 
 import com.smartsupply.dto.CreateInventoryMovementRequest;
+import com.smartsupply.dto.FieldSet;
 import com.smartsupply.dto.InventoryMovementResponse;
+import com.smartsupply.dto.InventoryMovementSummaryResponse;
+import com.smartsupply.dto.MovementAggregateResponse;
 import com.smartsupply.entity.InventoryItem;
 import com.smartsupply.entity.InventoryMovement;
 import com.smartsupply.entity.MovementType;
 import com.smartsupply.entity.User;
+import com.smartsupply.event.InventoryMovementRecordedEvent;
 import com.smartsupply.repository.InventoryItemRepository;
 import com.smartsupply.repository.InventoryMovementRepository;
+import com.smartsupply.repository.UserRepository;
+import com.smartsupply.security.AuthenticatedUser;
+import com.smartsupply.service.DataVersionService.Aggregate;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,50 +34,103 @@ public class InventoryMovementService {
 
     private final InventoryMovementRepository movementRepository;
     private final InventoryItemRepository inventoryItemRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MovementColumnStore movementColumnStore;
+    private final DataVersionService dataVersionService;
+    private final WarehouseCapacityService warehouseCapacityService;
+    private final InventoryValuationService inventoryValuationService;
+    private final MovementArchiveService movementArchiveService;
 
     public Page<InventoryMovementResponse> getAllMovements(Pageable pageable) {
         return movementRepository.findAll(pageable)
                 .map(this::toResponse);
     }
 
+    /**
+     * Paged list in the requested shape; MINIMAL and SUMMARY come from projection queries
+     * as InventoryMovementSummaryResponse, FULL as InventoryMovementResponse.
+     * Covers inventory_movements only: archived movements are not paged through.
+     */
+    public Page<?> getMovements(FieldSet fields, Pageable pageable) {
+        return switch (fields) {
+            case MINIMAL -> movementRepository.findMinimalRows(pageable).map(this::fromMinimalRow);
+            case SUMMARY -> movementRepository.findSummaryRows(pageable).map(this::fromSummaryRow);
+            case FULL -> getAllMovements(pageable);
+        };
+    }
+
     public InventoryMovementResponse getMovementById(String id) {
-        InventoryMovement movement = movementRepository.findById(id)
+        return movementRepository.findById(id)
+                .map(this::toResponse)
+                .or(() -> movementArchiveService.findById(id).map(this::fromArchived))
                 .orElseThrow(() -> new RuntimeException("Inventory movement not found"));
-        return toResponse(movement);
     }
 
     public List<InventoryMovementResponse> getMovementsByInventoryItem(String inventoryItemId) {
-        return movementRepository.findByInventoryItemId(inventoryItemId).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return withArchived(movementArchiveService.findByInventoryItem(inventoryItemId),
+                movementRepository.findByInventoryItemId(inventoryItemId));
     }
 
     public List<InventoryMovementResponse> getMovementsByType(MovementType type) {
-        return movementRepository.findByMovementType(type).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return withArchived(movementArchiveService.findByType(type),
+                movementRepository.findByMovementType(type));
     }
 
     public List<InventoryMovementResponse> getMovementsByProduct(String productId) {
-        return movementRepository.findByProductId(productId).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return withArchived(movementArchiveService.findByProduct(productId),
+                movementRepository.findByProductId(productId));
     }
 
     public List<InventoryMovementResponse> getMovementsByWarehouse(String warehouseId) {
-        return movementRepository.findByWarehouseId(warehouseId).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return withArchived(movementArchiveService.findByWarehouse(warehouseId),
+                movementRepository.findByWarehouseId(warehouseId));
     }
 
     public List<InventoryMovementResponse> getMovementsByDateRange(LocalDateTime from, LocalDateTime to) {
-        return movementRepository.findByDateRange(from, to).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return withArchived(movementArchiveService.findByDateRange(from, to),
+                movementRepository.findByDateRange(from, to));
+    }
+
+    /**
+     * Group-by over the in-memory column store - no entity hydration.
+     */
+    public MovementAggregateResponse aggregateMovements(MovementColumnStore.Dimension groupBy, MovementType type,
+                                                        String warehouseId, String productId,
+                                                        LocalDateTime from, LocalDateTime to) {
+        return movementColumnStore.aggregate(groupBy, type, warehouseId, productId, from, to);
+    }
+
+    /**
+     * The movement an earlier request with the same requestId recorded, or null. Another movement
+     * under that id is a conflict. Read-write so it runs on the primary: a retry can come sooner
+     * than the replica catches up.
+     */
+    @Transactional
+    public InventoryMovementResponse findRecorded(CreateInventoryMovementRequest request) {
+        if (request.getRequestId() == null) {
+            return null;
+        }
+        return movementRepository.findById(request.getRequestId())
+                .map(movement -> {
+                    if (!movement.getInventoryItem().getId().equals(request.getInventoryItemId())
+                            || movement.getMovementType() != request.getMovementType()
+                            || !movement.getQuantity().equals(request.getQuantity())) {
+                        throw new RuntimeException("Movement " + request.getRequestId()
+                                + " already exists with different content");
+                    }
+                    return toResponse(movement);
+                })
+                .orElse(null);
     }
 
     @Transactional
     public InventoryMovementResponse recordMovement(CreateInventoryMovementRequest request) {
+        InventoryMovementResponse recorded = findRecorded(request);
+        if (recorded != null) {
+            return recorded;
+        }
+
         InventoryItem inventoryItem = inventoryItemRepository.findById(request.getInventoryItemId())
                 .orElseThrow(() -> new RuntimeException("Inventory item not found"));
 
@@ -100,20 +163,32 @@ public class InventoryMovementService {
                 throw new RuntimeException("Unknown movement type");
         }
 
+        inventoryValuationService.apply(inventoryItem, quantityBefore, quantityAfter, null);
         inventoryItemRepository.save(inventoryItem);
 
+        // Receipts and transfers into the warehouse must fit; other changes are just counted
+        String warehouseId = inventoryItem.getWarehouse().getId();
+        int delta = quantityAfter - quantityBefore;
+        if (request.getMovementType() == MovementType.IN || request.getMovementType() == MovementType.TRANSFER) {
+            warehouseCapacityService.addWithinCapacity(warehouseId, delta);
+        } else {
+            warehouseCapacityService.add(warehouseId, delta);
+        }
+
         User performedBy = null;
         try {
             org.springframework.security.core.Authentication auth = 
                 org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
-            if (auth != null && auth.getPrincipal() instanceof User) {
-                performedBy = (User) auth.getPrincipal();
+            if (auth != null && auth.getPrincipal() instanceof AuthenticatedUser principal) {
+                // Only the foreign key is needed, so no SELECT of the user
+                performedBy = userRepository.getReferenceById(principal.id());
             }
         } catch (Exception e) {
             // Context might be empty during seeding or system events
         }
 
         InventoryMovement movement = InventoryMovement.builder()
+                .id(request.getRequestId())
                 .inventoryItem(inventoryItem)
                 .movementType(request.getMovementType())
                 .quantity(request.getQuantity())
@@ -126,9 +201,78 @@ public class InventoryMovementService {
                 .build();
 
         movement = movementRepository.save(movement);
+        eventPublisher.publishEvent(InventoryMovementRecordedEvent.of(movement));
+        dataVersionService.bump(Aggregate.INVENTORY, Aggregate.MOVEMENTS);
         return toResponse(movement);
     }
 
+    /**
+     * Archived movements (older) followed by the table's; rows still in the table after an
+     * interrupted archive run are only returned once.
+     */
+    private List<InventoryMovementResponse> withArchived(List<ArchivedMovement> archived,
+                                                         List<InventoryMovement> movements) {
+        if (archived.isEmpty()) {
+            return movements.stream().map(this::toResponse).collect(Collectors.toList());
+        }
+        Set<String> archivedIds = archived.stream().map(ArchivedMovement::id).collect(Collectors.toSet());
+        List<InventoryMovementResponse> result = new ArrayList<>(archived.size() + movements.size());
+        archived.forEach(movement -> result.add(fromArchived(movement)));
+        movements.stream()
+                .filter(movement -> !archivedIds.contains(movement.getId()))
+                .forEach(movement -> result.add(toResponse(movement)));
+        return result;
+    }
+
+    private InventoryMovementResponse fromArchived(ArchivedMovement movement) {
+        return InventoryMovementResponse.builder()
+                .id(movement.id())
+                .inventoryItemId(movement.inventoryItemId())
+                .productSku(movement.productSku())
+                .productName(movement.productName())
+                .warehouseName(movement.warehouseName())
+                .movementType(movement.movementType())
+                .quantity(movement.quantity())
+                .quantityBefore(movement.quantityBefore())
+                .quantityAfter(movement.quantityAfter())
+                .reason(movement.reason())
+                .referenceType(movement.referenceType())
+                .referenceId(movement.referenceId())
+                .performedByName(movement.performedByName())
+                .createdAt(movement.createdAt())
+                .build();
+    }
+
+    // id, itemId, type, quantity, createdAt
+    private InventoryMovementSummaryResponse fromMinimalRow(Object[] row) {
+        return InventoryMovementSummaryResponse.builder()
+                .id((String) row[0])
+                .inventoryItemId((String) row[1])
+                .movementType((MovementType) row[2])
+                .quantity((Integer) row[3])
+                .createdAt((LocalDateTime) row[4])
+                .build();
+    }
+
+    // id, itemId, sku, productName, warehouseName, type, quantity, quantityBefore, quantityAfter,
+    // referenceType, referenceId, createdAt
+    private InventoryMovementSummaryResponse fromSummaryRow(Object[] row) {
+        return InventoryMovementSummaryResponse.builder()
+                .id((String) row[0])
+                .inventoryItemId((String) row[1])
+                .productSku((String) row[2])
+                .productName((String) row[3])
+                .warehouseName((String) row[4])
+                .movementType((MovementType) row[5])
+                .quantity((Integer) row[6])
+                .quantityBefore((Integer) row[7])
+                .quantityAfter((Integer) row[8])
+                .referenceType((String) row[9])
+                .referenceId((String) row[10])
+                .createdAt((LocalDateTime) row[11])
+                .build();
+    }
+
     private InventoryMovementResponse toResponse(InventoryMovement movement) {
         return InventoryMovementResponse.builder()
                 .id(movement.getId())
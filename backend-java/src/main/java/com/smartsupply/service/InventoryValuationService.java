@@ -0,0 +1,331 @@
+package com.smartsupply.service;
+
+import com.smartsupply.dto.InventoryValuationResponse;
+import com.smartsupply.entity.InventoryItem;
+import com.smartsupply.entity.Warehouse;
+import com.smartsupply.repository.InventoryItemRepository;
+import com.smartsupply.repository.InventoryMovementRepository;
+import com.smartsupply.repository.WarehouseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * InventoryValuationService - Weighted-average cost basis of the stock on hand.
+ *
+ * Each inventory item carries its stock value. Receipts add units at the PO unit price,
+ * other increases at the item's current average cost (the product list price when there is
+ * none), and decreases take out value in proportion, so the average cost never moves on an
+ * issue. Every stock change passes through apply() inside its transaction, next to the
+ * warehouse capacity counter.
+ *
+ * Totals per warehouse and category are kept in memory and moved by each change's delta once
+ * its transaction commits, so reading the valuation never touches inventory_items.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryValuationService {
+
+    private static final int SCALE = 4;
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MovementArchiveService movementArchiveService;
+
+    @Value("${valuation.backfill.threads:4}")
+    private int backfillThreads;
+
+    @Value("${valuation.backfill.chunk-size:500}")
+    private int backfillChunkSize;
+
+    private record Cell(String warehouseId, String category) {
+    }
+
+    // Running value and quantity of one item while its history is replayed
+    private static final class Replay {
+        private BigDecimal value = BigDecimal.ZERO;
+        private int quantity;
+        private int movements;
+
+        void apply(Number before, Number after, BigDecimal unitCost, BigDecimal listPrice) {
+            if (before == null || after == null) {
+                return;
+            }
+            // A gap means stock was set without a movement (e.g. a direct edit); value it at average
+            value = revalue(value, quantity, before.intValue(), null, listPrice);
+            value = revalue(value, before.intValue(), after.intValue(), unitCost, listPrice);
+            quantity = after.intValue();
+            movements++;
+        }
+    }
+
+    // Guarded by this; replaced wholesale by rebuild()
+    private Map<Cell, BigDecimal> totals = new HashMap<>();
+
+    /**
+     * Move the item's stock value from quantityBefore to quantityAfter units.
+     *
+     * @param unitCost purchase price of added units, or null to add them at the average cost
+     */
+    public void apply(InventoryItem item, int quantityBefore, int quantityAfter, BigDecimal unitCost) {
+        BigDecimal before = item.getStockValue() != null ? item.getStockValue() : BigDecimal.ZERO;
+        BigDecimal after = revalue(before, quantityBefore, quantityAfter, unitCost, item.getProduct().getPrice());
+        item.setStockValue(after);
+        addAfterCommit(new Cell(item.getWarehouse().getId(), item.getProduct().getCategory()), after.subtract(before));
+    }
+
+    /**
+     * The item is being deleted together with its stock.
+     */
+    public void remove(InventoryItem item) {
+        if (item.getStockValue() != null && item.getStockValue().signum() != 0) {
+            addAfterCommit(new Cell(item.getWarehouse().getId(), item.getProduct().getCategory()),
+                    item.getStockValue().negate());
+        }
+    }
+
+    /**
+     * The item's product moves from one category to another, taking the item's stock value with
+     * it. The item must be locked, so its value cannot change before the transaction commits.
+     */
+    public void moveCategory(InventoryItem item, String fromCategory, String toCategory) {
+        BigDecimal value = item.getStockValue();
+        if (value == null || value.signum() == 0) {
+            return;
+        }
+        String warehouseId = item.getWarehouse().getId();
+        addAfterCommit(new Cell(warehouseId, fromCategory), value.negate());
+        addAfterCommit(new Cell(warehouseId, toCategory), value);
+    }
+
+    /**
+     * Reload the totals from inventory_items. Not atomic with changes committing meanwhile,
+     * so it is meant for startup and after a backfill; everything else moves the totals by deltas.
+     */
+    public void rebuild() {
+        Map<Cell, BigDecimal> loaded = new HashMap<>();
+        for (Object[] row : inventoryItemRepository.sumStockValueByWarehouseAndCategory()) {
+            loaded.put(new Cell((String) row[0], (String) row[1]), (BigDecimal) row[2]);
+        }
+        synchronized (this) {
+            totals = loaded;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    public BigDecimal getTotalValue() {
+        synchronized (this) {
+            return totals.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add).setScale(2, RoundingMode.HALF_UP);
+        }
+    }
+
+    public InventoryValuationResponse getValuation() {
+        Map<Cell, BigDecimal> snapshot;
+        synchronized (this) {
+            snapshot = new HashMap<>(totals);
+        }
+
+        Map<String, BigDecimal> byWarehouse = new HashMap<>();
+        Map<String, BigDecimal> byCategory = new HashMap<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Cell, BigDecimal> entry : snapshot.entrySet()) {
+            byWarehouse.merge(entry.getKey().warehouseId(), entry.getValue(), BigDecimal::add);
+            byCategory.merge(Objects.requireNonNullElse(entry.getKey().category(), "Uncategorized"),
+                    entry.getValue(), BigDecimal::add);
+            total = total.add(entry.getValue());
+        }
+
+        Map<String, String> warehouseNames = warehouseRepository.findAll().stream()
+                .collect(Collectors.toMap(Warehouse::getId, Warehouse::getName));
+
+        return InventoryValuationResponse.builder()
+                .totalValue(total.setScale(2, RoundingMode.HALF_UP))
+                .byWarehouse(lines(byWarehouse, warehouseNames::get))
+                .byCategory(lines(byCategory, Function.identity()))
+                .build();
+    }
+
+    /**
+     * Recompute every item's stock value by replaying its movement history, then reload the totals.
+     * Items are independent, so chunks run in parallel, each in its own transaction with the
+     * chunk's rows locked against concurrent movements.
+     */
+    public Map<String, Object> backfill() {
+        long started = System.currentTimeMillis();
+        Map<String, Replay> archived = replayArchive();
+        long archivedMovements = archived.values().stream().mapToLong(replay -> replay.movements).sum();
+        List<Future<int[]>> chunks = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(backfillThreads)) {
+            String afterId = "";
+            while (true) {
+                List<Object[]> rows = inventoryItemRepository.findPlanningRowsAfter(afterId,
+                        PageRequest.of(0, backfillChunkSize));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                afterId = (String) rows.get(rows.size() - 1)[0];
+                List<String> itemIds = rows.stream().map(row -> (String) row[0]).toList();
+                chunks.add(executor.submit(() -> transactionTemplate.execute(status -> backfillChunk(itemIds, archived))));
+                if (rows.size() < backfillChunkSize) {
+                    break;
+                }
+            }
+        }
+
+        int items = 0;
+        int movements = 0;
+        for (Future<int[]> chunk : chunks) {
+            try {
+                int[] counts = chunk.get();
+                items += counts[0];
+                movements += counts[1];
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Valuation backfill interrupted", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Valuation backfill failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+
+        rebuild();
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Inventory valuation backfilled: {} items, {} movements in {} ms", items, movements, elapsed);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("items", items);
+        result.put("movements", movements);
+        result.put("archivedMovements", archivedMovements);
+        result.put("threads", backfillThreads);
+        result.put("elapsedMs", elapsed);
+        result.put("totalValue", getTotalValue());
+        return result;
+    }
+
+    /**
+     * Replay the movement archive, which predates everything still in inventory_movements; the
+     * chunks continue from where it ends. The archive is ordered by time across all items, so it
+     * is read once here rather than once per chunk.
+     */
+    private Map<String, Replay> replayArchive() {
+        if (movementArchiveService.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, BigDecimal> listPrices = new HashMap<>();
+        for (Object[] row : inventoryItemRepository.findListPriceRows()) {
+            listPrices.put((String) row[0], (BigDecimal) row[1]);
+        }
+        Map<String, Replay> replays = new HashMap<>();
+        movementArchiveService.forEach(movement -> {
+            String itemId = movement.inventoryItemId();
+            if (listPrices.containsKey(itemId)) {
+                replays.computeIfAbsent(itemId, k -> new Replay()).apply(movement.quantityBefore(),
+                        movement.quantityAfter(), movement.unitCost(), listPrices.get(itemId));
+            }
+        });
+        return replays;
+    }
+
+    private int[] backfillChunk(List<String> itemIds, Map<String, Replay> archived) {
+        List<InventoryItem> items = inventoryItemRepository.findAllByIdForUpdate(itemIds);
+
+        Map<String, List<Object[]>> history = new HashMap<>();
+        List<Object[]> rows = inventoryMovementRepository.findValuationRows(itemIds);
+        for (Object[] row : rows) {
+            history.computeIfAbsent((String) row[0], k -> new ArrayList<>()).add(row);
+        }
+
+        for (InventoryItem item : items) {
+            BigDecimal listPrice = item.getProduct().getPrice();
+            Replay replay = Objects.requireNonNullElseGet(archived.get(item.getId()), Replay::new);
+            for (Object[] row : history.getOrDefault(item.getId(), List.of())) {
+                replay.apply((Number) row[1], (Number) row[2], (BigDecimal) row[3], listPrice);
+            }
+            item.setStockValue(revalue(replay.value, replay.quantity, item.getQuantity(), null, listPrice));
+        }
+        return new int[]{items.size(), rows.size()};
+    }
+
+    static BigDecimal revalue(BigDecimal value, int quantityBefore, int quantityAfter,
+                              BigDecimal unitCost, BigDecimal listPrice) {
+        if (quantityAfter <= 0) {
+            return BigDecimal.ZERO;
+        }
+        if (quantityAfter > quantityBefore) {
+            BigDecimal cost = unitCost;
+            if (cost == null) {
+                cost = quantityBefore > 0 && value.signum() > 0
+                        ? value.divide(BigDecimal.valueOf(quantityBefore), SCALE, RoundingMode.HALF_UP)
+                        : Objects.requireNonNullElse(listPrice, BigDecimal.ZERO);
+            }
+            return value.add(cost.multiply(BigDecimal.valueOf(quantityAfter - quantityBefore)))
+                    .setScale(SCALE, RoundingMode.HALF_UP);
+        }
+        if (quantityAfter < quantityBefore) {
+            return value.multiply(BigDecimal.valueOf(quantityAfter))
+                    .divide(BigDecimal.valueOf(quantityBefore), SCALE, RoundingMode.HALF_UP);
+        }
+        return value;
+    }
+
+    private void addAfterCommit(Cell cell, BigDecimal delta) {
+        if (delta.signum() == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(cell, delta);
+                }
+            });
+        } else {
+            add(cell, delta);
+        }
+    }
+
+    private synchronized void add(Cell cell, BigDecimal delta) {
+        totals.merge(cell, delta, BigDecimal::add);
+    }
+
+    private List<InventoryValuationResponse.Line> lines(Map<String, BigDecimal> values, Function<String, String> names) {
+        return values.entrySet().stream()
+                .map(entry -> InventoryValuationResponse.Line.builder()
+                        .id(entry.getKey())
+                        .name(names.apply(entry.getKey()))
+                        .value(entry.getValue().setScale(2, RoundingMode.HALF_UP))
+                        .build())
+                .sorted(Comparator.comparing(InventoryValuationResponse.Line::getValue).reversed())
+                .collect(Collectors.toList());
+    }
+}
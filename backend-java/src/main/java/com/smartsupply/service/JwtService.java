@@ -1,5 +1,8 @@
 package com.smartsupply.service;
 
+import com.smartsupply.entity.Role;
+import com.smartsupply.entity.User;
+import com.smartsupply.security.AuthenticatedUser;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
@@ -52,6 +55,30 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Parse and verify the token once and build the principal from its claims.
+     * Returns null for tokens issued before the uid/role claims existed.
+     * Throws JwtException if the signature is wrong or the token has expired.
+     */
+    public AuthenticatedUser extractPrincipal(String token) {
+        Claims claims = extractAllClaims(token);
+        String userId = claims.get("uid", String.class);
+        String role = claims.get("role", String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+        return new AuthenticatedUser(userId, claims.getSubject(), Role.valueOf(role));
+    }
+
+    /**
+     * Generate token for a user, with id and role as claims so requests need no user lookup.
+     *
+     * Role changes therefore apply from the next login (tokens live jwt.expiration at most).
+     */
+    public String generateToken(User user) {
+        return generateToken(Map.of("uid", user.getId(), "role", user.getRole().name()), user);
+    }
+
     /**
      * Generate token with just UserDetails.
      */
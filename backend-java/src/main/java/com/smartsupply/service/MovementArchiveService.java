@@ -0,0 +1,456 @@
+package com.smartsupply.service;
+
+import com.smartsupply.entity.MovementType;
+import com.smartsupply.repository.InventoryMovementRepository;
+import com.smartsupply.service.DataVersionService.Aggregate;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * MovementArchiveService - Moves inventory movements older than the retention window out of
+ * inventory_movements into compressed segment files on local disk (see MovementSegment).
+ *
+ * Each run reads the oldest expired movements with a cursor, writes them to a temporary segment,
+ * fsyncs and renames it into place, and only then deletes the archived rows in batches. A crash
+ * between the rename and the deletes leaves rows in both places; the next run deletes them first,
+ * and history queries skip database rows already returned from the archive.
+ *
+ * Segments are opened memory-mapped at startup and never change afterwards, so reads need no locking.
+ *
+ * The movement history lists (by id, item, product, warehouse, type, date range) and the summary
+ * include archived movements. The paged list and the in-memory analytics cover only the table:
+ * each run evicts what it archived from MovementColumnStore, so analytics answer the same before
+ * and after a restart. Jobs that read movement history (forecasts, classification, replenishment,
+ * AI retrieval) only look at the table, so retention-days must cover their windows; startup fails
+ * otherwise.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MovementArchiveService {
+
+    private static final int FETCH_SIZE = 5_000;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("movements-(\\d{6})\\.seg");
+    private static final Pattern SEGMENT_OR_TEMP_NAME = Pattern.compile("movements-\\d{6}\\.seg(\\.tmp)?");
+
+    private static final String EXPIRED_ROWS_SQL =
+            "SELECT m.id, m.inventory_item_id, i.product_id, i.warehouse_id, p.sku, p.name, w.name, " +
+            "m.movement_type, m.quantity, m.quantity_before, m.quantity_after, m.reason, " +
+            "m.reference_type, m.reference_id, u.first_name, u.last_name, m.created_at, " +
+            "(SELECT MAX(poi.unit_price) FROM purchase_order_items poi " +
+            " WHERE m.reference_type = 'PURCHASE_ORDER' AND poi.purchase_order_id = m.reference_id " +
+            " AND poi.product_id = i.product_id) " +
+            "FROM inventory_movements m " +
+            "JOIN inventory_items i ON i.id = m.inventory_item_id " +
+            "JOIN products p ON p.id = i.product_id " +
+            "JOIN warehouses w ON w.id = i.warehouse_id " +
+            "LEFT JOIN users u ON u.id = m.performed_by_user_id " +
+            "WHERE m.created_at < ? " +
+            "ORDER BY m.created_at, m.id " +
+            "LIMIT ?";
+
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DataVersionService dataVersionService;
+    private final MovementColumnStore movementColumnStore;
+
+    @Value("${archive.movements.enabled:false}")
+    private boolean enabled;
+
+    @Value("${archive.movements.dir:./data/movement-archive}")
+    private String directory;
+
+    @Value("${archive.movements.retention-days:730}")
+    private int retentionDays;
+
+    @Value("${archive.movements.segment-records:200000}")
+    private int segmentRecords;
+
+    @Value("${archive.movements.block-records:4096}")
+    private int blockRecords;
+
+    @Value("${archive.movements.delete-batch-size:5000}")
+    private int deleteBatchSize;
+
+    @Value("${forecast.history-days:180}")
+    private int forecastHistoryDays;
+
+    @Value("${classification.window-weeks:26}")
+    private int classificationWindowWeeks;
+
+    @Value("${replenishment.lookback-days:90}")
+    private int replenishmentLookbackDays;
+
+    @Value("${ai.retrieval.movement-days:90}")
+    private int retrievalMovementDays;
+
+    // Oldest first; replaced wholesale when a segment is added
+    private volatile List<MovementSegment.Reader> segments = List.of();
+    private volatile Map<String, Object> lastRun;
+
+    @PostConstruct
+    public void checkRetention() {
+        // +7: classification only counts complete weeks, so its window reaches back into the week before
+        int needed = Math.max(Math.max(forecastHistoryDays, classificationWindowWeeks * 7 + 7),
+                Math.max(replenishmentLookbackDays, retrievalMovementDays));
+        if (retentionDays < needed) {
+            throw new IllegalStateException("archive.movements.retention-days (" + retentionDays
+                    + ") must cover the movement history the jobs read (" + needed + " days)");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void openOnStartup() {
+        refresh();
+        log.info("Movement archive: {} segments, {} movements", segments.size(),
+                segments.stream().mapToLong(MovementSegment.Reader::records).sum());
+    }
+
+    /**
+     * Open segments that appeared in dir since the last look, e.g. written by the archiving
+     * instance to a shared volume. Temporary files of a run in progress are left alone.
+     */
+    @Scheduled(fixedDelayString = "${archive.movements.refresh-ms:60000}")
+    public synchronized void refresh() {
+        Path dir = Paths.get(directory);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        Set<Path> open = segments.stream().map(MovementSegment.Reader::file).collect(Collectors.toSet());
+        List<MovementSegment.Reader> updated = new ArrayList<>(segments);
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.sorted().toList()) {
+                if (!open.contains(file) && SEGMENT_NAME.matcher(file.getFileName().toString()).matches()) {
+                    updated.add(MovementSegment.Reader.open(file));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Movement archive: could not read {}: {}", dir, e.getMessage());
+            return;
+        }
+        if (updated.size() > segments.size()) {
+            updated.sort(Comparator.comparing(segment -> segment.file().getFileName()));
+            segments = List.copyOf(updated);
+            // Runs cut at a whole minute, so the newest archived movement's minute is archived in full
+            movementColumnStore.evictBefore(archivedThrough().truncatedTo(ChronoUnit.MINUTES).plusMinutes(1));
+        }
+    }
+
+    @Scheduled(cron = "${archive.movements.cron:0 0 4 * * *}")
+    public void nightlyArchive() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /**
+     * Archive every movement created before now minus retention-days, one segment at a time.
+     */
+    public synchronized Map<String, Object> archive() {
+        long started = System.currentTimeMillis();
+        // Whole minutes, so the column store (minute resolution) can evict exactly what was archived
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays).truncatedTo(ChronoUnit.MINUTES);
+        Path dir = Paths.get(directory);
+
+        int reconciled;
+        int written = 0;
+        long archived = 0;
+        try {
+            Files.createDirectories(dir);
+            reconciled = reconcile();
+            while (true) {
+                Path file = dir.resolve("movements-%06d.seg".formatted(nextSequence()));
+                int count = archiveSegment(cutoff, file);
+                if (count == 0) {
+                    break;
+                }
+                written++;
+                archived += count;
+                if (count < segmentRecords) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Movement archive failed: " + e.getMessage(), e);
+        }
+
+        if (archived > 0 || reconciled > 0) {
+            movementColumnStore.evictBefore(cutoff);
+            dataVersionService.bump(Aggregate.MOVEMENTS);
+        }
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Movement archive: {} movements before {} moved to {} segments in {} ms",
+                archived, cutoff, written, elapsed);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("cutoff", cutoff);
+        result.put("segmentsWritten", written);
+        result.put("movementsArchived", archived);
+        result.put("leftoverRowsDeleted", reconciled);
+        result.put("elapsedMs", elapsed);
+        lastRun = result;
+        return result;
+    }
+
+    /**
+     * Delete every segment (and leftover temporary file) in dir and forget the open ones. Only
+     * for wiping the data, e.g. the load test generator; other instances sharing dir keep the
+     * segments they have open until restarted.
+     */
+    public synchronized int deleteAll() {
+        Path dir = Paths.get(directory);
+        segments = List.of();
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        int deleted = 0;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                if (SEGMENT_OR_TEMP_NAME.matcher(file.getFileName().toString()).matches()) {
+                    Files.delete(file);
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Movement archive could not be deleted: " + e.getMessage(), e);
+        }
+        log.warn("Movement archive: deleted {} files from {}", deleted, dir);
+        return deleted;
+    }
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    public List<ArchivedMovement> findByInventoryItem(String inventoryItemId) {
+        return find(MovementSegment.Key.ITEM, inventoryItemId);
+    }
+
+    public List<ArchivedMovement> findByProduct(String productId) {
+        return find(MovementSegment.Key.PRODUCT, productId);
+    }
+
+    public List<ArchivedMovement> findByWarehouse(String warehouseId) {
+        return find(MovementSegment.Key.WAREHOUSE, warehouseId);
+    }
+
+    public List<ArchivedMovement> findByDateRange(LocalDateTime from, LocalDateTime to) {
+        List<ArchivedMovement> result = new ArrayList<>();
+        forEachBetween(from, to, result::add);
+        return result;
+    }
+
+    /**
+     * Archived movements created in [from, to], oldest first.
+     */
+    public void forEachBetween(LocalDateTime from, LocalDateTime to, Consumer<ArchivedMovement> sink) {
+        for (MovementSegment.Reader segment : segments) {
+            segment.findBetween(from, to, sink);
+        }
+    }
+
+    /**
+     * Type and id are not indexed in the segments, so these two scan the whole archive.
+     */
+    public List<ArchivedMovement> findByType(MovementType type) {
+        List<ArchivedMovement> result = new ArrayList<>();
+        forEach(movement -> {
+            if (movement.movementType() == type) {
+                result.add(movement);
+            }
+        });
+        return result;
+    }
+
+    public Optional<ArchivedMovement> findById(String id) {
+        List<ArchivedMovement> found = new ArrayList<>(1);
+        forEach(movement -> {
+            if (movement.id().equals(id)) {
+                found.add(movement);
+            }
+        });
+        return found.stream().findFirst();
+    }
+
+    /**
+     * Creation time of the newest archived movement, or null. Every movement created up to then is
+     * in the archive; the table only still holds some of them after an interrupted run.
+     */
+    public LocalDateTime archivedThrough() {
+        List<MovementSegment.Reader> snapshot = segments;
+        return snapshot.isEmpty() ? null : snapshot.get(snapshot.size() - 1).newest();
+    }
+
+    /**
+     * Every archived movement, oldest first.
+     */
+    public void forEach(Consumer<ArchivedMovement> sink) {
+        for (MovementSegment.Reader segment : segments) {
+            segment.forEach(sink);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        List<MovementSegment.Reader> snapshot = segments;
+        long records = snapshot.stream().mapToLong(MovementSegment.Reader::records).sum();
+        long bytes = snapshot.stream().mapToLong(MovementSegment.Reader::bytes).sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("retentionDays", retentionDays);
+        stats.put("directory", Paths.get(directory).toAbsolutePath().toString());
+        stats.put("segments", snapshot.size());
+        stats.put("blocks", snapshot.stream().mapToInt(MovementSegment.Reader::blocks).sum());
+        stats.put("movements", records);
+        stats.put("bytes", bytes);
+        stats.put("bytesPerMovement", records > 0 ? (double) bytes / records : 0);
+        stats.put("oldest", snapshot.isEmpty() ? null : snapshot.get(0).oldest());
+        stats.put("newest", snapshot.isEmpty() ? null : snapshot.get(snapshot.size() - 1).newest());
+        stats.put("lastRun", lastRun);
+        return stats;
+    }
+
+    private List<ArchivedMovement> find(MovementSegment.Key key, String id) {
+        List<ArchivedMovement> result = new ArrayList<>();
+        for (MovementSegment.Reader segment : segments) {
+            segment.find(key, id, result::add);
+        }
+        return result;
+    }
+
+    private int archiveSegment(LocalDateTime cutoff, Path file) throws IOException {
+        // Left behind if a run died before its rename; those rows are still in the table
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+
+        List<String> ids = new ArrayList<>();
+        try (MovementSegment.Writer writer = new MovementSegment.Writer(temp, blockRecords)) {
+            // A cursor needs a transaction on PostgreSQL
+            TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> {
+                JdbcTemplate cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+                cursor.setFetchSize(FETCH_SIZE);
+                cursor.query(EXPIRED_ROWS_SQL, rs -> {
+                    ArchivedMovement movement = fromRow(rs);
+                    try {
+                        writer.append(movement);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    ids.add(movement.id());
+                }, cutoff, segmentRecords);
+            });
+            if (!ids.isEmpty()) {
+                writer.finish();
+            }
+        }
+        if (ids.isEmpty()) {
+            Files.delete(temp);
+            return 0;
+        }
+
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        List<MovementSegment.Reader> updated = new ArrayList<>(segments);
+        updated.add(MovementSegment.Reader.open(file));
+        segments = List.copyOf(updated);
+
+        deleteFromDatabase(ids);
+        return ids.size();
+    }
+
+    // Rows of the newest segment still in the table after an interrupted run
+    private int reconcile() {
+        List<MovementSegment.Reader> snapshot = segments;
+        if (snapshot.isEmpty()) {
+            return 0;
+        }
+        List<String> ids = new ArrayList<>();
+        snapshot.get(snapshot.size() - 1).forEach(movement -> ids.add(movement.id()));
+        int deleted = deleteFromDatabase(ids);
+        if (deleted > 0) {
+            log.warn("Movement archive: deleted {} rows left over from an interrupted run", deleted);
+        }
+        return deleted;
+    }
+
+    private int deleteFromDatabase(List<String> ids) {
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += deleteBatchSize) {
+            List<String> batch = ids.subList(from, Math.min(from + deleteBatchSize, ids.size()));
+            Integer count = transactionTemplate.execute(status -> inventoryMovementRepository.deleteByIdIn(batch));
+            deleted += count != null ? count : 0;
+        }
+        return deleted;
+    }
+
+    private int nextSequence() {
+        return segments.stream()
+                .map(segment -> SEGMENT_NAME.matcher(segment.file().getFileName().toString()))
+                .filter(Matcher::matches)
+                .map(matcher -> Integer.parseInt(matcher.group(1)))
+                .max(Comparator.naturalOrder())
+                .orElse(0) + 1;
+    }
+
+    private ArchivedMovement fromRow(ResultSet rs) throws SQLException {
+        String firstName = rs.getString(15);
+        String lastName = rs.getString(16);
+        int before = rs.getInt(10);
+        boolean hasBefore = !rs.wasNull();
+        int after = rs.getInt(11);
+        boolean hasAfter = !rs.wasNull();
+        BigDecimal unitCost = rs.getBigDecimal(18);
+        return new ArchivedMovement(
+                rs.getString(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getString(6),
+                rs.getString(7),
+                MovementType.valueOf(rs.getString(8)),
+                rs.getInt(9),
+                hasBefore ? before : null,
+                hasAfter ? after : null,
+                rs.getString(12),
+                rs.getString(13),
+                rs.getString(14),
+                firstName != null ? firstName + " " + lastName : null,
+                unitCost,
+                rs.getTimestamp(17).toLocalDateTime());
+    }
+}
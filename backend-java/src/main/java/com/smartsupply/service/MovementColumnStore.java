@@ -0,0 +1,383 @@
+package com.smartsupply.service;
+
+import com.smartsupply.dto.MovementAggregateResponse;
+import com.smartsupply.entity.MovementType;
+import com.smartsupply.event.InventoryMovementRecordedEvent;
+import com.smartsupply.repository.InventoryMovementRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MovementColumnStore - In-process columnar copy of inventory_movements for ad-hoc analytics.
+ *
+ * Every movement is one row across four primitive columns:
+ * - item     int   (dictionary index of the inventory item)
+ * - type     byte  (MovementType ordinal)
+ * - quantity int
+ * - minute   int   (epoch minute of createdAt, UTC)
+ *
+ * Items map to product/warehouse dictionary indexes, so grouping by warehouse or product
+ * is one array lookup per row. Rows are appended after each movement transaction commits;
+ * a single writer appends, readers work on an immutable snapshot without locking.
+ *
+ * Movements committed while the initial load runs are buffered and appended afterwards, minus the
+ * ones the load already returned. The load reads one REPEATABLE READ snapshot, and the buffered
+ * ids are looked up in that same snapshot, so the check is exact however late an event arrives.
+ *
+ * Movements moved to the archive are evicted by MovementArchiveService, so the store covers the
+ * same window as inventory_movements whether or not it was reloaded since. Other deletes (e.g.
+ * product deletion) stay here until the next restart.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MovementColumnStore {
+
+    public enum Dimension {
+        TYPE,
+        WAREHOUSE,
+        PRODUCT,
+        DAY
+    }
+
+    private static final int LOAD_BATCH_SIZE = 10_000;
+    private static final int DEDUPE_BATCH_SIZE = 1_000;
+    private static final int MINUTES_PER_DAY = 1440;
+    private static final MovementType[] TYPES = MovementType.values();
+
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Everything below is only mutated while holding writeLock
+    private final Object writeLock = new Object();
+    private int[] itemColumn = new int[1024];
+    private byte[] typeColumn = new byte[1024];
+    private int[] quantityColumn = new int[1024];
+    private int[] minuteColumn = new int[1024];
+    private int size;
+    private int minMinute = Integer.MAX_VALUE;
+    private int maxMinute = Integer.MIN_VALUE;
+    private int floorMinute = Integer.MIN_VALUE;   // Everything before this is archived
+
+    private final Map<String, Integer> itemIndex = new HashMap<>();
+    private int[] itemProduct = new int[256];
+    private int[] itemWarehouse = new int[256];
+    private final Dictionary products = new Dictionary();
+    private final Dictionary warehouses = new Dictionary();
+
+    private boolean loaded;
+    private final Map<String, InventoryMovementRecordedEvent> pendingDuringLoad = new LinkedHashMap<>();
+
+    private volatile Snapshot snapshot = new Snapshot(new int[0], new byte[0], new int[0], new int[0], 0,
+            0, -1, new int[0], new int[0], new String[0], 0, new String[0], 0);
+
+    /**
+     * Immutable view handed to readers. Arrays may be longer than size; only [0, size) is valid.
+     */
+    private record Snapshot(int[] items, byte[] types, int[] quantities, int[] minutes, int size,
+                            int minMinute, int maxMinute, int[] itemProduct, int[] itemWarehouse,
+                            String[] productIds, int productCount, String[] warehouseIds, int warehouseCount) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Thread.ofPlatform().daemon().name("movement-column-store-loader").start(this::load);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMovementRecorded(InventoryMovementRecordedEvent event) {
+        synchronized (writeLock) {
+            if (!loaded) {
+                pendingDuringLoad.put(event.movementId(), event);
+                return;
+            }
+            append(event.inventoryItemId(), event.productId(), event.warehouseId(),
+                    event.movementType(), event.quantity(), event.createdAt());
+            publish();
+        }
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * Drop movements created before the given time (a whole minute), and any that arrive later.
+     * Survivors are copied to new columns, so readers keep their snapshot untouched.
+     */
+    public void evictBefore(LocalDateTime time) {
+        int floor = toMinute(time);
+        synchronized (writeLock) {
+            if (floor <= floorMinute) {
+                return;
+            }
+            floorMinute = floor;
+            int[] items = new int[itemColumn.length];
+            byte[] types = new byte[itemColumn.length];
+            int[] quantities = new int[itemColumn.length];
+            int[] minutes = new int[itemColumn.length];
+            int kept = 0;
+            minMinute = Integer.MAX_VALUE;
+            maxMinute = Integer.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                int minute = minuteColumn[i];
+                if (minute >= floor) {
+                    items[kept] = itemColumn[i];
+                    types[kept] = typeColumn[i];
+                    quantities[kept] = quantityColumn[i];
+                    minutes[kept] = minute;
+                    kept++;
+                    minMinute = Math.min(minMinute, minute);
+                    maxMinute = Math.max(maxMinute, minute);
+                }
+            }
+            log.info("Movement column store evicted {} archived rows", size - kept);
+            itemColumn = items;
+            typeColumn = types;
+            quantityColumn = quantities;
+            minuteColumn = minutes;
+            size = kept;
+            publish();
+        }
+    }
+
+    /**
+     * Filtered group-by: sum of quantity and number of movements per group.
+     * Any filter may be null.
+     */
+    public MovementAggregateResponse aggregate(Dimension groupBy, MovementType type, String warehouseId,
+                                               String productId, LocalDateTime from, LocalDateTime to) {
+        long started = System.nanoTime();
+        Snapshot s = snapshot;
+
+        int warehouseFilter = warehouseId != null ? warehouses.lookup(warehouseId, s.warehouseCount()) : -1;
+        int productFilter = productId != null ? products.lookup(productId, s.productCount()) : -1;
+        boolean unknownFilter = (warehouseId != null && warehouseFilter < 0) || (productId != null && productFilter < 0);
+
+        int lo = Math.max(from != null ? toMinute(from) : Integer.MIN_VALUE, s.minMinute());
+        int hi = Math.min(to != null ? toMinute(to) : Integer.MAX_VALUE, s.maxMinute());
+        int typeFilter = type != null ? type.ordinal() : -1;
+
+        int n = (unknownFilter || lo > hi) ? 0 : s.size();
+        int baseDay = Math.floorDiv(lo, MINUTES_PER_DAY);
+        int cardinality = switch (groupBy) {
+            case TYPE -> TYPES.length;
+            case WAREHOUSE -> s.warehouseCount();
+            case PRODUCT -> s.productCount();
+            case DAY -> n == 0 ? 0 : Math.floorDiv(hi, MINUTES_PER_DAY) - baseDay + 1;
+        };
+        int[] itemKey = groupBy == Dimension.PRODUCT ? s.itemProduct() : s.itemWarehouse();
+
+        long[] sums = new long[cardinality];
+        long[] counts = new long[cardinality];
+        int[] items = s.items();
+        byte[] types = s.types();
+        int[] quantities = s.quantities();
+        int[] minutes = s.minutes();
+        int[] itemWarehouses = s.itemWarehouse();
+        int[] itemProducts = s.itemProduct();
+
+        // Branch-free filter; the dimension checks are loop-invariant and get unswitched by the JIT
+        for (int i = 0; i < n; i++) {
+            int item = items[i];
+            int minute = minutes[i];
+            boolean keep = minute >= lo & minute <= hi
+                    & (typeFilter < 0 | types[i] == typeFilter)
+                    & (warehouseFilter < 0 | itemWarehouses[item] == warehouseFilter)
+                    & (productFilter < 0 | itemProducts[item] == productFilter);
+            int key = groupBy == Dimension.TYPE ? types[i]
+                    : groupBy == Dimension.DAY ? Math.floorDiv(minute, MINUTES_PER_DAY) - baseDay
+                    : itemKey[item];
+            int mask = keep ? 1 : 0;
+            key = keep ? key : 0;
+            sums[key] += (long) quantities[i] * mask;
+            counts[key] += mask;
+        }
+
+        List<MovementAggregateResponse.Group> groups = new ArrayList<>();
+        long matched = 0;
+        for (int key = 0; key < cardinality; key++) {
+            if (counts[key] == 0) {
+                continue;
+            }
+            matched += counts[key];
+            groups.add(MovementAggregateResponse.Group.builder()
+                    .key(decodeKey(groupBy, key, baseDay, s))
+                    .quantity(sums[key])
+                    .movements(counts[key])
+                    .build());
+        }
+
+        return MovementAggregateResponse.builder()
+                .groupBy(groupBy.name())
+                .rowsScanned(n)
+                .rowsMatched(matched)
+                .elapsedMicros((System.nanoTime() - started) / 1_000)
+                .groups(groups)
+                .build();
+    }
+
+    private void load() {
+        long started = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now();
+
+        // One snapshot for the pages and the dedupe lookup below
+        TransactionTemplate snapshotRead = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        snapshotRead.setReadOnly(true);
+        snapshotRead.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshotRead.executeWithoutResult(status -> {
+            String afterId = "";
+            while (true) {
+                List<Object[]> rows = inventoryMovementRepository.findAnalyticsRowsAfter(afterId, cutoff,
+                        PageRequest.of(0, LOAD_BATCH_SIZE));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                synchronized (writeLock) {
+                    for (Object[] row : rows) {
+                        append((String) row[1], (String) row[2], (String) row[3],
+                                (MovementType) row[4], ((Number) row[5]).intValue(), (LocalDateTime) row[6]);
+                    }
+                    publish();
+                }
+                afterId = (String) rows.get(rows.size() - 1)[0];
+                if (rows.size() < LOAD_BATCH_SIZE) {
+                    break;
+                }
+            }
+
+            synchronized (writeLock) {
+                // Movements committed while loading. Their event can arrive after the page holding the
+                // row was read, so skip exactly the ones this snapshot returned.
+                List<String> ids = new ArrayList<>(pendingDuringLoad.keySet());
+                Set<String> loadedIds = new HashSet<>();
+                for (int from = 0; from < ids.size(); from += DEDUPE_BATCH_SIZE) {
+                    loadedIds.addAll(inventoryMovementRepository.findExistingIds(
+                            ids.subList(from, Math.min(from + DEDUPE_BATCH_SIZE, ids.size()))));
+                }
+                for (InventoryMovementRecordedEvent event : pendingDuringLoad.values()) {
+                    if (!loadedIds.contains(event.movementId()) || !event.createdAt().isBefore(cutoff)) {
+                        append(event.inventoryItemId(), event.productId(), event.warehouseId(),
+                                event.movementType(), event.quantity(), event.createdAt());
+                    }
+                }
+                pendingDuringLoad.clear();
+                loaded = true;
+                publish();
+            }
+        });
+        log.info("Movement column store loaded {} rows in {} ms", size(), System.currentTimeMillis() - started);
+    }
+
+    private void append(String inventoryItemId, String productId, String warehouseId,
+                        MovementType type, int quantity, LocalDateTime createdAt) {
+        int minute = toMinute(createdAt);
+        if (minute < floorMinute) {
+            return;
+        }
+        Integer item = itemIndex.get(inventoryItemId);
+        if (item == null) {
+            item = itemIndex.size();
+            itemIndex.put(inventoryItemId, item);
+            if (item == itemProduct.length) {
+                itemProduct = Arrays.copyOf(itemProduct, item * 2);
+                itemWarehouse = Arrays.copyOf(itemWarehouse, item * 2);
+            }
+            itemProduct[item] = products.encode(productId);
+            itemWarehouse[item] = warehouses.encode(warehouseId);
+        }
+
+        if (size == itemColumn.length) {
+            int capacity = size * 2;
+            itemColumn = Arrays.copyOf(itemColumn, capacity);
+            typeColumn = Arrays.copyOf(typeColumn, capacity);
+            quantityColumn = Arrays.copyOf(quantityColumn, capacity);
+            minuteColumn = Arrays.copyOf(minuteColumn, capacity);
+        }
+
+        itemColumn[size] = item;
+        typeColumn[size] = (byte) type.ordinal();
+        quantityColumn[size] = quantity;
+        minuteColumn[size] = minute;
+        size++;
+        minMinute = Math.min(minMinute, minute);
+        maxMinute = Math.max(maxMinute, minute);
+    }
+
+    private void publish() {
+        snapshot = new Snapshot(itemColumn, typeColumn, quantityColumn, minuteColumn, size,
+                minMinute, maxMinute, itemProduct, itemWarehouse,
+                products.values(), products.size(), warehouses.values(), warehouses.size());
+    }
+
+    private String decodeKey(Dimension groupBy, int key, int baseDay, Snapshot s) {
+        return switch (groupBy) {
+            case TYPE -> TYPES[key].name();
+            case WAREHOUSE -> s.warehouseIds()[key];
+            case PRODUCT -> s.productIds()[key];
+            case DAY -> LocalDate.ofEpochDay(baseDay + key).toString();
+        };
+    }
+
+    private static int toMinute(LocalDateTime time) {
+        return (int) Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * String dictionary: id -> dense int code, and back.
+     * Written under the store's write lock; lookups from readers are bounded by their snapshot's count.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+        private String[] values = new String[64];
+        private int size;
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = size;
+                if (code == values.length) {
+                    values = Arrays.copyOf(values, code * 2);
+                }
+                values[code] = value;
+                size++;
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        int lookup(String value, int visibleCount) {
+            Integer code = codes.get(value);
+            return code != null && code < visibleCount ? code : -1;
+        }
+
+        String[] values() {
+            return values;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.smartsupply.service;
+
+import com.smartsupply.entity.MovementType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * MovementJournal - Fixed-size, memory-mapped write-ahead log of inventory movements.
+ *
+ * Layout (big-endian):
+ * - header  32 bytes: magic "SSMJ", version, generation
+ * - records from offset 32: length, CRC32 (of generation and payload), payload
+ *
+ * A payload is the sequence number, the 16-byte movement id and the movement's fields. The file is
+ * reused from the start once everything in it has reached the database: reset() bumps the
+ * generation, and records left over from the previous generation then fail their CRC. Recovery
+ * reads records until the first one that does not check out, which is also where a write torn
+ * by a crash ends.
+ *
+ * Not thread-safe; MovementJournalService has a single writer thread.
+ */
+final class MovementJournal implements Closeable {
+
+    private static final int MAGIC = 0x53534D4A;
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final MovementType[] TYPES = MovementType.values();
+
+    record Entry(
+            long sequence,
+            String id,
+            String inventoryItemId,
+            String productId,
+            String warehouseId,
+            MovementType movementType,
+            int quantity,
+            int quantityBefore,
+            int quantityAfter,
+            String reason,
+            String referenceType,
+            String referenceId,
+            String performedByUserId,
+            LocalDateTime createdAt) {
+
+        Entry withSequence(long sequence) {
+            return new Entry(sequence, id, inventoryItemId, productId, warehouseId, movementType, quantity,
+                    quantityBefore, quantityAfter, reason, referenceType, referenceId, performedByUserId, createdAt);
+        }
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private long generation;
+    private int position = HEADER_SIZE;
+
+    private MovementJournal(FileChannel channel, MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static MovementJournal open(Path file, int size) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        int mapped = (int) Math.max(size, channel.size());
+        MovementJournal journal = new MovementJournal(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, mapped));
+        if (journal.buffer.getInt(0) == MAGIC && journal.buffer.getShort(4) == VERSION) {
+            journal.generation = journal.buffer.getLong(8);
+        } else {
+            journal.reset();
+        }
+        return journal;
+    }
+
+    /**
+     * Entries of the current generation, in the order they were appended. Leaves the write
+     * position after the last one.
+     */
+    List<Entry> recover() {
+        List<Entry> entries = new ArrayList<>();
+        int offset = HEADER_SIZE;
+        while (offset + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || length > buffer.capacity() - offset - RECORD_HEADER_SIZE) {
+                break;
+            }
+            ByteBuffer payload = buffer.slice(offset + RECORD_HEADER_SIZE, length);
+            if (checksum(payload) != buffer.getInt(offset + 4)) {
+                break;
+            }
+            entries.add(decode(payload));
+            offset += RECORD_HEADER_SIZE + length;
+        }
+        position = offset;
+        return entries;
+    }
+
+    /**
+     * Write the entries and force them to disk as one group. Returns false, writing nothing,
+     * if they do not fit in the space left.
+     */
+    boolean append(List<Entry> entries) {
+        List<byte[]> payloads = new ArrayList<>(entries.size());
+        int total = 0;
+        for (Entry entry : entries) {
+            byte[] payload = encode(entry);
+            payloads.add(payload);
+            total += RECORD_HEADER_SIZE + payload.length;
+        }
+        // Room for the zero length that ends the records
+        if (position + total + 4 > buffer.capacity()) {
+            return false;
+        }
+
+        int start = position;
+        for (byte[] payload : payloads) {
+            buffer.putInt(position + 4, checksum(ByteBuffer.wrap(payload)));
+            buffer.put(position + RECORD_HEADER_SIZE, payload);
+            // Length last: a record is only visible once it is complete
+            buffer.putInt(position, payload.length);
+            position += RECORD_HEADER_SIZE + payload.length;
+        }
+        buffer.putInt(position, 0);
+        buffer.force(start, position + 4 - start);
+        return true;
+    }
+
+    /**
+     * Start over at the beginning of the file. Only call once every entry has been applied.
+     */
+    void reset() {
+        generation++;
+        buffer.putInt(0, MAGIC).putShort(4, VERSION).putShort(6, (short) 0).putLong(8, generation);
+        buffer.putInt(HEADER_SIZE, 0);
+        buffer.force(0, HEADER_SIZE + 4);
+        position = HEADER_SIZE;
+    }
+
+    int used() {
+        return position;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int checksum(ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(8).putLong(0, generation));
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(Entry entry) {
+        byte[][] strings = {
+                bytes(entry.inventoryItemId()), bytes(entry.productId()), bytes(entry.warehouseId()),
+                bytes(entry.reason()), bytes(entry.referenceType()), bytes(entry.referenceId()),
+                bytes(entry.performedByUserId())
+        };
+        int size = 8 + 16 + 1 + 4 * 3 + 8;
+        for (byte[] string : strings) {
+            size += 4 + (string != null ? string.length : 0);
+        }
+
+        UUID id = UUID.fromString(entry.id());
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putLong(entry.sequence())
+                .putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits())
+                .put((byte) entry.movementType().ordinal())
+                .putInt(entry.quantity()).putInt(entry.quantityBefore()).putInt(entry.quantityAfter())
+                .putLong(MovementSegment.toMicros(entry.createdAt()));
+        for (byte[] string : strings) {
+            if (string == null) {
+                out.putInt(-1);
+            } else {
+                out.putInt(string.length).put(string);
+            }
+        }
+        return out.array();
+    }
+
+    private static Entry decode(ByteBuffer in) {
+        long sequence = in.getLong();
+        String id = new UUID(in.getLong(), in.getLong()).toString();
+        MovementType type = TYPES[in.get()];
+        int quantity = in.getInt();
+        int before = in.getInt();
+        int after = in.getInt();
+        LocalDateTime createdAt = MovementSegment.fromMicros(in.getLong());
+        return new Entry(sequence, id, string(in), string(in), string(in), type, quantity, before, after,
+                string(in), string(in), string(in), string(in), createdAt);
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static String string(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
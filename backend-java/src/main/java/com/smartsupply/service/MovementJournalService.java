@@ -0,0 +1,733 @@
+package com.smartsupply.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartsupply.dto.CreateInventoryMovementRequest;
+import com.smartsupply.dto.InventoryMovementResponse;
+import com.smartsupply.entity.InventoryItem;
+import com.smartsupply.entity.MovementType;
+import com.smartsupply.event.InventoryMovementRecordedEvent;
+import com.smartsupply.repository.InventoryItemRepository;
+import com.smartsupply.repository.InventoryMovementRepository;
+import com.smartsupply.security.AuthenticatedUser;
+import com.smartsupply.service.DataVersionService.Aggregate;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * MovementJournalService - Acknowledges recorded movements once they are durable in a local
+ * write-ahead journal (MovementJournal) and writes them to the database in batches behind.
+ *
+ * Request threads validate the movement against the database row plus the units already journaled
+ * but not yet applied, and queue it. A single writer thread appends whatever has queued up as one
+ * group and forces it to disk once (group commit), then completes the requests. A single applier
+ * thread drains the journaled movements into inventory_items and inventory_movements, many per
+ * transaction, with the same valuation, capacity, outbox and cache side effects as
+ * InventoryMovementService.recordMovement.
+ *
+ * On startup the journal's tail is replayed before anything is accepted. Movements whose id is
+ * already in inventory_movements were applied before the crash and are skipped, so replaying the
+ * same tail twice changes nothing.
+ *
+ * A batch the database refuses for a reason other than an outage is retried journal.max-attempts
+ * times, then applied one movement at a time. A movement that still fails on its own is appended to
+ * the dead-letter file (one JSON line with the error) and skipped, so it cannot hold back the rest of
+ * the journal. Requests wait at most journal.request-timeout-ms for the journal write.
+ *
+ * A request that timed out may still be journaled. Clients that send a requestId can retry with
+ * it: it becomes the movement id, and a retry gets the movement already journaled or recorded
+ * under it instead of a second one.
+ *
+ * Stock changed outside the journal (stocktakes, PO receipts, the other backend) is seen by the next
+ * validation, but can still undercut a movement that was acknowledged before it. The applier
+ * dead-letters such a movement rather than store negative stock. Off by default (journal.enabled).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MovementJournalService {
+
+    private static final int STRIPES = 256;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO inventory_movements (id, inventory_item_id, movement_type, quantity, quantity_before, " +
+            "quantity_after, reason, reference_type, reference_id, performed_by_user_id, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DataVersionService dataVersionService;
+    private final WarehouseCapacityService warehouseCapacityService;
+    private final InventoryValuationService inventoryValuationService;
+    private final InventoryMovementService inventoryMovementService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${journal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${journal.file:./data/movement-journal.bin}")
+    private String file;
+
+    @Value("${journal.file-size-mb:64}")
+    private int fileSizeMb;
+
+    @Value("${journal.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${journal.group-max:1000}")
+    private int groupMax;
+
+    @Value("${journal.apply-batch-size:500}")
+    private int applyBatchSize;
+
+    @Value("${journal.retry-ms:1000}")
+    private long retryMs;
+
+    @Value("${journal.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${journal.dead-letter-file:./data/movement-journal-dead-letter.jsonl}")
+    private String deadLetterFile;
+
+    @Value("${journal.request-timeout-ms:10000}")
+    private long requestTimeoutMs;
+
+    private record Pending(MovementJournal.Entry entry, CompletableFuture<MovementJournal.Entry> journaled) {
+    }
+
+    // A request with a requestId from submit until its movement is in the database (or refused)
+    private record InFlight(CreateInventoryMovementRequest request, CompletableFuture<InventoryMovementResponse> response) {
+    }
+
+    // Item and warehouse keys hash to stripes; always locked in ascending order
+    private final ReentrantLock[] stripes = IntStream.range(0, STRIPES)
+            .mapToObj(i -> new ReentrantLock())
+            .toArray(ReentrantLock[]::new);
+
+    // Units journaled but not yet applied, per item and per warehouse; guarded by the key's stripe
+    private final Map<String, Integer> pendingQuantity = new ConcurrentHashMap<>();
+    private final Map<String, Integer> pendingUnits = new ConcurrentHashMap<>();
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    private final BlockingQueue<MovementJournal.Entry> applyQueue = new LinkedBlockingQueue<>();
+    private final Object applyProgress = new Object();
+
+    private final LongAdder journaledCount = new LongAdder();
+    private final LongAdder groups = new LongAdder();
+    private final LongAdder appliedCount = new LongAdder();
+    private final LongAdder applyFailures = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private BlockingQueue<Pending> queue;
+    private MovementJournal journal;
+    private Thread writer;
+    private Thread applier;
+    private int recovered;
+    private long lastSequence;                 // Writer thread only (after recovery)
+    private volatile long appliedSequence;
+    private RuntimeException lastFailure;      // Applier (or recovery) thread only
+    private volatile boolean running;
+    private volatile boolean ready;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        if (enabled) {
+            recover();
+        }
+    }
+
+    /**
+     * Replay the journal's tail into the database, then start accepting movements. Runs once.
+     */
+    public synchronized void recover() {
+        if (ready) {
+            return;
+        }
+        try {
+            journal = MovementJournal.open(Paths.get(file), fileSizeMb * 1024 * 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Movement journal could not be opened: " + e.getMessage(), e);
+        }
+
+        List<MovementJournal.Entry> tail = journal.recover();
+        try {
+            for (int from = 0; from < tail.size(); from += applyBatchSize) {
+                applyWithRetry(tail.subList(from, Math.min(from + applyBatchSize, tail.size())), false);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Movement journal replay was interrupted", e);
+        }
+        recovered = tail.size();
+        lastSequence = tail.isEmpty() ? 0 : tail.get(tail.size() - 1).sequence();
+        appliedSequence = lastSequence;
+        journal.reset();
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = Thread.ofPlatform().name("movement-journal-writer").daemon().start(this::writeLoop);
+        applier = Thread.ofPlatform().name("movement-journal-applier").daemon().start(this::applyLoop);
+        ready = true;
+        log.info("Movement journal {} ready, {} movements replayed", file, recovered);
+    }
+
+    /**
+     * Delete the journal file so the next recover() starts empty instead of replaying its tail.
+     * Only for wiping the data before recovery, e.g. the load test generator.
+     */
+    public synchronized void discard() {
+        if (ready) {
+            throw new IllegalStateException("Movement journal is already in use");
+        }
+        try {
+            if (Files.deleteIfExists(Paths.get(file))) {
+                log.warn("Movement journal {} deleted", file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Movement journal could not be deleted: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Validate and journal one movement. The future completes once the movement is on disk in
+     * the journal; it reaches the database shortly after. It fails with a TimeoutException after
+     * journal.request-timeout-ms, in which case the movement may still be journaled: retrying
+     * with the same requestId returns it instead of journaling it again.
+     */
+    public CompletableFuture<InventoryMovementResponse> submit(CreateInventoryMovementRequest request) {
+        if (!ready) {
+            throw new RejectedExecutionException("Movement journal is not accepting movements yet");
+        }
+        String requestId = request.getRequestId();
+        if (requestId == null) {
+            return enqueue(request, UUID.randomUUID().toString())
+                    .orTimeout(requestTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+
+        CompletableFuture<InventoryMovementResponse> response = new CompletableFuture<>();
+        InFlight earlier = inFlight.putIfAbsent(requestId, new InFlight(request, response));
+        if (earlier != null) {
+            checkSameMovement(earlier.request(), request);
+            return earlier.response().copy().orTimeout(requestTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+        try {
+            // The claim is dropped only once the row has committed, so a retry finds one or the other
+            InventoryMovementResponse recorded = inventoryMovementService.findRecorded(request);
+            if (recorded != null) {
+                inFlight.remove(requestId);
+                response.complete(recorded);
+                return CompletableFuture.completedFuture(recorded);
+            }
+            enqueue(request, requestId).whenComplete((journaled, failure) -> {
+                if (failure != null) {
+                    inFlight.remove(requestId);
+                    response.completeExceptionally(failure);
+                } else {
+                    response.complete(journaled);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(requestId);
+            response.completeExceptionally(e);
+            throw e;
+        }
+        return response.copy().orTimeout(requestTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private CompletableFuture<InventoryMovementResponse> enqueue(CreateInventoryMovementRequest request, String id) {
+        String itemId = request.getInventoryItemId();
+        String warehouseId = (String) stockCheckRow(itemId)[3];
+
+        Object[] row;
+        Pending pending;
+        int[] locked = lock(List.of(itemId, warehouseId));
+        try {
+            // Re-read under the stripes: the applier moves units from pending to the row while holding them
+            row = stockCheckRow(itemId);
+            int quantity = request.getQuantity();
+            int quantityBefore = (Integer) row[5] + pendingQuantity.getOrDefault(itemId, 0);
+            int delta = delta(request.getMovementType(), quantity);
+            int quantityAfter = quantityBefore + delta;
+
+            if (request.getMovementType() == MovementType.OUT && quantityBefore < quantity) {
+                throw new RuntimeException("Insufficient stock. Available: " + quantityBefore);
+            }
+            if (quantityAfter < 0) {
+                throw new RuntimeException("Adjustment would result in negative stock");
+            }
+            // Receipts and transfers into the warehouse must fit, counting units still in the journal
+            if ((request.getMovementType() == MovementType.IN || request.getMovementType() == MovementType.TRANSFER)
+                    && delta > 0 && row[6] != null
+                    && (Integer) row[7] + pendingUnits.getOrDefault(warehouseId, 0) + delta > (Integer) row[6]) {
+                throw new RuntimeException("Warehouse capacity exceeded: cannot add " + delta + " units");
+            }
+
+            MovementJournal.Entry entry = new MovementJournal.Entry(0, id, itemId,
+                    (String) row[0], warehouseId, request.getMovementType(), quantity, quantityBefore, quantityAfter,
+                    request.getReason(), request.getReferenceType(), request.getReferenceId(), currentUserId(),
+                    // Same precision as created_at, so the acknowledgement matches the stored row
+                    LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+            pending = new Pending(entry, new CompletableFuture<>());
+            if (!queue.offer(pending)) {
+                rejected.increment();
+                throw new RejectedExecutionException("Movement journal queue is full");
+            }
+            addPending(entry, delta);
+        } finally {
+            unlock(locked);
+        }
+
+        Object[] names = row;
+        return pending.journaled().thenApply(entry -> toResponse(entry, names));
+    }
+
+    private static void checkSameMovement(CreateInventoryMovementRequest earlier, CreateInventoryMovementRequest request) {
+        if (!earlier.getInventoryItemId().equals(request.getInventoryItemId())
+                || earlier.getMovementType() != request.getMovementType()
+                || !earlier.getQuantity().equals(request.getQuantity())) {
+            throw new RuntimeException("Movement " + request.getRequestId() + " already exists with different content");
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long journaled = journaledCount.sum();
+        long groupCount = groups.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", ready);
+        stats.put("file", Paths.get(file).toAbsolutePath().toString());
+        stats.put("bytesUsed", journal != null ? journal.used() : 0);
+        stats.put("bytesCapacity", journal != null ? journal.capacity() : 0);
+        stats.put("queued", queue != null ? queue.size() : 0);
+        stats.put("awaitingApply", applyQueue.size());
+        stats.put("journaled", journaled);
+        stats.put("groupCommits", groupCount);
+        stats.put("averageGroupSize", groupCount > 0 ? (double) journaled / groupCount : 0);
+        stats.put("applied", appliedCount.sum());
+        stats.put("applyFailures", applyFailures.sum());
+        stats.put("deadLettered", deadLettered.sum());
+        stats.put("deadLetterFile", Paths.get(deadLetterFile).toAbsolutePath().toString());
+        stats.put("rejected", rejected.sum());
+        stats.put("replayedOnStartup", recovered);
+        return stats;
+    }
+
+    /**
+     * Stop accepting, then give the threads a moment to drain. Anything not yet applied stays in
+     * the journal and is replayed on the next start.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException, IOException {
+        if (!ready) {
+            return;
+        }
+        ready = false;
+        running = false;
+        writer.join(5_000);
+        applier.join(10_000);
+        applier.interrupt();
+        journal.close();
+    }
+
+    private void writeLoop() {
+        List<Pending> group = new ArrayList<>(groupMax);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, groupMax - 1);
+                writeGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void writeGroup(List<Pending> group) throws InterruptedException {
+        List<MovementJournal.Entry> entries = new ArrayList<>(group.size());
+        for (int i = 0; i < group.size(); i++) {
+            entries.add(group.get(i).entry().withSequence(lastSequence + 1 + i));
+        }
+
+        try {
+            if (!journal.append(entries)) {
+                // Full: wait until everything in it is in the database, then start over
+                awaitApplied(lastSequence);
+                journal.reset();
+                if (!journal.append(entries)) {
+                    throw new IllegalStateException("Movement group larger than the journal file");
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Movement journal: writing {} movements failed", entries.size(), e);
+            for (MovementJournal.Entry entry : entries) {
+                int[] locked = lock(List.of(entry.inventoryItemId(), entry.warehouseId()));
+                try {
+                    addPending(entry, -delta(entry.movementType(), entry.quantity()));
+                } finally {
+                    unlock(locked);
+                }
+            }
+            group.forEach(pending -> pending.journaled().completeExceptionally(e));
+            return;
+        }
+
+        lastSequence += entries.size();
+        journaledCount.add(entries.size());
+        groups.increment();
+        applyQueue.addAll(entries);
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).journaled().complete(entries.get(i));
+        }
+    }
+
+    private void applyLoop() {
+        List<MovementJournal.Entry> batch = new ArrayList<>(applyBatchSize);
+        while (running || !applyQueue.isEmpty()) {
+            try {
+                MovementJournal.Entry first = applyQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                applyQueue.drainTo(batch, applyBatchSize - 1);
+                applyWithRetry(batch, true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Apply a batch, retrying while the database is unreachable. Any other failure is retried
+     * maxAttempts times, then the batch is applied one movement at a time and the movements that
+     * still fail are dead-lettered.
+     */
+    private void applyWithRetry(List<MovementJournal.Entry> batch, boolean releasePending)
+            throws InterruptedException {
+        if (tryApply(batch, releasePending)) {
+            return;
+        }
+        if (batch.size() > 1) {
+            log.warn("Movement journal: applying {} movements failed {} times, applying them one at a time",
+                    batch.size(), maxAttempts);
+        }
+        for (MovementJournal.Entry entry : batch) {
+            List<MovementJournal.Entry> single = List.of(entry);
+            if (batch.size() > 1 && tryApply(single, releasePending)) {
+                continue;
+            }
+            deadLetter(entry, releasePending, String.valueOf(lastFailure));
+        }
+    }
+
+    /**
+     * False once the batch has failed maxAttempts times for a reason other than an outage.
+     */
+    private boolean tryApply(List<MovementJournal.Entry> batch, boolean releasePending)
+            throws InterruptedException {
+        int attempts = 0;
+        while (true) {
+            try {
+                apply(batch, releasePending);
+                return true;
+            } catch (RuntimeException e) {
+                applyFailures.increment();
+                lastFailure = e;
+                if (!isOutage(e) && ++attempts >= maxAttempts) {
+                    return false;
+                }
+                log.warn("Movement journal: applying {} movements failed, retrying in {} ms: {}",
+                        batch.size(), retryMs, e.getMessage());
+                Thread.sleep(retryMs);
+            }
+        }
+    }
+
+    // Connection and transient failures say nothing about the movements; retry them indefinitely
+    private static boolean isOutage(RuntimeException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException || e instanceof CannotCreateTransactionException;
+    }
+
+    /**
+     * Record a movement that cannot be applied in the dead-letter file, forced to disk before the
+     * journal may overwrite it, and count it as applied. Retries until the file is written.
+     */
+    private void deadLetter(MovementJournal.Entry entry, boolean releasePending, String error)
+            throws InterruptedException {
+        while (true) {
+            try {
+                writeDeadLetter(entry, error);
+                break;
+            } catch (UncheckedIOException e) {
+                log.error("Movement journal: dead-lettering movement {} failed, retrying in {} ms",
+                        entry.id(), retryMs, e);
+                Thread.sleep(retryMs);
+            }
+        }
+
+        if (releasePending) {
+            int[] locked = lock(List.of(entry.inventoryItemId(), entry.warehouseId()));
+            try {
+                addPending(entry, -delta(entry.movementType(), entry.quantity()));
+            } finally {
+                unlock(locked);
+            }
+        }
+        inFlight.remove(entry.id());
+        deadLettered.increment();
+        log.error("Movement journal: movement {} ({} {} of item {}) dead-lettered to {}: {}",
+                entry.id(), entry.movementType(), entry.quantity(), entry.inventoryItemId(), deadLetterFile, error);
+        advance(entry.sequence());
+    }
+
+    private void writeDeadLetter(MovementJournal.Entry entry, String error) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("movement", entry);
+        line.put("error", error);
+        line.put("deadLetteredAt", LocalDateTime.now());
+        try {
+            Path path = Paths.get(deadLetterFile);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            byte[] bytes = (objectMapper.writeValueAsString(line) + "\n").getBytes(StandardCharsets.UTF_8);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                channel.write(ByteBuffer.wrap(bytes));
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write a batch of journaled movements to the database in one transaction. The stripes of its
+     * items and warehouses are held until the pending units are released, so validation never
+     * counts a movement both in the row and as pending. Movements that would take an item below
+     * zero are left out and dead-lettered once the rest has committed.
+     */
+    private void apply(List<MovementJournal.Entry> batch, boolean releasePending) throws InterruptedException {
+        List<String> keys = new ArrayList<>(batch.size() * 2);
+        for (MovementJournal.Entry entry : batch) {
+            keys.add(entry.inventoryItemId());
+            keys.add(entry.warehouseId());
+        }
+        int[] locked = lock(keys);
+        try {
+            List<MovementJournal.Entry> refused = transactionTemplate.execute(status -> applyInTransaction(batch));
+            for (MovementJournal.Entry entry : batch) {
+                if (refused.contains(entry)) {
+                    continue;
+                }
+                if (releasePending) {
+                    addPending(entry, -delta(entry.movementType(), entry.quantity()));
+                }
+                inFlight.remove(entry.id());
+            }
+            appliedCount.add(batch.size() - refused.size());
+            // Stripes are reentrant; holding them keeps validation from seeing the units half released
+            for (MovementJournal.Entry entry : refused) {
+                deadLetter(entry, releasePending, "Stock changed outside the journal: " + entry.movementType()
+                        + " of " + entry.quantity() + " would take item " + entry.inventoryItemId() + " below zero");
+            }
+        } finally {
+            unlock(locked);
+        }
+
+        advance(batch.get(batch.size() - 1).sequence());
+    }
+
+    private void advance(long sequence) {
+        synchronized (applyProgress) {
+            appliedSequence = Math.max(appliedSequence, sequence);
+            applyProgress.notifyAll();
+        }
+    }
+
+    /**
+     * Returns the movements left out because they would take their item below zero.
+     */
+    private List<MovementJournal.Entry> applyInTransaction(List<MovementJournal.Entry> batch) {
+        // Already in the table means applied before a crash; replaying it must not move stock again
+        Set<String> existing = new HashSet<>(inventoryMovementRepository.findExistingIds(
+                batch.stream().map(MovementJournal.Entry::id).toList()));
+        List<MovementJournal.Entry> fresh = batch.stream().filter(entry -> !existing.contains(entry.id())).toList();
+        if (fresh.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, InventoryItem> items = inventoryItemRepository.findAllByIdForUpdate(
+                        fresh.stream().map(MovementJournal.Entry::inventoryItemId).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(InventoryItem::getId, Function.identity()));
+
+        List<Object[]> rows = new ArrayList<>(fresh.size());
+        List<MovementJournal.Entry> refused = new ArrayList<>();
+        Map<String, Integer> units = new HashMap<>();
+        for (MovementJournal.Entry entry : fresh) {
+            InventoryItem item = items.get(entry.inventoryItemId());
+            if (item == null) {
+                log.warn("Movement journal: inventory item {} was deleted, dropping movement {}",
+                        entry.inventoryItemId(), entry.id());
+                continue;
+            }
+            int quantityBefore = item.getQuantity();
+            int quantityAfter = quantityBefore + delta(entry.movementType(), entry.quantity());
+            if (quantityAfter < 0) {
+                refused.add(entry);
+                continue;
+            }
+            inventoryValuationService.apply(item, quantityBefore, quantityAfter, null);
+            item.setQuantity(quantityAfter);
+            units.merge(item.getWarehouse().getId(), quantityAfter - quantityBefore, Integer::sum);
+
+            rows.add(new Object[]{entry.id(), item.getId(), entry.movementType().name(), entry.quantity(),
+                    quantityBefore, quantityAfter, entry.reason(), entry.referenceType(), entry.referenceId(),
+                    entry.performedByUserId(), Timestamp.valueOf(entry.createdAt())});
+            eventPublisher.publishEvent(new InventoryMovementRecordedEvent(entry.id(), item.getId(),
+                    item.getProduct().getId(), item.getWarehouse().getId(), entry.movementType(), entry.quantity(),
+                    quantityBefore, quantityAfter, entry.createdAt()));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        // Receipts were checked against capacity when they were journaled
+        units.forEach(warehouseCapacityService::add);
+        dataVersionService.bump(Aggregate.INVENTORY, Aggregate.MOVEMENTS);
+        return refused;
+    }
+
+    private void awaitApplied(long sequence) throws InterruptedException {
+        synchronized (applyProgress) {
+            while (appliedSequence < sequence) {
+                applyProgress.wait();
+            }
+        }
+    }
+
+    private void addPending(MovementJournal.Entry entry, int delta) {
+        pendingQuantity.merge(entry.inventoryItemId(), delta, MovementJournalService::sumOrRemove);
+        pendingUnits.merge(entry.warehouseId(), delta, MovementJournalService::sumOrRemove);
+    }
+
+    private static Integer sumOrRemove(Integer a, Integer b) {
+        int sum = a + b;
+        return sum != 0 ? sum : null;
+    }
+
+    private int[] lock(Collection<String> keys) {
+        int[] indexes = keys.stream().mapToInt(key -> Math.floorMod(key.hashCode(), STRIPES))
+                .distinct().sorted().toArray();
+        for (int index : indexes) {
+            stripes[index].lock();
+        }
+        return indexes;
+    }
+
+    private void unlock(int[] indexes) {
+        for (int i = indexes.length - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+
+    private Object[] stockCheckRow(String itemId) {
+        List<Object[]> rows = inventoryItemRepository.findStockCheckRows(itemId);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Inventory item not found");
+        }
+        return rows.get(0);
+    }
+
+    private static int delta(MovementType type, int quantity) {
+        return type == MovementType.OUT ? -quantity : quantity;
+    }
+
+    private String currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof AuthenticatedUser principal ? principal.id() : null;
+    }
+
+    // productId, sku, productName, warehouseId, warehouseName, ...
+    private InventoryMovementResponse toResponse(MovementJournal.Entry entry, Object[] row) {
+        return InventoryMovementResponse.builder()
+                .id(entry.id())
+                .inventoryItemId(entry.inventoryItemId())
+                .productSku((String) row[1])
+                .productName((String) row[2])
+                .warehouseName((String) row[4])
+                .movementType(entry.movementType())
+                .quantity(entry.quantity())
+                .quantityBefore(entry.quantityBefore())
+                .quantityAfter(entry.quantityAfter())
+                .reason(entry.reason())
+                .referenceType(entry.referenceType())
+                .referenceId(entry.referenceId())
+                .createdAt(entry.createdAt())
+                .build();
+    }
+}
@@ -0,0 +1,605 @@
+package com.smartsupply.service;
+
+import com.smartsupply.entity.MovementType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * MovementSegment - Immutable file of archived inventory movements, in (createdAt, id) order.
+ *
+ * Layout (big-endian):
+ * - header      64 bytes: magic "SSMA", version, record count, min/max createdAt (epoch micros, UTC),
+ *               block count and the offsets of the three sections below
+ * - blocks      up to block-records movements each, deflate-compressed
+ * - block table per block: offset, compressed length, raw length, records, min/max createdAt
+ * - dictionary  uncompressed strings (ids, SKUs, names, reference types) with an offset table,
+ *               so a single string can be read straight from the mapped file
+ * - postings    per key (item, product, warehouse): entries sorted by key, each pointing at the
+ *               varint-coded list of blocks that contain the key
+ *
+ * A record in a block is: flags byte, id (16-byte UUID or inline string), createdAt as a zigzag
+ * varint delta from the previous record, type ordinal, zigzag varint quantities, optional unit cost,
+ * then varint dictionary references (0 = null) and inline reason/referenceId strings.
+ *
+ * Readers map the file read-only and inflate only the blocks a query can match; nothing but the
+ * header fields is kept on the heap.
+ */
+final class MovementSegment {
+
+    enum Key {
+        ITEM,
+        PRODUCT,
+        WAREHOUSE
+    }
+
+    private static final int MAGIC = 0x53534D41;
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int BLOCK_ENTRY_SIZE = 36;
+    private static final int POSTING_ENTRY_SIZE = 12;
+    private static final MovementType[] TYPES = MovementType.values();
+
+    private static final int UUID_ID = 1;
+    private static final int HAS_BEFORE = 2;
+    private static final int HAS_AFTER = 4;
+    private static final int HAS_UNIT_COST = 8;
+
+    private MovementSegment() {
+    }
+
+    /**
+     * Streams movements into a new segment file. Records must arrive in (createdAt, id) order;
+     * the file is only valid after finish().
+     */
+    static final class Writer implements Closeable {
+
+        private final FileChannel channel;
+        private final int blockRecords;
+        private final Deflater deflater = new Deflater();
+
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private final List<Map<Integer, List<Integer>>> postings = List.of(new HashMap<>(), new HashMap<>(), new HashMap<>());
+        private final List<long[]> blocks = new ArrayList<>();
+
+        private final ByteArrayOutputStream block = new ByteArrayOutputStream(256 * 1024);
+        private int blockCount;
+        private long blockMin;
+        private long blockMax;
+        private long previous;
+
+        private long position = HEADER_SIZE;
+        private long records;
+        private long minMicros = Long.MAX_VALUE;
+        private long maxMicros = Long.MIN_VALUE;
+
+        Writer(Path file, int blockRecords) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            this.blockRecords = blockRecords;
+        }
+
+        long records() {
+            return records;
+        }
+
+        void append(ArchivedMovement movement) throws IOException {
+            long micros = toMicros(movement.createdAt());
+            if (blockCount == 0) {
+                blockMin = micros;
+                previous = micros;
+            }
+
+            UUID uuid = parseUuid(movement.id());
+            int flags = (uuid != null ? UUID_ID : 0)
+                    | (movement.quantityBefore() != null ? HAS_BEFORE : 0)
+                    | (movement.quantityAfter() != null ? HAS_AFTER : 0)
+                    | (movement.unitCost() != null ? HAS_UNIT_COST : 0);
+            block.write(flags);
+            if (uuid != null) {
+                writeLong(uuid.getMostSignificantBits());
+                writeLong(uuid.getLeastSignificantBits());
+            } else {
+                writeString(movement.id());
+            }
+            writeVarLong(zigzag(micros - previous));
+            block.write(movement.movementType().ordinal());
+            writeVarLong(zigzag(movement.quantity()));
+            if (movement.quantityBefore() != null) {
+                writeVarLong(zigzag(movement.quantityBefore()));
+            }
+            if (movement.quantityAfter() != null) {
+                writeVarLong(zigzag(movement.quantityAfter()));
+            }
+            if (movement.unitCost() != null) {
+                block.write(movement.unitCost().scale());
+                writeVarLong(zigzag(movement.unitCost().unscaledValue().longValueExact()));
+            }
+
+            int item = ref(movement.inventoryItemId());
+            int product = ref(movement.productId());
+            int warehouse = ref(movement.warehouseId());
+            writeVarLong(item);
+            writeVarLong(product);
+            writeVarLong(warehouse);
+            writeVarLong(ref(movement.productSku()));
+            writeVarLong(ref(movement.productName()));
+            writeVarLong(ref(movement.warehouseName()));
+            writeVarLong(ref(movement.referenceType()));
+            writeVarLong(ref(movement.performedByName()));
+            writeString(movement.reason());
+            writeString(movement.referenceId());
+
+            post(Key.ITEM, item);
+            post(Key.PRODUCT, product);
+            post(Key.WAREHOUSE, warehouse);
+
+            previous = micros;
+            blockMax = micros;
+            minMicros = Math.min(minMicros, micros);
+            maxMicros = Math.max(maxMicros, micros);
+            records++;
+            if (++blockCount == blockRecords) {
+                flushBlock();
+            }
+        }
+
+        /**
+         * Write the block table, dictionary, postings and header, and force the file to disk.
+         */
+        void finish() throws IOException {
+            if (blockCount > 0) {
+                flushBlock();
+            }
+
+            long blockTableOffset = position;
+            ByteBuffer table = ByteBuffer.allocate(blocks.size() * BLOCK_ENTRY_SIZE);
+            for (long[] entry : blocks) {
+                table.putLong(entry[0]).putInt((int) entry[1]).putInt((int) entry[2]).putInt((int) entry[3])
+                        .putLong(entry[4]).putLong(entry[5]);
+            }
+            write(table.flip());
+
+            long dictionaryOffset = position;
+            byte[][] encoded = new byte[strings.size()][];
+            int total = 0;
+            for (int i = 0; i < encoded.length; i++) {
+                encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+                total += encoded[i].length;
+            }
+            ByteBuffer dictionaryBuffer = ByteBuffer.allocate(4 + 4 * (encoded.length + 1) + total);
+            dictionaryBuffer.putInt(encoded.length);
+            int offset = 0;
+            for (byte[] string : encoded) {
+                dictionaryBuffer.putInt(offset);
+                offset += string.length;
+            }
+            dictionaryBuffer.putInt(offset);
+            for (byte[] string : encoded) {
+                dictionaryBuffer.put(string);
+            }
+            write(dictionaryBuffer.flip());
+
+            long postingsOffset = position;
+            for (Key key : Key.values()) {
+                writePostings(postings.get(key.ordinal()));
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+                    .putLong(records).putLong(minMicros).putLong(maxMicros)
+                    .putInt(blocks.size()).putLong(blockTableOffset).putLong(dictionaryOffset).putLong(postingsOffset);
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+
+        @Override
+        public void close() throws IOException {
+            deflater.end();
+            channel.close();
+        }
+
+        private void flushBlock() throws IOException {
+            byte[] raw = block.toByteArray();
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4);
+            byte[] buffer = new byte[64 * 1024];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                compressed.write(buffer, 0, n);
+            }
+
+            long offset = position;
+            write(ByteBuffer.wrap(compressed.toByteArray()));
+            blocks.add(new long[]{offset, compressed.size(), raw.length, blockCount, blockMin, blockMax});
+            block.reset();
+            blockCount = 0;
+        }
+
+        // int keys, int dataLength, keys x (dictionary ref, data offset, block count) sorted by key, data
+        private void writePostings(Map<Integer, List<Integer>> byRef) throws IOException {
+            List<Integer> refs = new ArrayList<>(byRef.keySet());
+            refs.sort(Comparator.comparing(ref -> strings.get(ref - 1)));
+
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            ByteBuffer entries = ByteBuffer.allocate(refs.size() * POSTING_ENTRY_SIZE);
+            for (int ref : refs) {
+                List<Integer> blockNumbers = byRef.get(ref);
+                entries.putInt(ref).putInt(data.size()).putInt(blockNumbers.size());
+                int last = 0;
+                for (int number : blockNumbers) {
+                    MovementSegment.writeVarLong(data, number - last);
+                    last = number;
+                }
+            }
+            write(ByteBuffer.allocate(8).putInt(refs.size()).putInt(data.size()).flip());
+            write(entries.flip());
+            write(ByteBuffer.wrap(data.toByteArray()));
+        }
+
+        private void post(Key key, int ref) {
+            List<Integer> blockNumbers = postings.get(key.ordinal()).computeIfAbsent(ref, k -> new ArrayList<>());
+            int current = blocks.size();
+            if (blockNumbers.isEmpty() || blockNumbers.get(blockNumbers.size() - 1) != current) {
+                blockNumbers.add(current);
+            }
+        }
+
+        // 1-based dictionary index, 0 for null
+        private int ref(String value) {
+            if (value == null) {
+                return 0;
+            }
+            return dictionary.computeIfAbsent(value, k -> {
+                strings.add(k);
+                return strings.size();
+            });
+        }
+
+        private void write(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+
+        private void writeLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                block.write((int) (value >>> shift));
+            }
+        }
+
+        private void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            block.write(bytes, 0, bytes.length);
+        }
+
+        private void writeVarLong(long value) {
+            MovementSegment.writeVarLong(block, value);
+        }
+    }
+
+    /**
+     * Read-only view of a finished segment over a memory-mapped file. Safe for concurrent use.
+     */
+    static final class Reader {
+
+        private final Path file;
+        private final ByteBuffer buffer;
+        private final long records;
+        private final long minMicros;
+        private final long maxMicros;
+        private final int blockCount;
+        private final int blockTableOffset;
+        private final int dictionaryCount;
+        private final int dictionaryOffsetsStart;
+        private final int dictionaryStringsStart;
+        private final int[] postingsStart = new int[Key.values().length];
+
+        private Reader(Path file, ByteBuffer buffer) throws IOException {
+            this.file = file;
+            this.buffer = buffer;
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+                throw new IOException("Not a movement archive segment: " + file);
+            }
+            this.records = buffer.getLong(8);
+            this.minMicros = buffer.getLong(16);
+            this.maxMicros = buffer.getLong(24);
+            this.blockCount = buffer.getInt(32);
+            this.blockTableOffset = (int) buffer.getLong(36);
+            int dictionaryOffset = (int) buffer.getLong(44);
+            this.dictionaryCount = buffer.getInt(dictionaryOffset);
+            this.dictionaryOffsetsStart = dictionaryOffset + 4;
+            this.dictionaryStringsStart = dictionaryOffsetsStart + 4 * (dictionaryCount + 1);
+
+            int offset = (int) buffer.getLong(52);
+            for (Key key : Key.values()) {
+                postingsStart[key.ordinal()] = offset;
+                offset += 8 + buffer.getInt(offset) * POSTING_ENTRY_SIZE + buffer.getInt(offset + 4);
+            }
+        }
+
+        static Reader open(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IOException("Movement archive segment too large to map: " + file);
+                }
+                // The mapping stays valid after the channel is closed
+                return new Reader(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+
+        Path file() {
+            return file;
+        }
+
+        long records() {
+            return records;
+        }
+
+        int blocks() {
+            return blockCount;
+        }
+
+        long bytes() {
+            return buffer.capacity();
+        }
+
+        LocalDateTime oldest() {
+            return fromMicros(minMicros);
+        }
+
+        LocalDateTime newest() {
+            return fromMicros(maxMicros);
+        }
+
+        /**
+         * Movements of one item, product or warehouse; only blocks listed in the key's postings are read.
+         */
+        void find(Key key, String id, Consumer<ArchivedMovement> sink) {
+            int entry = lookup(key, id);
+            if (entry < 0) {
+                return;
+            }
+            int ref = buffer.getInt(entry);
+            for (int block : postings(key, entry)) {
+                scan(block, key, ref, Long.MIN_VALUE, Long.MAX_VALUE, sink);
+            }
+        }
+
+        /**
+         * Movements created in [from, to]; blocks outside the range are skipped by their min/max.
+         */
+        void findBetween(LocalDateTime from, LocalDateTime to, Consumer<ArchivedMovement> sink) {
+            long fromMicros = toMicros(from);
+            long toMicros = toMicros(to);
+            if (fromMicros > maxMicros || toMicros < minMicros) {
+                return;
+            }
+            for (int block = 0; block < blockCount; block++) {
+                int entry = blockTableOffset + block * BLOCK_ENTRY_SIZE;
+                if (buffer.getLong(entry + 20) <= toMicros && buffer.getLong(entry + 28) >= fromMicros) {
+                    scan(block, null, 0, fromMicros, toMicros, sink);
+                }
+            }
+        }
+
+        void forEach(Consumer<ArchivedMovement> sink) {
+            for (int block = 0; block < blockCount; block++) {
+                scan(block, null, 0, Long.MIN_VALUE, Long.MAX_VALUE, sink);
+            }
+        }
+
+        private void scan(int block, Key key, int keyRef, long fromMicros, long toMicros,
+                          Consumer<ArchivedMovement> sink) {
+            int entry = blockTableOffset + block * BLOCK_ENTRY_SIZE;
+            int offset = (int) buffer.getLong(entry);
+            int compressedLength = buffer.getInt(entry + 8);
+            int rawLength = buffer.getInt(entry + 12);
+            int count = buffer.getInt(entry + 16);
+
+            byte[] raw = new byte[rawLength];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(buffer.slice(offset, compressedLength));
+                int read = 0;
+                while (read < rawLength && !inflater.finished()) {
+                    read += inflater.inflate(raw, read, rawLength - read);
+                }
+            } catch (DataFormatException e) {
+                throw new RuntimeException("Corrupt movement archive segment " + file, e);
+            } finally {
+                inflater.end();
+            }
+
+            ByteBuffer in = ByteBuffer.wrap(raw);
+            long micros = buffer.getLong(entry + 20);
+            Map<Integer, String> decoded = new HashMap<>();
+            int[] refs = new int[8];
+            for (int i = 0; i < count; i++) {
+                int flags = in.get();
+                String id = null;
+                long msb = 0;
+                long lsb = 0;
+                if ((flags & UUID_ID) != 0) {
+                    msb = in.getLong();
+                    lsb = in.getLong();
+                } else {
+                    id = readString(in);
+                }
+                micros += unzigzag(readVarLong(in));
+                MovementType type = TYPES[in.get()];
+                int quantity = (int) unzigzag(readVarLong(in));
+                Integer before = (flags & HAS_BEFORE) != 0 ? (int) unzigzag(readVarLong(in)) : null;
+                Integer after = (flags & HAS_AFTER) != 0 ? (int) unzigzag(readVarLong(in)) : null;
+                BigDecimal unitCost = null;
+                if ((flags & HAS_UNIT_COST) != 0) {
+                    int scale = in.get();
+                    unitCost = new BigDecimal(BigInteger.valueOf(unzigzag(readVarLong(in))), scale);
+                }
+                for (int r = 0; r < refs.length; r++) {
+                    refs[r] = (int) readVarLong(in);
+                }
+
+                boolean matches = (key == null || refs[key.ordinal()] == keyRef)
+                        && micros >= fromMicros && micros <= toMicros;
+                if (!matches) {
+                    skipString(in);
+                    skipString(in);
+                    continue;
+                }
+                String reason = readString(in);
+                String referenceId = readString(in);
+                sink.accept(new ArchivedMovement(
+                        id != null ? id : new UUID(msb, lsb).toString(),
+                        string(refs[0], decoded), string(refs[1], decoded), string(refs[2], decoded),
+                        string(refs[3], decoded), string(refs[4], decoded), string(refs[5], decoded),
+                        type, quantity, before, after, reason,
+                        string(refs[6], decoded), referenceId, string(refs[7], decoded),
+                        unitCost, fromMicros(micros)));
+            }
+        }
+
+        // Binary search over the key's sorted posting entries, comparing against mapped dictionary strings;
+        // returns the entry's position in the file, or -1
+        private int lookup(Key key, String id) {
+            int start = postingsStart[key.ordinal()];
+            int low = 0;
+            int high = buffer.getInt(start) - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int entry = start + 8 + mid * POSTING_ENTRY_SIZE;
+                int cmp = string(buffer.getInt(entry)).compareTo(id);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return entry;
+                }
+            }
+            return -1;
+        }
+
+        private int[] postings(Key key, int entry) {
+            int start = postingsStart[key.ordinal()];
+            int dataStart = start + 8 + buffer.getInt(start) * POSTING_ENTRY_SIZE + buffer.getInt(entry + 4);
+            ByteBuffer data = buffer.slice(dataStart, buffer.capacity() - dataStart);
+            int[] blockNumbers = new int[buffer.getInt(entry + 8)];
+            int last = 0;
+            for (int i = 0; i < blockNumbers.length; i++) {
+                last += (int) readVarLong(data);
+                blockNumbers[i] = last;
+            }
+            return blockNumbers;
+        }
+
+        private String string(int ref, Map<Integer, String> decoded) {
+            return ref == 0 ? null : decoded.computeIfAbsent(ref, this::string);
+        }
+
+        private String string(int ref) {
+            int index = ref - 1;
+            int start = buffer.getInt(dictionaryOffsetsStart + 4 * index);
+            int end = buffer.getInt(dictionaryOffsetsStart + 4 * (index + 1));
+            byte[] bytes = new byte[end - start];
+            buffer.get(dictionaryStringsStart + start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    // Hibernate's generated ids are canonical lower-case UUIDs; anything else is stored as text
+    private static UUID parseUuid(String id) {
+        if (id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer in) {
+        int length = (int) readVarLong(in);
+        if (length > 0) {
+            in.position(in.position() + length - 1);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.smartsupply.service;
+
+import com.smartsupply.dto.MovementSummaryResponse;
+import com.smartsupply.entity.MovementType;
+import com.smartsupply.repository.InventoryMovementRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * MovementSummaryService - Movement totals per day/week/month, grouped and summed in the database.
+ *
+ * The range is widened to whole buckets, so a summary over "the last 30 days" asked for at
+ * different times of the same day is the same query - and the same cache entry.
+ *
+ * Archived movements are summed from the archive segments and the table only from after the
+ * newest archived movement, so rows left in both by an interrupted archive run count once.
+ */
+@Service
+@RequiredArgsConstructor
+public class MovementSummaryService {
+
+    public enum Bucket {
+        DAY,
+        WEEK,
+        MONTH
+    }
+
+    public enum Dimension {
+        TYPE,
+        PRODUCT,
+        WAREHOUSE
+    }
+
+    private final InventoryMovementRepository movementRepository;
+    private final MovementArchiveService movementArchiveService;
+
+    @Value("${movement-summary.max-periods:400}")
+    private int maxPeriods;
+
+    private record SeriesKey(String type, String productId, String warehouseId) {
+    }
+
+    private static final Comparator<String> NULLS_LAST = Comparator.nullsLast(Comparator.naturalOrder());
+    private static final Comparator<SeriesKey> SERIES_ORDER = Comparator
+            .comparing(SeriesKey::type, NULLS_LAST)
+            .thenComparing(SeriesKey::productId, NULLS_LAST)
+            .thenComparing(SeriesKey::warehouseId, NULLS_LAST);
+
+    /**
+     * Cache key for a parameter set; the range is aligned first so equivalent requests share it.
+     */
+    public String cacheKey(Bucket bucket, Set<Dimension> groupBy, LocalDateTime from, LocalDateTime to,
+                           MovementType type, String productId, String warehouseId) {
+        LocalDateTime end = alignEnd(bucket, to);
+        LocalDateTime start = alignStart(bucket, from != null ? from : defaultFrom(bucket, end));
+        return "movement-summary:" + bucket + ":" + groupBy + ":" + start + ":" + end + ":"
+                + type + ":" + productId + ":" + warehouseId;
+    }
+
+    @Transactional(readOnly = true)
+    public MovementSummaryResponse summarize(Bucket bucket, Set<Dimension> groupBy, LocalDateTime from,
+                                             LocalDateTime to, MovementType type, String productId,
+                                             String warehouseId) {
+        LocalDateTime end = alignEnd(bucket, to);
+        LocalDateTime start = alignStart(bucket, from != null ? from : defaultFrom(bucket, end));
+        if (!start.isBefore(end)) {
+            throw new RuntimeException("Summary range is empty");
+        }
+
+        List<LocalDate> periods = new ArrayList<>();
+        Map<LocalDate, Integer> periodIndex = new HashMap<>();
+        for (LocalDateTime period = start; period.isBefore(end); period = next(bucket, period)) {
+            if (periods.size() == maxPeriods) {
+                throw new RuntimeException("Summary range too large: more than " + maxPeriods + " periods");
+            }
+            periodIndex.put(period.toLocalDate(), periods.size());
+            periods.add(period.toLocalDate());
+        }
+
+        boolean byType = groupBy.contains(Dimension.TYPE);
+        boolean byProduct = groupBy.contains(Dimension.PRODUCT);
+        boolean byWarehouse = groupBy.contains(Dimension.WAREHOUSE);
+        Map<SeriesKey, MovementSummaryResponse.Series> series = new TreeMap<>(SERIES_ORDER);
+
+        LocalDateTime tableFrom = start;
+        LocalDateTime archivedThrough = movementArchiveService.archivedThrough();
+        if (archivedThrough != null && !archivedThrough.isBefore(start)) {
+            // Archived movements from the segments; the table from the microsecond after the newest
+            tableFrom = archivedThrough.plus(1, ChronoUnit.MICROS);
+            LocalDateTime archiveTo = archivedThrough.isBefore(end) ? archivedThrough : end;
+            movementArchiveService.forEachBetween(start, archiveTo, movement -> {
+                if (!movement.createdAt().isBefore(end)
+                        || (type != null && movement.movementType() != type)
+                        || (productId != null && !productId.equals(movement.productId()))
+                        || (warehouseId != null && !warehouseId.equals(movement.warehouseId()))) {
+                    return;
+                }
+                SeriesKey key = new SeriesKey(byType ? movement.movementType().name() : null,
+                        byProduct ? movement.productId() : null, byWarehouse ? movement.warehouseId() : null);
+                LocalDate period = alignStart(bucket, movement.createdAt()).toLocalDate();
+                long delta = movement.movementType() == MovementType.OUT ? -movement.quantity() : movement.quantity();
+                add(series, key, periods.size(), Objects.requireNonNull(periodIndex.get(period)),
+                        movement.quantity(), 1, Math.max(delta, 0), Math.max(-delta, 0));
+            });
+        }
+
+        if (tableFrom.isBefore(end)) {
+            List<Object[]> rows = movementRepository.summarize(bucket.name().toLowerCase(),
+                    byType, byProduct, byWarehouse, tableFrom, end,
+                    type != null ? type.name() : null, productId, warehouseId);
+            for (Object[] row : rows) {
+                SeriesKey key = new SeriesKey((String) row[1], (String) row[2], (String) row[3]);
+                int index = Objects.requireNonNull(periodIndex.get(toLocalDate(row[0])));
+                add(series, key, periods.size(), index, ((Number) row[4]).longValue(), ((Number) row[5]).longValue(),
+                        ((Number) row[6]).longValue(), ((Number) row[7]).longValue());
+            }
+        }
+
+        return MovementSummaryResponse.builder()
+                .bucket(bucket.name())
+                .groupBy(Arrays.stream(Dimension.values()).filter(groupBy::contains).map(Enum::name).toList())
+                .from(start)
+                .to(end)
+                .periods(periods)
+                .series(new ArrayList<>(series.values()))
+                .build();
+    }
+
+    private void add(Map<SeriesKey, MovementSummaryResponse.Series> series, SeriesKey key, int periods,
+                     int index, long quantity, long movements, long unitsIn, long unitsOut) {
+        MovementSummaryResponse.Series s = series.computeIfAbsent(key, k -> MovementSummaryResponse.Series.builder()
+                .type(k.type())
+                .productId(k.productId())
+                .warehouseId(k.warehouseId())
+                .quantity(new long[periods])
+                .movements(new long[periods])
+                .unitsIn(new long[periods])
+                .unitsOut(new long[periods])
+                .build());
+        s.getQuantity()[index] += quantity;
+        s.getMovements()[index] += movements;
+        s.getUnitsIn()[index] += unitsIn;
+        s.getUnitsOut()[index] += unitsOut;
+    }
+
+    private LocalDateTime alignStart(Bucket bucket, LocalDateTime time) {
+        LocalDate day = time.toLocalDate();
+        return switch (bucket) {
+            case DAY -> day.atStartOfDay();
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+            case MONTH -> day.withDayOfMonth(1).atStartOfDay();
+        };
+    }
+
+    // Exclusive end: the start of the bucket after the one containing 'to' (default now)
+    private LocalDateTime alignEnd(Bucket bucket, LocalDateTime to) {
+        LocalDateTime time = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = alignStart(bucket, time);
+        return start.equals(time) && to != null ? start : next(bucket, start);
+    }
+
+    private LocalDateTime defaultFrom(Bucket bucket, LocalDateTime end) {
+        return switch (bucket) {
+            case DAY -> end.minusDays(30);
+            case WEEK -> end.minusWeeks(26);
+            case MONTH -> end.minusMonths(12);
+        };
+    }
+
+    private LocalDateTime next(Bucket bucket, LocalDateTime period) {
+        return switch (bucket) {
+            case DAY -> period.plusDays(1);
+            case WEEK -> period.plusWeeks(1);
+            case MONTH -> period.plusMonths(1);
+        };
+    }
+
+    private LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate date) {
+            return date;
+        }
+        return ((java.sql.Date) value).toLocalDate();
+    }
+}
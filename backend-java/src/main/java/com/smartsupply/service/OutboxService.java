@@ -0,0 +1,129 @@
+package com.smartsupply.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartsupply.entity.OutboxEvent;
+import com.smartsupply.event.InventoryMovementRecordedEvent;
+import com.smartsupply.event.OutboxPublisher;
+import com.smartsupply.event.PurchaseOrderStatusChangedEvent;
+import com.smartsupply.repository.OutboxEventRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * OutboxService - Transactional outbox for inventory and purchase order changes.
+ *
+ * Writing: domain events are turned into outbox rows just before the publishing transaction
+ * commits, so a change and its event are stored or rolled back together. The pending changes
+ * are flushed first; writers of the same aggregate then hold its row lock when they take an
+ * outbox id, which keeps ids in commit order per aggregate.
+ *
+ * Relaying: batches are read in id order, handed to the OutboxPublisher and deleted in the
+ * same transaction. A failed publish rolls the batch back and it is retried (at-least-once).
+ * Each batch transaction first takes a PostgreSQL advisory lock, so with several instances
+ * relaying only one batch is in flight at a time: the others skip the run instead of publishing
+ * the same events again or out of order.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+
+    public static final String INVENTORY_ITEM = "INVENTORY_ITEM";
+    public static final String PURCHASE_ORDER = "PURCHASE_ORDER";
+
+    private static final long RELAY_LOCK = 0x5353_4F55_5442_4F58L;   // "SSOUTBOX"
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${outbox.relay.enabled:true}")
+    private boolean relayEnabled;
+
+    @Value("${outbox.relay.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${outbox.relay.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onMovementRecorded(InventoryMovementRecordedEvent event) {
+        append(INVENTORY_ITEM, event.inventoryItemId(), "INVENTORY_MOVEMENT_RECORDED", event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onPurchaseOrderStatusChanged(PurchaseOrderStatusChangedEvent event) {
+        append(PURCHASE_ORDER, event.purchaseOrderId(), "PURCHASE_ORDER_STATUS_CHANGED", event);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-ms:200}")
+    public void relay() {
+        if (!relayEnabled) {
+            return;
+        }
+        long relayed = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            Integer count = transactionTemplate.execute(status -> relayBatch());
+            relayed += count != null ? count : 0;
+            if (count == null || count < batchSize) {
+                break;
+            }
+        }
+        if (relayed > 0) {
+            log.debug("Outbox relayed {} events", relayed);
+        }
+    }
+
+    private int relayBatch() {
+        if (!outboxEventRepository.tryLock(RELAY_LOCK)) {
+            return 0;
+        }
+        List<OutboxEvent> batch = outboxEventRepository.findOldest(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            outboxPublisher.publish(batch);
+        } catch (Exception e) {
+            throw new RuntimeException("Outbox publish failed at event " + batch.get(0).getId(), e);
+        }
+        outboxEventRepository.deleteAllByIdInBatch(batch.stream().map(OutboxEvent::getId).toList());
+        return batch.size();
+    }
+
+    private void append(String aggregateType, String aggregateId, String eventType, Object payload) {
+        if (entityManager.isJoinedToTransaction()) {
+            entityManager.flush();
+        }
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(toJson(payload))
+                .build());
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize outbox event", e);
+        }
+    }
+}
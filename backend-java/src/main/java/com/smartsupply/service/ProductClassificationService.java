@@ -0,0 +1,358 @@
+package com.smartsupply.service;
+
+import com.smartsupply.service.DataVersionService.Aggregate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * ProductClassificationService - ABC/XYZ classes for the whole catalog.
+ *
+ * ABC ranks products by consumption value (units issued x list price) over the window:
+ * the products making up the first 80% of value are A, the next 15% B, the rest C.
+ * XYZ is the coefficient of variation of weekly issued units: up to 0.5 X, up to 1.0 Y,
+ * above that (or no demand at all) Z.
+ *
+ * OUT movements are streamed once, in time order, through a database cursor. Per-product
+ * state lives in primitive arrays indexed through a sorted table of product UUIDs (two longs
+ * each), and the time order means only the current week's total is kept per product, so
+ * memory grows with the catalog - under 100 bytes per product - never with the movement count.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductClassificationService {
+
+    private static final int FETCH_SIZE = 10_000;
+    private static final int UPDATE_BATCH_SIZE = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DataVersionService dataVersionService;
+
+    @Value("${classification.window-weeks:26}")
+    private int windowWeeks;
+
+    @Value("${classification.abc.a-share:0.80}")
+    private double aShare;
+
+    @Value("${classification.abc.b-share:0.95}")
+    private double bShare;
+
+    @Value("${classification.xyz.x-max-cv:0.5}")
+    private double xMaxCv;
+
+    @Value("${classification.xyz.y-max-cv:1.0}")
+    private double yMaxCv;
+
+    @Value("${classification.cycle-count-days.a:30}")
+    private int cycleCountDaysA;
+
+    @Value("${classification.cycle-count-days.b:90}")
+    private int cycleCountDaysB;
+
+    @Value("${classification.cycle-count-days.c:180}")
+    private int cycleCountDaysC;
+
+    /**
+     * Days between cycle counts for a class; unclassified products are counted like C.
+     */
+    public int cycleCountIntervalDays(String abcClass) {
+        if ("A".equals(abcClass)) {
+            return cycleCountDaysA;
+        }
+        if ("B".equals(abcClass)) {
+            return cycleCountDaysB;
+        }
+        return cycleCountDaysC;
+    }
+
+    @Scheduled(cron = "${classification.cron:0 0 3 * * SUN}")
+    public void weeklyClassification() {
+        classify();
+    }
+
+    /**
+     * Classify every product over the last window-weeks complete weeks (Monday to Sunday).
+     */
+    public Map<String, Object> classify() {
+        long started = System.currentTimeMillis();
+        LocalDate windowEnd = LocalDate.now().with(DayOfWeek.MONDAY);
+        LocalDate windowStart = windowEnd.minusWeeks(windowWeeks);
+
+        Catalog catalog = loadCatalog();
+        int n = catalog.size;
+
+        double[] consumption = new double[n];
+        double[] weekSum = new double[n];
+        double[] weekSumSq = new double[n];
+        double[] currentWeekUnits = new double[n];
+        int[] currentWeek = new int[n];
+        long[] rows = new long[1];
+
+        // A cursor needs a transaction on PostgreSQL; read-only also sends it to the replica if there is one
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            JdbcTemplate cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+            cursor.setFetchSize(FETCH_SIZE);
+            cursor.query("SELECT i.product_id, m.created_at, m.quantity FROM inventory_movements m " +
+                            "JOIN inventory_items i ON i.id = m.inventory_item_id " +
+                            "WHERE m.movement_type = 'OUT' AND m.created_at >= ? AND m.created_at < ? " +
+                            "ORDER BY m.created_at",
+                    rs -> {
+                        rows[0]++;
+                        int p = catalog.indexOf(rs.getString(1));
+                        if (p < 0) {
+                            return;
+                        }
+                        int quantity = rs.getInt(3);
+                        // Weeks are numbered from 1 so 0 means "nothing seen yet"
+                        int week = (int) ChronoUnit.WEEKS.between(windowStart,
+                                rs.getTimestamp(2).toLocalDateTime().toLocalDate()) + 1;
+                        if (week != currentWeek[p]) {
+                            weekSum[p] += currentWeekUnits[p];
+                            weekSumSq[p] += currentWeekUnits[p] * currentWeekUnits[p];
+                            currentWeekUnits[p] = 0;
+                            currentWeek[p] = week;
+                        }
+                        currentWeekUnits[p] += quantity;
+                        consumption[p] += quantity * catalog.prices[p];
+                    },
+                    Timestamp.valueOf(windowStart.atStartOfDay()), Timestamp.valueOf(windowEnd.atStartOfDay()));
+        });
+
+        double[] thresholds = abcThresholds(consumption);
+        byte[] abc = new byte[n];
+        byte[] xyz = new byte[n];
+        int[] abcCounts = new int[3];
+        int[] xyzCounts = new int[3];
+        for (int p = 0; p < n; p++) {
+            weekSum[p] += currentWeekUnits[p];
+            weekSumSq[p] += currentWeekUnits[p] * currentWeekUnits[p];
+
+            abc[p] = (byte) (consumption[p] <= 0 ? 'C'
+                    : consumption[p] >= thresholds[0] ? 'A'
+                    : consumption[p] >= thresholds[1] ? 'B' : 'C');
+
+            // Weeks without movements count as zero demand
+            double mean = weekSum[p] / windowWeeks;
+            double variance = Math.max(0, weekSumSq[p] / windowWeeks - mean * mean);
+            double cv = mean > 0 ? Math.sqrt(variance) / mean : Double.POSITIVE_INFINITY;
+            xyz[p] = (byte) (cv <= xMaxCv ? 'X' : cv <= yMaxCv ? 'Y' : 'Z');
+
+            abcCounts[abc[p] - 'A']++;
+            xyzCounts[xyz[p] == 'X' ? 0 : xyz[p] == 'Y' ? 1 : 2]++;
+        }
+
+        int changed = store(catalog, abc, xyz);
+        if (changed > 0) {
+            dataVersionService.bump(Aggregate.PRODUCTS);
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Products classified: {} products, {} movements, {} changed in {} ms", n, rows[0], changed, elapsed);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("products", n);
+        result.put("movements", rows[0]);
+        result.put("changed", changed);
+        result.put("windowStart", windowStart);
+        result.put("windowEnd", windowEnd);
+        result.put("abc", Map.of("A", abcCounts[0], "B", abcCounts[1], "C", abcCounts[2]));
+        result.put("xyz", Map.of("X", xyzCounts[0], "Y", xyzCounts[1], "Z", xyzCounts[2]));
+        result.put("elapsedMs", elapsed);
+        return result;
+    }
+
+    /**
+     * Consumption values at which A and B start: walk the sorted values from the top until the
+     * cumulative share passes each cut-off. Ties on a cut-off value all land in the higher class.
+     */
+    private double[] abcThresholds(double[] consumption) {
+        double[] sorted = consumption.clone();
+        Arrays.sort(sorted);
+        double total = 0;
+        for (double value : sorted) {
+            total += value;
+        }
+
+        double aThreshold = Double.POSITIVE_INFINITY;
+        double bThreshold = Double.POSITIVE_INFINITY;
+        double cumulative = 0;
+        for (int i = sorted.length - 1; i >= 0 && sorted[i] > 0; i--) {
+            double shareBefore = cumulative / total;
+            cumulative += sorted[i];
+            if (shareBefore < aShare) {
+                aThreshold = sorted[i];
+            }
+            if (shareBefore < bShare) {
+                bThreshold = sorted[i];
+            }
+        }
+        return new double[]{aThreshold, bThreshold};
+    }
+
+    /**
+     * Write back only the products whose classes changed.
+     */
+    private int store(Catalog catalog, byte[] abc, byte[] xyz) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(UPDATE_BATCH_SIZE);
+        int changed = 0;
+        for (int p = 0; p < catalog.size; p++) {
+            if (abc[p] == catalog.abc[p] && xyz[p] == catalog.xyz[p]) {
+                continue;
+            }
+            batch.add(new Object[]{String.valueOf((char) abc[p]), String.valueOf((char) xyz[p]), now,
+                    new UUID(catalog.msb[p], catalog.lsb[p]).toString()});
+            changed++;
+            if (batch.size() == UPDATE_BATCH_SIZE) {
+                update(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            update(batch);
+        }
+        return changed;
+    }
+
+    private void update(List<Object[]> batch) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                "UPDATE products SET abc_class = ?, xyz_class = ?, classified_at = ? WHERE id = ?", batch));
+    }
+
+    private Catalog loadCatalog() {
+        int count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Integer.class);
+        Catalog catalog = new Catalog(count);
+        JdbcTemplate cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+        cursor.setFetchSize(FETCH_SIZE);
+        transactionTemplate.executeWithoutResult(status -> cursor.query(
+                "SELECT id, price, abc_class, xyz_class FROM products", rs -> {
+                    catalog.add(rs.getString(1), rs.getBigDecimal(2) != null ? rs.getBigDecimal(2).doubleValue() : 0,
+                            rs.getString(3), rs.getString(4));
+                }));
+        catalog.sort();
+        return catalog;
+    }
+
+    /**
+     * Product ids as sorted (msb, lsb) pairs with the price and current classes alongside;
+     * indexOf is a binary search, so no per-product objects are kept.
+     */
+    private static final class Catalog {
+        long[] msb;
+        long[] lsb;
+        double[] prices;
+        byte[] abc;
+        byte[] xyz;
+        int size;
+
+        Catalog(int capacity) {
+            msb = new long[capacity];
+            lsb = new long[capacity];
+            prices = new double[capacity];
+            abc = new byte[capacity];
+            xyz = new byte[capacity];
+        }
+
+        void add(String id, double price, String abcClass, String xyzClass) {
+            if (size == msb.length) {
+                // Products created since the count
+                int capacity = Math.max(16, size * 2);
+                msb = Arrays.copyOf(msb, capacity);
+                lsb = Arrays.copyOf(lsb, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                abc = Arrays.copyOf(abc, capacity);
+                xyz = Arrays.copyOf(xyz, capacity);
+            }
+            UUID uuid = UUID.fromString(id);
+            msb[size] = uuid.getMostSignificantBits();
+            lsb[size] = uuid.getLeastSignificantBits();
+            prices[size] = price;
+            abc[size] = abcClass != null ? (byte) abcClass.charAt(0) : 0;
+            xyz[size] = xyzClass != null ? (byte) xyzClass.charAt(0) : 0;
+            size++;
+        }
+
+        int indexOf(String id) {
+            UUID uuid = UUID.fromString(id);
+            long hi = uuid.getMostSignificantBits();
+            long lo = uuid.getLeastSignificantBits();
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compare(msb[mid], lsb[mid], hi, lo);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Sort all columns by id. Heapsort keeps the parallel arrays in step without an index array.
+         */
+        void sort() {
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i, size);
+            }
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+        }
+
+        private void siftDown(int i, int end) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= end) {
+                    return;
+                }
+                if (child + 1 < end && compare(msb[child + 1], lsb[child + 1], msb[child], lsb[child]) > 0) {
+                    child++;
+                }
+                if (compare(msb[child], lsb[child], msb[i], lsb[i]) <= 0) {
+                    return;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long m = msb[a]; msb[a] = msb[b]; msb[b] = m;
+            long l = lsb[a]; lsb[a] = lsb[b]; lsb[b] = l;
+            double p = prices[a]; prices[a] = prices[b]; prices[b] = p;
+            byte c = abc[a]; abc[a] = abc[b]; abc[b] = c;
+            byte x = xyz[a]; xyz[a] = xyz[b]; xyz[b] = x;
+        }
+
+        private static int compare(long msbA, long lsbA, long msbB, long lsbB) {
+            int cmp = Long.compare(msbA, msbB);
+            return cmp != 0 ? cmp : Long.compare(lsbA, lsbB);
+        }
+    }
+}
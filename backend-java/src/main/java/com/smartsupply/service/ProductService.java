@@ -2,16 +2,21 @@ package com.smartsupply.service;
 
 import com.smartsupply.dto.CreateProductRequest;
 import com.smartsupply.dto.ProductResponse;
+import com.smartsupply.entity.InventoryItem;
 import com.smartsupply.entity.Product;
+import com.smartsupply.repository.DemandForecastRepository;
 import com.smartsupply.repository.InventoryItemRepository;
 import com.smartsupply.repository.InventoryMovementRepository;
 import com.smartsupply.repository.ProductRepository;
+import com.smartsupply.service.DataVersionService.Aggregate;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.Objects;
+
 /**
  * ProductService - Business logic for Product operations.
  * 
@@ -24,6 +29,13 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final InventoryItemRepository inventoryItemRepository;
     private final InventoryMovementRepository inventoryMovementRepository;
+    private final DemandForecastRepository demandForecastRepository;
+    private final DataVersionService dataVersionService;
+    private final WarehouseCapacityService warehouseCapacityService;
+    private final InventoryValuationService inventoryValuationService;
+    private final ProductClassificationService productClassificationService;
+    private final SupplierCatalogService supplierCatalogService;
+    private final SearchSuggestService searchSuggestService;
 
     /**
      * Get all products with pagination.
@@ -42,6 +54,14 @@ public class ProductService {
                 .map(this::toResponse);
     }
 
+    /**
+     * Products of the given ABC and/or XYZ class, optionally matching a search.
+     */
+    public Page<ProductResponse> getProductsByClass(String abcClass, String xyzClass, String search, Pageable pageable) {
+        return productRepository.findByClass(abcClass, xyzClass, search, pageable)
+                .map(this::toResponse);
+    }
+
     /**
      * Get single product by ID.
      */
@@ -54,6 +74,7 @@ public class ProductService {
     /**
      * Create new product.
      */
+    @Transactional
     public ProductResponse createProduct(CreateProductRequest request) {
         // Check if SKU already exists
         if (productRepository.existsBySku(request.getSku())) {
@@ -69,12 +90,15 @@ public class ProductService {
                 .build();
 
         product = productRepository.save(product);
+        searchSuggestService.productChanged(product.getId(), product.getSku(), product.getName());
+        dataVersionService.bump(Aggregate.PRODUCTS);
         return toResponse(product);
     }
 
     /**
      * Update existing product.
      */
+    @Transactional
     public ProductResponse updateProduct(String id, CreateProductRequest request) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
@@ -85,6 +109,10 @@ public class ProductService {
             throw new RuntimeException("Product with SKU " + request.getSku() + " already exists");
         }
 
+        String previousCategory = product.getCategory();
+        boolean categoryChanged = !Objects.equals(previousCategory, request.getCategory());
+        boolean skuChanged = !product.getSku().equals(request.getSku());
+        boolean renamed = !Objects.equals(product.getName(), request.getName());
         product.setSku(request.getSku());
         product.setName(request.getName());
         product.setCategory(request.getCategory());
@@ -92,6 +120,20 @@ public class ProductService {
         product.setSafetyStock(request.getSafetyStock());
 
         product = productRepository.save(product);
+        if (categoryChanged) {
+            // Valuation totals are kept per category; the locked items carry their value across
+            for (InventoryItem item : inventoryItemRepository.findByProductIdForUpdate(id)) {
+                inventoryValuationService.moveCategory(item, previousCategory, request.getCategory());
+            }
+        }
+        if (skuChanged) {
+            // The sourcing index is also keyed by SKU
+            supplierCatalogService.rebuildAfterCommit();
+        }
+        if (skuChanged || renamed) {
+            searchSuggestService.productChanged(product.getId(), product.getSku(), product.getName());
+        }
+        dataVersionService.bump(Aggregate.PRODUCTS, Aggregate.INVENTORY);
         return toResponse(product);
     }
 
@@ -103,10 +145,21 @@ public class ProductService {
         if (!productRepository.existsById(id)) {
             throw new RuntimeException("Product not found");
         }
-        // Delete in order: movements -> items -> product
+        // The stock leaves its warehouses: one counter update each instead of recounting them all
+        for (InventoryItem item : inventoryItemRepository.findByProductIdForUpdate(id)) {
+            if (item.getQuantity() != 0) {
+                warehouseCapacityService.add(item.getWarehouse().getId(), -item.getQuantity());
+            }
+            inventoryValuationService.remove(item);
+        }
+        // Delete in order: movements -> forecasts -> items -> product
         inventoryMovementRepository.deleteByProductId(id);
+        demandForecastRepository.deleteByProductId(id);
         inventoryItemRepository.deleteByProductId(id);
+        supplierCatalogService.deleteByProduct(id);
         productRepository.deleteById(id);
+        searchSuggestService.productRemoved(id);
+        dataVersionService.bump(Aggregate.PRODUCTS, Aggregate.INVENTORY, Aggregate.MOVEMENTS);
     }
 
     /**
@@ -120,6 +173,10 @@ public class ProductService {
                 .category(product.getCategory())
                 .price(product.getPrice())
                 .safetyStock(product.getSafetyStock())
+                .abcClass(product.getAbcClass())
+                .xyzClass(product.getXyzClass())
+                .cycleCountIntervalDays(productClassificationService.cycleCountIntervalDays(product.getAbcClass()))
+                .classifiedAt(product.getClassifiedAt())
                 .createdAt(product.getCreatedAt())
                 .updatedAt(product.getUpdatedAt())
                 .build();
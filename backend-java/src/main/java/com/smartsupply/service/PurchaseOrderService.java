@@ -1,11 +1,16 @@
 package com.smartsupply.service;
 
+import com.smartsupply.dto.BulkStatusUpdateResponse;
 import com.smartsupply.dto.CreatePurchaseOrderRequest;
 import com.smartsupply.dto.PurchaseOrderResponse;
 import com.smartsupply.dto.ReceiveItemsRequest;
 import com.smartsupply.entity.*;
+import com.smartsupply.event.InventoryMovementRecordedEvent;
+import com.smartsupply.event.PurchaseOrderStatusChangedEvent;
 import com.smartsupply.repository.*;
+import com.smartsupply.service.DataVersionService.Aggregate;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -14,8 +19,15 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,6 +40,12 @@ public class PurchaseOrderService {
     private final InventoryItemRepository inventoryItemRepository;
     private final InventoryMovementRepository inventoryMovementRepository;
     private final WarehouseRepository warehouseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DataVersionService dataVersionService;
+    private final WarehouseCapacityService warehouseCapacityService;
+    private final InventoryValuationService inventoryValuationService;
+    private final SupplierPerformanceService supplierPerformanceService;
+    private final SupplierCatalogService supplierCatalogService;
 
     public Page<PurchaseOrderResponse> getAllPurchaseOrders(Pageable pageable) {
         return purchaseOrderRepository.findAll(pageable)
@@ -59,38 +77,45 @@ public class PurchaseOrderService {
 
     @Transactional
     public PurchaseOrderResponse createPurchaseOrder(CreatePurchaseOrderRequest request, String userId) {
-        Supplier supplier = supplierRepository.findById(request.getSupplierId())
-                .orElseThrow(() -> new RuntimeException("Supplier not found"));
-
-        String orderNumber = generateOrderNumber();
-
-        PurchaseOrder order = PurchaseOrder.builder()
-                .orderNumber(orderNumber)
-                .supplier(supplier)
-                .createdBy(null)
-                .status(request.getStatus() != null ? request.getStatus() : OrderStatus.DRAFT)
-                .expectedDate(request.getExpectedDate())
-                .build();
+        return createPurchaseOrders(List.of(request)).get(0);
+    }
 
-        for (CreatePurchaseOrderRequest.PurchaseOrderItemRequest itemRequest : request.getItems()) {
-            Product product = productRepository.findById(itemRequest.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Product not found: " + itemRequest.getProductId()));
-
-            PurchaseOrderItem item = PurchaseOrderItem.builder()
-                    .purchaseOrder(order)
-                    .product(product)
-                    .quantityOrdered(itemRequest.getQuantity() != null ? itemRequest.getQuantity() : 1)
-                    .unitPrice(itemRequest.getUnitPrice() != null 
-                            ? BigDecimal.valueOf(itemRequest.getUnitPrice()) 
-                            : product.getPrice())
+    /**
+     * Create many orders in one transaction. Suppliers and products are resolved with one
+     * findAllById each, and saveAll sends the order and line inserts as JDBC batches.
+     */
+    @Transactional
+    public List<PurchaseOrderResponse> createPurchaseOrders(List<CreatePurchaseOrderRequest> requests) {
+        Map<String, Supplier> suppliers = findAllById(supplierRepository::findAllById, Supplier::getId,
+                requests.stream().map(CreatePurchaseOrderRequest::getSupplierId).toList(), "Supplier");
+        Map<String, Product> products = findAllById(productRepository::findAllById, Product::getId,
+                requests.stream().flatMap(request -> request.getItems().stream())
+                        .map(CreatePurchaseOrderRequest.PurchaseOrderItemRequest::getProductId).toList(), "Product");
+
+        String prefix = orderNumberPrefix();
+        long sequence = purchaseOrderRepository.count();
+
+        List<PurchaseOrder> orders = new ArrayList<>(requests.size());
+        for (CreatePurchaseOrderRequest request : requests) {
+            PurchaseOrder order = PurchaseOrder.builder()
+                    .orderNumber(String.format("%s-%03d", prefix, ++sequence))
+                    .supplier(suppliers.get(request.getSupplierId()))
+                    .createdBy(null)
+                    .status(request.getStatus() != null ? request.getStatus() : OrderStatus.DRAFT)
+                    .expectedDate(request.getExpectedDate())
                     .build();
 
-            order.getItems().add(item);
+            for (CreatePurchaseOrderRequest.PurchaseOrderItemRequest itemRequest : request.getItems()) {
+                order.getItems().add(newItem(order, products.get(itemRequest.getProductId()), itemRequest));
+            }
+
+            order.recalculateTotal();
+            orders.add(order);
         }
 
-        order.recalculateTotal();
-        order = purchaseOrderRepository.save(order);
-        return toResponse(order);
+        List<PurchaseOrder> saved = purchaseOrderRepository.saveAll(orders);
+        dataVersionService.bump(Aggregate.PURCHASE_ORDERS);
+        return saved.stream().map(this::toResponse).toList();
     }
 
     @Transactional
@@ -116,25 +141,17 @@ public class PurchaseOrderService {
         }
 
         // Clear and rebuild items
+        Map<String, Product> products = findAllById(productRepository::findAllById, Product::getId,
+                request.getItems().stream()
+                        .map(CreatePurchaseOrderRequest.PurchaseOrderItemRequest::getProductId).toList(), "Product");
         order.getItems().clear();
         for (CreatePurchaseOrderRequest.PurchaseOrderItemRequest itemRequest : request.getItems()) {
-            Product product = productRepository.findById(itemRequest.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Product not found: " + itemRequest.getProductId()));
-
-            PurchaseOrderItem item = PurchaseOrderItem.builder()
-                    .purchaseOrder(order)
-                    .product(product)
-                    .quantityOrdered(itemRequest.getQuantity() != null ? itemRequest.getQuantity() : 1)
-                    .unitPrice(itemRequest.getUnitPrice() != null 
-                            ? BigDecimal.valueOf(itemRequest.getUnitPrice()) 
-                            : product.getPrice())
-                    .build();
-
-            order.getItems().add(item);
+            order.getItems().add(newItem(order, products.get(itemRequest.getProductId()), itemRequest));
         }
 
         order.recalculateTotal();
         order = purchaseOrderRepository.save(order);
+        dataVersionService.bump(Aggregate.PURCHASE_ORDERS);
         return toResponse(order);
     }
 
@@ -156,6 +173,9 @@ public class PurchaseOrderService {
         Map<String, PurchaseOrderItem> itemMap = order.getItems().stream()
                 .collect(Collectors.toMap(PurchaseOrderItem::getId, item -> item));
 
+        boolean firstReceipt = order.getItems().stream().allMatch(item -> item.getQuantityReceived() == 0);
+        List<SupplierPerformanceService.ReceivedLine> receivedLines = new ArrayList<>();
+
         // Process each received item
         for (ReceiveItemsRequest.ReceivedItem receivedItem : request.getItems()) {
             PurchaseOrderItem poItem = itemMap.get(receivedItem.getPurchaseOrderItemId());
@@ -172,6 +192,7 @@ public class PurchaseOrderService {
 
             // Update quantity received on PO item
             poItem.setQuantityReceived(poItem.getQuantityReceived() + quantityToReceive);
+            receivedLines.add(new SupplierPerformanceService.ReceivedLine(poItem, quantityToReceive));
 
             // Find or create inventory item
             InventoryItem inventoryItem = inventoryItemRepository
@@ -183,8 +204,11 @@ public class PurchaseOrderService {
                             .reserved(0)
                             .build());
 
+            warehouseCapacityService.addWithinCapacity(warehouse.getId(), quantityToReceive);
+
             int oldQuantity = inventoryItem.getQuantity();
             int newQuantity = oldQuantity + quantityToReceive;
+            inventoryValuationService.apply(inventoryItem, oldQuantity, newQuantity, poItem.getUnitPrice());
             inventoryItem.setQuantity(newQuantity);
             inventoryItem = inventoryItemRepository.save(inventoryItem);
 
@@ -199,18 +223,23 @@ public class PurchaseOrderService {
                     .referenceType("PURCHASE_ORDER")
                     .referenceId(order.getId())
                     .build();
-            inventoryMovementRepository.save(movement);
+            movement = inventoryMovementRepository.save(movement);
+            eventPublisher.publishEvent(InventoryMovementRecordedEvent.of(movement));
         }
 
+        supplierPerformanceService.recordReceipt(order, receivedLines, firstReceipt, LocalDateTime.now());
+
         // Update order status when all items received
         boolean allReceived = order.getItems().stream().allMatch(PurchaseOrderItem::isFullyReceived);
 
         if (allReceived) {
             order.setStatus(OrderStatus.RECEIVED);
+            publishStatusChange(order, OrderStatus.SENT);
         }
         // If not all received, keep status as SENT
 
         order = purchaseOrderRepository.save(order);
+        dataVersionService.bump(Aggregate.PURCHASE_ORDERS, Aggregate.INVENTORY, Aggregate.MOVEMENTS);
         return toResponse(order);
     }
 
@@ -219,11 +248,85 @@ public class PurchaseOrderService {
         PurchaseOrder order = purchaseOrderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Purchase order not found"));
 
+        OrderStatus previous = order.getStatus();
+        if (previous != status && !previous.canTransitionTo(status)) {
+            throw new RuntimeException("Cannot change order status from " + previous + " to " + status);
+        }
         order.setStatus(status);
         order = purchaseOrderRepository.save(order);
+        if (previous != status) {
+            publishStatusChange(order, previous);
+        }
+        dataVersionService.bump(Aggregate.PURCHASE_ORDERS);
         return toResponse(order);
     }
 
+    /**
+     * Move many orders to one status with set-based UPDATEs (one per current status).
+     *
+     * Orders that do not exist or may not make the transition are reported and left alone;
+     * orders already in the target status count as unchanged. If an order changes status
+     * between validation and update, the whole call rolls back.
+     */
+    @Transactional
+    public BulkStatusUpdateResponse updateStatuses(Collection<String> ids, OrderStatus status) {
+        Set<String> requested = new LinkedHashSet<>(ids);
+        Map<String, Object[]> rows = new HashMap<>();
+        for (Object[] row : purchaseOrderRepository.findStatusRows(requested)) {
+            rows.put((String) row[0], row);
+        }
+
+        Map<OrderStatus, List<Object[]>> movable = new EnumMap<>(OrderStatus.class);
+        List<BulkStatusUpdateResponse.Rejected> rejected = new ArrayList<>();
+        int unchanged = 0;
+        for (String id : requested) {
+            Object[] row = rows.get(id);
+            if (row == null) {
+                rejected.add(BulkStatusUpdateResponse.Rejected.builder()
+                        .id(id).reason("Purchase order not found").build());
+                continue;
+            }
+            OrderStatus current = (OrderStatus) row[3];
+            if (current == status) {
+                unchanged++;
+            } else if (current.canTransitionTo(status)) {
+                movable.computeIfAbsent(current, k -> new ArrayList<>()).add(row);
+            } else {
+                rejected.add(BulkStatusUpdateResponse.Rejected.builder()
+                        .id(id)
+                        .orderNumber((String) row[1])
+                        .currentStatus(current)
+                        .reason("Cannot change order status from " + current + " to " + status)
+                        .build());
+            }
+        }
+
+        int updated = 0;
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<OrderStatus, List<Object[]>> entry : movable.entrySet()) {
+            List<String> batchIds = entry.getValue().stream().map(row -> (String) row[0]).toList();
+            int count = purchaseOrderRepository.updateStatus(batchIds, entry.getKey(), status);
+            if (count != batchIds.size()) {
+                throw new RuntimeException("Purchase orders changed while updating status, please retry");
+            }
+            updated += count;
+            for (Object[] row : entry.getValue()) {
+                eventPublisher.publishEvent(new PurchaseOrderStatusChangedEvent((String) row[0], (String) row[1],
+                        (String) row[2], entry.getKey(), status, now));
+            }
+        }
+
+        if (updated > 0) {
+            dataVersionService.bump(Aggregate.PURCHASE_ORDERS);
+        }
+        return BulkStatusUpdateResponse.builder()
+                .status(status)
+                .updated(updated)
+                .unchanged(unchanged)
+                .rejected(rejected)
+                .build();
+    }
+
     @Transactional
     public void deletePurchaseOrder(String id) {
         PurchaseOrder order = purchaseOrderRepository.findById(id)
@@ -233,12 +336,51 @@ public class PurchaseOrderService {
             throw new RuntimeException("Can only delete DRAFT orders");
         }
         purchaseOrderRepository.deleteById(id);
+        dataVersionService.bump(Aggregate.PURCHASE_ORDERS);
     }
 
-    private String generateOrderNumber() {
-        String prefix = "PO-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM"));
-        long count = purchaseOrderRepository.count() + 1;
-        return String.format("%s-%03d", prefix, count);
+    private void publishStatusChange(PurchaseOrder order, OrderStatus previous) {
+        eventPublisher.publishEvent(new PurchaseOrderStatusChangedEvent(order.getId(), order.getOrderNumber(),
+                order.getSupplier().getId(), previous, order.getStatus(), LocalDateTime.now()));
+    }
+
+    private String orderNumberPrefix() {
+        return "PO-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM"));
+    }
+
+    /**
+     * Lines without an explicit price take the supplier's catalog price, else the list price.
+     */
+    private PurchaseOrderItem newItem(PurchaseOrder order, Product product,
+                                      CreatePurchaseOrderRequest.PurchaseOrderItemRequest itemRequest) {
+        BigDecimal unitPrice;
+        if (itemRequest.getUnitPrice() != null) {
+            unitPrice = BigDecimal.valueOf(itemRequest.getUnitPrice());
+        } else {
+            SupplierCatalogService.Offer offer = supplierCatalogService.offer(order.getSupplier().getId(), product.getId());
+            unitPrice = offer != null ? offer.unitPrice() : product.getPrice();
+        }
+        return PurchaseOrderItem.builder()
+                .purchaseOrder(order)
+                .product(product)
+                .quantityOrdered(itemRequest.getQuantity() != null ? itemRequest.getQuantity() : 1)
+                .unitPrice(unitPrice)
+                .build();
+    }
+
+    /**
+     * Load entities with one IN query and fail on the first id that does not exist.
+     */
+    private <T> Map<String, T> findAllById(Function<Collection<String>, List<T>> loader, Function<T, String> idOf,
+                                           Collection<String> ids, String label) {
+        Set<String> distinct = new LinkedHashSet<>(ids);
+        Map<String, T> found = loader.apply(distinct).stream().collect(Collectors.toMap(idOf, entity -> entity));
+        for (String id : distinct) {
+            if (!found.containsKey(id)) {
+                throw new RuntimeException(label + " not found: " + id);
+            }
+        }
+        return found;
     }
 
     private PurchaseOrderResponse toResponse(PurchaseOrder order) {
@@ -0,0 +1,248 @@
+package com.smartsupply.service;
+
+import com.smartsupply.dto.CreatePurchaseOrderRequest;
+import com.smartsupply.dto.PurchaseOrderResponse;
+import com.smartsupply.dto.ReplenishmentPlanResponse;
+import com.smartsupply.dto.ReplenishmentSuggestion;
+import com.smartsupply.entity.MovementType;
+import com.smartsupply.entity.OrderStatus;
+import com.smartsupply.entity.Supplier;
+import com.smartsupply.repository.InventoryItemRepository;
+import com.smartsupply.repository.InventoryMovementRepository;
+import com.smartsupply.repository.PurchaseOrderItemRepository;
+import com.smartsupply.repository.SupplierRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+
+/**
+ * ReplenishmentService - Suggests reorders from actual consumption instead of the static safety stock.
+ *
+ * For every product/warehouse pair:
+ * - velocity      = OUT units over the lookback window / lookback days
+ * - reorder point = velocity * lead time + safety stock
+ * - order qty     = (reorder point + velocity * review period) - available, when available <= reorder point
+ *
+ * The supplier, lead time and MOQ come from the best catalog offer (replenishment.sourcing);
+ * products no supplier lists fall back to the default lead time and the last supplier ordered from.
+ *
+ * Inventory rows are read in keyset-paged chunks; each chunk is evaluated on the fork-join pool
+ * while the next chunk is being loaded.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReplenishmentService {
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final PurchaseOrderItemRepository purchaseOrderItemRepository;
+    private final SupplierRepository supplierRepository;
+    private final PurchaseOrderService purchaseOrderService;
+    private final SupplierCatalogService supplierCatalogService;
+
+    @Value("${replenishment.lookback-days:90}")
+    private int lookbackDays;
+
+    @Value("${replenishment.lead-time-days:7}")
+    private int leadTimeDays;
+
+    @Value("${replenishment.review-period-days:14}")
+    private int reviewPeriodDays;
+
+    @Value("${replenishment.chunk-size:2000}")
+    private int chunkSize;
+
+    @Value("${replenishment.sourcing:CHEAPEST}")
+    private SupplierCatalogService.Strategy sourcing;
+
+    @Transactional(readOnly = true)
+    public ReplenishmentPlanResponse buildPlan() {
+        long started = System.currentTimeMillis();
+        LocalDateTime since = LocalDateTime.now().minusDays(lookbackDays);
+
+        List<ForkJoinTask<List<ReplenishmentSuggestion>>> pending = new ArrayList<>();
+        long evaluated = 0;
+        String afterId = "";
+
+        while (true) {
+            List<Object[]> rows = inventoryItemRepository.findPlanningRowsAfter(afterId, PageRequest.of(0, chunkSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            evaluated += rows.size();
+            afterId = (String) rows.get(rows.size() - 1)[0];
+
+            Map<String, Long> outByItem = loadOutQuantities(rows, since);
+            pending.add(ForkJoinPool.commonPool().submit(() -> rows.parallelStream()
+                    .map(row -> evaluate(row, outByItem.getOrDefault((String) row[0], 0L)))
+                    .filter(Objects::nonNull)
+                    .toList()));
+
+            if (rows.size() < chunkSize) {
+                break;
+            }
+        }
+
+        List<ReplenishmentSuggestion> suggestions = new ArrayList<>();
+        for (ForkJoinTask<List<ReplenishmentSuggestion>> task : pending) {
+            suggestions.addAll(task.join());
+        }
+        assignSuppliers(suggestions);
+
+        long duration = System.currentTimeMillis() - started;
+        log.info("Replenishment plan: {} items evaluated, {} suggestions in {} ms", evaluated, suggestions.size(), duration);
+
+        return ReplenishmentPlanResponse.builder()
+                .generatedAt(LocalDateTime.now())
+                .lookbackDays(lookbackDays)
+                .itemsEvaluated(evaluated)
+                .durationMs(duration)
+                .suggestions(suggestions)
+                .build();
+    }
+
+    /**
+     * Turn the current plan into one DRAFT purchase order per supplier, all in one batch.
+     * Lines are priced from the supplier's catalog; each order is expected after its slowest line.
+     * Suggestions without a known supplier are skipped.
+     */
+    @Transactional
+    public List<PurchaseOrderResponse> createDraftOrders() {
+        Map<String, Map<String, Integer>> quantitiesBySupplier = new LinkedHashMap<>();
+        Map<String, Integer> leadTimeBySupplier = new HashMap<>();
+        for (ReplenishmentSuggestion suggestion : buildPlan().getSuggestions()) {
+            if (suggestion.getSupplierId() == null) {
+                continue;
+            }
+            quantitiesBySupplier
+                    .computeIfAbsent(suggestion.getSupplierId(), k -> new LinkedHashMap<>())
+                    .merge(suggestion.getProductId(), suggestion.getOrderQuantity(), Integer::sum);
+            leadTimeBySupplier.merge(suggestion.getSupplierId(), suggestion.getLeadTimeDays(), Math::max);
+        }
+
+        List<CreatePurchaseOrderRequest> requests = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Integer>> entry : quantitiesBySupplier.entrySet()) {
+            List<CreatePurchaseOrderRequest.PurchaseOrderItemRequest> items = entry.getValue().entrySet().stream()
+                    .map(line -> CreatePurchaseOrderRequest.PurchaseOrderItemRequest.builder()
+                            .productId(line.getKey())
+                            .quantity(line.getValue())
+                            .build())
+                    .collect(Collectors.toList());
+
+            requests.add(CreatePurchaseOrderRequest.builder()
+                    .supplierId(entry.getKey())
+                    .status(OrderStatus.DRAFT)
+                    .expectedDate(LocalDate.now().plusDays(leadTimeBySupplier.get(entry.getKey())))
+                    .items(items)
+                    .build());
+        }
+        return requests.isEmpty() ? List.of() : purchaseOrderService.createPurchaseOrders(requests);
+    }
+
+    private Map<String, Long> loadOutQuantities(List<Object[]> rows, LocalDateTime since) {
+        List<String> itemIds = rows.stream().map(row -> (String) row[0]).toList();
+        Map<String, Long> outByItem = new HashMap<>();
+        for (Object[] row : inventoryMovementRepository.sumQuantityByItemSince(MovementType.OUT, since, itemIds)) {
+            outByItem.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return outByItem;
+    }
+
+    private ReplenishmentSuggestion evaluate(Object[] row, long outQuantity) {
+        int safetyStock = row[4] != null ? ((Number) row[4]).intValue() : 0;
+        int quantity = ((Number) row[7]).intValue();
+        int reserved = ((Number) row[8]).intValue();
+        int available = quantity - reserved;
+
+        String productId = (String) row[1];
+        SupplierCatalogService.Offer offer = supplierCatalogService.bestOffer(productId, sourcing);
+        int leadTime = offer != null ? offer.leadTimeDays() : leadTimeDays;
+
+        double velocity = (double) outQuantity / lookbackDays;
+        int reorderPoint = (int) Math.ceil(velocity * leadTime) + safetyStock;
+        if (available > reorderPoint) {
+            return null;
+        }
+
+        int orderUpTo = reorderPoint + (int) Math.ceil(velocity * reviewPeriodDays);
+        int orderQuantity = orderUpTo - available;
+        if (orderQuantity <= 0) {
+            return null;
+        }
+        if (offer != null) {
+            orderQuantity = Math.max(orderQuantity, offer.minOrderQuantity());
+        }
+
+        return ReplenishmentSuggestion.builder()
+                .inventoryItemId((String) row[0])
+                .productId(productId)
+                .productSku((String) row[2])
+                .productName((String) row[3])
+                .warehouseId((String) row[5])
+                .warehouseName((String) row[6])
+                .quantity(quantity)
+                .available(available)
+                .dailyVelocity(velocity)
+                .reorderPoint(reorderPoint)
+                .orderQuantity(orderQuantity)
+                .supplierId(offer != null ? offer.supplierId() : null)
+                .supplierName(offer != null ? offer.supplierName() : null)
+                .unitPrice(offer != null ? offer.unitPrice() : null)
+                .leadTimeDays(leadTime)
+                .build();
+    }
+
+    /**
+     * For products no catalog lists, use the supplier a product was most recently ordered from.
+     */
+    private void assignSuppliers(List<ReplenishmentSuggestion> allSuggestions) {
+        List<ReplenishmentSuggestion> suggestions = allSuggestions.stream()
+                .filter(suggestion -> suggestion.getSupplierId() == null)
+                .toList();
+        List<String> productIds = suggestions.stream()
+                .map(ReplenishmentSuggestion::getProductId)
+                .distinct()
+                .toList();
+
+        Map<String, String> supplierByProduct = new HashMap<>();
+        Map<String, LocalDateTime> lastOrderByProduct = new HashMap<>();
+        for (int from = 0; from < productIds.size(); from += chunkSize) {
+            List<String> batch = productIds.subList(from, Math.min(from + chunkSize, productIds.size()));
+            for (Object[] row : purchaseOrderItemRepository.findSupplierHistoryForProducts(batch)) {
+                String productId = (String) row[0];
+                LocalDateTime lastOrdered = (LocalDateTime) row[2];
+                LocalDateTime current = lastOrderByProduct.get(productId);
+                if (current == null || (lastOrdered != null && lastOrdered.isAfter(current))) {
+                    lastOrderByProduct.put(productId, lastOrdered);
+                    supplierByProduct.put(productId, (String) row[1]);
+                }
+            }
+        }
+
+        Map<String, String> supplierNames = supplierRepository.findAllById(supplierByProduct.values().stream().distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Supplier::getId, Supplier::getName, (a, b) -> a));
+
+        for (ReplenishmentSuggestion suggestion : suggestions) {
+            String supplierId = supplierByProduct.get(suggestion.getProductId());
+            suggestion.setSupplierId(supplierId);
+            suggestion.setSupplierName(supplierId != null ? supplierNames.get(supplierId) : null);
+        }
+    }
+}
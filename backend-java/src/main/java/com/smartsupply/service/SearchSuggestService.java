@@ -0,0 +1,514 @@
+package com.smartsupply.service;
+
+import com.smartsupply.config.ReplicaRoutingDataSource;
+import com.smartsupply.dto.SearchSuggestion;
+import com.smartsupply.repository.ProductRepository;
+import com.smartsupply.repository.SupplierRepository;
+import com.smartsupply.repository.WarehouseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SearchSuggestService - Typeahead over SKUs, product names, warehouse names and supplier names.
+ *
+ * Each kind has an immutable index: the normalized labels (lowercase, accents stripped) packed
+ * into one char array, and a key for every word start in them, sorted. A prefix is a binary
+ * search for the first matching key, and the top-k completions are the next k keys, so a lookup
+ * does not depend on how many labels match. Because every word start is a key, "bolt" also
+ * finds "Hex Bolt M8".
+ *
+ * Writes go to a small pending map that lookups check alongside the index; once it holds
+ * search.suggest.max-pending labels, a background thread rebuilds the affected indexes from
+ * memory and swaps them in.
+ *
+ * Only writes through this instance's services reach the pending map. Everything else (other
+ * instances, the NestJS backend, bulk SQL) shows up when the index is rebuilt from the database,
+ * which happens once it is search.suggest.max-age-ms old. The rebuild reads the primary without
+ * blocking writes; those arriving while it reads stay pending on top of the fresh indexes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchSuggestService {
+
+    public enum Kind {
+        SKU,        // Product SKU; detail is the product name
+        PRODUCT,    // Product name; detail is the SKU
+        WAREHOUSE,
+        SUPPLIER
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private record Doc(Kind kind, String id, String label, String detail) {
+    }
+
+    private record DocKey(Kind kind, String id) {
+    }
+
+    // A write not yet in the index; doc is null for a removal
+    private record Pending(Doc doc, String normalized) {
+    }
+
+    private record Candidate(String key, Doc doc) {
+    }
+
+    private record State(Index[] indexes, Map<DocKey, Pending> pending) {
+    }
+
+    // Completions in key order; equal keys by kind, then label
+    private static final Comparator<Candidate> ORDER = Comparator.comparing(Candidate::key)
+            .thenComparing(candidate -> candidate.doc().kind())
+            .thenComparing(candidate -> candidate.doc().label())
+            .thenComparing(candidate -> candidate.doc().id());
+
+    private final ProductRepository productRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final SupplierRepository supplierRepository;
+
+    @Value("${search.suggest.max-limit:50}")
+    private int maxLimit;
+
+    @Value("${search.suggest.max-pending:1000}")
+    private int maxPending;
+
+    @Value("${search.suggest.max-age-ms:600000}")
+    private long maxAgeMs;
+
+    // One rebuild at a time; state and writesDuringRebuild are guarded by this
+    private final Object rebuildLock = new Object();
+    private Map<DocKey, Pending> writesDuringRebuild;
+
+    private volatile State state = emptyState();
+    private volatile long builtAt;
+    private volatile long lastBuildMs;
+    private volatile boolean compacting;
+
+    /**
+     * Up to limit completions of the query, from the given kinds (all when null or empty).
+     */
+    public List<SearchSuggestion> suggest(String query, int limit, Collection<Kind> kinds) {
+        String prefix = query != null ? normalize(query) : "";
+        int k = Math.min(Math.max(limit, 1), maxLimit);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        Set<Kind> wanted = kinds == null || kinds.isEmpty() ? EnumSet.allOf(Kind.class) : EnumSet.copyOf(kinds);
+
+        State current = state;
+        char[] chars = prefix.toCharArray();
+        List<Candidate> candidates = new ArrayList<>();
+        for (Kind kind : wanted) {
+            current.indexes()[kind.ordinal()].collect(chars, k, current.pending(), candidates);
+        }
+        for (Pending pending : current.pending().values()) {
+            if (pending.doc() != null && wanted.contains(pending.doc().kind())) {
+                String key = firstMatch(pending.normalized(), prefix);
+                if (key != null) {
+                    candidates.add(new Candidate(key, pending.doc()));
+                }
+            }
+        }
+
+        candidates.sort(ORDER);
+        List<SearchSuggestion> suggestions = new ArrayList<>(Math.min(k, candidates.size()));
+        for (int i = 0; i < candidates.size() && i < k; i++) {
+            Doc doc = candidates.get(i).doc();
+            suggestions.add(SearchSuggestion.builder()
+                    .type(doc.kind())
+                    .id(doc.id())
+                    .label(doc.label())
+                    .detail(doc.detail())
+                    .build());
+        }
+        return suggestions;
+    }
+
+    /**
+     * Index a created or updated product's SKU and name once the current transaction commits.
+     */
+    public void productChanged(String id, String sku, String name) {
+        afterCommit(() -> apply(List.of(
+                new DocKey(Kind.SKU, id), new DocKey(Kind.PRODUCT, id)), List.of(
+                new Doc(Kind.SKU, id, sku, name), new Doc(Kind.PRODUCT, id, name, sku))));
+    }
+
+    public void productRemoved(String id) {
+        afterCommit(() -> apply(List.of(new DocKey(Kind.SKU, id), new DocKey(Kind.PRODUCT, id)), List.of()));
+    }
+
+    public void warehouseChanged(String id, String name) {
+        afterCommit(() -> apply(List.of(new DocKey(Kind.WAREHOUSE, id)),
+                List.of(new Doc(Kind.WAREHOUSE, id, name, null))));
+    }
+
+    public void warehouseRemoved(String id) {
+        afterCommit(() -> apply(List.of(new DocKey(Kind.WAREHOUSE, id)), List.of()));
+    }
+
+    public void supplierChanged(String id, String name) {
+        afterCommit(() -> apply(List.of(new DocKey(Kind.SUPPLIER, id)),
+                List.of(new Doc(Kind.SUPPLIER, id, name, null))));
+    }
+
+    public void supplierRemoved(String id) {
+        afterCommit(() -> apply(List.of(new DocKey(Kind.SUPPLIER, id)), List.of()));
+    }
+
+    /**
+     * Load every label from the primary into fresh indexes and swap them in. Writes applied while
+     * the rows are read may or may not be in them, so they are kept as the new state's pending.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                writesDuringRebuild = new LinkedHashMap<>();
+            }
+            try {
+                long started = System.currentTimeMillis();
+                List<List<Doc>> docs = ReplicaRoutingDataSource.onPrimary(this::loadDocs);
+                Index[] indexes = new Index[KINDS.length];
+                for (Kind kind : KINDS) {
+                    indexes[kind.ordinal()] = Index.build(docs.get(kind.ordinal()));
+                }
+                synchronized (this) {
+                    state = new State(indexes, new ConcurrentHashMap<>(writesDuringRebuild));
+                }
+                builtAt = started;
+                lastBuildMs = System.currentTimeMillis() - started;
+                log.info("Search suggest index: {} labels, {} keys in {} ms",
+                        Arrays.stream(indexes).mapToInt(index -> index.docs.length).sum(),
+                        Arrays.stream(indexes).mapToInt(index -> index.keyDoc.length).sum(), lastBuildMs);
+            } finally {
+                synchronized (this) {
+                    writesDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    private List<List<Doc>> loadDocs() {
+        List<List<Doc>> docs = new ArrayList<>();
+        for (int i = 0; i < KINDS.length; i++) {
+            docs.add(new ArrayList<>());
+        }
+        // [id, sku, name]
+        for (Object[] row : productRepository.findSuggestRows()) {
+            String id = (String) row[0];
+            docs.get(Kind.SKU.ordinal()).add(new Doc(Kind.SKU, id, (String) row[1], (String) row[2]));
+            docs.get(Kind.PRODUCT.ordinal()).add(new Doc(Kind.PRODUCT, id, (String) row[2], (String) row[1]));
+        }
+        // [id, name]
+        for (Object[] row : warehouseRepository.findNameRows()) {
+            docs.get(Kind.WAREHOUSE.ordinal()).add(new Doc(Kind.WAREHOUSE, (String) row[0], (String) row[1], null));
+        }
+        for (Object[] row : supplierRepository.findNameRows()) {
+            docs.get(Kind.SUPPLIER.ordinal()).add(new Doc(Kind.SUPPLIER, (String) row[0], (String) row[1], null));
+        }
+        return docs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild from the database once the index is older than max-age-ms, to pick up writes that
+     * did not go through this instance.
+     */
+    @Scheduled(fixedDelayString = "${search.suggest.refresh-ms:60000}")
+    public void rebuildIfStale() {
+        if (builtAt == 0 || System.currentTimeMillis() - builtAt < maxAgeMs) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Search suggest index: rebuild failed, keeping the current index", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        State current = state;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long bytes = 0;
+        for (Kind kind : KINDS) {
+            Index index = current.indexes()[kind.ordinal()];
+            Map<String, Object> perKind = new LinkedHashMap<>();
+            perKind.put("labels", index.docs.length);
+            perKind.put("keys", index.keyDoc.length);
+            perKind.put("indexBytes", index.bytes());
+            stats.put(kind.name().toLowerCase(Locale.ROOT), perKind);
+            bytes += index.bytes();
+        }
+        stats.put("indexBytes", bytes);
+        stats.put("pending", current.pending().size());
+        stats.put("maxPending", maxPending);
+        stats.put("lastBuildMs", lastBuildMs);
+        stats.put("ageSeconds", builtAt > 0 ? (System.currentTimeMillis() - builtAt) / 1000 : null);
+        return stats;
+    }
+
+    private synchronized void apply(List<DocKey> keys, List<Doc> docs) {
+        Map<DocKey, Pending> writes = new LinkedHashMap<>();
+        for (DocKey key : keys) {
+            writes.put(key, new Pending(null, null));
+        }
+        for (Doc doc : docs) {
+            if (doc.label() != null) {
+                writes.put(new DocKey(doc.kind(), doc.id()), new Pending(doc, normalize(doc.label())));
+            }
+        }
+        Map<DocKey, Pending> pending = state.pending();
+        pending.putAll(writes);
+        if (writesDuringRebuild != null) {
+            writesDuringRebuild.putAll(writes);
+        }
+        if (pending.size() >= maxPending && !compacting) {
+            compacting = true;
+            Thread.ofPlatform().daemon().name("search-suggest-compactor").start(this::compact);
+        }
+    }
+
+    /**
+     * Fold the pending writes into rebuilt indexes of the kinds they touch. Writes arriving
+     * meanwhile stay pending for the next round.
+     */
+    private void compact() {
+        try {
+            long started = System.currentTimeMillis();
+            State current = state;
+            Map<DocKey, Pending> folded = Map.copyOf(current.pending());
+            Set<Kind> touched = EnumSet.noneOf(Kind.class);
+            folded.keySet().forEach(key -> touched.add(key.kind()));
+
+            Index[] indexes = current.indexes().clone();
+            for (Kind kind : touched) {
+                Index old = indexes[kind.ordinal()];
+                List<Doc> docs = new ArrayList<>(old.docs.length + folded.size());
+                for (Doc doc : old.docs) {
+                    if (!folded.containsKey(new DocKey(kind, doc.id()))) {
+                        docs.add(doc);
+                    }
+                }
+                for (Pending pending : folded.values()) {
+                    if (pending.doc() != null && pending.doc().kind() == kind) {
+                        docs.add(pending.doc());
+                    }
+                }
+                indexes[kind.ordinal()] = Index.build(docs);
+            }
+
+            synchronized (this) {
+                if (state.indexes() != current.indexes()) {
+                    return;  // rebuild() swapped in fresh indexes meanwhile
+                }
+                Map<DocKey, Pending> rest = new ConcurrentHashMap<>(state.pending());
+                folded.forEach(rest::remove);
+                state = new State(indexes, rest);
+            }
+            lastBuildMs = System.currentTimeMillis() - started;
+            log.debug("Search suggest index: folded {} writes into {} in {} ms", folded.size(), touched, lastBuildMs);
+        } catch (RuntimeException e) {
+            log.error("Search suggest index: folding pending writes failed", e);
+        } finally {
+            compacting = false;
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static State emptyState() {
+        Index[] indexes = new Index[KINDS.length];
+        Arrays.fill(indexes, Index.build(List.of()));
+        return new State(indexes, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Lowercase, accents stripped, whitespace runs collapsed to one space, trimmed.
+     */
+    static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        boolean space = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                space = out.length() > 0;
+                continue;
+            }
+            if (space) {
+                out.append(' ');
+                space = false;
+            }
+            out.append(Character.toLowerCase(c));
+        }
+        return out.toString();
+    }
+
+    private static boolean isWordStart(CharSequence text, int from, int i) {
+        return i == from || (Character.isLetterOrDigit(text.charAt(i)) && !Character.isLetterOrDigit(text.charAt(i - 1)));
+    }
+
+    // Smallest word-start suffix of the label beginning with the prefix, or null
+    private static String firstMatch(String normalized, String prefix) {
+        String best = null;
+        for (int i = 0; i < normalized.length(); i++) {
+            if (isWordStart(normalized, 0, i) && normalized.startsWith(prefix, i)) {
+                String key = normalized.substring(i);
+                if (best == null || key.compareTo(best) < 0) {
+                    best = key;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * One kind's labels. Label d's normalized text is text[textStart[d], textStart[d + 1]); key k
+     * is the suffix of label keyDoc[k]'s text from keyStart[k], and keys are sorted.
+     */
+    private static final class Index {
+
+        final Doc[] docs;
+        final char[] text;
+        final int[] textStart;
+        final int[] keyDoc;
+        final int[] keyStart;
+
+        private Index(Doc[] docs, char[] text, int[] textStart, int[] keyDoc, int[] keyStart) {
+            this.docs = docs;
+            this.text = text;
+            this.textStart = textStart;
+            this.keyDoc = keyDoc;
+            this.keyStart = keyStart;
+        }
+
+        static Index build(List<Doc> source) {
+            Doc[] docs = source.stream().filter(doc -> doc.label() != null).toArray(Doc[]::new);
+            StringBuilder text = new StringBuilder();
+            int[] textStart = new int[docs.length + 1];
+            int keys = 0;
+            int[] docOfKey = new int[Math.max(16, docs.length * 2)];
+            int[] startOfKey = new int[docOfKey.length];
+            for (int d = 0; d < docs.length; d++) {
+                textStart[d] = text.length();
+                text.append(normalize(docs[d].label()));
+                for (int i = textStart[d]; i < text.length(); i++) {
+                    if (isWordStart(text, textStart[d], i)) {
+                        if (keys == docOfKey.length) {
+                            docOfKey = Arrays.copyOf(docOfKey, keys * 2);
+                            startOfKey = Arrays.copyOf(startOfKey, keys * 2);
+                        }
+                        docOfKey[keys] = d;
+                        startOfKey[keys] = i;
+                        keys++;
+                    }
+                }
+            }
+            textStart[docs.length] = text.length();
+            char[] chars = new char[text.length()];
+            text.getChars(0, text.length(), chars, 0);
+
+            int[] ends = new int[keys];
+            for (int k = 0; k < keys; k++) {
+                ends[k] = textStart[docOfKey[k] + 1];
+            }
+            int[] starts = startOfKey;
+            Integer[] order = new Integer[keys];
+            for (int k = 0; k < keys; k++) {
+                order[k] = k;
+            }
+            Arrays.sort(order, (a, b) -> Arrays.compare(chars, starts[a], ends[a], chars, starts[b], ends[b]));
+
+            int[] keyDoc = new int[keys];
+            int[] keyStart = new int[keys];
+            for (int k = 0; k < keys; k++) {
+                keyDoc[k] = docOfKey[order[k]];
+                keyStart[k] = starts[order[k]];
+            }
+            return new Index(docs, chars, textStart, keyDoc, keyStart);
+        }
+
+        /**
+         * Add up to limit labels with a key starting with the prefix, in key order, skipping
+         * labels that have a pending write.
+         */
+        void collect(char[] prefix, int limit, Map<DocKey, Pending> pending, List<Candidate> out) {
+            Set<Integer> seen = new HashSet<>();
+            for (int k = lowerBound(prefix); k < keyDoc.length && seen.size() < limit && matches(k, prefix); k++) {
+                Doc doc = docs[keyDoc[k]];
+                if (!pending.isEmpty() && pending.containsKey(new DocKey(doc.kind(), doc.id()))) {
+                    continue;
+                }
+                if (seen.add(keyDoc[k])) {
+                    int end = textStart[keyDoc[k] + 1];
+                    out.add(new Candidate(new String(text, keyStart[k], end - keyStart[k]), doc));
+                }
+            }
+        }
+
+        long bytes() {
+            return text.length * 2L + (textStart.length + keyDoc.length * 2L) * 4L + docs.length * 8L;
+        }
+
+        // First key not less than the prefix, comparing keys cut to the prefix length
+        private int lowerBound(char[] prefix) {
+            int low = 0;
+            int high = keyDoc.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int start = keyStart[mid];
+                int end = Math.min(textStart[keyDoc[mid] + 1], start + prefix.length);
+                if (Arrays.compare(text, start, end, prefix, 0, prefix.length) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private boolean matches(int k, char[] prefix) {
+            int start = keyStart[k];
+            return textStart[keyDoc[k] + 1] - start >= prefix.length
+                    && Arrays.equals(text, start, start + prefix.length, prefix, 0, prefix.length);
+        }
+    }
+}
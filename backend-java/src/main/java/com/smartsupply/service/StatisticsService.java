@@ -2,9 +2,11 @@ package com.smartsupply.service;
 
 import com.smartsupply.dto.DashboardStatsDTO;
 import com.smartsupply.repository.*;
+import com.smartsupply.service.DataVersionService.Aggregate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -14,12 +16,21 @@ import java.util.List;
 @RequiredArgsConstructor
 public class StatisticsService {
 
+    /**
+     * Aggregates the dashboard is computed from (ETag and push updates).
+     */
+    public static final Aggregate[] DASHBOARD_SOURCES = {
+            Aggregate.SUPPLIERS, Aggregate.PRODUCTS, Aggregate.WAREHOUSES,
+            Aggregate.PURCHASE_ORDERS, Aggregate.INVENTORY
+    };
+
     private final SupplierRepository supplierRepository;
     private final ProductRepository productRepository;
     private final WarehouseRepository warehouseRepository;
     private final PurchaseOrderRepository purchaseOrderRepository;
     private final InventoryItemRepository inventoryItemRepository;
 
+    @Transactional(readOnly = true)
     public DashboardStatsDTO getDashboardStats() {
         // 1. Basic Counts
         long totalSuppliers = supplierRepository.count();
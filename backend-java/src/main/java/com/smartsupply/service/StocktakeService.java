@@ -0,0 +1,187 @@
+package com.smartsupply.service;
+
+import com.smartsupply.dto.StocktakeRequest;
+import com.smartsupply.dto.StocktakeResponse;
+import com.smartsupply.entity.InventoryItem;
+import com.smartsupply.entity.InventoryMovement;
+import com.smartsupply.entity.MovementType;
+import com.smartsupply.entity.Product;
+import com.smartsupply.entity.Warehouse;
+import com.smartsupply.event.InventoryMovementRecordedEvent;
+import com.smartsupply.repository.InventoryItemRepository;
+import com.smartsupply.repository.InventoryMovementRepository;
+import com.smartsupply.repository.ProductRepository;
+import com.smartsupply.repository.WarehouseRepository;
+import com.smartsupply.service.DataVersionService.Aggregate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * StocktakeService - Applies a whole count sheet for one warehouse in a single transaction.
+ *
+ * The warehouse's inventory rows are locked and loaded once, the sheet is diffed against them
+ * in memory, and every variance becomes an ADJUSTMENT movement. Items and movements are then
+ * written with saveAll, which Hibernate sends as JDBC batches (see hibernate.jdbc.batch_size).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StocktakeService {
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final ProductRepository productRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DataVersionService dataVersionService;
+    private final WarehouseCapacityService warehouseCapacityService;
+    private final InventoryValuationService inventoryValuationService;
+
+    @Transactional
+    public StocktakeResponse applyStocktake(StocktakeRequest request) {
+        long started = System.currentTimeMillis();
+        Warehouse warehouse = warehouseRepository.findById(request.getWarehouseId())
+                .orElseThrow(() -> new RuntimeException("Warehouse not found"));
+
+        // Bin lines of the same SKU add up
+        Map<String, Integer> counted = new LinkedHashMap<>();
+        for (StocktakeRequest.CountLine line : request.getLines()) {
+            counted.merge(line.getSku().trim(), line.getCountedQuantity(), Integer::sum);
+        }
+
+        Map<String, InventoryItem> itemsBySku = new HashMap<>();
+        for (InventoryItem item : inventoryItemRepository.findByWarehouseIdForUpdate(warehouse.getId())) {
+            itemsBySku.put(item.getProduct().getSku(), item);
+        }
+
+        // Counted SKUs the warehouse has no row for yet: found stock, if the product exists
+        List<String> missing = counted.keySet().stream().filter(sku -> !itemsBySku.containsKey(sku)).toList();
+        if (!missing.isEmpty()) {
+            for (Product product : productRepository.findBySkuIn(missing)) {
+                InventoryItem item = InventoryItem.builder()
+                        .product(product)
+                        .warehouse(warehouse)
+                        .quantity(0)
+                        .reserved(0)
+                        .build();
+                itemsBySku.put(product.getSku(), item);
+            }
+        }
+        List<String> unknownSkus = missing.stream().filter(sku -> !itemsBySku.containsKey(sku)).toList();
+
+        String stocktakeId = UUID.randomUUID().toString();
+        String reason = request.getReason() != null ? request.getReason() : "Stocktake";
+        List<InventoryItem> adjustedItems = new ArrayList<>();
+        List<InventoryMovement> movements = new ArrayList<>();
+        List<StocktakeResponse.Variance> variances = new ArrayList<>();
+        long unitsOver = 0;
+        long unitsShort = 0;
+        BigDecimal valueVariance = BigDecimal.ZERO;
+
+        for (Map.Entry<String, InventoryItem> entry : itemsBySku.entrySet()) {
+            InventoryItem item = entry.getValue();
+            Integer count = counted.get(entry.getKey());
+            if (count == null && !request.isZeroUncounted()) {
+                continue;
+            }
+            int expected = item.getQuantity();
+            int actual = count != null ? count : 0;
+            int variance = actual - expected;
+            if (variance == 0) {
+                continue;
+            }
+
+            BigDecimal valueBefore = item.getStockValue() != null ? item.getStockValue() : BigDecimal.ZERO;
+            BigDecimal valueAfter;
+            if (request.isDryRun()) {
+                valueAfter = InventoryValuationService.revalue(valueBefore, expected, actual, null,
+                        item.getProduct().getPrice());
+            } else {
+                inventoryValuationService.apply(item, expected, actual, null);
+                valueAfter = item.getStockValue();
+                item.setQuantity(actual);
+                adjustedItems.add(item);
+                movements.add(InventoryMovement.builder()
+                        .inventoryItem(item)
+                        .movementType(MovementType.ADJUSTMENT)
+                        .quantity(variance)
+                        .quantityBefore(expected)
+                        .quantityAfter(actual)
+                        .reason(reason)
+                        .referenceType("STOCKTAKE")
+                        .referenceId(stocktakeId)
+                        .build());
+            }
+
+            BigDecimal itemValueVariance = valueAfter.subtract(valueBefore).setScale(2, RoundingMode.HALF_UP);
+            valueVariance = valueVariance.add(itemValueVariance);
+            if (variance > 0) {
+                unitsOver += variance;
+            } else {
+                unitsShort -= variance;
+            }
+            variances.add(StocktakeResponse.Variance.builder()
+                    .inventoryItemId(item.getId())
+                    .sku(entry.getKey())
+                    .productName(item.getProduct().getName())
+                    .expected(expected)
+                    .counted(actual)
+                    .variance(variance)
+                    .valueVariance(itemValueVariance)
+                    .build());
+        }
+
+        if (!request.isDryRun() && !movements.isEmpty()) {
+            // Items first: new ones must exist before movements reference them
+            inventoryItemRepository.saveAll(adjustedItems);
+            List<InventoryMovement> saved = inventoryMovementRepository.saveAll(movements);
+            for (InventoryMovement movement : saved) {
+                eventPublisher.publishEvent(InventoryMovementRecordedEvent.of(movement));
+            }
+            for (StocktakeResponse.Variance variance : variances) {
+                if (variance.getInventoryItemId() == null) {
+                    variance.setInventoryItemId(itemsBySku.get(variance.getSku()).getId());
+                }
+            }
+            // A count records what is physically there, so capacity is not enforced
+            warehouseCapacityService.add(warehouse.getId(), (int) (unitsOver - unitsShort));
+            dataVersionService.bump(Aggregate.INVENTORY, Aggregate.MOVEMENTS);
+        }
+
+        // Largest value impact first
+        variances.sort(Comparator.comparing((StocktakeResponse.Variance v) -> v.getValueVariance().abs()).reversed());
+
+        log.info("Stocktake {} for warehouse {}: {} items counted, {} variances{} in {} ms", stocktakeId,
+                warehouse.getName(), counted.size(), variances.size(), request.isDryRun() ? " (dry run)" : "",
+                System.currentTimeMillis() - started);
+
+        return StocktakeResponse.builder()
+                .stocktakeId(request.isDryRun() ? null : stocktakeId)
+                .warehouseId(warehouse.getId())
+                .warehouseName(warehouse.getName())
+                .countedAt(LocalDateTime.now())
+                .dryRun(request.isDryRun())
+                .itemsCounted(counted.size() - unknownSkus.size())
+                .itemsAdjusted(variances.size())
+                .unitsOver(unitsOver)
+                .unitsShort(unitsShort)
+                .valueVariance(valueVariance)
+                .unknownSkus(unknownSkus)
+                .variances(variances)
+                .build();
+    }
+}
@@ -0,0 +1,379 @@
+package com.smartsupply.service;
+
+import com.smartsupply.dto.BestSourceRequest;
+import com.smartsupply.dto.BestSourceResponse;
+import com.smartsupply.dto.SupplierProductRequest;
+import com.smartsupply.dto.SupplierProductResponse;
+import com.smartsupply.entity.Product;
+import com.smartsupply.entity.Supplier;
+import com.smartsupply.entity.SupplierProduct;
+import com.smartsupply.repository.ProductRepository;
+import com.smartsupply.repository.SupplierProductRepository;
+import com.smartsupply.repository.SupplierRepository;
+import com.smartsupply.service.DataVersionService.Aggregate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * SupplierCatalogService - Which supplier sells which product, at what price, lead time and MOQ.
+ *
+ * The catalog lives in supplier_products; for sourcing decisions it is mirrored into an
+ * immutable in-memory index keyed by product ID and SKU, with each product's cheapest and
+ * fastest offer picked in advance. A best-source lookup for thousands of SKUs is then a
+ * hash lookup per SKU.
+ *
+ * A single offer added, changed or removed is applied to a copy of the index once it commits.
+ * Changes that touch many offers (supplier rename or deletion, SKU change, product deletion)
+ * reload the whole catalog; one reload runs at a time, and single-offer changes committed while
+ * it reads are applied again on top of what it read before it is swapped in.
+ *
+ * Only writes through this instance's services reach the index directly. Everything else (other
+ * instances, bulk SQL) shows up when the catalog is reloaded, which happens once the index is
+ * catalog.index.max-age-ms old.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SupplierCatalogService {
+
+    public enum Strategy {
+        CHEAPEST,   // Lowest unit price, then shortest lead time
+        FASTEST     // Shortest lead time, then lowest unit price
+    }
+
+    public record Offer(String supplierId, String supplierName, BigDecimal unitPrice,
+                        int leadTimeDays, int minOrderQuantity) {
+    }
+
+    private record Listing(String productId, String sku, List<Offer> offers, Offer cheapest, Offer fastest) {
+
+        Offer best(Strategy strategy) {
+            return strategy == Strategy.FASTEST ? fastest : cheapest;
+        }
+    }
+
+    private record Index(Map<String, Listing> byProductId, Map<String, Listing> bySku) {
+    }
+
+    // One supplier's offer for a product as committed; offer is null when it was removed
+    private record Change(String productId, String sku, String supplierId, Offer offer) {
+    }
+
+    // Supplier id breaks the remaining ties, so the choice does not depend on row order
+    private static final Comparator<Offer> CHEAPEST = Comparator.comparing(Offer::unitPrice)
+            .thenComparingInt(Offer::leadTimeDays)
+            .thenComparing(Offer::supplierId);
+
+    private static final Comparator<Offer> FASTEST = Comparator.comparingInt(Offer::leadTimeDays)
+            .thenComparing(Offer::unitPrice)
+            .thenComparing(Offer::supplierId);
+
+    private final SupplierProductRepository supplierProductRepository;
+    private final SupplierRepository supplierRepository;
+    private final ProductRepository productRepository;
+    private final DataVersionService dataVersionService;
+
+    @Value("${catalog.index.max-age-ms:600000}")
+    private long maxAgeMs;
+
+    private volatile Index index = new Index(Map.of(), Map.of());
+    private volatile long builtAt;
+
+    // One reload at a time; swaps of the index and changesDuringRebuild are guarded by writeLock
+    private final Object rebuildLock = new Object();
+    private final Object writeLock = new Object();
+    private List<Change> changesDuringRebuild;
+
+    @Transactional(readOnly = true)
+    public List<SupplierProductResponse> getCatalog(String supplierId) {
+        if (!supplierRepository.existsById(supplierId)) {
+            throw new RuntimeException("Supplier not found");
+        }
+        return supplierProductRepository.findBySupplierIdWithProduct(supplierId).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public SupplierProductResponse upsert(String supplierId, SupplierProductRequest request) {
+        Supplier supplier = supplierRepository.findById(supplierId)
+                .orElseThrow(() -> new RuntimeException("Supplier not found"));
+        Product product = productRepository.findById(request.getProductId())
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+
+        SupplierProduct entry = supplierProductRepository.findBySupplierIdAndProductId(supplierId, product.getId())
+                .orElseGet(() -> SupplierProduct.builder().supplier(supplier).product(product).build());
+        entry.setSupplierSku(request.getSupplierSku());
+        entry.setUnitPrice(request.getUnitPrice());
+        entry.setLeadTimeDays(request.getLeadTimeDays());
+        entry.setMinOrderQuantity(request.getMinOrderQuantity() != null ? request.getMinOrderQuantity() : 1);
+
+        entry = supplierProductRepository.save(entry);
+        changed(new Change(product.getId(), product.getSku(), supplier.getId(), new Offer(supplier.getId(),
+                supplier.getName(), entry.getUnitPrice(), entry.getLeadTimeDays(), entry.getMinOrderQuantity())));
+        return toResponse(entry);
+    }
+
+    @Transactional
+    public void delete(String supplierId, String productId) {
+        SupplierProduct entry = supplierProductRepository.findBySupplierIdAndProductId(supplierId, productId)
+                .orElseThrow(() -> new RuntimeException("Catalog entry not found"));
+        supplierProductRepository.delete(entry);
+        changed(new Change(productId, entry.getProduct().getSku(), supplierId, null));
+    }
+
+    /**
+     * Drop a supplier's catalog. Runs in the supplier deletion transaction.
+     */
+    @Transactional
+    public void deleteBySupplier(String supplierId) {
+        supplierProductRepository.deleteBySupplierId(supplierId);
+        rebuildAfterCommit();
+    }
+
+    /**
+     * Drop every offer for a product. Runs in the product deletion transaction.
+     */
+    @Transactional
+    public void deleteByProduct(String productId) {
+        supplierProductRepository.deleteByProductId(productId);
+        rebuildAfterCommit();
+    }
+
+    /**
+     * Best supplier for each requested SKU / product ID, answered from the in-memory index.
+     */
+    public BestSourceResponse bestSources(BestSourceRequest request) {
+        Strategy strategy = request.getStrategy() != null ? request.getStrategy() : Strategy.CHEAPEST;
+        Index current = index;
+        List<BestSourceResponse.Source> sources = new ArrayList<>();
+        List<String> unsourced = new ArrayList<>();
+
+        if (request.getSkus() != null) {
+            for (String sku : request.getSkus()) {
+                addSource(current.bySku().get(sku), sku, strategy, sources, unsourced);
+            }
+        }
+        if (request.getProductIds() != null) {
+            for (String productId : request.getProductIds()) {
+                addSource(current.byProductId().get(productId), productId, strategy, sources, unsourced);
+            }
+        }
+
+        return BestSourceResponse.builder()
+                .strategy(strategy)
+                .sources(sources)
+                .unsourced(unsourced)
+                .build();
+    }
+
+    /**
+     * Best offer for a product, or null when no supplier lists it.
+     */
+    public Offer bestOffer(String productId, Strategy strategy) {
+        Listing listing = index.byProductId().get(productId);
+        return listing != null ? listing.best(strategy) : null;
+    }
+
+    /**
+     * A specific supplier's offer for a product, or null.
+     */
+    public Offer offer(String supplierId, String productId) {
+        Listing listing = index.byProductId().get(productId);
+        if (listing == null) {
+            return null;
+        }
+        for (Offer offer : listing.offers()) {
+            if (offer.supplierId().equals(supplierId)) {
+                return offer;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Rebuild the index once the current transaction commits (or now, outside one).
+     */
+    public void rebuildAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rebuild();
+                }
+            });
+        } else {
+            rebuild();
+        }
+    }
+
+    /**
+     * Load the whole catalog into a fresh index and swap it in.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (writeLock) {
+                changesDuringRebuild = new ArrayList<>();
+            }
+            try {
+                long started = System.currentTimeMillis();
+                Map<String, List<Offer>> offersByProduct = new HashMap<>();
+                Map<String, String> skuByProduct = new HashMap<>();
+                List<Object[]> rows = supplierProductRepository.findIndexRows();
+                for (Object[] row : rows) {
+                    String productId = (String) row[0];
+                    skuByProduct.put(productId, (String) row[1]);
+                    offersByProduct.computeIfAbsent(productId, k -> new ArrayList<>(2)).add(new Offer((String) row[2],
+                            (String) row[3], (BigDecimal) row[4], (Integer) row[5], (Integer) row[6]));
+                }
+
+                Map<String, Listing> byProductId = new HashMap<>(offersByProduct.size() * 2);
+                Map<String, Listing> bySku = new HashMap<>(offersByProduct.size() * 2);
+                for (Map.Entry<String, List<Offer>> entry : offersByProduct.entrySet()) {
+                    Listing listing = listing(entry.getKey(), skuByProduct.get(entry.getKey()), entry.getValue());
+                    byProductId.put(entry.getKey(), listing);
+                    bySku.put(listing.sku(), listing);
+                }
+
+                synchronized (writeLock) {
+                    // The rows may predate these; applying one again is harmless
+                    for (Change change : changesDuringRebuild) {
+                        applyTo(byProductId, bySku, change);
+                    }
+                    index = new Index(byProductId, bySku);
+                }
+                builtAt = started;
+                log.info("Supplier catalog index: {} offers for {} products in {} ms",
+                        rows.size(), byProductId.size(), System.currentTimeMillis() - started);
+            } finally {
+                synchronized (writeLock) {
+                    changesDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reload the catalog once the index is max-age-ms old, for writes this instance did not see.
+     */
+    @Scheduled(fixedDelayString = "${catalog.index.refresh-ms:60000}")
+    public void rebuildIfStale() {
+        if (builtAt == 0 || System.currentTimeMillis() - builtAt < maxAgeMs) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Supplier catalog index: reload failed, keeping the current index", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    private void changed(Change change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+        dataVersionService.bump(Aggregate.SUPPLIERS);
+    }
+
+    private void apply(Change change) {
+        synchronized (writeLock) {
+            Index current = index;
+            Map<String, Listing> byProductId = new HashMap<>(current.byProductId());
+            Map<String, Listing> bySku = new HashMap<>(current.bySku());
+            applyTo(byProductId, bySku, change);
+            index = new Index(byProductId, bySku);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        }
+    }
+
+    private static void applyTo(Map<String, Listing> byProductId, Map<String, Listing> bySku, Change change) {
+        Listing previous = byProductId.get(change.productId());
+        List<Offer> offers = new ArrayList<>();
+        if (previous != null) {
+            bySku.remove(previous.sku());
+            previous.offers().stream()
+                    .filter(offer -> !offer.supplierId().equals(change.supplierId()))
+                    .forEach(offers::add);
+        }
+        if (change.offer() != null) {
+            offers.add(change.offer());
+        }
+        if (offers.isEmpty()) {
+            byProductId.remove(change.productId());
+            return;
+        }
+        Listing listing = listing(change.productId(), change.sku(), offers);
+        byProductId.put(change.productId(), listing);
+        bySku.put(listing.sku(), listing);
+    }
+
+    private static Listing listing(String productId, String sku, List<Offer> offers) {
+        List<Offer> copy = List.copyOf(offers);
+        return new Listing(productId, sku, copy, copy.stream().min(CHEAPEST).orElseThrow(),
+                copy.stream().min(FASTEST).orElseThrow());
+    }
+
+    private void addSource(Listing listing, String requested, Strategy strategy,
+                           List<BestSourceResponse.Source> sources, List<String> unsourced) {
+        if (listing == null) {
+            unsourced.add(requested);
+            return;
+        }
+        Offer best = listing.best(strategy);
+        sources.add(BestSourceResponse.Source.builder()
+                .productId(listing.productId())
+                .sku(listing.sku())
+                .supplierId(best.supplierId())
+                .supplierName(best.supplierName())
+                .unitPrice(best.unitPrice())
+                .leadTimeDays(best.leadTimeDays())
+                .minOrderQuantity(best.minOrderQuantity())
+                .offers(listing.offers().size())
+                .build());
+    }
+
+    private SupplierProductResponse toResponse(SupplierProduct entry) {
+        return SupplierProductResponse.builder()
+                .id(entry.getId())
+                .supplierId(entry.getSupplier().getId())
+                .productId(entry.getProduct().getId())
+                .productSku(entry.getProduct().getSku())
+                .productName(entry.getProduct().getName())
+                .supplierSku(entry.getSupplierSku())
+                .unitPrice(entry.getUnitPrice())
+                .leadTimeDays(entry.getLeadTimeDays())
+                .minOrderQuantity(entry.getMinOrderQuantity())
+                .updatedAt(entry.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,123 @@
+package com.smartsupply.service;
+
+import com.smartsupply.dto.SupplierPerformanceResponse;
+import com.smartsupply.entity.PurchaseOrder;
+import com.smartsupply.entity.PurchaseOrderItem;
+import com.smartsupply.entity.SupplierPerformance;
+import com.smartsupply.repository.SupplierPerformanceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * SupplierPerformanceService - Supplier scorecards kept up to date by PO receipts.
+ *
+ * Each receipt folds its lead time, delay and line prices into Welford accumulators on the
+ * supplier's row, so reading a scorecard is a single-row lookup.
+ */
+@Service
+@RequiredArgsConstructor
+public class SupplierPerformanceService {
+
+    private final SupplierPerformanceRepository performanceRepository;
+
+    public record ReceivedLine(PurchaseOrderItem item, int quantity) {
+    }
+
+    @Transactional(readOnly = true)
+    public SupplierPerformanceResponse getPerformance(String supplierId) {
+        return performanceRepository.findBySupplierId(supplierId)
+                .map(this::toResponse)
+                .orElseThrow(() -> new RuntimeException("Supplier performance not found"));
+    }
+
+    @Transactional(readOnly = true)
+    public List<SupplierPerformanceResponse> getAllPerformance() {
+        return performanceRepository.findAllWithSupplier().stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Fold one receipt into the supplier's statistics. Runs in the receiving transaction.
+     * The row is created up front, so concurrent first receipts for a supplier both end up
+     * waiting on the same row lock instead of racing to insert it.
+     *
+     * @param received       PO lines and quantities received in this receipt
+     * @param firstReceipt   whether the order had no receipts before this one
+     */
+    @Transactional
+    public void recordReceipt(PurchaseOrder order, List<ReceivedLine> received,
+                              boolean firstReceipt, LocalDateTime receivedAt) {
+        String supplierId = order.getSupplier().getId();
+        performanceRepository.insertIfAbsent(UUID.randomUUID().toString(), supplierId);
+        SupplierPerformance performance = performanceRepository.findBySupplierIdForUpdate(supplierId)
+                .orElseThrow(() -> new RuntimeException("Supplier performance not found"));
+
+        performance.setReceipts(performance.getReceipts() + 1);
+
+        if (order.getCreatedAt() != null) {
+            double leadDays = Duration.between(order.getCreatedAt(), receivedAt).toMinutes() / 1440.0;
+            performance.getLeadTimeDays().add(leadDays);
+        }
+
+        if (order.getExpectedDate() != null) {
+            long delay = ChronoUnit.DAYS.between(order.getExpectedDate(), receivedAt.toLocalDate());
+            performance.getDelayDays().add(delay);
+            performance.setDatedReceipts(performance.getDatedReceipts() + 1);
+            if (delay <= 0) {
+                performance.setOnTimeReceipts(performance.getOnTimeReceipts() + 1);
+            }
+        }
+
+        if (firstReceipt) {
+            long ordered = order.getItems().stream().mapToLong(PurchaseOrderItem::getQuantityOrdered).sum();
+            performance.setUnitsOrdered(performance.getUnitsOrdered() + ordered);
+        }
+
+        for (ReceivedLine line : received) {
+            performance.setUnitsReceived(performance.getUnitsReceived() + line.quantity());
+            BigDecimal listPrice = line.item().getProduct().getPrice();
+            if (listPrice != null && listPrice.signum() > 0) {
+                double variance = line.item().getUnitPrice().subtract(listPrice)
+                        .divide(listPrice, 6, RoundingMode.HALF_UP)
+                        .doubleValue();
+                performance.getPriceVariance().add(variance);
+            }
+        }
+
+        performanceRepository.save(performance);
+    }
+
+    @Transactional
+    public void deleteBySupplier(String supplierId) {
+        performanceRepository.deleteBySupplierId(supplierId);
+    }
+
+    private SupplierPerformanceResponse toResponse(SupplierPerformance performance) {
+        return SupplierPerformanceResponse.builder()
+                .supplierId(performance.getSupplier().getId())
+                .supplierName(performance.getSupplier().getName())
+                .receipts(performance.getReceipts())
+                .avgLeadTimeDays(performance.getLeadTimeDays().meanOrNull())
+                .leadTimeStdDevDays(performance.getLeadTimeDays().stdDevOrNull())
+                .avgDelayDays(performance.getDelayDays().meanOrNull())
+                .onTimeRate(performance.getDatedReceipts() > 0
+                        ? (double) performance.getOnTimeReceipts() / performance.getDatedReceipts() : null)
+                .fillRate(performance.getUnitsOrdered() > 0
+                        ? (double) performance.getUnitsReceived() / performance.getUnitsOrdered() : null)
+                .avgPriceVariance(performance.getPriceVariance().meanOrNull())
+                .priceVarianceStdDev(performance.getPriceVariance().stdDevOrNull())
+                .updatedAt(performance.getUpdatedAt())
+                .build();
+    }
+}
@@ -4,8 +4,10 @@ import com.smartsupply.dto.CreateSupplierRequest;
 import com.smartsupply.dto.SupplierResponse;
 import com.smartsupply.entity.Supplier;
 import com.smartsupply.repository.SupplierRepository;
+import com.smartsupply.service.DataVersionService.Aggregate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -15,6 +17,10 @@ import java.util.stream.Collectors;
 public class SupplierService {
 
     private final SupplierRepository supplierRepository;
+    private final DataVersionService dataVersionService;
+    private final SupplierPerformanceService supplierPerformanceService;
+    private final SupplierCatalogService supplierCatalogService;
+    private final SearchSuggestService searchSuggestService;
 
     public List<SupplierResponse> getAllSuppliers() {
         return supplierRepository.findAll().stream()
@@ -34,6 +40,7 @@ public class SupplierService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional
     public SupplierResponse createSupplier(CreateSupplierRequest request) {
         if (request.getEmail() != null && supplierRepository.existsByEmail(request.getEmail())) {
             throw new RuntimeException("Supplier with this email already exists");
@@ -48,13 +55,17 @@ public class SupplierService {
                 .build();
 
         supplier = supplierRepository.save(supplier);
+        searchSuggestService.supplierChanged(supplier.getId(), supplier.getName());
+        dataVersionService.bump(Aggregate.SUPPLIERS);
         return toResponse(supplier);
     }
 
+    @Transactional
     public SupplierResponse updateSupplier(String id, CreateSupplierRequest request) {
         Supplier supplier = supplierRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Supplier not found"));
 
+        boolean renamed = !supplier.getName().equals(request.getName());
         supplier.setName(request.getName());
         supplier.setEmail(request.getEmail());
         supplier.setPhone(request.getPhone());
@@ -62,14 +73,25 @@ public class SupplierService {
         supplier.setContactPerson(request.getContactPerson());
 
         supplier = supplierRepository.save(supplier);
+        if (renamed) {
+            // The sourcing index carries supplier names
+            supplierCatalogService.rebuildAfterCommit();
+            searchSuggestService.supplierChanged(supplier.getId(), supplier.getName());
+        }
+        dataVersionService.bump(Aggregate.SUPPLIERS);
         return toResponse(supplier);
     }
 
+    @Transactional
     public void deleteSupplier(String id) {
         if (!supplierRepository.existsById(id)) {
             throw new RuntimeException("Supplier not found");
         }
+        supplierPerformanceService.deleteBySupplier(id);
+        supplierCatalogService.deleteBySupplier(id);
         supplierRepository.deleteById(id);
+        searchSuggestService.supplierRemoved(id);
+        dataVersionService.bump(Aggregate.SUPPLIERS);
     }
 
     private SupplierResponse toResponse(Supplier supplier) {
@@ -0,0 +1,80 @@
+package com.smartsupply.service;
+
+import com.smartsupply.dto.WarehouseUtilizationResponse;
+import com.smartsupply.repository.WarehouseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * WarehouseCapacityService - Keeps warehouses.used_units in step with inventory quantities.
+ *
+ * Every stock change moves the counter with a single UPDATE inside the caller's transaction.
+ * Receipts and transfers use the conditional form, so two concurrent receipts can never both
+ * squeeze into the last free units. Adjustments and stock counts are recorded unconditionally:
+ * they describe what is physically there.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WarehouseCapacityService {
+
+    private final WarehouseRepository warehouseRepository;
+
+    /**
+     * Add units to a warehouse, failing if they exceed its capacity. Negative units always succeed.
+     */
+    public void addWithinCapacity(String warehouseId, int units) {
+        if (units <= 0) {
+            add(warehouseId, units);
+            return;
+        }
+        if (warehouseRepository.addUsedUnitsWithinCapacity(warehouseId, units) == 0) {
+            throw new RuntimeException("Warehouse capacity exceeded: cannot add " + units + " units");
+        }
+    }
+
+    public void add(String warehouseId, int units) {
+        if (units != 0) {
+            warehouseRepository.addUsedUnits(warehouseId, units);
+        }
+    }
+
+    /**
+     * Rebuild every counter from inventory_items (startup, bulk deletes, bulk loads).
+     */
+    @Transactional
+    public void recalculate() {
+        int warehouses = warehouseRepository.recalculateUsedUnits();
+        log.info("Warehouse utilization recalculated for {} warehouses", warehouses);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void recalculateOnStartup() {
+        recalculate();
+    }
+
+    public List<WarehouseUtilizationResponse> getUtilization() {
+        return warehouseRepository.findUtilizationRows().stream()
+                .map(row -> {
+                    Integer capacity = row[2] != null ? ((Number) row[2]).intValue() : null;
+                    int used = ((Number) row[3]).intValue();
+                    return WarehouseUtilizationResponse.builder()
+                            .warehouseId((String) row[0])
+                            .warehouseName((String) row[1])
+                            .capacity(capacity)
+                            .usedUnits(used)
+                            .freeUnits(capacity != null ? capacity - used : null)
+                            .utilization(capacity != null && capacity > 0 ? (double) used / capacity : null)
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+}
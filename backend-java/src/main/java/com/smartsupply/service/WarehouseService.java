@@ -5,8 +5,10 @@ import com.smartsupply.dto.WarehouseResponse;
 import com.smartsupply.entity.Warehouse;
 import com.smartsupply.entity.WarehouseType;
 import com.smartsupply.repository.WarehouseRepository;
+import com.smartsupply.service.DataVersionService.Aggregate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -16,6 +18,8 @@ import java.util.stream.Collectors;
 public class WarehouseService {
 
     private final WarehouseRepository warehouseRepository;
+    private final DataVersionService dataVersionService;
+    private final SearchSuggestService searchSuggestService;
 
     public List<WarehouseResponse> getAllWarehouses() {
         return warehouseRepository.findAll().stream()
@@ -36,6 +40,7 @@ public class WarehouseService {
         return toResponse(warehouse);
     }
 
+    @Transactional
     public WarehouseResponse createWarehouse(CreateWarehouseRequest request) {
         if (warehouseRepository.existsByName(request.getName())) {
             throw new RuntimeException("Warehouse with name '" + request.getName() + "' already exists");
@@ -49,9 +54,12 @@ public class WarehouseService {
                 .build();
 
         warehouse = warehouseRepository.save(warehouse);
+        searchSuggestService.warehouseChanged(warehouse.getId(), warehouse.getName());
+        dataVersionService.bump(Aggregate.WAREHOUSES);
         return toResponse(warehouse);
     }
 
+    @Transactional
     public WarehouseResponse updateWarehouse(String id, CreateWarehouseRequest request) {
         Warehouse warehouse = warehouseRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Warehouse not found"));
@@ -66,14 +74,19 @@ public class WarehouseService {
         }
 
         warehouse = warehouseRepository.save(warehouse);
+        searchSuggestService.warehouseChanged(warehouse.getId(), warehouse.getName());
+        dataVersionService.bump(Aggregate.WAREHOUSES, Aggregate.INVENTORY);
         return toResponse(warehouse);
     }
 
+    @Transactional
     public void deleteWarehouse(String id) {
         if (!warehouseRepository.existsById(id)) {
             throw new RuntimeException("Warehouse not found");
         }
         warehouseRepository.deleteById(id);
+        searchSuggestService.warehouseRemoved(id);
+        dataVersionService.bump(Aggregate.WAREHOUSES, Aggregate.INVENTORY);
     }
 
     private WarehouseResponse toResponse(Warehouse warehouse) {
@@ -0,0 +1,144 @@
+-- Baseline: the schema as Hibernate's ddl-auto: update produced it.
+-- Every statement is IF NOT EXISTS, so databases created by ddl-auto (or whose users table
+-- came from Prisma) go through this script unchanged.
+
+-- users is shared with the NestJS backend and owned by its Prisma migrations
+CREATE TABLE IF NOT EXISTS users (
+    id            varchar(255) PRIMARY KEY,
+    email         varchar(255) NOT NULL UNIQUE,
+    password_hash varchar(255) NOT NULL,
+    first_name    varchar(255) NOT NULL,
+    last_name     varchar(255) NOT NULL,
+    role          varchar(255) NOT NULL,
+    created_at    timestamp(6),
+    updated_at    timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS suppliers (
+    id             varchar(255) PRIMARY KEY,
+    name           varchar(255) NOT NULL,
+    email          varchar(255) UNIQUE,
+    phone          varchar(255),
+    address        varchar(255),
+    contact_person varchar(255),
+    created_at     timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS products (
+    id           varchar(255) PRIMARY KEY,
+    sku          varchar(255) NOT NULL UNIQUE,
+    name         varchar(255) NOT NULL,
+    category     varchar(255),
+    price        numeric(10, 2),
+    safety_stock integer,
+    created_at   timestamp(6),
+    updated_at   timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS warehouses (
+    id         varchar(255) PRIMARY KEY,
+    name       varchar(255) NOT NULL,
+    location   varchar(255),
+    type       varchar(255) NOT NULL,
+    capacity   integer,
+    used_units integer NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS inventory_items (
+    id           varchar(255) PRIMARY KEY,
+    product_id   varchar(255) NOT NULL REFERENCES products (id),
+    warehouse_id varchar(255) NOT NULL REFERENCES warehouses (id),
+    quantity     integer NOT NULL,
+    reserved     integer NOT NULL,
+    last_updated timestamp(6),
+    UNIQUE (product_id, warehouse_id)
+);
+
+CREATE TABLE IF NOT EXISTS inventory_movements (
+    id                   varchar(255) PRIMARY KEY,
+    inventory_item_id    varchar(255) NOT NULL REFERENCES inventory_items (id),
+    movement_type        varchar(255) NOT NULL,
+    quantity             integer NOT NULL,
+    quantity_before      integer,
+    quantity_after       integer,
+    reason               varchar(500),
+    reference_type       varchar(255),
+    reference_id         varchar(255),
+    performed_by_user_id varchar(255) REFERENCES users (id),
+    created_at           timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS purchase_orders (
+    id                 varchar(255) PRIMARY KEY,
+    order_number       varchar(255) NOT NULL UNIQUE,
+    supplier_id        varchar(255) NOT NULL REFERENCES suppliers (id),
+    created_by_user_id varchar(255) REFERENCES users (id),
+    status             varchar(255) NOT NULL,
+    total_amount       numeric(12, 2),
+    expected_date      date,
+    created_at         timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS purchase_order_items (
+    id                varchar(255) PRIMARY KEY,
+    purchase_order_id varchar(255) NOT NULL REFERENCES purchase_orders (id),
+    product_id        varchar(255) NOT NULL REFERENCES products (id),
+    quantity_ordered  integer NOT NULL,
+    quantity_received integer,
+    unit_price        numeric(10, 2) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS demand_forecasts (
+    id                   varchar(255) PRIMARY KEY,
+    inventory_item_id    varchar(255) NOT NULL UNIQUE REFERENCES inventory_items (id),
+    method               varchar(255) NOT NULL,
+    daily_forecast       float(53) NOT NULL,
+    ses_level            float(53) NOT NULL,
+    croston_size         float(53) NOT NULL,
+    croston_interval     float(53) NOT NULL,
+    periods_since_demand integer NOT NULL,
+    observations         integer NOT NULL,
+    demand_observations  integer NOT NULL,
+    last_observed_date   date,
+    updated_at           timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS supplier_performance (
+    id                   varchar(255) PRIMARY KEY,
+    supplier_id          varchar(255) NOT NULL UNIQUE REFERENCES suppliers (id),
+    receipts             bigint NOT NULL,
+    dated_receipts       bigint NOT NULL,
+    on_time_receipts     bigint NOT NULL,
+    units_ordered        bigint NOT NULL,
+    units_received       bigint NOT NULL,
+    lead_time_count      bigint NOT NULL,
+    lead_time_mean       float(53) NOT NULL,
+    lead_time_m2         float(53) NOT NULL,
+    delay_count          bigint NOT NULL,
+    delay_mean           float(53) NOT NULL,
+    delay_m2             float(53) NOT NULL,
+    price_variance_count bigint NOT NULL,
+    price_variance_mean  float(53) NOT NULL,
+    price_variance_m2    float(53) NOT NULL,
+    updated_at           timestamp(6)
+);
+
+CREATE SEQUENCE IF NOT EXISTS outbox_event_seq START WITH 1 INCREMENT BY 1;
+-- Created by Hibernate with INCREMENT BY 50 before Flyway; pooled ids broke per-aggregate order
+ALTER SEQUENCE outbox_event_seq INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id             bigint PRIMARY KEY,
+    aggregate_type varchar(32) NOT NULL,
+    aggregate_id   varchar(255) NOT NULL,
+    event_type     varchar(64) NOT NULL,
+    payload        text NOT NULL,
+    created_at     timestamp(6)
+);
+
+-- Databases created before capacity tracking have warehouses without used_units. The counter
+-- is set from the stock held, which is also what it already holds everywhere else.
+ALTER TABLE warehouses
+    ADD COLUMN IF NOT EXISTS used_units integer NOT NULL DEFAULT 0;
+UPDATE warehouses w SET used_units =
+    COALESCE((SELECT SUM(i.quantity) FROM inventory_items i WHERE i.warehouse_id = w.id), 0);
@@ -0,0 +1,66 @@
+-- One index per repository access path. Primary keys and unique constraints already cover
+-- the id lookups, keyset pages (ORDER BY id), users.email, products.sku,
+-- purchase_orders.order_number, inventory_items (product_id, warehouse_id),
+-- demand_forecasts.inventory_item_id and supplier_performance.supplier_id.
+
+-- InventoryItemRepository.findByWarehouseId, movements/forecasts by warehouse (joined through items)
+CREATE INDEX IF NOT EXISTS idx_inventory_items_warehouse
+    ON inventory_items (warehouse_id);
+
+-- InventoryMovementRepository.findByInventoryItemId / deleteByInventoryItemId, findByProductId
+-- (nested loop from items), sumQuantityByItemSince and sumDailyOutByItem - the last two are
+-- answered from the index alone thanks to the INCLUDE column. Also serves movement_type
+-- filters, which always come with an item list.
+CREATE INDEX IF NOT EXISTS idx_inventory_movements_item_type_created
+    ON inventory_movements (inventory_item_id, movement_type, created_at) INCLUDE (quantity);
+
+-- InventoryMovementRepository.findByMovementType for the types that are a small share of the
+-- movements (ADJUSTMENT, TRANSFER); for IN/OUT a sequential scan is the cheaper plan anyway
+CREATE INDEX IF NOT EXISTS idx_inventory_movements_type_created
+    ON inventory_movements (movement_type, created_at);
+
+-- InventoryMovementRepository.findByDateRange
+CREATE INDEX IF NOT EXISTS idx_inventory_movements_created
+    ON inventory_movements (created_at);
+
+-- InventoryMovementRepository.findByReferenceTypeAndReferenceId
+CREATE INDEX IF NOT EXISTS idx_inventory_movements_reference
+    ON inventory_movements (reference_type, reference_id);
+
+-- PurchaseOrderRepository.findBySupplierId
+CREATE INDEX IF NOT EXISTS idx_purchase_orders_supplier
+    ON purchase_orders (supplier_id);
+
+-- PurchaseOrderRepository.findByStatus (pages are sorted by creation date)
+CREATE INDEX IF NOT EXISTS idx_purchase_orders_status_created
+    ON purchase_orders (status, created_at);
+
+-- PurchaseOrderRepository.findByCreatedById
+CREATE INDEX IF NOT EXISTS idx_purchase_orders_created_by
+    ON purchase_orders (created_by_user_id);
+
+-- PurchaseOrderItemRepository.findByPurchaseOrderId, PurchaseOrder.items
+CREATE INDEX IF NOT EXISTS idx_purchase_order_items_order
+    ON purchase_order_items (purchase_order_id);
+
+-- PurchaseOrderItemRepository.findByProductId / findSupplierHistoryForProducts
+CREATE INDEX IF NOT EXISTS idx_purchase_order_items_product
+    ON purchase_order_items (product_id);
+
+-- Substring searches ('%term%') can only use trigram indexes; the expressions match the SQL
+-- Hibernate generates (upper() for derived ContainingIgnoreCase, lower() for the JPQL searches)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- ProductRepository.findByNameContainingIgnoreCase / findBySkuContainingIgnoreCaseOr...
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm
+    ON products USING gin (upper(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_products_sku_trgm
+    ON products USING gin (upper(sku) gin_trgm_ops);
+
+-- SupplierRepository.searchByName
+CREATE INDEX IF NOT EXISTS idx_suppliers_name_trgm
+    ON suppliers USING gin (lower(name) gin_trgm_ops);
+
+-- PurchaseOrderRepository.searchByOrderNumberOrSupplier (order number side)
+CREATE INDEX IF NOT EXISTS idx_purchase_orders_number_trgm
+    ON purchase_orders USING gin (lower(order_number) gin_trgm_ops);
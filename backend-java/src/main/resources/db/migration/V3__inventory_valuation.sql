@@ -0,0 +1,4 @@
+-- Weighted-average cost basis per inventory item; filled for existing stock by
+-- POST /inventory/valuation/backfill
+ALTER TABLE inventory_items
+    ADD COLUMN IF NOT EXISTS stock_value numeric(19, 4) NOT NULL DEFAULT 0;
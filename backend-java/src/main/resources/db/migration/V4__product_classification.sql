@@ -0,0 +1,9 @@
+-- ABC/XYZ classes written by the classification job (ProductClassificationService)
+ALTER TABLE products
+    ADD COLUMN IF NOT EXISTS abc_class varchar(1),
+    ADD COLUMN IF NOT EXISTS xyz_class varchar(1),
+    ADD COLUMN IF NOT EXISTS classified_at timestamp(6);
+
+-- ProductRepository.findByClass (list filter)
+CREATE INDEX IF NOT EXISTS idx_products_abc_xyz
+    ON products (abc_class, xyz_class);
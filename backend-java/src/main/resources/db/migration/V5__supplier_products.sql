@@ -0,0 +1,17 @@
+-- Supplier catalog: what each supplier sells, at what price, lead time and minimum order
+CREATE TABLE IF NOT EXISTS supplier_products (
+    id                 varchar(255) PRIMARY KEY,
+    supplier_id        varchar(255) NOT NULL REFERENCES suppliers (id),
+    product_id         varchar(255) NOT NULL REFERENCES products (id),
+    supplier_sku       varchar(255),
+    unit_price         numeric(12, 2) NOT NULL,
+    lead_time_days     integer NOT NULL,
+    min_order_quantity integer NOT NULL,
+    created_at         timestamp(6),
+    updated_at         timestamp(6),
+    CONSTRAINT uq_supplier_products_supplier_product UNIQUE (supplier_id, product_id)
+);
+
+-- SupplierProductRepository.deleteByProductId; the unique constraint covers the supplier side
+CREATE INDEX IF NOT EXISTS idx_supplier_products_product
+    ON supplier_products (product_id);
@@ -0,0 +1,164 @@
+package com.smartsupply.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.JdbcTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private DataSource dataSource;
+    private JdbcTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        primary = mock(DataSource.class);
+        replica = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        route(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void separateTransactionsAreRoutedOnTheirOwn() throws Exception {
+        // A read-only transaction before a write in the same request still goes to the replica
+        readOnly().executeWithoutResult(status -> statement());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> statement());
+
+        verify(replicaConnection, times(1)).createStatement();
+        verify(primaryConnection, times(1)).createStatement();
+    }
+
+    @Test
+    void readsInsideWriteTransactionGoToPrimary() throws Exception {
+        // e.g. ProductService.updateProduct: findById and existsBySku join its transaction, then save
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            readOnly().executeWithoutResult(read -> statement());
+            statement();
+        });
+
+        verify(primaryConnection, times(2)).createStatement();
+        verify(replicaConnection, never()).createStatement();
+    }
+
+    @Test
+    void userReadsFromPrimaryForStickyWindowAfterWriting() throws Exception {
+        route(60_000);
+
+        authenticate("writer@smartsupply.local");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> statement());
+        readOnly().executeWithoutResult(status -> statement());
+
+        verify(primaryConnection, times(2)).createStatement();
+        verify(replicaConnection, never()).createStatement();
+
+        // Another user's reads are not affected
+        authenticate("reader@smartsupply.local");
+        readOnly().executeWithoutResult(status -> statement());
+        verify(replicaConnection, times(1)).createStatement();
+    }
+
+    @Test
+    void userReadsFromReplicaAgainOnceStickyWindowHasPassed() throws Exception {
+        authenticate("writer@smartsupply.local");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> statement());
+        readOnly().executeWithoutResult(status -> statement());
+
+        verify(primaryConnection, times(1)).createStatement();
+        verify(replicaConnection, times(1)).createStatement();
+    }
+
+    @Test
+    void readsOnPrimaryDoNotPinTheUser() throws Exception {
+        route(60_000);
+
+        // e.g. CatalogJsonCache building an entry every user will get
+        authenticate("reader@smartsupply.local");
+        ReplicaRoutingDataSource.onPrimary(() -> readOnly().execute(status -> {
+            statement();
+            return null;
+        }));
+        readOnly().executeWithoutResult(status -> statement());
+
+        verify(primaryConnection, times(1)).createStatement();
+        verify(replicaConnection, times(1)).createStatement();
+    }
+
+    @Test
+    void writeWithoutReplicaReadNeverTouchesReplica() throws Exception {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> statement());
+
+        verify(primaryConnection, times(1)).createStatement();
+        verify(replicaConnection, never()).createStatement();
+    }
+
+    @Test
+    void hibernateReleasesConnectionsAfterEachTransaction() {
+        Map<String, Object> properties = new HashMap<>();
+        new ReplicaDataSourceConfig().replicaConnectionHandling().customize(properties);
+
+        // Without this, open-in-view pins the request's first connection (possibly the replica)
+        assertThat(properties).containsEntry("hibernate.connection.handling_mode",
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+
+    private void route(long stickyMillis) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(stickyMillis);
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.PRIMARY, primary,
+                ReplicaRoutingDataSource.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        dataSource = new LazyConnectionDataSourceProxy(routing);
+        transactionManager = new JdbcTransactionManager(dataSource);
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate read = new TransactionTemplate(transactionManager);
+        read.setReadOnly(true);
+        return read;
+    }
+
+    private void authenticate(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+
+    private void statement() {
+        try {
+            DataSourceUtils.getConnection(dataSource).createStatement();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.smartsupply.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * EXPLAINs the SQL behind each repository query against an existing database.
+ *
+ * Fails if any plan contains a sequential scan of a table with more than
+ * explain.max-seq-scan-rows rows, i.e. a query the indexes in db/migration do not cover.
+ * A scan is accepted when the plan expects to return more than explain.max-selective-share
+ * of that table (e.g. findByMovementType(OUT)): then reading the whole table is the right plan.
+ * The statements mirror what Hibernate generates for the repository methods, with sample
+ * parameters taken from the data itself.
+ *
+ * A scan that feeds a LIMIT directly (an unsorted page) stops after the page and is accepted too.
+ * Whole-table loads (typeahead and AI retrieval rows) are listed so a change to them shows up
+ * here; they pass by the share rule.
+ *
+ * Left out on purpose - they read a large share of a table however it is indexed:
+ * findAll, unpaged findByStatus, low/out-of-stock lists, the top-N aggregates, and the OR
+ * searches that span a join.
+ *
+ * Skipped unless pointed at a database, usually one seeded by the loadtest profile:
+ *   mvn test -Dtest=QueryPlanCheckTest -Dexplain.url=jdbc:postgresql://localhost:5432/smartsupply \
+ *       -Dexplain.username=postgres -Dexplain.password=postgres
+ */
+@EnabledIfSystemProperty(named = "explain.url", matches = ".+")
+@Slf4j
+class QueryPlanCheckTest {
+
+    private record Check(String name, String sql, List<Object> params) {
+    }
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+            System.getProperty("explain.url"), System.getProperty("explain.username"),
+            System.getProperty("explain.password")));
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final long maxSeqScanRows = Long.getLong("explain.max-seq-scan-rows", 10_000);
+    private final double maxSelectiveShare =
+            Double.parseDouble(System.getProperty("explain.max-selective-share", "0.2"));
+
+    @Test
+    void repositoryQueriesDoNotScanLargeTables() throws Exception {
+        jdbcTemplate.execute("ANALYZE");
+
+        List<Check> checks = buildChecks();
+        assumeFalse(checks.isEmpty(),
+                "No data to EXPLAIN against - seed the database first (e.g. the loadtest profile)");
+
+        Map<String, Long> tableRows = tableRows();
+        List<String> failures = new ArrayList<>();
+        for (Check check : checks) {
+            String json = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + check.sql(), String.class,
+                    check.params().toArray());
+            JsonNode plan = objectMapper.readTree(json).get(0).get("Plan");
+
+            Set<String> seqScans = new LinkedHashSet<>();
+            collectSeqScans(plan, false, seqScans);
+            double planRows = plan.get("Plan Rows").asDouble();
+            List<String> large = seqScans.stream()
+                    .filter(table -> tableRows.getOrDefault(table, 0L) > maxSeqScanRows)
+                    .filter(table -> planRows <= maxSelectiveShare * tableRows.get(table))
+                    .toList();
+
+            log.info("{} - cost {}, {} rows, seq scans {}", check.name(), plan.get("Total Cost").asDouble(),
+                    (long) planRows, seqScans);
+            if (!large.isEmpty()) {
+                failures.add(check.name() + " scans " + large);
+                log.error("{} plan:\n{}", check.name(), plan.toPrettyString());
+            }
+        }
+
+        assertThat(failures).as("Sequential scans of large tables").isEmpty();
+        log.info("Query plans OK - {} queries, no sequential scans over {} rows", checks.size(), maxSeqScanRows);
+    }
+
+    private List<Check> buildChecks() {
+        List<Map<String, Object>> itemRows = jdbcTemplate.queryForList(
+                "SELECT id, product_id, warehouse_id FROM inventory_items LIMIT 50");
+        List<Map<String, Object>> orderRows = jdbcTemplate.queryForList(
+                "SELECT id, order_number, supplier_id, created_by_user_id FROM purchase_orders LIMIT 1");
+        List<Map<String, Object>> productRows = jdbcTemplate.queryForList(
+                "SELECT sku FROM products LIMIT 1");
+        if (itemRows.isEmpty() || orderRows.isEmpty() || productRows.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<String, Object> item = itemRows.get(0);
+        Map<String, Object> order = orderRows.get(0);
+        List<Object> itemIds = itemRows.stream().map(row -> row.get("id")).toList();
+        List<Object> productIds = itemRows.stream().map(row -> row.get("product_id")).distinct().toList();
+        String sku = (String) productRows.get(0).get("sku");
+
+        Timestamp latest = jdbcTemplate.queryForObject("SELECT MAX(created_at) FROM inventory_movements", Timestamp.class);
+        if (latest == null) {
+            latest = new Timestamp(System.currentTimeMillis());
+        }
+        Timestamp dayBefore = Timestamp.valueOf(latest.toLocalDateTime().minusDays(1));
+        Timestamp monthBefore = Timestamp.valueOf(latest.toLocalDateTime().minusDays(30));
+        Timestamp quarterBefore = Timestamp.valueOf(latest.toLocalDateTime().minusDays(90));
+        Timestamp halfYearBefore = Timestamp.valueOf(latest.toLocalDateTime().minusWeeks(26));
+        List<Object> movementIds = jdbcTemplate.queryForList(
+                "SELECT id FROM inventory_movements ORDER BY created_at DESC LIMIT 50", Object.class);
+
+        List<Check> checks = new ArrayList<>();
+
+        // InventoryItemRepository
+        checks.add(check("items.findByProductIdAndWarehouseId",
+                "SELECT * FROM inventory_items WHERE product_id = ? AND warehouse_id = ?",
+                item.get("product_id"), item.get("warehouse_id")));
+        checks.add(check("items.findByProductId",
+                "SELECT * FROM inventory_items WHERE product_id = ?", item.get("product_id")));
+        checks.add(check("items.findByWarehouseId(page)",
+                "SELECT * FROM inventory_items WHERE warehouse_id = ? ORDER BY id LIMIT 20", item.get("warehouse_id")));
+        checks.add(check("items.findPlanningRowsAfter",
+                "SELECT i.id, p.id, p.sku, p.name, p.safety_stock, w.id, w.name, i.quantity, i.reserved " +
+                "FROM inventory_items i JOIN products p ON p.id = i.product_id JOIN warehouses w ON w.id = i.warehouse_id " +
+                "WHERE i.id > ? ORDER BY i.id LIMIT 1000", item.get("id")));
+        checks.add(check("items.findMinimalRows(page)",
+                "SELECT id, product_id, warehouse_id, quantity, reserved FROM inventory_items LIMIT 20"));
+        checks.add(check("items.findSummaryRows(page)",
+                "SELECT i.id, p.id, p.sku, p.name, w.id, w.name, i.quantity, i.reserved " +
+                "FROM inventory_items i JOIN products p ON p.id = i.product_id JOIN warehouses w ON w.id = i.warehouse_id " +
+                "LIMIT 20"));
+        checks.add(check("items.findStockCheckRows",
+                "SELECT p.id, p.sku, p.name, w.id, w.name, i.quantity, w.capacity, w.used_units " +
+                "FROM inventory_items i JOIN products p ON p.id = i.product_id JOIN warehouses w ON w.id = i.warehouse_id " +
+                "WHERE i.id = ?", item.get("id")));
+
+        // InventoryMovementRepository
+        checks.add(check("movements.findByInventoryItemId",
+                "SELECT * FROM inventory_movements WHERE inventory_item_id = ?", item.get("id")));
+        checks.add(check("movements.findByDateRange",
+                "SELECT * FROM inventory_movements WHERE created_at >= ? AND created_at <= ?", dayBefore, latest));
+        checks.add(check("movements.findByProductId",
+                "SELECT m.* FROM inventory_movements m JOIN inventory_items i ON i.id = m.inventory_item_id " +
+                "WHERE i.product_id = ?", item.get("product_id")));
+        checks.add(check("movements.findByWarehouseId",
+                "SELECT m.* FROM inventory_movements m JOIN inventory_items i ON i.id = m.inventory_item_id " +
+                "WHERE i.warehouse_id = ?", item.get("warehouse_id")));
+        // Every type present; the common ones may scan (see max-selective-share), the rare ones must not
+        for (String type : jdbcTemplate.queryForList(
+                "SELECT DISTINCT movement_type FROM inventory_movements", String.class)) {
+            checks.add(check("movements.findByMovementType(" + type + ")",
+                    "SELECT * FROM inventory_movements WHERE movement_type = ?", type));
+        }
+        checks.add(check("movements.findByReferenceTypeAndReferenceId",
+                "SELECT * FROM inventory_movements WHERE reference_type = ? AND reference_id = ?",
+                "PURCHASE_ORDER", order.get("id")));
+        checks.add(check("movements.sumQuantityByItemSince",
+                "SELECT inventory_item_id, SUM(quantity) FROM inventory_movements " +
+                "WHERE movement_type = ? AND created_at >= ? AND inventory_item_id IN (" + placeholders(itemIds) + ") " +
+                "GROUP BY inventory_item_id",
+                concat(List.of("OUT", monthBefore), itemIds)));
+        checks.add(check("movements.sumDailyOutByItem",
+                "SELECT inventory_item_id, CAST(created_at AS date), SUM(quantity) FROM inventory_movements " +
+                "WHERE movement_type = 'OUT' AND created_at >= ? AND created_at < ? " +
+                "AND inventory_item_id IN (" + placeholders(itemIds) + ") " +
+                "GROUP BY inventory_item_id, CAST(created_at AS date)",
+                concat(List.of(monthBefore, latest), itemIds)));
+        checks.add(check("movements.findAnalyticsRowsAfter",
+                "SELECT m.id, m.inventory_item_id, i.product_id, i.warehouse_id, m.movement_type, m.quantity, m.created_at " +
+                "FROM inventory_movements m JOIN inventory_items i ON i.id = m.inventory_item_id " +
+                "WHERE m.id > ? AND m.created_at < ? ORDER BY m.id LIMIT 5000", item.get("id"), latest));
+        checks.add(check("movements.findMinimalRows(page)",
+                "SELECT id, inventory_item_id, movement_type, quantity, created_at FROM inventory_movements " +
+                "ORDER BY created_at DESC LIMIT 20"));
+        checks.add(check("movements.findSummaryRows(page)",
+                "SELECT m.id, i.id, p.sku, p.name, w.name, m.movement_type, m.quantity, m.quantity_before, " +
+                "m.quantity_after, m.reference_type, m.reference_id, m.created_at " +
+                "FROM inventory_movements m JOIN inventory_items i ON i.id = m.inventory_item_id " +
+                "JOIN products p ON p.id = i.product_id JOIN warehouses w ON w.id = i.warehouse_id " +
+                "ORDER BY m.created_at DESC LIMIT 20"));
+        if (!movementIds.isEmpty()) {
+            checks.add(check("movements.findExistingIds",
+                    "SELECT id FROM inventory_movements WHERE id IN (" + placeholders(movementIds) + ")", movementIds));
+        }
+        String summarize = "SELECT CAST(date_trunc(?, m.created_at) AS date) AS period, " +
+                "CASE WHEN ? THEN m.movement_type END AS movement_type, " +
+                "CASE WHEN ? THEN i.product_id END AS product_id, " +
+                "CASE WHEN ? THEN i.warehouse_id END AS warehouse_id, " +
+                "SUM(m.quantity), COUNT(*), " +
+                "SUM(GREATEST(CASE WHEN m.movement_type = 'OUT' THEN -m.quantity ELSE m.quantity END, 0)), " +
+                "SUM(GREATEST(CASE WHEN m.movement_type = 'OUT' THEN m.quantity ELSE -m.quantity END, 0)) " +
+                "FROM inventory_movements m JOIN inventory_items i ON i.id = m.inventory_item_id " +
+                "WHERE m.created_at >= ? AND m.created_at < ? " +
+                "AND (CAST(? AS varchar) IS NULL OR m.movement_type = CAST(? AS varchar)) " +
+                "AND (CAST(? AS varchar) IS NULL OR i.product_id = CAST(? AS varchar)) " +
+                "AND (CAST(? AS varchar) IS NULL OR i.warehouse_id = CAST(? AS varchar)) " +
+                "GROUP BY 1, 2, 3, 4 ORDER BY 2, 3, 4, 1";
+        checks.add(check("movements.summarize(day, 30 days)", summarize,
+                "day", true, false, false, monthBefore, latest, null, null, null, null, null, null));
+        checks.add(check("movements.summarize(day, one product)", summarize,
+                "day", true, false, false, monthBefore, latest, null, null,
+                item.get("product_id"), item.get("product_id"), null, null));
+        checks.add(check("movements.findRetrievalRows",
+                "SELECT m.created_at, m.movement_type, m.quantity, p.name, p.sku, w.name, m.reason, " +
+                "m.reference_type, m.reference_id " +
+                "FROM inventory_movements m JOIN inventory_items i ON i.id = m.inventory_item_id " +
+                "JOIN products p ON p.id = i.product_id JOIN warehouses w ON w.id = i.warehouse_id " +
+                "WHERE m.created_at >= ? ORDER BY m.created_at DESC LIMIT 20000", quarterBefore));
+        // ProductClassificationService: 26 weeks of issues, streamed through a cursor
+        checks.add(check("classification.outMovements",
+                "SELECT i.product_id, m.created_at, m.quantity FROM inventory_movements m " +
+                "JOIN inventory_items i ON i.id = m.inventory_item_id " +
+                "WHERE m.movement_type = 'OUT' AND m.created_at >= ? AND m.created_at < ? " +
+                "ORDER BY m.created_at", halfYearBefore, latest));
+
+        // PurchaseOrderRepository / PurchaseOrderItemRepository
+        checks.add(check("orders.findByOrderNumber",
+                "SELECT * FROM purchase_orders WHERE order_number = ?", order.get("order_number")));
+        checks.add(check("orders.findBySupplierId",
+                "SELECT * FROM purchase_orders WHERE supplier_id = ?", order.get("supplier_id")));
+        checks.add(check("orders.findByStatus(page)",
+                "SELECT * FROM purchase_orders WHERE status = ? ORDER BY created_at DESC LIMIT 20", "SENT"));
+        if (order.get("created_by_user_id") != null) {
+            checks.add(check("orders.findByCreatedById",
+                    "SELECT * FROM purchase_orders WHERE created_by_user_id = ?", order.get("created_by_user_id")));
+        }
+        checks.add(check("orderItems.findByPurchaseOrderId",
+                "SELECT * FROM purchase_order_items WHERE purchase_order_id = ?", order.get("id")));
+        checks.add(check("orderItems.findByProductId",
+                "SELECT * FROM purchase_order_items WHERE product_id = ?", item.get("product_id")));
+        checks.add(check("orderItems.findSupplierHistoryForProducts",
+                "SELECT i.product_id, o.supplier_id, MAX(o.created_at) FROM purchase_order_items i " +
+                "JOIN purchase_orders o ON o.id = i.purchase_order_id WHERE i.product_id IN (" + placeholders(productIds) + ") " +
+                "GROUP BY i.product_id, o.supplier_id",
+                productIds));
+        checks.add(check("orders.findRetrievalRows",
+                "SELECT p.id, p.order_number, s.name, p.status, p.total_amount, p.expected_date, p.created_at, " +
+                "pr.name, i.quantity_ordered, i.quantity_received " +
+                "FROM purchase_orders p JOIN suppliers s ON s.id = p.supplier_id " +
+                "LEFT JOIN purchase_order_items i ON i.purchase_order_id = p.id LEFT JOIN products pr ON pr.id = i.product_id " +
+                "WHERE p.created_at >= ? ORDER BY p.created_at DESC, p.id LIMIT 50000",
+                Timestamp.valueOf(latest.toLocalDateTime().minusDays(365))));
+
+        // SupplierProductRepository
+        List<Map<String, Object>> offerRows = jdbcTemplate.queryForList(
+                "SELECT supplier_id, product_id FROM supplier_products LIMIT 1");
+        if (!offerRows.isEmpty()) {
+            Map<String, Object> offer = offerRows.get(0);
+            checks.add(check("supplierProducts.findBySupplierIdAndProductId",
+                    "SELECT * FROM supplier_products WHERE supplier_id = ? AND product_id = ?",
+                    offer.get("supplier_id"), offer.get("product_id")));
+            checks.add(check("supplierProducts.findBySupplierIdWithProduct",
+                    "SELECT sp.*, p.* FROM supplier_products sp JOIN products p ON p.id = sp.product_id " +
+                    "WHERE sp.supplier_id = ? ORDER BY p.sku", offer.get("supplier_id")));
+            checks.add(check("supplierProducts.deleteByProductId",
+                    "SELECT id FROM supplier_products WHERE product_id = ?", offer.get("product_id")));
+        }
+
+        // ProductRepository / DemandForecastRepository / OutboxEventRepository
+        checks.add(check("products.findBySku",
+                "SELECT * FROM products WHERE sku = ?", sku));
+        checks.add(check("products.findByNameContainingIgnoreCase",
+                "SELECT * FROM products WHERE upper(name) LIKE upper(?) LIMIT 20", "%" + sku + "%"));
+        checks.add(check("products.findBySkuContainingIgnoreCase",
+                "SELECT * FROM products WHERE upper(sku) LIKE upper(?) LIMIT 20", "%" + sku + "%"));
+        checks.add(check("forecasts.findByProductId",
+                "SELECT f.* FROM demand_forecasts f JOIN inventory_items i ON i.id = f.inventory_item_id " +
+                "WHERE i.product_id = ?", item.get("product_id")));
+        checks.add(check("outbox.findOldest",
+                "SELECT * FROM outbox_events ORDER BY id LIMIT 100"));
+
+        // Whole-table loads: SearchSuggestService and AiRetrievalService
+        checks.add(check("products.findSuggestRows", "SELECT id, sku, name FROM products"));
+        checks.add(check("warehouses.findNameRows", "SELECT id, name FROM warehouses"));
+        checks.add(check("suppliers.findNameRows", "SELECT id, name FROM suppliers"));
+        checks.add(check("products.findRetrievalRows",
+                "SELECT id, sku, name, category, price, safety_stock, abc_class, xyz_class FROM products"));
+        checks.add(check("warehouses.findRetrievalRows",
+                "SELECT name, location, type, capacity, used_units FROM warehouses"));
+        checks.add(check("suppliers.findRetrievalRows",
+                "SELECT name, contact_person, email, phone, address FROM suppliers"));
+
+        return checks;
+    }
+
+    private void collectSeqScans(JsonNode node, boolean underLimit, Set<String> tables) {
+        String type = node.path("Node Type").asText();
+        if ("Seq Scan".equals(type) && !underLimit) {
+            tables.add(node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, "Limit".equals(type), tables);
+        }
+    }
+
+    private Map<String, Long> tableRows() {
+        Map<String, Long> rows = new HashMap<>();
+        jdbcTemplate.query("SELECT relname, reltuples::bigint FROM pg_class WHERE relkind = 'r' " +
+                        "AND relnamespace = 'public'::regnamespace",
+                rs -> {
+                    rows.put(rs.getString(1), rs.getLong(2));
+                });
+        return rows;
+    }
+
+    private Check check(String name, String sql, Object... params) {
+        return new Check(name, sql, Arrays.asList(params));
+    }
+
+    private Check check(String name, String sql, List<Object> params) {
+        return new Check(name, sql, params);
+    }
+
+    private String placeholders(List<Object> values) {
+        return String.join(", ", Collections.nCopies(values.size(), "?"));
+    }
+
+    private List<Object> concat(List<Object> first, List<Object> second) {
+        List<Object> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+}
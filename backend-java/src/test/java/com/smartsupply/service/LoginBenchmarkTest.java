@@ -0,0 +1,145 @@
+package com.smartsupply.service;
+
+import com.smartsupply.dto.LoginRequest;
+import com.smartsupply.entity.Role;
+import com.smartsupply.entity.User;
+import com.smartsupply.repository.UserRepository;
+import com.smartsupply.security.AuthenticatedUser;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Login throughput and latency through AuthService, with the user lookup mocked out.
+ *
+ * Fires login-bench.requests logins from login-bench.clients concurrent callers and logs logins/s,
+ * latency percentiles and how many were turned away by the BCrypt pool (503 over HTTP). Also times
+ * principal extraction from the issued token, which is all an authenticated request costs now.
+ * Compare runs with different login-bench.threads / login-bench.strength settings.
+ *
+ * Skipped unless asked for:
+ *   mvn test -Dtest=LoginBenchmarkTest -Dlogin-bench=true -Dlogin-bench.threads=8
+ */
+@EnabledIfSystemProperty(named = "login-bench", matches = "true")
+@Slf4j
+class LoginBenchmarkTest {
+
+    private static final String EMAIL = "login-bench@smartsupply.local";
+    private static final String PASSWORD = "login-bench-password";
+
+    private final int requests = Integer.getInteger("login-bench.requests", 2000);
+    private final int clients = Integer.getInteger("login-bench.clients", 64);
+
+    private PasswordHashingService passwordHashingService;
+    private JwtService jwtService;
+    private AuthService authService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        passwordHashingService = new PasswordHashingService(
+                new BCryptPasswordEncoder(Integer.getInteger("login-bench.strength", 10)),
+                Integer.getInteger("login-bench.threads", 4),
+                Integer.getInteger("login-bench.queue-capacity", 64));
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "login-bench-secret-login-bench-secret-0123456789");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 604_800_000L);
+
+        user = User.builder()
+                .id("login-bench-user")
+                .email(EMAIL)
+                .passwordHash(passwordHashingService.encode(PASSWORD).join())
+                .firstName("Login")
+                .lastName("Benchmark")
+                .role(Role.WAREHOUSE_OP)
+                .build();
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+
+        authService = new AuthService(userRepository, passwordHashingService, jwtService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    void login() throws Exception {
+        LoginRequest request = new LoginRequest(EMAIL, PASSWORD);
+        authService.login(request).join();   // Warm-up
+
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicReference<String> token = new AtomicReference<>();
+
+        long started = System.nanoTime();
+        try (ExecutorService callers = Executors.newFixedThreadPool(clients)) {
+            for (int c = 0; c < clients; c++) {
+                callers.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < requests) {
+                        long t0 = System.nanoTime();
+                        try {
+                            token.set(authService.login(request).join().getAccessToken());
+                            latencies[completed.getAndIncrement()] = System.nanoTime() - t0;
+                        } catch (RejectedExecutionException | CompletionException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        int ok = completed.get();
+        long[] sorted = Arrays.copyOf(latencies, ok);
+        Arrays.sort(sorted);
+        log.info("Logins: {} ok, {} rejected in {} s -> {} logins/s with {} clients",
+                ok, rejected.get(), String.format("%.2f", seconds), String.format("%.1f", ok / seconds), clients);
+        if (ok > 0) {
+            log.info("Login latency ms: p50 {}, p95 {}, p99 {}, max {}",
+                    millis(sorted, 0.50), millis(sorted, 0.95), millis(sorted, 0.99), millis(sorted, 1.0));
+        }
+        log.info("BCrypt pool: {}", passwordHashingService.getStats());
+        assertThat(ok + rejected.get()).isEqualTo(requests);
+        assertThat(ok).isPositive();
+
+        int parses = 100_000;
+        int matched = 0;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < parses; i++) {
+            AuthenticatedUser principal = jwtService.extractPrincipal(token.get());
+            if (user.getId().equals(principal.id())) {
+                matched++;
+            }
+        }
+        log.info("Principal from JWT: {} us per request over {} parses, no database access",
+                String.format("%.2f", (System.nanoTime() - t0) / 1e3 / parses), matched);
+        assertThat(matched).isEqualTo(parses);
+    }
+
+    private String millis(long[] sorted, double quantile) {
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1);
+        return String.format("%.1f", sorted[Math.max(0, index)] / 1e6);
+    }
+}
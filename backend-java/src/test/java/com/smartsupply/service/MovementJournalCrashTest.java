@@ -0,0 +1,208 @@
+package com.smartsupply.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartsupply.entity.InventoryItem;
+import com.smartsupply.entity.MovementType;
+import com.smartsupply.entity.Product;
+import com.smartsupply.entity.Warehouse;
+import com.smartsupply.repository.InventoryItemRepository;
+import com.smartsupply.repository.InventoryMovementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Halts a forked JVM right after a group of movements is forced to the journal, before any of it
+ * reaches the database, and replays what it left behind against an in-memory stand-in for
+ * inventory_items and inventory_movements.
+ */
+class MovementJournalCrashTest {
+
+    private static final int SIZE = 1024 * 1024;
+    private static final int MOVEMENTS = 3;
+    private static final int HALTED = 137;
+
+    @TempDir
+    Path dir;
+
+    private InventoryItem item;
+    private final Set<String> stored = new HashSet<>();
+    private final List<Object[]> inserted = new ArrayList<>();
+    private final Set<String> poison = new HashSet<>();
+    private int quantityAtBegin;
+
+    @BeforeEach
+    void setUp() {
+        item = InventoryItem.builder()
+                .id("item-1")
+                .product(Product.builder().id("product-1").build())
+                .warehouse(Warehouse.builder().id("warehouse-1").build())
+                .quantity(10)
+                .build();
+    }
+
+    @Test
+    void replayAfterHaltBetweenAppendAndApplyMovesStockOnce() throws Exception {
+        Path file = dir.resolve("movement-journal.bin");
+        assertThat(fork(HaltAfterAppend.class, file.toString())).isEqualTo(HALTED);
+        Path copy = Files.copy(file, dir.resolve("before-replay.bin"));
+
+        replay(file);
+        assertThat(item.getQuantity()).isEqualTo(10 + 5 * MOVEMENTS);
+        assertThat(stored).containsExactlyInAnyOrderElementsOf(ids());
+
+        // As if the first replay halted after its transaction committed, before the journal was reset
+        Files.copy(copy, file, StandardCopyOption.REPLACE_EXISTING);
+        replay(file);
+
+        assertThat(item.getQuantity()).isEqualTo(10 + 5 * MOVEMENTS);
+        assertThat(inserted).hasSize(MOVEMENTS);
+    }
+
+    @Test
+    void movementTheDatabaseRefusesIsDeadLetteredAndTheRestApplied() throws Exception {
+        Path file = dir.resolve("movement-journal.bin");
+        assertThat(fork(HaltAfterAppend.class, file.toString())).isEqualTo(HALTED);
+        String refused = ids().get(1);
+        poison.add(refused);
+
+        MovementJournalService service = replay(file);
+
+        assertThat(item.getQuantity()).isEqualTo(10 + 5 * (MOVEMENTS - 1));
+        assertThat(stored).hasSize(MOVEMENTS - 1).doesNotContain(refused);
+        assertThat(service.getStats()).containsEntry("deadLettered", 1L);
+        List<String> deadLetters = Files.readAllLines(dir.resolve("dead-letter.jsonl"), StandardCharsets.UTF_8);
+        assertThat(deadLetters).hasSize(1);
+        assertThat(deadLetters.get(0)).contains(refused);
+    }
+
+    private MovementJournalService replay(Path file) throws Exception {
+        MovementJournalService service = service(file);
+        service.recover();
+        assertThat(service.getStats()).containsEntry("replayedOnStartup", MOVEMENTS);
+        service.shutdown();
+        return service;
+    }
+
+    @SuppressWarnings("unchecked")
+    private MovementJournalService service(Path file) {
+        InventoryItemRepository inventoryItemRepository = mock(InventoryItemRepository.class);
+        when(inventoryItemRepository.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(item));
+
+        InventoryMovementRepository inventoryMovementRepository = mock(InventoryMovementRepository.class);
+        when(inventoryMovementRepository.findExistingIds(anyCollection())).thenAnswer(invocation ->
+                ((Collection<String>) invocation.getArgument(0)).stream().filter(stored::contains).toList());
+
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            for (Object[] row : rows) {
+                if (poison.contains((String) row[0])) {
+                    throw new DataIntegrityViolationException("violates check constraint");
+                }
+            }
+            rows.forEach(row -> stored.add((String) row[0]));
+            inserted.addAll(rows);
+            return new int[rows.size()];
+        });
+
+        // Rolling back restores the item, like the row the transaction had locked
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            quantityAtBegin = item.getQuantity();
+            return new SimpleTransactionStatus();
+        });
+        doAnswer(invocation -> {
+            item.setQuantity(quantityAtBegin);
+            return null;
+        }).when(transactionManager).rollback(any());
+
+        MovementJournalService service = new MovementJournalService(inventoryItemRepository,
+                inventoryMovementRepository, jdbcTemplate, new TransactionTemplate(transactionManager),
+                mock(ApplicationEventPublisher.class), mock(DataVersionService.class),
+                mock(WarehouseCapacityService.class), mock(InventoryValuationService.class),
+                mock(InventoryMovementService.class), new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "file", file.toString());
+        ReflectionTestUtils.setField(service, "fileSizeMb", SIZE / (1024 * 1024));
+        ReflectionTestUtils.setField(service, "queueCapacity", 100);
+        ReflectionTestUtils.setField(service, "groupMax", 100);
+        ReflectionTestUtils.setField(service, "applyBatchSize", 100);
+        ReflectionTestUtils.setField(service, "retryMs", 1L);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "deadLetterFile", dir.resolve("dead-letter.jsonl").toString());
+        ReflectionTestUtils.setField(service, "requestTimeoutMs", 1_000L);
+        return service;
+    }
+
+    private static int fork(Class<?> main, String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(List.of(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), main.getName()));
+        command.addAll(List.of(args));
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        assertThat(process.waitFor(60, TimeUnit.SECONDS)).isTrue();
+        return process.exitValue();
+    }
+
+    private static List<String> ids() {
+        return IntStream.rangeClosed(1, MOVEMENTS)
+                .mapToObj(i -> UUID.nameUUIDFromBytes(("movement-" + i).getBytes(StandardCharsets.UTF_8)).toString())
+                .toList();
+    }
+
+    /**
+     * Journals MOVEMENTS +5 adjustments of item-1 as one group, then halts like kill -9, before
+     * the applier could commit any of them.
+     */
+    static final class HaltAfterAppend {
+
+        public static void main(String[] args) throws IOException {
+            MovementJournal journal = MovementJournal.open(Paths.get(args[0]), SIZE);
+            journal.recover();
+            List<String> ids = ids();
+            List<MovementJournal.Entry> entries = new ArrayList<>();
+            for (int i = 0; i < MOVEMENTS; i++) {
+                entries.add(new MovementJournal.Entry(i + 1, ids.get(i), "item-1", "product-1", "warehouse-1",
+                        MovementType.ADJUSTMENT, 5, 10 + 5 * i, 15 + 5 * i, "Crash test", null, null, null,
+                        LocalDateTime.of(2026, 1, 2, 3, 4, 5)));
+            }
+            if (!journal.append(entries)) {
+                System.exit(1);
+            }
+            Runtime.getRuntime().halt(HALTED);
+        }
+    }
+}
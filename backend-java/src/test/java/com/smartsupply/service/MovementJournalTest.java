@@ -0,0 +1,141 @@
+package com.smartsupply.service;
+
+import com.smartsupply.entity.MovementType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MovementJournalTest {
+
+    private static final int SIZE = 64 * 1024;
+    private static final int HEADER_SIZE = 32;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendedEntriesAreRecoveredAfterReopening() throws IOException {
+        Path file = dir.resolve("journal.bin");
+        List<MovementJournal.Entry> entries = List.of(entry(1, 5), entry(2, -3), entry(3, 7));
+        try (MovementJournal journal = MovementJournal.open(file, SIZE)) {
+            assertThat(journal.append(entries.subList(0, 2))).isTrue();
+            assertThat(journal.append(entries.subList(2, 3))).isTrue();
+        }
+
+        try (MovementJournal journal = MovementJournal.open(file, SIZE)) {
+            assertThat(journal.recover()).isEqualTo(entries);
+        }
+    }
+
+    @Test
+    void tornRecordEndsRecoveryAndIsOverwritten() throws IOException {
+        Path file = dir.resolve("journal.bin");
+        MovementJournal.Entry first = entry(1, 1);
+        MovementJournal.Entry second = entry(2, 2);
+        int torn;
+        try (MovementJournal journal = MovementJournal.open(file, SIZE)) {
+            journal.append(List.of(first, second));
+            torn = journal.used();
+            journal.append(List.of(entry(3, 3)));
+        }
+        // Length and CRC reached the disk, the middle of the payload did not
+        write(file, torn + 8 + 20, ByteBuffer.allocate(8));
+
+        MovementJournal.Entry replacement = entry(3, 4);
+        try (MovementJournal journal = MovementJournal.open(file, SIZE)) {
+            assertThat(journal.recover()).containsExactly(first, second);
+            assertThat(journal.used()).isEqualTo(torn);
+            journal.append(List.of(replacement));
+        }
+
+        try (MovementJournal journal = MovementJournal.open(file, SIZE)) {
+            assertThat(journal.recover()).containsExactly(first, second, replacement);
+        }
+    }
+
+    @Test
+    void lengthRunningPastTheFileEndsRecovery() throws IOException {
+        Path file = dir.resolve("journal.bin");
+        MovementJournal.Entry first = entry(1, 1);
+        int end;
+        try (MovementJournal journal = MovementJournal.open(file, SIZE)) {
+            journal.append(List.of(first));
+            end = journal.used();
+        }
+        write(file, end, ByteBuffer.allocate(4).putInt(0, SIZE));
+
+        try (MovementJournal journal = MovementJournal.open(file, SIZE)) {
+            assertThat(journal.recover()).containsExactly(first);
+        }
+    }
+
+    @Test
+    void recordsOfThePreviousGenerationAreNotRecovered() throws IOException {
+        Path file = dir.resolve("journal.bin");
+        MovementJournal.Entry current = entry(3, 3);
+        int end;
+        int staleLength;
+        try (MovementJournal journal = MovementJournal.open(file, SIZE)) {
+            journal.append(List.of(entry(1, 1), entry(2, 2)));
+            journal.reset();
+            // Same size as each old record, so the second old record starts right after it
+            journal.append(List.of(current));
+            end = journal.used();
+            staleLength = readInt(file, HEADER_SIZE);
+        }
+        // Lose the end marker, as if the crash came before it reached the disk
+        write(file, end, ByteBuffer.allocate(4).putInt(0, staleLength));
+
+        try (MovementJournal journal = MovementJournal.open(file, SIZE)) {
+            assertThat(journal.recover()).containsExactly(current);
+        }
+    }
+
+    @Test
+    void resetJournalRecoversNothing() throws IOException {
+        Path file = dir.resolve("journal.bin");
+        int staleLength;
+        try (MovementJournal journal = MovementJournal.open(file, SIZE)) {
+            journal.append(List.of(entry(1, 1)));
+            staleLength = readInt(file, HEADER_SIZE);
+            journal.reset();
+        }
+        // Only the new generation in the header reached the disk, not the zero length after it
+        write(file, HEADER_SIZE, ByteBuffer.allocate(4).putInt(0, staleLength));
+
+        try (MovementJournal journal = MovementJournal.open(file, SIZE)) {
+            assertThat(journal.recover()).isEmpty();
+            assertThat(journal.used()).isEqualTo(HEADER_SIZE);
+        }
+    }
+
+    private static MovementJournal.Entry entry(long sequence, int quantity) {
+        return new MovementJournal.Entry(sequence, UUID.randomUUID().toString(), "item-1", "product-1",
+                "warehouse-1", MovementType.ADJUSTMENT, quantity, 10, 10 + quantity, "Recount", null, null,
+                "user-1", LocalDateTime.of(2026, 1, 2, 3, 4, 5, 6_000));
+    }
+
+    private static int readInt(Path file, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer bytes = ByteBuffer.allocate(4);
+            channel.read(bytes, offset);
+            return bytes.getInt(0);
+        }
+    }
+
+    private static void write(Path file, long offset, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(bytes, offset);
+        }
+    }
+}